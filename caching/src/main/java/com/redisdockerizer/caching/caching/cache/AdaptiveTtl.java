@@ -0,0 +1,128 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TTL policy that keeps entries longer the more often they are read and the longer their
+ * value has gone unchanged.
+ * <p>
+ * For every tracked key the number of reads and the time of the last change are remembered.
+ * When the entry is written, its TTL is
+ * <pre>
+ * heat      = readsPerMinute / (readsPerMinute + hotReadsPerMinute)
+ * stability = unchangedFor / (unchangedFor + stableAfter)
+ * ttl       = minimum + (maximum - minimum) * heat * stability
+ * </pre>
+ * where both are measured since the key's last change, or since it was first written. An entry that is read
+ * {@code hotReadsPerMinute} times a minute and has not changed for {@code stableAfter} gets a
+ * quarter of the range; cold or recently changed entries stay close to {@code minimum}.
+ * TTLs only grow when an entry is rewritten, e.g. by a refresh-ahead reload or a reload
+ * after expiry. Keys beyond {@code maximumTrackedKeys} get {@code minimum}.
+ * <p>
+ * Reads and changes are reported by {@link TwoTierCache}, per instance. A TTL never makes a
+ * value stale: changes always overwrite or evict the entry in Redis, so the TTL only decides
+ * how long an unchanged value may occupy memory.
+ */
+public class AdaptiveTtl implements RedisCacheWriter.TtlFunction {
+
+    private final Duration minimum;
+    private final Duration maximum;
+    private final double hotReadsPerMinute;
+    private final Duration stableAfter;
+    private final int maximumTrackedKeys;
+
+    private final ConcurrentMap<String, Usage> usages = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new adaptive TTL policy.
+     *
+     * @param minimum            TTL of cold or recently changed entries
+     * @param maximum            upper bound approached by hot, stable entries
+     * @param hotReadsPerMinute  read rate at which an entry counts as half hot
+     * @param stableAfter        time without changes after which an entry counts as half stable
+     * @param maximumTrackedKeys maximum number of keys whose reads and changes are remembered
+     */
+    public AdaptiveTtl(Duration minimum, Duration maximum, double hotReadsPerMinute, Duration stableAfter,
+                       int maximumTrackedKeys) {
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.hotReadsPerMinute = hotReadsPerMinute;
+        this.stableAfter = stableAfter;
+        this.maximumTrackedKeys = maximumTrackedKeys;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        Usage usage = usages.get(String.valueOf(key));
+        if (usage == null) {
+            track(String.valueOf(key));
+            return minimum;
+        }
+
+        long unchangedNanos = Math.max(System.nanoTime() - usage.changedAt, 0);
+        double minutes = Math.max(unchangedNanos / 60e9, 1.0);
+        double readsPerMinute = usage.reads.sum() / minutes;
+        double heat = readsPerMinute / (readsPerMinute + hotReadsPerMinute);
+        double stability = (double) unchangedNanos / (unchangedNanos + stableAfter.toNanos());
+
+        long range = maximum.toMillis() - minimum.toMillis();
+        return minimum.plusMillis((long) (range * heat * stability));
+    }
+
+    /**
+     * Records a read of a key, from either cache tier.
+     *
+     * @param key the cache key
+     */
+    public void onRead(String key) {
+        Usage usage = usages.get(key);
+        if (usage != null) {
+            usage.reads.increment();
+        }
+    }
+
+    /**
+     * Records that a key's value changed or was removed; its reads start counting anew.
+     *
+     * @param key the cache key
+     */
+    public void onChange(String key) {
+        usages.remove(key);
+        track(key);
+    }
+
+    /**
+     * Forgets every key, e.g. because the cache was cleared.
+     */
+    public void forgetAll() {
+        usages.clear();
+    }
+
+    /**
+     * @return number of keys whose usage is currently tracked
+     */
+    public int getTrackedKeys() {
+        return usages.size();
+    }
+
+    private void track(String key) {
+        if (usages.size() < maximumTrackedKeys) {
+            usages.putIfAbsent(key, new Usage(System.nanoTime()));
+        }
+    }
+
+    private static final class Usage {
+
+        private final long changedAt;
+        private final LongAdder reads = new LongAdder();
+
+        private Usage(long changedAt) {
+            this.changedAt = changedAt;
+        }
+    }
+}
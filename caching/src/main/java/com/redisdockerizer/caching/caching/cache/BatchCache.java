@@ -0,0 +1,27 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * {@link Cache} that can read and write many entries in a single round trip.
+ */
+public interface BatchCache extends Cache {
+
+    /**
+     * Looks up all given keys at once.
+     *
+     * @param keys the keys to look up
+     * @return the entries that were found, keyed by the requested key, in request order
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    /**
+     * Stores all given entries at once.
+     *
+     * @param entries keys mapped to the values to store
+     */
+    void putAll(Map<?, ?> entries);
+}
@@ -0,0 +1,69 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * An optional behaviour of the caches of a {@link TwoTierCacheManager}, such as refresh-ahead,
+ * stale copies or tagging.
+ * <p>
+ * The manager passes every cache it creates through all of its features; each feature adds its
+ * policy to the {@link TwoTierCache.Builder} of the caches it applies to. Features are independent
+ * of each other, so the order they are applied in does not matter.
+ * <pre>
+ * CacheFeature tags = ((context, cache) -&gt; cache.tags(categoryTags)).onlyFor(List.of("products"));
+ * </pre>
+ */
+@FunctionalInterface
+public interface CacheFeature {
+
+    /**
+     * Adds this feature to a cache that is being created.
+     *
+     * @param context the Redis side of the cache and what its policies share
+     * @param cache   the builder of the cache
+     */
+    void configure(Context context, TwoTierCache.Builder cache);
+
+    /**
+     * Restricts this feature to the given caches.
+     *
+     * @param cacheNames caches the feature applies to
+     * @return a feature that leaves every other cache untouched
+     */
+    default CacheFeature onlyFor(Collection<String> cacheNames) {
+        Set<String> names = Set.copyOf(cacheNames);
+        return (context, cache) -> {
+            if (names.contains(context.getRedisCache().getName())) {
+                configure(context, cache);
+            }
+        };
+    }
+
+    /**
+     * What the features of a cache are created from.
+     */
+    interface Context {
+
+        /**
+         * @return the Redis-backed L2 cache, with its name and configuration
+         */
+        RedisCache getRedisCache();
+
+        /**
+         * @return factory of the default Redis, e.g. for leases
+         */
+        RedisConnectionFactory getConnectionFactory();
+
+        /**
+         * Returns the scheduler of the background reloads of the cache, shared by all its policies
+         * so that a key is never reloaded twice at the same time. It is created on first use.
+         *
+         * @return the refresh scheduler of the cache
+         */
+        RefreshScheduler getRefreshScheduler();
+    }
+}
@@ -0,0 +1,86 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide generation number, used to invalidate a whole group of cache entries at once by
+ * making it part of their keys.
+ * <p>
+ * Advancing the generation is a single {@code INCR} of {@code caching:generation:<name>} plus one
+ * message on the {@link CacheInvalidationBus}; entries written under earlier generations are
+ * simply no longer looked up and expire through their TTL. This replaces clearing the cache,
+ * which scans the cache's whole keyspace and flushes the near caches of every instance.
+ * <p>
+ * {@link #current()} is answered from memory. The generation is read from Redis on first use and
+ * then follows the generations announced on the bus, only ever moving forward. If an
+ * announcement is lost, this instance keeps reading pages of the previous generation until it
+ * advances the generation itself or the entries expire.
+ */
+@Slf4j
+public class CacheGeneration {
+
+    private final String name;
+    private final String redisKey;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final AtomicLong generation = new AtomicLong(-1);
+
+    /**
+     * Creates a generation and subscribes it to the generations announced by other instances.
+     *
+     * @param name              name of the generation, usually the name of the cache it is used in
+     * @param connectionFactory factory used to read and advance the generation in Redis
+     * @param invalidationBus   bus the generation is announced on
+     */
+    public CacheGeneration(String name, RedisConnectionFactory connectionFactory,
+                           CacheInvalidationBus invalidationBus) {
+        this.name = name;
+        this.redisKey = "caching:generation:" + name;
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribeGenerations((generationName, value) -> {
+            if (name.equals(generationName)) {
+                generation.accumulateAndGet(value, Math::max);
+            }
+        });
+    }
+
+    /**
+     * @return the current generation
+     */
+    public long current() {
+        long current = generation.get();
+        if (current >= 0) {
+            return current;
+        }
+        try {
+            String stored = redisTemplate.opsForValue().get(redisKey);
+            return generation.accumulateAndGet(stored != null ? Long.parseLong(stored) : 0, Math::max);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read generation {}: {}", name, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Moves every instance to a new generation.
+     *
+     * @return the new generation
+     */
+    public long advance() {
+        long next;
+        try {
+            Long incremented = redisTemplate.opsForValue().increment(redisKey);
+            next = generation.accumulateAndGet(incremented != null ? incremented : 0, Math::max);
+        } catch (RuntimeException e) {
+            log.warn("Failed to advance generation {} in Redis, advancing locally: {}", name, e.getMessage());
+            return generation.updateAndGet(current -> Math.max(current, 0) + 1);
+        }
+        invalidationBus.publishGeneration(name, next);
+        return next;
+    }
+}
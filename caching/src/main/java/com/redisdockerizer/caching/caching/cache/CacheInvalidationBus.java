@@ -0,0 +1,176 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Propagates near-cache invalidations between application instances over a Redis pub/sub channel.
+ * <p>
+ * Whenever an entry is written or evicted on one instance, an invalidation message is published
+ * so that every other instance drops its local (L1) copy and reads the fresh value from Redis
+ * on the next access. Messages published by this instance are ignored on receipt.
+ * <p>
+ * The payload is a compact {@code instanceId|cacheName|keys} string, where {@code keys} holds one
+ * or more keys separated by newlines; an empty key list means "clear the whole cache".
+ * <p>
+ * The bus also announces new {@link CacheGeneration generations}: such messages carry the
+ * generation's name prefixed with {@value #GENERATION_PREFIX} in place of the cache name, and the
+ * generation number in place of the keys.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = "\n";
+    private static final String GENERATION_PREFIX = "#";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final List<BiConsumer<String, String>> handlers = new CopyOnWriteArrayList<>();
+    private final List<BiConsumer<String, Long>> generationHandlers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new invalidation bus publishing to the given channel.
+     *
+     * @param connectionFactory the factory used to publish invalidation messages
+     * @param channel           the pub/sub channel shared by all instances
+     */
+    public CacheInvalidationBus(RedisConnectionFactory connectionFactory, String channel) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.channel = channel;
+    }
+
+    /**
+     * @return the channel this bus publishes to and should be subscribed on
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Registers a handler invoked with {@code (cacheName, key)} for every invalidation
+     * received from another instance. The key is {@code null} when the whole cache was cleared.
+     *
+     * @param handler the invalidation handler
+     */
+    public void subscribe(BiConsumer<String, String> handler) {
+        handlers.add(handler);
+    }
+
+    /**
+     * Registers a handler invoked with {@code (name, generation)} for every generation announced
+     * by another instance.
+     *
+     * @param handler the generation handler
+     */
+    public void subscribeGenerations(BiConsumer<String, Long> handler) {
+        generationHandlers.add(handler);
+    }
+
+    /**
+     * Publishes an invalidation for a single key.
+     *
+     * @param cacheName name of the cache the key belongs to
+     * @param key       the invalidated key
+     */
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    /**
+     * Publishes a single invalidation message covering several keys.
+     *
+     * @param cacheName name of the cache the keys belong to
+     * @param keys      the invalidated keys
+     */
+    public void publishEvictAll(String cacheName, Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            publish(cacheName, String.join(KEY_SEPARATOR, keys));
+        }
+    }
+
+    /**
+     * Publishes an invalidation for every key in a cache.
+     *
+     * @param cacheName name of the cleared cache
+     */
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    /**
+     * Announces a new generation to the other instances.
+     *
+     * @param name       name of the generation
+     * @param generation the new generation number
+     */
+    public void publishGeneration(String name, long generation) {
+        publish(GENERATION_PREFIX + name, Long.toString(generation));
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, instanceId + SEPARATOR + cacheName + SEPARATOR + key);
+        } catch (Exception e) {
+            log.warn("Failed to publish near-cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = payload.indexOf(SEPARATOR);
+        int second = payload.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            log.warn("Ignoring malformed near-cache invalidation: {}", payload);
+            return;
+        }
+        if (payload.regionMatches(0, instanceId, 0, first) && first == instanceId.length()) {
+            return;
+        }
+
+        String cacheName = payload.substring(first + 1, second);
+        String keys = payload.substring(second + 1);
+        if (cacheName.startsWith(GENERATION_PREFIX)) {
+            dispatchGeneration(cacheName.substring(GENERATION_PREFIX.length()), keys);
+            return;
+        }
+        if (keys.isEmpty()) {
+            dispatch(cacheName, null);
+            return;
+        }
+        for (String key : keys.split(KEY_SEPARATOR)) {
+            dispatch(cacheName, key);
+        }
+    }
+
+    private void dispatchGeneration(String name, String generation) {
+        long value;
+        try {
+            value = Long.parseLong(generation);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed generation of {}: {}", name, generation);
+            return;
+        }
+        for (BiConsumer<String, Long> handler : generationHandlers) {
+            handler.accept(name, value);
+        }
+    }
+
+    private void dispatch(String cacheName, String key) {
+        for (BiConsumer<String, String> handler : handlers) {
+            handler.accept(cacheName, key);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Tagging policy of a {@link TaggedCache}.
+ * <p>
+ * Whenever an entry is written, the tag derived from its value (e.g. a product's category) is
+ * recorded in a Redis set {@code <prefix>tag::<tag>} holding the keys of that tag. Evicting a tag
+ * pops its keys from the set in batches of {@code evictionBatchSize} and unlinks their entries
+ * with one pipelined {@code UNLINK} per batch, so the work is proportional to the tag's size.
+ * <p>
+ * The tag an entry was written under is kept next to it in {@code <prefix>tag-of::<key>}, with
+ * the entry's TTL, so that rewriting the entry under another tag or evicting it removes its key
+ * from the old tag's set. Every write also extends the TTL of the tag's set to at least
+ * {@code timeToLive} and the entry's TTL, so a set outlives all entries recorded in it and
+ * disappears once no entry of the tag has been written for that long. Keys of entries that simply
+ * expired stay in the set until then; evicting the tag unlinks nothing for them.
+ */
+public class CacheTags {
+
+    private final Function<Object, String> tagFunction;
+    private final int evictionBatchSize;
+    private final Duration timeToLive;
+
+    /**
+     * Creates a new tagging policy.
+     *
+     * @param tagFunction       derives the tag of a cached value; may return {@code null} for no tag
+     * @param evictionBatchSize number of keys popped and unlinked per round trip when evicting a tag
+     * @param timeToLive        minimum time a tag's set is kept after the last write of an entry of
+     *                          the tag; should cover the longest entry TTL of the cache
+     */
+    public CacheTags(Function<Object, String> tagFunction, int evictionBatchSize, Duration timeToLive) {
+        this.tagFunction = tagFunction;
+        this.evictionBatchSize = evictionBatchSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param value a cached value, possibly {@code null}
+     * @return the tag of the value, or {@code null} if it has none
+     */
+    public String tagOf(Object value) {
+        return value != null ? tagFunction.apply(value) : null;
+    }
+
+    /**
+     * @return number of keys popped and unlinked per round trip when evicting a tag
+     */
+    public int getEvictionBatchSize() {
+        return evictionBatchSize;
+    }
+
+    /**
+     * @return minimum time a tag's set is kept after the last write of an entry of the tag
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+}
@@ -0,0 +1,84 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Consistent hash ring mapping keys to nodes.
+ * <p>
+ * Every node is placed on the ring {@code virtualNodes} times, at the hashes of
+ * {@code "<id>#<i>"}; a key belongs to the first node position at or after its own hash,
+ * wrapping around at the end. With enough virtual nodes each node owns a similar share of the
+ * keys, and adding a node to {@code n} others only moves about {@code 1 / (n + 1)} of the keys,
+ * all of them to the new node.
+ * <p>
+ * Keys and node positions are hashed with 64-bit FNV-1a followed by the MurmurHash3 finalizer.
+ * The ring is immutable and safe for concurrent use.
+ *
+ * @param <N> the node type
+ */
+public class ConsistentHashRing<N> {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final TreeMap<Long, N> ring = new TreeMap<>();
+    private final List<N> nodes;
+
+    /**
+     * Creates a ring.
+     *
+     * @param nodes        the nodes; must not be empty
+     * @param nodeId       stable identifier of a node, e.g. its address
+     * @param virtualNodes positions per node on the ring
+     */
+    public ConsistentHashRing(Collection<N> nodes, Function<N, String> nodeId, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        this.nodes = List.copyOf(nodes);
+        for (N node : nodes) {
+            String id = nodeId.apply(node);
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash((id + "#" + i).getBytes(StandardCharsets.UTF_8)), node);
+            }
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return the node owning the key
+     */
+    public N nodeFor(byte[] key) {
+        if (nodes.size() == 1) {
+            return nodes.getFirst();
+        }
+        Map.Entry<Long, N> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * @return the nodes, in the order they were given
+     */
+    public List<N> getNodes() {
+        return nodes;
+    }
+
+    static long hash(byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,130 @@
+package com.redisdockerizer.caching.caching.cache;
+
+/**
+ * Approximate access frequency of keys, used by {@link TinyLfuNearCache} to decide admission.
+ * <p>
+ * A count-min sketch of 4-bit counters: every key maps to one counter in each of four rows, and
+ * its frequency is the smallest of them, so collisions can only overestimate it. Sixteen counters
+ * are packed into each {@code long}, which keeps the sketch at a few bytes per tracked key.
+ * Counters saturate at 15, and once the number of recorded accesses reaches ten times the
+ * capacity all counters are halved, so the sketch reflects recent popularity rather than counts
+ * since startup.
+ * <p>
+ * Not thread-safe; callers are expected to hold a lock.
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MINIMUM_CAPACITY = 64;
+    private static final int MAXIMUM_CAPACITY = 1 << 26;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for {@code capacity} keys.
+     *
+     * @param capacity expected number of distinct keys
+     */
+    FrequencySketch(int capacity) {
+        resize(capacity);
+    }
+
+    /**
+     * Grows the sketch if it was sized for fewer than {@code capacity} keys. Growing discards
+     * all recorded frequencies.
+     *
+     * @param capacity expected number of distinct keys
+     */
+    void ensureCapacity(int capacity) {
+        if (capacity > table.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * @return number of keys the sketch is sized for
+     */
+    int capacity() {
+        return table.length;
+    }
+
+    /**
+     * @param hash hash code of the key
+     * @return the estimated number of recent accesses of the key, between {@code 0} and {@code 15}
+     */
+    int frequency(int hash) {
+        int spread = spread(hash);
+        int start = (spread & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int offset = (start + row) << 2;
+            int count = (int) ((table[indexOf(spread, row)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the key, halving all counters once the sample is complete.
+     *
+     * @param hash hash code of the key
+     */
+    void increment(int hash) {
+        int spread = spread(hash);
+        int start = (spread & 3) << 2;
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            added |= incrementAt(indexOf(spread, row), start + row);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private void resize(int capacity) {
+        int bounded = Math.min(Math.max(capacity, MINIMUM_CAPACITY), MAXIMUM_CAPACITY);
+        int size = Integer.highestOneBit(bounded - 1) << 1;
+        table = new long[size];
+        tableMask = size - 1;
+        sampleSize = 10 * size;
+        additions = 0;
+    }
+
+    private int indexOf(int spread, int row) {
+        long hash = (spread + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return (int) hash & tableMask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,325 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds the most frequently read keys of a cache over a sliding time window.
+ * <p>
+ * One in {@code sampleRate} reads is counted in a count-min sketch ({@value #DEPTH} rows of
+ * {@value #WIDTH} counters) that is split into {@value #BUCKETS} buckets over the window; every
+ * {@code window / }{@value #BUCKETS} the oldest bucket is cleared and reused, so counts cover the
+ * last window only. Each row hashes the whole key with its own seed (64-bit FNV-1a started from
+ * the seed, followed by the MurmurHash3 finalizer), so two keys colliding in one row are unlikely
+ * to collide in the others. The {@code topK} keys with the highest estimates are kept in a min-heap.
+ * A key is <em>hot</em> while it is in the heap and its estimated reads per window, i.e. its
+ * sampled count times {@code sampleRate}, reach {@code minimumReads}.
+ * <p>
+ * Sampled reads are recorded under a lock; checking whether a key is hot is lock-free.
+ * Keys becoming hot (promotions) and ceasing to be hot (demotions) are counted, and an optional
+ * listener is told about both.
+ */
+public class HotKeyDetector {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 2048;
+    private static final int BUCKETS = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int sampleRate;
+    private final long bucketNanos;
+    private final int topK;
+    private final long minimumSampledReads;
+    private final LongSupplier clock;
+
+    private final int[][][] sketch = new int[BUCKETS][DEPTH][WIDTH];
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::count));
+    private final Set<String> hotKeys = ConcurrentHashMap.newKeySet();
+    private int currentBucket;
+    private volatile long bucketStartedAt;
+    private volatile Runnable listener = () -> {
+    };
+
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+
+    /**
+     * Creates a new detector.
+     *
+     * @param sampleRate   count one in this many reads ({@code 1} counts every read)
+     * @param window       period the counts cover
+     * @param topK         maximum number of hot keys
+     * @param minimumReads estimated reads per window from which a top key counts as hot
+     */
+    public HotKeyDetector(int sampleRate, Duration window, int topK, long minimumReads) {
+        this(sampleRate, window, topK, minimumReads, System::nanoTime);
+    }
+
+    HotKeyDetector(int sampleRate, Duration window, int topK, long minimumReads, LongSupplier clock) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.bucketNanos = Math.max(1, window.toNanos() / BUCKETS);
+        this.topK = topK;
+        this.minimumSampledReads = Math.max(1, minimumReads / this.sampleRate);
+        this.clock = clock;
+        this.bucketStartedAt = clock.getAsLong();
+    }
+
+    /**
+     * Records a read of a key, if it is sampled.
+     *
+     * @param key the cache key
+     * @return whether the key is hot
+     */
+    public boolean record(String key) {
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            boolean changed;
+            synchronized (this) {
+                changed = rotateIfDue() | count(key);
+            }
+            if (changed) {
+                listener.run();
+            }
+        }
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * @param key the cache key
+     * @return whether the key is currently hot
+     */
+    public boolean isHot(String key) {
+        if (clock.getAsLong() - bucketStartedAt >= bucketNanos) {
+            rotate();
+        }
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * Returns the hot keys, hottest first.
+     *
+     * @return the hot keys with their estimated reads in the current window
+     */
+    public List<HotKey> getHotKeys() {
+        rotate();
+        List<HotKey> result = new ArrayList<>();
+        synchronized (this) {
+            for (Candidate candidate : heap) {
+                if (hotKeys.contains(candidate.key)) {
+                    result.add(new HotKey(candidate.key, candidate.count * sampleRate));
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(HotKey::estimatedReads).reversed());
+        return result;
+    }
+
+    /**
+     * @param key the cache key
+     * @return the estimated reads of the key in the current window
+     */
+    public synchronized long getEstimatedReads(String key) {
+        return estimate(key) * sampleRate;
+    }
+
+    /**
+     * Sets the listener told whenever keys are promoted or demoted. It runs on the thread that
+     * recorded the read causing the change, outside the detector's lock.
+     *
+     * @param listener the listener
+     */
+    public void onHotKeysChanged(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return number of times a key became hot
+     */
+    public long getPromotions() {
+        return promotions.sum();
+    }
+
+    /**
+     * @return number of times a key stopped being hot
+     */
+    public long getDemotions() {
+        return demotions.sum();
+    }
+
+    /**
+     * @return number of keys currently hot
+     */
+    public int size() {
+        return hotKeys.size();
+    }
+
+    private void rotate() {
+        boolean changed;
+        synchronized (this) {
+            changed = rotateIfDue();
+        }
+        if (changed) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Clears the buckets that fell out of the window and re-estimates the top keys, which
+     * demotes keys that are no longer read often enough.
+     *
+     * @return whether a key was demoted
+     */
+    private boolean rotateIfDue() {
+        long now = clock.getAsLong();
+        long elapsedBuckets = (now - bucketStartedAt) / bucketNanos;
+        if (elapsedBuckets <= 0) {
+            return false;
+        }
+        for (int i = 0; i < Math.min(elapsedBuckets, BUCKETS); i++) {
+            currentBucket = (currentBucket + 1) % BUCKETS;
+            for (int[] row : sketch[currentBucket]) {
+                Arrays.fill(row, 0);
+            }
+        }
+        bucketStartedAt = elapsedBuckets >= BUCKETS ? now : bucketStartedAt + elapsedBuckets * bucketNanos;
+
+        boolean changed = false;
+        heap.clear();
+        for (var iterator = candidates.values().iterator(); iterator.hasNext(); ) {
+            Candidate candidate = iterator.next();
+            candidate.count = estimate(candidate.key);
+            if (candidate.count == 0) {
+                iterator.remove();
+            } else {
+                heap.add(candidate);
+            }
+            if (candidate.count < minimumSampledReads && hotKeys.remove(candidate.key)) {
+                demotions.increment();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Counts a sampled read and updates the top keys.
+     *
+     * @return whether a key was promoted or demoted
+     */
+    private boolean count(String key) {
+        int[][] rows = sketch[currentBucket];
+        int[] indexes = indexes(key);
+        for (int row = 0; row < DEPTH; row++) {
+            rows[row][indexes[row]]++;
+        }
+        long estimate = estimate(indexes);
+
+        Candidate candidate = candidates.get(key);
+        boolean changed = false;
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.count = estimate;
+            heap.add(candidate);
+        } else if (candidates.size() < topK) {
+            candidate = new Candidate(key, estimate);
+            candidates.put(key, candidate);
+            heap.add(candidate);
+        } else if (!heap.isEmpty() && heap.peek().count < estimate) {
+            Candidate evicted = heap.poll();
+            candidates.remove(evicted.key);
+            if (hotKeys.remove(evicted.key)) {
+                demotions.increment();
+                changed = true;
+            }
+            candidate = new Candidate(key, estimate);
+            candidates.put(key, candidate);
+            heap.add(candidate);
+        }
+
+        if (candidate != null && estimate >= minimumSampledReads && hotKeys.add(key)) {
+            promotions.increment();
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Estimates the sampled reads of a key over the window: per row the counts of all buckets
+     * are summed, and the smallest row sum is the estimate (which never undercounts).
+     */
+    private long estimate(String key) {
+        return estimate(indexes(key));
+    }
+
+    private long estimate(int[] indexes) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            long sum = 0;
+            for (int[][] bucket : sketch) {
+                sum += bucket[row][indexes[row]];
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    private static int[] indexes(String key) {
+        int[] indexes = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            indexes[row] = (int) hash(key, SEEDS[row]) & (WIDTH - 1);
+        }
+        return indexes;
+    }
+
+    private static long hash(String key, long seed) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * A hot key and its estimated number of reads in the current window.
+     *
+     * @param key            the cache key
+     * @param estimatedReads estimated reads, extrapolated from the sampled ones
+     */
+    public record HotKey(String key, long estimatedReads) {
+    }
+
+    private static final class Candidate {
+
+        private final String key;
+        private long count;
+
+        private Candidate(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        private long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-instance copies of the hot keys of a cache, so that the few keys taking most of the
+ * traffic are not all read from one Redis key over one connection.
+ * <p>
+ * Every read served by {@link TwoTierCache} is reported to a {@link HotKeyDetector}; keys it
+ * flags as hot are copied here with a short {@code timeToLive}, and are read from here before
+ * any other tier. A copy read after half its TTL is re-read from Redis in the background
+ * through a {@link RefreshScheduler}, so a key stays replicated for as long as it is hot and
+ * its copy is never older than the TTL. Copies of keys that are no longer hot are dropped
+ * on their next read.
+ * <p>
+ * Unlike the {@link NearCache}, which holds any recently read key, the replica only holds a
+ * handful of keys and bounds their staleness by a TTL of about a second; it is meant to stay
+ * on when the near cache is disabled or too small to keep the hot keys. Local writes and
+ * remote invalidations drop copies just like near-cache entries.
+ */
+public class HotKeyReplica {
+
+    private final HotKeyDetector detector;
+    private final long timeToLiveNanos;
+    private final RefreshScheduler scheduler;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a new replica.
+     *
+     * @param detector   detector deciding which keys are hot
+     * @param timeToLive maximum age of a copy
+     * @param scheduler  scheduler running the background re-reads
+     */
+    public HotKeyReplica(HotKeyDetector detector, Duration timeToLive, RefreshScheduler scheduler) {
+        this.detector = detector;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the copy of a hot key, re-reading it in the background once it is half expired.
+     *
+     * @param key    the cache key
+     * @param reload reads the key from Redis; {@code null} if it is no longer there
+     * @return the copied value (cached {@code null}s as {@link org.springframework.cache.support.NullValue}),
+     * or {@code null} if the key has no valid copy
+     */
+    public Object get(String key, Supplier<Cache.ValueWrapper> reload) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long age = System.nanoTime() - entry.copiedAt;
+        if (age >= timeToLiveNanos || !detector.isHot(key)) {
+            entries.remove(key, entry);
+            return null;
+        }
+        if (age >= timeToLiveNanos / 2) {
+            scheduler.submit("hot-key:" + key, () -> refresh(key, entry, reload));
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Reports a read served by another tier, and copies the value if the key is hot.
+     *
+     * @param key   the cache key
+     * @param value the value read (cached {@code null}s as {@link org.springframework.cache.support.NullValue})
+     */
+    public void onRead(String key, Object value) {
+        if (detector.record(key)) {
+            entries.put(key, new Entry(value, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Drops the copy of a key, e.g. because it was written or evicted.
+     *
+     * @param key the cache key
+     */
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops every copy.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the detector deciding which keys are hot
+     */
+    public HotKeyDetector getDetector() {
+        return detector;
+    }
+
+    /**
+     * @return number of reads served from a copy
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of keys currently copied
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Replaces a copy with the current Redis value, unless the copy was dropped or replaced in
+     * the meantime (a write or eviction must not be undone by a read that started before it).
+     */
+    private void refresh(String key, Entry current, Supplier<Cache.ValueWrapper> reload) {
+        Cache.ValueWrapper wrapper = reload.get();
+        if (wrapper == null) {
+            entries.remove(key, current);
+        } else {
+            entries.replace(key, current, new Entry(TwoTierCache.toLocalValue(wrapper.get()), System.nanoTime()));
+        }
+    }
+
+    private record Entry(Object value, long copiedAt) {
+    }
+}
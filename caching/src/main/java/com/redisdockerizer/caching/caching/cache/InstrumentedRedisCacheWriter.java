@@ -0,0 +1,166 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link RedisCacheWriter} decorator that records, per cache name, how long each Redis
+ * command issued by a cache takes and how large the serialized values are.
+ * <ul>
+ *     <li>{@code cache.redis.latency{cache, command}}: time per {@code get}, {@code put},
+ *     {@code putIfAbsent}, {@code remove} and {@code clean}, with percentiles and a histogram.</li>
+ *     <li>{@code cache.value.size{cache, operation=read|write}}: serialized value size in bytes.</li>
+ * </ul>
+ * Values are recorded as the cache writer sees them, i.e. after serialization and compression.
+ */
+public class InstrumentedRedisCacheWriter implements RedisCacheWriter {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final RedisCacheWriter delegate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> valueSizes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instrumented writer.
+     *
+     * @param delegate      the writer issuing the Redis commands
+     * @param meterRegistry registry the latencies and value sizes are published to
+     */
+    public InstrumentedRedisCacheWriter(RedisCacheWriter delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        long start = System.nanoTime();
+        byte[] value = delegate.get(name, key);
+        return recordRead(name, "get", start, value);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        long start = System.nanoTime();
+        byte[] value = delegate.get(name, key, ttl);
+        return recordRead(name, "get", start, value);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        long start = System.nanoTime();
+        byte[] value = delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+        return recordRead(name, "get", start, value);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        long start = System.nanoTime();
+        return delegate.retrieve(name, key, ttl)
+                .whenComplete((value, error) -> recordRead(name, "get", start, value));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        long start = System.nanoTime();
+        delegate.put(name, key, value, ttl);
+        recordWrite(name, "put", start, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        long start = System.nanoTime();
+        return delegate.store(name, key, value, ttl)
+                .whenComplete((ignored, error) -> recordWrite(name, "put", start, value));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        long start = System.nanoTime();
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        recordWrite(name, "putIfAbsent", start, existing == null ? value : null);
+        return existing;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        long start = System.nanoTime();
+        delegate.remove(name, key);
+        latency(name, "remove").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        long start = System.nanoTime();
+        delegate.clean(name, pattern);
+        latency(name, "clean").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new InstrumentedRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector),
+                meterRegistry);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    private byte[] recordRead(String name, String command, long start, byte[] value) {
+        latency(name, command).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (value != null) {
+            valueSize(name, "read").record(value.length);
+        }
+        return value;
+    }
+
+    private void recordWrite(String name, String command, long start, byte[] value) {
+        latency(name, command).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (value != null) {
+            valueSize(name, "write").record(value.length);
+        }
+    }
+
+    private Timer latency(String name, String command) {
+        return latencies.computeIfAbsent(name + ':' + command, k -> Timer.builder("cache.redis.latency")
+                .description("Time taken by Redis commands issued by the cache")
+                .tags("cache", name, "command", command)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary valueSize(String name, String operation) {
+        return valueSizes.computeIfAbsent(name + ':' + operation, k -> DistributionSummary.builder("cache.value.size")
+                .description("Serialized size of cached values")
+                .baseUnit("bytes")
+                .tags("cache", name, "operation", operation)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,62 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-key invalidation counters of a {@link NearCache}.
+ * <p>
+ * A reader takes the epoch of a key before it reads the key from Redis and, after putting the
+ * value into the near cache, checks that the epoch did not move; if it did, the key was written
+ * or invalidated in between and the reader removes its now outdated copy again. Writers and
+ * invalidations advance the epoch before they touch the near cache.
+ * <p>
+ * Keys are hashed onto a fixed number of stripes, so memory does not grow with the number of
+ * keys. Keys sharing a stripe only cost each other a few near cache misses.
+ */
+public class KeyEpochs {
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+
+    /**
+     * Creates the counters.
+     *
+     * @param stripes number of counters, rounded up to a power of two
+     */
+    public KeyEpochs(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param key near cache key
+     * @return the current epoch of the key
+     */
+    public long current(String key) {
+        return stripes.get(indexOf(key));
+    }
+
+    /**
+     * Marks the key as written or invalidated.
+     *
+     * @param key near cache key
+     */
+    public void advance(String key) {
+        stripes.incrementAndGet(indexOf(key));
+    }
+
+    /**
+     * Marks every key as invalidated.
+     */
+    public void advanceAll() {
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.incrementAndGet(i);
+        }
+    }
+
+    private int indexOf(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
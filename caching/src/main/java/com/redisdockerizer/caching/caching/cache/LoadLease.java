@@ -0,0 +1,134 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived Redis lease that extends {@link SingleFlight} coalescing across instances.
+ * <p>
+ * Before loading a missing key, an instance tries to take the lease with {@code SET NX PX}.
+ * The holder runs the loader and writes the value to the cache; every other instance polls
+ * the cache until the value shows up or the lease expires, and only then falls back to
+ * loading on its own. The lease is released with a compare-and-delete script so an instance
+ * can never drop a lease that has already expired and been taken by someone else.
+ */
+@Slf4j
+public class LoadLease {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class
+    );
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration leaseTime;
+    private final Duration pollInterval;
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Creates a new load lease.
+     *
+     * @param connectionFactory factory used to acquire and release leases
+     * @param keyPrefix         prefix of the lease keys, e.g. {@code caching:load-lease:products::}
+     * @param leaseTime         how long a lease is held at most; should exceed the typical load time
+     * @param pollInterval      how often waiting instances re-check the cache
+     */
+    public LoadLease(RedisConnectionFactory connectionFactory, String keyPrefix,
+                     Duration leaseTime, Duration pollInterval) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.keyPrefix = keyPrefix;
+        this.leaseTime = leaseTime;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Loads a value under the cluster-wide lease for the given key.
+     *
+     * @param key    the key being loaded
+     * @param lookup reads the current value from the shared cache
+     * @param loader loads the value and writes it to the shared cache
+     * @return the value loaded by this instance or published by the lease holder
+     * @throws Exception if the loader fails
+     */
+    public Object load(String key, Supplier<Cache.ValueWrapper> lookup, LeaseLoader loader) throws Exception {
+        String leaseKey = keyPrefix + key;
+        String token = tryAcquire(leaseKey);
+        if (token != null) {
+            try {
+                return loader.load();
+            } finally {
+                release(leaseKey, token);
+            }
+        }
+
+        Cache.ValueWrapper published = awaitPublished(leaseKey, lookup);
+        if (published != null) {
+            coalesced.increment();
+            return published.get();
+        }
+        return loader.load();
+    }
+
+    /**
+     * @return number of loads skipped because another instance held the lease and published the value
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private String tryAcquire(String leaseKey) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTime);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            log.warn("Failed to acquire load lease {}: {}", leaseKey, e.getMessage());
+            return token;
+        }
+    }
+
+    private void release(String leaseKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+        } catch (Exception e) {
+            log.warn("Failed to release load lease {}: {}", leaseKey, e.getMessage());
+        }
+    }
+
+    private Cache.ValueWrapper awaitPublished(String leaseKey, Supplier<Cache.ValueWrapper> lookup)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + leaseTime.toNanos();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(pollInterval.toMillis());
+
+            Cache.ValueWrapper value = lookup.get();
+            if (value != null) {
+                return value;
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(leaseKey))) {
+                return lookup.get();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loader run by the lease holder, or by a waiter once the lease expired without a published value.
+     */
+    @FunctionalInterface
+    public interface LeaseLoader {
+        Object load() throws Exception;
+    }
+}
@@ -0,0 +1,102 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link NearCache} bounded by its number of entries.
+ * <p>
+ * Entries are kept in access order and the least recently used entry is dropped
+ * once {@code maximumSize} is exceeded. Every entry also carries its own expiry
+ * so that values written by other instances cannot live longer than
+ * {@code timeToLive}, even if an invalidation message is lost.
+ * <p>
+ * A {@code maximumSize} of {@code 0} disables the cache: writes are ignored and
+ * every read is a miss.
+ */
+public class LruNearCache implements NearCache {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Creates a new LRU near cache.
+     *
+     * @param maximumSize maximum number of entries kept in memory
+     * @param timeToLive  maximum age of an entry before it is treated as a miss
+     */
+    public LruNearCache(int maximumSize, Duration timeToLive) {
+        this.maximumSize = Math.max(0, maximumSize);
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > LruNearCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value stored for the given key, or {@code null} if it is absent or expired.
+     *
+     * @param key cache key
+     * @return the cached value or {@code null}
+     */
+    @Override
+    public synchronized Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entry if the cache is full.
+     *
+     * @param key   cache key
+     * @param value value to store; {@code null} values are ignored
+     */
+    @Override
+    public synchronized void put(String key, Object value) {
+        if (maximumSize == 0 || value == null) {
+            return;
+        }
+        entries.put(key, new Entry(value, System.nanoTime() + timeToLiveNanos));
+    }
+
+    /**
+     * Removes a single entry.
+     *
+     * @param key cache key
+     */
+    @Override
+    public synchronized void evict(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the current number of entries, including ones that have expired but were not yet read
+     */
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
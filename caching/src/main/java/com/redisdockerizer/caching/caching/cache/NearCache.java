@@ -0,0 +1,46 @@
+package com.redisdockerizer.caching.caching.cache;
+
+/**
+ * Bounded, in-process first-level (L1) cache placed in front of Redis.
+ * <p>
+ * Implementations decide which entries to keep once the bound is reached: {@link LruNearCache}
+ * holds a fixed number of entries and drops the least recently used one, while
+ * {@link TinyLfuNearCache} holds a fixed number of bytes and only admits a new entry if it is
+ * likely to be read more often than the one it would replace. Every entry carries its own expiry,
+ * and {@code null} values are never stored.
+ */
+public interface NearCache {
+
+    /**
+     * Returns the value stored for the given key, or {@code null} if it is absent or expired.
+     *
+     * @param key cache key
+     * @return the cached value or {@code null}
+     */
+    Object get(String key);
+
+    /**
+     * Stores a value, evicting other entries if the cache is full.
+     *
+     * @param key   cache key
+     * @param value value to store; {@code null} values are ignored
+     */
+    void put(String key, Object value);
+
+    /**
+     * Removes a single entry.
+     *
+     * @param key cache key
+     */
+    void evict(String key);
+
+    /**
+     * Removes all entries.
+     */
+    void clear();
+
+    /**
+     * @return the current number of entries, including ones that have expired but were not yet read
+     */
+    int size();
+}
@@ -0,0 +1,560 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Multi-key reads and writes against the Redis storage of a single {@link RedisCache}.
+ * <p>
+ * {@link RedisCache} only offers single-key operations. This class reuses the cache's
+ * {@link RedisCacheConfiguration} (key prefix, key/value serializers and TTL) so that
+ * entries read with {@code MGET} or written with a pipelined batch of {@code SET ... PX}
+ * commands are interchangeable with entries handled by the cache itself.
+ * <p>
+ * It also manages the stale copies kept for {@link StaleWhileRevalidate}. A stale copy is stored
+ * next to its entry under {@code <prefix>stale::<key>}, so clearing the cache removes it as well.
+ * The same holds for the tag sets of {@link CacheTags}, stored under {@code <prefix>tag::<tag>},
+ * and the record of each entry's tag, stored next to the entry under {@code <prefix>tag-of::<key>}.
+ * <p>
+ * If the cache is spread across {@link RedisShards}, every command goes to the node owning the
+ * entry's key (stale copies and tag records live on the node of their entry, tag sets on the node
+ * owning the tag key), and multi-key commands are split into one {@code MGET} or pipeline per node. Nodes that
+ * cannot be reached are treated as misses.
+ */
+public class RedisBatchOperations {
+
+    private static final String STALE_KEY_INFIX = "stale::";
+    private static final String TAG_KEY_INFIX = "tag::";
+    private static final String TAG_OF_KEY_INFIX = "tag-of::";
+
+    /**
+     * How {@link RedisCache} stores a cached {@code null}; such entries are reported as absent.
+     */
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final RedisShards shards;
+    private final String cacheName;
+    private final RedisCacheConfiguration cacheConfiguration;
+
+    /**
+     * Creates batch operations for the given cache.
+     *
+     * @param connectionFactory factory used to open connections for batch commands
+     * @param cache             the cache whose entries are read and written
+     */
+    public RedisBatchOperations(RedisConnectionFactory connectionFactory, RedisCache cache) {
+        this(RedisShards.single(connectionFactory), cache);
+    }
+
+    /**
+     * Creates batch operations for a cache whose entries are spread across shards.
+     *
+     * @param shards the nodes holding the cache's entries
+     * @param cache  the cache whose entries are read and written
+     */
+    public RedisBatchOperations(RedisShards shards, RedisCache cache) {
+        this.shards = shards;
+        this.cacheName = cache.getName();
+        this.cacheConfiguration = cache.getCacheConfiguration();
+    }
+
+    /**
+     * @return the Redis nodes holding the entries of the cache
+     */
+    public RedisShards getShards() {
+        return shards;
+    }
+
+    /**
+     * Reads all given keys with a single {@code MGET}.
+     *
+     * @param keys cache keys (not yet prefixed)
+     * @return the entries found, keyed by the original cache key, in request order; cached
+     * {@code null}s are left out
+     */
+    public Map<Object, Object> multiGet(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+
+        Map<Object, byte[]> redisKeys = new LinkedHashMap<>();
+        keys.forEach(key -> redisKeys.put(key, toRedisKey(key)));
+        Map<Object, Object> values = new LinkedHashMap<>();
+        shards.partition(redisKeys.keySet(), redisKeys::get).forEach((shard, shardKeys) -> {
+            List<byte[]> shardValues = shard.execute(() -> {
+                try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                    return connection.stringCommands().mGet(shardKeys.stream().map(redisKeys::get).toArray(byte[][]::new));
+                }
+            }, null);
+            for (int i = 0; shardValues != null && i < shardKeys.size(); i++) {
+                byte[] value = shardValues.get(i);
+                if (value != null && !Arrays.equals(value, BINARY_NULL_VALUE)) {
+                    values.put(shardKeys.get(i), deserialize(value));
+                }
+            }
+        });
+
+        for (Object key : keys) {
+            Object value = values.get(key);
+            if (value != null) {
+                found.put(key, value);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes all given entries in one pipelined round trip, applying the cache's TTL to each.
+     *
+     * @param entries cache keys (not yet prefixed) mapped to the values to store
+     */
+    public void multiPut(Map<?, ?> entries) {
+        multiPut(entries, null);
+    }
+
+    /**
+     * Writes all given entries in one pipelined round trip, applying the cache's TTL to each,
+     * and stores a stale copy of each entry in the same round trip.
+     *
+     * @param entries          cache keys (not yet prefixed) mapped to the values to store
+     * @param staleGracePeriod how much longer than its entry a stale copy lives, or {@code null}
+     *                         to write no stale copies
+     */
+    public void multiPut(Map<?, ?> entries, Duration staleGracePeriod) {
+        multiPut(entries, staleGracePeriod, null);
+    }
+
+    /**
+     * Writes all given entries, their stale copies and their tags in one pipelined round trip per
+     * node. Tag sets owned by another node than their entry, and keys moved out of the tag they
+     * were written under before, take one more pipelined round trip per node (see
+     * {@link #updateTags}).
+     *
+     * @param entries          cache keys (not yet prefixed) mapped to the values to store; values
+     *                         must not be {@code null}
+     * @param staleGracePeriod how much longer than its entry a stale copy lives, or {@code null}
+     *                         to write no stale copies
+     * @param tags             the cache's tagging policy, or {@code null} to not tag the entries
+     */
+    public void multiPut(Map<?, ?> entries, Duration staleGracePeriod, CacheTags tags) {
+        write(entries, true, staleGracePeriod, tags != null ? tagsOf(entries, tags) : null,
+                tags != null ? tags.getTimeToLive() : null);
+    }
+
+    /**
+     * Stores the stale copy of an entry.
+     *
+     * @param key              cache key (not yet prefixed)
+     * @param value            the value stored for the entry
+     * @param staleGracePeriod how much longer than its entry the stale copy lives
+     */
+    public void putStaleCopy(Object key, Object value, Duration staleGracePeriod) {
+        Duration ttl = timeToLive(key, value);
+        if (ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        RedisShards.Shard shard = shardFor(key);
+        shard.execute(() -> {
+            try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                connection.stringCommands().set(
+                        toStaleKey(key),
+                        serialize(value),
+                        Expiration.from(ttl.plus(staleGracePeriod)),
+                        RedisStringCommands.SetOption.upsert()
+                );
+            }
+        });
+    }
+
+    /**
+     * Reads the stale copy of an entry together with its remaining TTL, in one pipelined round trip.
+     *
+     * @param key cache key (not yet prefixed)
+     * @return the stale copy, or {@code null} if there is none
+     */
+    public StaleCopy getStaleCopy(Object key) {
+        byte[] staleKey = toStaleKey(key);
+        RedisShards.Shard shard = shardFor(key);
+        List<Object> results = shard.execute(() -> {
+            try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                connection.openPipeline();
+                connection.stringCommands().get(staleKey);
+                connection.keyCommands().pTtl(staleKey);
+                return connection.closePipeline();
+            }
+        }, List.of());
+        if (results.size() == 2 && results.get(0) instanceof byte[] value
+                && results.get(1) instanceof Long millis && millis > 0) {
+            return new StaleCopy(deserialize(value), Duration.ofMillis(millis));
+        }
+        return null;
+    }
+
+    /**
+     * Removes the stale copy of an entry.
+     *
+     * @param key cache key (not yet prefixed)
+     */
+    public void deleteStaleCopy(Object key) {
+        RedisShards.Shard shard = shardFor(key);
+        shard.execute(() -> {
+            try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                connection.keyCommands().del(toStaleKey(key));
+            }
+        });
+    }
+
+    /**
+     * Records the tags of written entries: every key is added to the set of its value's tag,
+     * whose TTL is extended to at least the tag policy's TTL and the entry's TTL, and removed
+     * from the set of the tag it was written under before, if that differs. Takes one pipelined
+     * round trip per node to swap the {@code tag-of} records, which also updates the sets owned
+     * by the same node, and one per node to update the remaining sets.
+     *
+     * @param entries cache keys (not yet prefixed) mapped to the values written for them
+     * @param tags    the cache's tagging policy
+     */
+    public void updateTags(Map<?, ?> entries, CacheTags tags) {
+        write(entries, false, null, tagsOf(entries, tags), tags.getTimeToLive());
+    }
+
+    /**
+     * Removes evicted keys from the sets of the tags they were written under, with one pipelined
+     * round trip per node to read and delete their {@code tag-of} records and one per node to
+     * update the sets.
+     *
+     * @param keys cache keys (not yet prefixed)
+     */
+    public void removeFromTags(Collection<?> keys) {
+        Map<Object, String> noTags = new LinkedHashMap<>();
+        keys.forEach(key -> noTags.put(key, null));
+        write(noTags, false, null, noTags, Duration.ZERO);
+    }
+
+    /**
+     * Writes entries and their stale copies and swaps their {@code tag-of} records, with one
+     * pipeline per entry node. Tag sets owned by the entry node are updated in the same pipeline;
+     * the other sets, and the sets keys moved out of, are updated once every entry node answered.
+     *
+     * @param newTags       keys mapped to the tag of their new value ({@code null} for none), or
+     *                      {@code null} to leave tags alone
+     * @param tagTimeToLive minimum TTL of an updated tag set
+     */
+    private void write(Map<?, ?> entries, boolean writeEntries, Duration staleGracePeriod,
+                       Map<Object, String> newTags, Duration tagTimeToLive) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        TagChanges remaining = new TagChanges();
+        shards.partition(entries.keySet(), this::toRedisKey).forEach((shard, shardKeys) -> {
+            TagChanges local = new TagChanges();
+            if (newTags != null) {
+                for (Object key : shardKeys) {
+                    String tag = newTags.get(key);
+                    if (tag != null && shards.shardFor(toTagKey(tag)) == shard) {
+                        local.add(tag, toMember(key), tagTimeToLive(key, entries.get(key), tagTimeToLive));
+                    }
+                }
+            }
+
+            List<Object> results = shard.execute(() -> {
+                try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                    connection.openPipeline();
+                    // The tag-of swaps go first, so that their replies are the first results.
+                    if (newTags != null) {
+                        swapTagOf(connection, shardKeys, newTags, entries);
+                    }
+                    if (writeEntries) {
+                        for (Object key : shardKeys) {
+                            set(connection, key, entries.get(key), staleGracePeriod);
+                        }
+                    }
+                    apply(connection, local, local.tags());
+                    return connection.closePipeline();
+                }
+            }, null);
+            if (results == null || newTags == null) {
+                return;
+            }
+
+            for (int i = 0; i < shardKeys.size(); i++) {
+                Object key = shardKeys.get(i);
+                String tag = newTags.get(key);
+                if (tag != null && shards.shardFor(toTagKey(tag)) != shard) {
+                    remaining.add(tag, toMember(key), tagTimeToLive(key, entries.get(key), tagTimeToLive));
+                }
+                if (i < results.size() && results.get(i) instanceof byte[] previous) {
+                    String oldTag = fromMember(previous);
+                    if (!oldTag.equals(tag)) {
+                        remaining.remove(oldTag, toMember(key));
+                    }
+                }
+            }
+        });
+
+        Set<String> changedTags = remaining.tags();
+        if (changedTags.isEmpty()) {
+            return;
+        }
+        shards.partition(changedTags, this::toTagKey).forEach((shard, shardTags) -> shard.execute(() -> {
+            try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                connection.openPipeline();
+                try {
+                    apply(connection, remaining, shardTags);
+                } finally {
+                    connection.closePipeline();
+                }
+            }
+        }));
+    }
+
+    private void set(RedisConnection connection, Object key, Object value, Duration staleGracePeriod) {
+        byte[] serialized = serialize(value);
+        connection.stringCommands().set(
+                toRedisKey(key),
+                serialized,
+                toExpiration(key, value),
+                RedisStringCommands.SetOption.upsert()
+        );
+        if (staleGracePeriod != null) {
+            connection.stringCommands().set(
+                    toStaleKey(key),
+                    serialized,
+                    Expiration.from(timeToLive(key, value).plus(staleGracePeriod)),
+                    RedisStringCommands.SetOption.upsert()
+            );
+        }
+    }
+
+    /**
+     * Queues the replacement of the {@code tag-of} records of the given keys, deleting those whose
+     * new tag is {@code null}; each command replies with the tag the key held before.
+     */
+    private void swapTagOf(RedisConnection connection, List<?> keys, Map<Object, String> newTags, Map<?, ?> entries) {
+        for (Object key : keys) {
+            String tag = newTags.get(key);
+            if (tag == null) {
+                connection.stringCommands().getDel(toTagOfKey(key));
+            } else {
+                connection.stringCommands().setGet(
+                        toTagOfKey(key),
+                        toMember(tag),
+                        toExpiration(key, entries.get(key)),
+                        RedisStringCommands.SetOption.upsert()
+                );
+            }
+        }
+    }
+
+    private void apply(RedisConnection connection, TagChanges changes, Collection<String> tags) {
+        for (String tag : tags) {
+            byte[] tagKey = toTagKey(tag);
+            List<byte[]> removed = changes.removed.get(tag);
+            if (removed != null) {
+                connection.setCommands().sRem(tagKey, removed.toArray(byte[][]::new));
+            }
+            List<byte[]> added = changes.added.get(tag);
+            if (added != null) {
+                connection.setCommands().sAdd(tagKey, added.toArray(byte[][]::new));
+                connection.keyCommands().pExpire(tagKey, changes.timeToLives.get(tag).toMillis());
+            }
+        }
+    }
+
+    private Duration tagTimeToLive(Object key, Object value, Duration minimum) {
+        Duration ttl = timeToLive(key, value);
+        return ttl.compareTo(minimum) > 0 ? ttl : minimum;
+    }
+
+    private static Map<Object, String> tagsOf(Map<?, ?> entries, CacheTags tags) {
+        Map<Object, String> tagged = new LinkedHashMap<>();
+        entries.forEach((key, value) -> tagged.put(key, tags.tagOf(value)));
+        return tagged;
+    }
+
+    /**
+     * Evicts the entries of a tag: pops up to {@code batchSize} keys from the tag's set with
+     * {@code SPOP}, unlinks their entries and stale copies with one pipeline per node, and
+     * repeats until the set is empty. Keys tagged while this runs are either evicted as well or
+     * stay in the set for the next eviction.
+     *
+     * @param tag       the tag
+     * @param batchSize maximum number of keys popped and unlinked per round trip
+     * @param onBatch   called with the cache keys of every batch once their entries are unlinked
+     * @return the number of entries that still existed and were unlinked
+     */
+    public long evictTag(String tag, int batchSize, Consumer<List<String>> onBatch) {
+        byte[] tagKey = toTagKey(tag);
+        RedisShards.Shard tagShard = shards.shardFor(tagKey);
+        long evicted = 0;
+        while (true) {
+            List<byte[]> popped = tagShard.execute(() -> {
+                try (RedisConnection connection = tagShard.getConnectionFactory().getConnection()) {
+                    return connection.setCommands().sPop(tagKey, batchSize);
+                }
+            }, List.of());
+            if (popped == null || popped.isEmpty()) {
+                return evicted;
+            }
+
+            List<String> keys = popped.stream().map(this::fromMember).toList();
+            for (Map.Entry<RedisShards.Shard, List<String>> partition
+                    : shards.partition(keys, this::toRedisKey).entrySet()) {
+                evicted += unlink(partition.getKey(), partition.getValue());
+            }
+            onBatch.accept(keys);
+            if (popped.size() < batchSize) {
+                return evicted;
+            }
+        }
+    }
+
+    /**
+     * Returns the TTL the cache applies when storing the given entry.
+     *
+     * @param key   cache key (not yet prefixed)
+     * @param value the value being stored
+     * @return the entry TTL; zero or negative means the entry does not expire
+     */
+    public Duration timeToLive(Object key, Object value) {
+        return cacheConfiguration.getTtlFunction().getTimeToLive(key, value);
+    }
+
+    /**
+     * Looks up the remaining TTL of a stored entry with {@code PTTL}.
+     *
+     * @param key cache key (not yet prefixed)
+     * @return the remaining TTL, or {@code null} if the entry is missing or does not expire
+     */
+    public Duration remainingTimeToLive(Object key) {
+        RedisShards.Shard shard = shardFor(key);
+        Long millis = shard.execute(() -> {
+            try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                return connection.keyCommands().pTtl(toRedisKey(key));
+            }
+        }, null);
+        return millis != null && millis > 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    private long unlink(RedisShards.Shard shard, List<String> keys) {
+        List<Object> results = shard.execute(() -> {
+            try (RedisConnection connection = shard.getConnectionFactory().getConnection()) {
+                connection.openPipeline();
+                connection.keyCommands().unlink(keys.stream().map(this::toRedisKey).toArray(byte[][]::new));
+                connection.keyCommands().unlink(keys.stream().map(this::toStaleKey).toArray(byte[][]::new));
+                connection.keyCommands().unlink(keys.stream().map(this::toTagOfKey).toArray(byte[][]::new));
+                return connection.closePipeline();
+            }
+        }, List.of());
+        return !results.isEmpty() && results.getFirst() instanceof Long unlinked ? unlinked : 0;
+    }
+
+    private RedisShards.Shard shardFor(Object key) {
+        return shards.shardFor(toRedisKey(key));
+    }
+
+    private byte[] toRedisKey(Object key) {
+        String cacheKey = cacheConfiguration.getConversionService().convert(key, String.class);
+        String prefixedKey = cacheConfiguration.getKeyPrefixFor(cacheName) + cacheKey;
+        return toBytes(cacheConfiguration.getKeySerializationPair().write(prefixedKey));
+    }
+
+    private byte[] toStaleKey(Object key) {
+        String cacheKey = cacheConfiguration.getConversionService().convert(key, String.class);
+        String staleKey = cacheConfiguration.getKeyPrefixFor(cacheName) + STALE_KEY_INFIX + cacheKey;
+        return toBytes(cacheConfiguration.getKeySerializationPair().write(staleKey));
+    }
+
+    private byte[] toTagOfKey(Object key) {
+        String cacheKey = cacheConfiguration.getConversionService().convert(key, String.class);
+        String tagOfKey = cacheConfiguration.getKeyPrefixFor(cacheName) + TAG_OF_KEY_INFIX + cacheKey;
+        return toBytes(cacheConfiguration.getKeySerializationPair().write(tagOfKey));
+    }
+
+    private byte[] toTagKey(String tag) {
+        String tagKey = cacheConfiguration.getKeyPrefixFor(cacheName) + TAG_KEY_INFIX + tag;
+        return toBytes(cacheConfiguration.getKeySerializationPair().write(tagKey));
+    }
+
+    private byte[] toMember(Object key) {
+        String cacheKey = cacheConfiguration.getConversionService().convert(key, String.class);
+        return toBytes(cacheConfiguration.getKeySerializationPair().write(cacheKey));
+    }
+
+    private String fromMember(byte[] member) {
+        return cacheConfiguration.getKeySerializationPair().read(ByteBuffer.wrap(member));
+    }
+
+    private byte[] serialize(Object value) {
+        return toBytes(cacheConfiguration.getValueSerializationPair().write(value));
+    }
+
+    private Object deserialize(byte[] value) {
+        return cacheConfiguration.getValueSerializationPair().read(ByteBuffer.wrap(value));
+    }
+
+    private Expiration toExpiration(Object key, Object value) {
+        Duration ttl = timeToLive(key, value);
+        return ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Stale copy of a cache entry.
+     *
+     * @param value     the stale value
+     * @param remaining remaining TTL of the stale copy
+     */
+    public record StaleCopy(Object value, Duration remaining) {
+    }
+
+    /**
+     * Members to add to and remove from tag sets, by tag, with the TTL each updated set gets.
+     */
+    private static final class TagChanges {
+
+        private final Map<String, List<byte[]>> added = new LinkedHashMap<>();
+        private final Map<String, List<byte[]>> removed = new LinkedHashMap<>();
+        private final Map<String, Duration> timeToLives = new LinkedHashMap<>();
+
+        void add(String tag, byte[] member, Duration timeToLive) {
+            added.computeIfAbsent(tag, t -> new ArrayList<>()).add(member);
+            timeToLives.merge(tag, timeToLive, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        }
+
+        void remove(String tag, byte[] member) {
+            removed.computeIfAbsent(tag, t -> new ArrayList<>()).add(member);
+        }
+
+        Set<String> tags() {
+            Set<String> tags = new LinkedHashSet<>(added.keySet());
+            tags.addAll(removed.keySet());
+            return tags;
+        }
+    }
+}
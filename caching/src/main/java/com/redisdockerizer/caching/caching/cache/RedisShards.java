@@ -0,0 +1,234 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The Redis nodes the entries of sharded caches are spread across, with a
+ * {@link ConsistentHashRing} deciding which node owns a key.
+ * <p>
+ * A node whose command fails with a {@link DataAccessException} (connection refused,
+ * command timeout, ...) is taken out of service for {@code retryAfter}: commands routed to it
+ * complete immediately with a fallback, i.e. reads miss and writes are skipped, and the failure
+ * is logged once. Keys are never remapped to another node, so a node coming back serves its own
+ * entries again, and the other nodes are unaffected. Entries written while a node was down are
+ * missing on it; entries evicted while it was down may be read again until their TTL expires.
+ * <p>
+ * {@link #single(RedisConnectionFactory)} wraps the one Redis of an unsharded setup, which is
+ * never taken out of service. Failures and availability per node are published as
+ * {@code cache.redis.shard.errors} and {@code cache.redis.shard.available}.
+ */
+@Slf4j
+public class RedisShards implements MeterBinder, DisposableBean {
+
+    private final ConsistentHashRing<Shard> ring;
+    private final Duration retryAfter;
+    private final boolean ownsConnectionFactories;
+
+    /**
+     * Creates shards over the given nodes, taking ownership of their connection factories.
+     *
+     * @param nodes        connection factories by node address; the address positions the node on the ring
+     * @param virtualNodes positions per node on the ring
+     * @param retryAfter   how long a failed node is taken out of service
+     */
+    public RedisShards(Map<String, ? extends RedisConnectionFactory> nodes, int virtualNodes, Duration retryAfter) {
+        this(nodes, virtualNodes, retryAfter, true);
+    }
+
+    private RedisShards(Map<String, ? extends RedisConnectionFactory> nodes, int virtualNodes, Duration retryAfter,
+                        boolean ownsConnectionFactories) {
+        List<Shard> shards = new ArrayList<>();
+        nodes.forEach((address, connectionFactory) -> shards.add(new Shard(address, connectionFactory)));
+        this.ring = new ConsistentHashRing<>(shards, Shard::getAddress, virtualNodes);
+        this.retryAfter = retryAfter;
+        this.ownsConnectionFactories = ownsConnectionFactories;
+    }
+
+    /**
+     * Wraps a single Redis, whose failures are propagated instead of being turned into misses.
+     *
+     * @param connectionFactory the Redis connection factory; not closed by {@link #destroy()}
+     * @return shards consisting of that one node
+     */
+    public static RedisShards single(RedisConnectionFactory connectionFactory) {
+        return new RedisShards(Map.of("default", connectionFactory), 1, null, false);
+    }
+
+    /**
+     * @param redisKey a full Redis key
+     * @return the shard owning the key
+     */
+    public Shard shardFor(byte[] redisKey) {
+        return ring.nodeFor(redisKey);
+    }
+
+    /**
+     * Groups items by the shard owning their Redis key, keeping their order within each shard.
+     *
+     * @param items    the items, e.g. cache keys
+     * @param redisKey the Redis key of an item
+     * @param <T>      the item type
+     * @return the items of each shard that owns at least one of them
+     */
+    public <T> Map<Shard, List<T>> partition(Iterable<T> items, Function<T, byte[]> redisKey) {
+        Map<Shard, List<T>> partitions = new LinkedHashMap<>();
+        for (T item : items) {
+            partitions.computeIfAbsent(shardFor(redisKey.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return partitions;
+    }
+
+    /**
+     * @return all shards
+     */
+    public List<Shard> getShards() {
+        return ring.getNodes();
+    }
+
+    /**
+     * @return whether the keys are spread across several nodes
+     */
+    public boolean isSharded() {
+        return retryAfter != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!isSharded()) {
+            return;
+        }
+        for (Shard shard : getShards()) {
+            FunctionCounter.builder("cache.redis.shard.errors", shard, s -> s.errors.sum())
+                    .description("Commands that failed on a Redis shard and fell back to a miss or a skipped write")
+                    .tag("shard", shard.getAddress())
+                    .register(registry);
+            Gauge.builder("cache.redis.shard.available", shard, s -> s.isAvailable() ? 1 : 0)
+                    .description("Whether a Redis shard is in service (1) or skipped after a failure (0)")
+                    .tag("shard", shard.getAddress())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!ownsConnectionFactories) {
+            return;
+        }
+        for (Shard shard : getShards()) {
+            if (shard.connectionFactory instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+    }
+
+    /**
+     * One Redis node of the ring.
+     */
+    public final class Shard {
+
+        private final String address;
+        private final RedisConnectionFactory connectionFactory;
+        private final LongAdder errors = new LongAdder();
+        private volatile long unavailableUntil;
+
+        private Shard(String address, RedisConnectionFactory connectionFactory) {
+            this.address = address;
+            this.connectionFactory = connectionFactory;
+        }
+
+        /**
+         * @return the node address
+         */
+        public String getAddress() {
+            return address;
+        }
+
+        /**
+         * @return the connection factory of the node
+         */
+        public RedisConnectionFactory getConnectionFactory() {
+            return connectionFactory;
+        }
+
+        /**
+         * @return whether commands are currently sent to this node
+         */
+        public boolean isAvailable() {
+            return unavailableUntil == 0 || System.nanoTime() - unavailableUntil >= 0;
+        }
+
+        /**
+         * Runs a command against this node. If the node is out of service, or the command
+         * fails and the ring is sharded, the fallback is returned instead.
+         *
+         * @param command  the command
+         * @param fallback result used when the node cannot answer, e.g. {@code null} for a miss
+         * @param <T>      the result type
+         * @return the command's result, or the fallback
+         */
+        public <T> T execute(Supplier<T> command, T fallback) {
+            if (!isSharded()) {
+                return command.get();
+            }
+            if (!isAvailable()) {
+                return fallback;
+            }
+            try {
+                T result = command.get();
+                if (unavailableUntil != 0) {
+                    unavailableUntil = 0;
+                }
+                return result;
+            } catch (DataAccessException e) {
+                markFailed(e);
+                return fallback;
+            }
+        }
+
+        /**
+         * Runs a command without a result against this node; see {@link #execute(Supplier, Object)}.
+         *
+         * @param command the command
+         */
+        public void execute(Runnable command) {
+            execute(() -> {
+                command.run();
+                return null;
+            }, null);
+        }
+
+        /**
+         * Takes this node out of service for {@code retryAfter}.
+         *
+         * @param cause the failure
+         */
+        public void markFailed(Throwable cause) {
+            errors.increment();
+            if (isAvailable()) {
+                log.warn("Redis shard {} failed, skipping it for {}: {}", address, retryAfter, cause.getMessage());
+            }
+            unavailableUntil = System.nanoTime() + retryAfter.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            return address;
+        }
+    }
+}
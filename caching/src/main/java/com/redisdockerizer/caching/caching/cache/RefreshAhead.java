@@ -0,0 +1,152 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Probabilistic early refresh ("XFetch") of cache entries that are still being read.
+ * <p>
+ * For every tracked key the expiry time and the time its last load took ({@code delta}) are
+ * remembered. On each hit, a refresh is triggered when
+ * <pre>
+ * now - delta * beta * ln(random()) >= expiry
+ * </pre>
+ * so the probability of refreshing grows as the entry approaches its expiry, and grows earlier
+ * for keys that are expensive to load. Refreshes run through a {@link RefreshScheduler} while
+ * the caller is served the current value; at most one refresh per key is in flight, and refreshes
+ * that cannot be queued are dropped rather than blocking the reader.
+ * <p>
+ * Keys loaded or written by this instance are tracked directly. Keys written elsewhere are
+ * tracked lazily: the first hit looks up their remaining TTL in the background and uses the
+ * average observed load time as {@code delta}. At most {@code maximumTrackedKeys} keys are tracked.
+ */
+public class RefreshAhead {
+
+    private final double beta;
+    private final int maximumTrackedKeys;
+    private final RefreshScheduler scheduler;
+
+    private final ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<>();
+    private volatile long averageLoadNanos;
+
+    private final LongAdder scheduled = new LongAdder();
+
+    /**
+     * Creates a new refresh-ahead policy.
+     *
+     * @param beta               weight of the load time; values above {@code 1} refresh earlier
+     * @param maximumTrackedKeys maximum number of keys whose expiry is remembered
+     * @param scheduler          scheduler running the background refreshes
+     */
+    public RefreshAhead(double beta, int maximumTrackedKeys, RefreshScheduler scheduler) {
+        this.beta = beta;
+        this.maximumTrackedKeys = maximumTrackedKeys;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Records that a key was loaded and stored.
+     *
+     * @param key        the cache key
+     * @param loadNanos  how long the load took
+     * @param timeToLive TTL the value was stored with
+     */
+    public void onLoad(String key, long loadNanos, Duration timeToLive) {
+        long average = averageLoadNanos;
+        averageLoadNanos = average == 0 ? loadNanos : average + (loadNanos - average) / 8;
+        track(key, loadNanos, timeToLive);
+    }
+
+    /**
+     * Records that a key was written without a load, keeping its last known load time.
+     *
+     * @param key        the cache key
+     * @param timeToLive TTL the value was stored with
+     */
+    public void onWrite(String key, Duration timeToLive) {
+        Timing previous = timings.get(key);
+        track(key, previous != null ? previous.deltaNanos : averageLoadNanos, timeToLive);
+    }
+
+    /**
+     * Forgets a key, e.g. because it was evicted.
+     *
+     * @param key the cache key
+     */
+    public void forget(String key) {
+        timings.remove(key);
+    }
+
+    /**
+     * Forgets every key.
+     */
+    public void forgetAll() {
+        timings.clear();
+    }
+
+    /**
+     * Called on every hit; schedules a background refresh if the key is due for one.
+     *
+     * @param key          the cache key
+     * @param remainingTtl looks up the remaining TTL of a key this instance has not seen yet
+     * @param refresh      reloads and stores the value
+     */
+    public void onHit(String key, Supplier<Duration> remainingTtl, Runnable refresh) {
+        Timing timing = timings.get(key);
+        if (timing == null) {
+            if (timings.size() < maximumTrackedKeys) {
+                scheduler.submit(key, () -> {
+                    Duration ttl = remainingTtl.get();
+                    if (ttl != null) {
+                        track(key, averageLoadNanos, ttl);
+                    }
+                });
+            }
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - timing.expiresAt > 0) {
+            timings.remove(key, timing);
+            return;
+        }
+        double gap = -timing.deltaNanos * beta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        if (now + (long) gap - timing.expiresAt >= 0) {
+            if (scheduler.submit(key, refresh)) {
+                scheduled.increment();
+            }
+        }
+    }
+
+    /**
+     * @return number of refreshes triggered ahead of expiry
+     */
+    public long getScheduled() {
+        return scheduled.sum();
+    }
+
+    /**
+     * @return number of keys whose expiry is currently tracked
+     */
+    public int getTrackedKeys() {
+        return timings.size();
+    }
+
+    private void track(String key, long deltaNanos, Duration timeToLive) {
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            timings.remove(key);
+            return;
+        }
+        if (timings.size() >= maximumTrackedKeys && !timings.containsKey(key)) {
+            return;
+        }
+        timings.put(key, new Timing(System.nanoTime() + timeToLive.toNanos(), deltaNanos));
+    }
+
+    private record Timing(long expiresAt, long deltaNanos) {
+    }
+}
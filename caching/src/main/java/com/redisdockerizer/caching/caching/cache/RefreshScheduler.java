@@ -0,0 +1,79 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs background reloads of cache entries, at most one per key at a time.
+ * <p>
+ * Used by {@link RefreshAhead} and {@link StaleWhileRevalidate}, so a key that is being refreshed
+ * ahead of expiry is never revalidated concurrently, and vice versa. Reloads that the executor
+ * cannot accept are dropped instead of blocking the caller that triggered them.
+ */
+@Slf4j
+public class RefreshScheduler {
+
+    private final Executor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param executor executor running the reloads; should be bounded and reject when saturated
+     */
+    public RefreshScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Schedules a background task for the given key unless one is already in flight.
+     *
+     * @param key  the cache key the task works on
+     * @param task the task to run
+     * @return {@code true} if the task was scheduled
+     */
+    public boolean submit(String key, Runnable task) {
+        if (!inFlight.add(key)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    failed.increment();
+                    log.warn("Background refresh of {} failed: {}", key, e.getMessage());
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * @return number of tasks dropped because the executor was saturated
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of tasks that failed
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+}
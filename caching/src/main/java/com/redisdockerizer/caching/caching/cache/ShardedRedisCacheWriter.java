@@ -0,0 +1,175 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link RedisCacheWriter} that spreads the entries of some caches across {@link RedisShards}.
+ * <p>
+ * Commands on a key of a cache in {@code shardedCacheNames} go to the node owning the key on
+ * the hash ring, through a writer created for that node; {@link #clean} runs on every node.
+ * Commands of all other caches go to {@code defaultWriter}. When a node cannot be reached,
+ * reads of its keys miss and writes to it are skipped (see {@link RedisShards}), so the cache
+ * falls back to its loader instead of failing the request.
+ * <p>
+ * Statistics are collected by the given collector for all nodes together.
+ */
+public class ShardedRedisCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter defaultWriter;
+    private final Set<String> shardedCacheNames;
+    private final RedisShards shards;
+    private final Map<RedisShards.Shard, RedisCacheWriter> writers;
+
+    /**
+     * Creates a new sharded writer.
+     *
+     * @param defaultWriter     writer for caches that are not sharded
+     * @param shardedCacheNames caches whose entries are spread across the shards
+     * @param shards            the shards
+     * @param writerFactory     creates the writer issuing the commands of one shard
+     */
+    public ShardedRedisCacheWriter(RedisCacheWriter defaultWriter, Set<String> shardedCacheNames, RedisShards shards,
+                                   Function<RedisConnectionFactory, RedisCacheWriter> writerFactory) {
+        this.defaultWriter = defaultWriter;
+        this.shardedCacheNames = Set.copyOf(shardedCacheNames);
+        this.shards = shards;
+        this.writers = new LinkedHashMap<>();
+        for (RedisShards.Shard shard : shards.getShards()) {
+            writers.put(shard, writerFactory.apply(shard.getConnectionFactory()));
+        }
+    }
+
+    private ShardedRedisCacheWriter(RedisCacheWriter defaultWriter, Set<String> shardedCacheNames, RedisShards shards,
+                                    Map<RedisShards.Shard, RedisCacheWriter> writers) {
+        this.defaultWriter = defaultWriter;
+        this.shardedCacheNames = shardedCacheNames;
+        this.shards = shards;
+        this.writers = writers;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return route(name, key, writer -> writer.get(name, key), null);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return route(name, key, writer -> writer.get(name, key, ttl), null);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        if (!shardedCacheNames.contains(name)) {
+            return defaultWriter.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+        }
+        RedisShards.Shard shard = shards.shardFor(key);
+        byte[] value = shard.execute(() -> writers.get(shard).get(name, key, valueLoader, ttl, timeToIdleEnabled), null);
+        return value != null ? value : valueLoader.get();
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return defaultWriter.supportsAsyncRetrieve()
+                && writers.values().stream().allMatch(RedisCacheWriter::supportsAsyncRetrieve);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        if (!shardedCacheNames.contains(name)) {
+            return defaultWriter.retrieve(name, key, ttl);
+        }
+        RedisShards.Shard shard = shards.shardFor(key);
+        return asyncOnShard(shard, () -> writers.get(shard).retrieve(name, key, ttl));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        route(name, key, writer -> {
+            writer.put(name, key, value, ttl);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        if (!shardedCacheNames.contains(name)) {
+            return defaultWriter.store(name, key, value, ttl);
+        }
+        RedisShards.Shard shard = shards.shardFor(key);
+        return asyncOnShard(shard, () -> writers.get(shard).store(name, key, value, ttl));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return route(name, key, writer -> writer.putIfAbsent(name, key, value, ttl), null);
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        route(name, key, writer -> {
+            writer.remove(name, key);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        if (!shardedCacheNames.contains(name)) {
+            defaultWriter.clean(name, pattern);
+            return;
+        }
+        writers.forEach((shard, writer) -> shard.execute(() -> writer.clean(name, pattern)));
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        defaultWriter.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        Map<RedisShards.Shard, RedisCacheWriter> collecting = new LinkedHashMap<>();
+        writers.forEach((shard, writer) -> collecting.put(shard, writer.withStatisticsCollector(cacheStatisticsCollector)));
+        return new ShardedRedisCacheWriter(defaultWriter.withStatisticsCollector(cacheStatisticsCollector),
+                shardedCacheNames, shards, collecting);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return defaultWriter.getCacheStatistics(cacheName);
+    }
+
+    private <T> T route(String name, byte[] key, Function<RedisCacheWriter, T> command, T fallback) {
+        if (!shardedCacheNames.contains(name)) {
+            return command.apply(defaultWriter);
+        }
+        RedisShards.Shard shard = shards.shardFor(key);
+        return shard.execute(() -> command.apply(writers.get(shard)), fallback);
+    }
+
+    /**
+     * Runs an asynchronous command on a shard; a failed future counts as a shard failure and
+     * completes with {@code null} (a miss, or a skipped write) instead.
+     */
+    private <T> CompletableFuture<T> asyncOnShard(RedisShards.Shard shard, Supplier<CompletableFuture<T>> command) {
+        CompletableFuture<T> future = shard.execute(command, CompletableFuture.completedFuture(null));
+        if (!shards.isSharded()) {
+            return future;
+        }
+        return future.exceptionally(error -> {
+            shard.markFailed(error);
+            return null;
+        });
+    }
+}
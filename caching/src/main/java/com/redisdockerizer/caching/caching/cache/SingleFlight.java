@@ -0,0 +1,128 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key within one instance.
+ * <p>
+ * The first caller for a key runs the loader; every caller arriving while that load
+ * is still in flight waits for and shares its result (or its failure) instead of
+ * running the loader again. Once the load completes the key is released, so later
+ * misses start a fresh load.
+ * <p>
+ * Blocking and asynchronous loads of a key share the same in-flight load, whichever started it.
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs the loader for the given key unless a load for the same key is already in flight,
+     * in which case the result of that load is returned.
+     *
+     * @param key    the key being loaded
+     * @param loader the loader to run if this caller is the first one
+     * @param <T>    the loaded value type
+     * @return the loaded value
+     * @throws Exception the exception thrown by the loader, for the leader and every waiter; an
+     *                   {@link Error} thrown by the loader is rethrown as is to all of them
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> loader) throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(existing);
+        }
+
+        executed.increment();
+        try {
+            T value = loader.call();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Starts the asynchronous loader for the given key unless a load for the same key is already
+     * in flight, in which case a future of that load's result is returned. The key is released
+     * once the loader's future completes.
+     *
+     * @param key    the key being loaded
+     * @param loader starts the load if this caller is the first one
+     * @param <T>    the loaded value type
+     * @return a future completing with the loaded value, or with the loader's failure; cancelling
+     * it does not cancel the shared load
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            coalesced.increment();
+            return (CompletableFuture<T>) existing.copy();
+        }
+
+        executed.increment();
+        CompletableFuture<T> load;
+        try {
+            load = loader.get();
+        } catch (Throwable e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) future.copy();
+    }
+
+    /**
+     * @return number of loads that actually ran a loader
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * @return number of callers that waited on another caller's load instead of running their own
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
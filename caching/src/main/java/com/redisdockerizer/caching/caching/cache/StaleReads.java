@@ -0,0 +1,53 @@
+package com.redisdockerizer.caching.caching.cache;
+
+/**
+ * Records, per thread, whether a {@link StaleWhileRevalidate stale copy} was served, so the caller
+ * of a cache can tell that the value it got is stale without the cache knowing who the caller is.
+ * <p>
+ * A caller {@link #begin() begins} recording before using the cache on its thread, checks
+ * {@link #isStale()} afterwards and {@link #end() ends} recording once it is done, e.g. per web
+ * request. Stale copies served on a thread that is not recording are not remembered, so background
+ * threads never carry a flag over into unrelated work.
+ * <p>
+ * Only blocking lookups serve stale copies; {@link TwoTierCache#retrieve asynchronous retrievals}
+ * reload a missing entry instead, so there is nothing to record for them.
+ */
+public final class StaleReads {
+
+    private static final ThreadLocal<boolean[]> CURRENT = new ThreadLocal<>();
+
+    private StaleReads() {
+    }
+
+    /**
+     * Starts recording stale reads on the current thread, forgetting any earlier one.
+     */
+    public static void begin() {
+        CURRENT.set(new boolean[1]);
+    }
+
+    /**
+     * @return {@code true} if a stale copy was served on the current thread since {@link #begin()}
+     */
+    public static boolean isStale() {
+        boolean[] stale = CURRENT.get();
+        return stale != null && stale[0];
+    }
+
+    /**
+     * Stops recording stale reads on the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Records that a stale copy is served on the current thread, if it is recording.
+     */
+    static void markStale() {
+        boolean[] stale = CURRENT.get();
+        if (stale != null) {
+            stale[0] = true;
+        }
+    }
+}
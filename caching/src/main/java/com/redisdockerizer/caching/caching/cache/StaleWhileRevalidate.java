@@ -0,0 +1,106 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stale-while-revalidate / stale-if-error policy, modelled on the HTTP cache extensions of RFC 5861.
+ * <p>
+ * Every entry written to the cache also gets a stale copy that outlives the entry's TTL by
+ * {@link #getGracePeriod()}. When a lookup misses and a stale copy exists:
+ * <ul>
+ *   <li>if the entry expired no more than {@code staleWhileRevalidate} ago, the stale copy is
+ *       returned immediately and a single background revalidation reloads the entry;</li>
+ *   <li>otherwise the entry is reloaded synchronously, and the stale copy is returned only if
+ *       the loader fails and the entry expired no more than {@code staleIfError} ago.</li>
+ * </ul>
+ * Every stale value served is recorded in {@link StaleReads}, so a caller recording on its
+ * thread, such as a web request, can mark its response as stale.
+ */
+public class StaleWhileRevalidate {
+
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+    private final RefreshScheduler scheduler;
+
+    private final LongAdder servedWhileRevalidating = new LongAdder();
+    private final LongAdder servedOnError = new LongAdder();
+
+    /**
+     * Creates a new policy.
+     *
+     * @param staleWhileRevalidate how long after expiry a stale copy is served while it is revalidated
+     * @param staleIfError         how long after expiry a stale copy is served when reloading fails
+     * @param scheduler            scheduler running the background revalidations
+     */
+    public StaleWhileRevalidate(Duration staleWhileRevalidate, Duration staleIfError, RefreshScheduler scheduler) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleIfError = staleIfError;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return how much longer than the entry a stale copy is kept
+     */
+    public Duration getGracePeriod() {
+        return staleWhileRevalidate.compareTo(staleIfError) >= 0 ? staleWhileRevalidate : staleIfError;
+    }
+
+    /**
+     * Decides whether a stale copy may be served right away while the entry is revalidated.
+     *
+     * @param remaining remaining TTL of the stale copy
+     * @return {@code true} if the entry expired no more than {@code staleWhileRevalidate} ago
+     */
+    public boolean canServeWhileRevalidating(Duration remaining) {
+        return expiredFor(remaining).compareTo(staleWhileRevalidate) <= 0;
+    }
+
+    /**
+     * Decides whether a stale copy may be served because reloading the entry failed.
+     *
+     * @param remaining remaining TTL of the stale copy
+     * @return {@code true} if the entry expired no more than {@code staleIfError} ago
+     */
+    public boolean canServeOnError(Duration remaining) {
+        return expiredFor(remaining).compareTo(staleIfError) <= 0;
+    }
+
+    /**
+     * Records that a stale copy is served and schedules a background revalidation of the key.
+     *
+     * @param key        the cache key
+     * @param revalidate reloads and stores the entry
+     */
+    public void serveWhileRevalidating(String key, Runnable revalidate) {
+        servedWhileRevalidating.increment();
+        StaleReads.markStale();
+        scheduler.submit(key, revalidate);
+    }
+
+    /**
+     * Records that a stale copy is served because reloading the entry failed.
+     */
+    public void serveOnError() {
+        servedOnError.increment();
+        StaleReads.markStale();
+    }
+
+    /**
+     * @return number of stale values served while a revalidation was scheduled
+     */
+    public long getServedWhileRevalidating() {
+        return servedWhileRevalidating.sum();
+    }
+
+    /**
+     * @return number of stale values served because the loader failed
+     */
+    public long getServedOnError() {
+        return servedOnError.sum();
+    }
+
+    private Duration expiredFor(Duration remaining) {
+        return getGracePeriod().minus(remaining);
+    }
+}
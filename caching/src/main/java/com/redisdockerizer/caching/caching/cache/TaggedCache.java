@@ -0,0 +1,25 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * {@link Cache} that labels its entries with a tag and can evict all entries of a tag at once.
+ */
+public interface TaggedCache extends Cache {
+
+    /**
+     * @return whether entries are tagged when they are written; if not, {@link #evictByTag}
+     * evicts nothing
+     */
+    boolean supportsTags();
+
+    /**
+     * Evicts every entry written under the given tag since the tag was last evicted.
+     * <p>
+     * The cost depends on the number of entries of the tag, not on the size of the cache.
+     *
+     * @param tag the tag
+     * @return the number of entries that were evicted
+     */
+    long evictByTag(String tag);
+}
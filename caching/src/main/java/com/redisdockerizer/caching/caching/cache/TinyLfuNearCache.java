@@ -0,0 +1,459 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * {@link NearCache} bounded by the total weight of its entries, with W-TinyLFU admission.
+ * <p>
+ * Each entry is weighed once when it is stored, typically by its serialized size, and entries are
+ * evicted until the sum of the weights fits in {@code maximumWeight}. Which entries go is decided
+ * by the W-TinyLFU policy:
+ * <ul>
+ *   <li>New entries enter a small LRU window holding 1% of the weight, so bursts of fresh keys
+ *   are not rejected before they had a chance to be read again.</li>
+ *   <li>Entries leaving the window are candidates for the main space, a segmented LRU whose
+ *   protected segment (80%) holds entries read at least twice and whose probation segment holds
+ *   the rest.</li>
+ *   <li>A candidate is only admitted if its recent access frequency, estimated by a
+ *   {@link FrequencySketch}, is higher than that of the probation entry it would evict.
+ *   Otherwise the candidate itself is dropped. Keys read only once, as in a scan over many
+ *   products, therefore cannot push frequently read products out.</li>
+ * </ul>
+ * <p>
+ * Reads are lock-free: the entry is looked up in a {@link ConcurrentHashMap} and the access is
+ * recorded in one of several striped ring buffers. Writes, and reads finding their buffer full,
+ * take a lock to replay the buffered accesses and apply the policy. When the buffer is full and
+ * another thread holds the lock, the access is dropped, which only makes the recency and frequency
+ * information slightly less precise.
+ * <p>
+ * Entries heavier than {@code maximumWeight} are not stored. A {@code maximumWeight} of
+ * {@code 0} disables the cache: writes are ignored and every read is a miss.
+ */
+public class TinyLfuNearCache implements NearCache {
+
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.80;
+    private static final int READ_BUFFER_SIZE = 64;
+    private static final int READ_BUFFER_STRIPES =
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+    private static final int INITIAL_SKETCH_CAPACITY = 1024;
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long timeToLiveNanos;
+    private final ToIntFunction<Object> weigher;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // guarded by evictionLock
+    private final FrequencySketch sketch = new FrequencySketch(INITIAL_SKETCH_CAPACITY);
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private long windowWeight;
+    private long protectedWeight;
+    private volatile long weightedSize;
+    private volatile long evictionCount;
+    private volatile long rejectionCount;
+
+    /**
+     * Creates a new weight-bounded near cache.
+     *
+     * @param maximumWeight maximum total weight of the entries kept in memory
+     * @param timeToLive    maximum age of an entry before it is treated as a miss
+     * @param weigher       weight of a value, e.g. its serialized size in bytes; must not be negative
+     */
+    public TinyLfuNearCache(long maximumWeight, Duration timeToLive, ToIntFunction<Object> weigher) {
+        this.maximumWeight = Math.max(0, maximumWeight);
+        this.windowMaximum = Math.max(1, (long) (this.maximumWeight * WINDOW_SHARE));
+        this.protectedMaximum = (long) ((this.maximumWeight - windowMaximum) * PROTECTED_SHARE);
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.weigher = weigher;
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        Node node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.expiresAt - System.nanoTime() <= 0) {
+            if (data.remove(key, node)) {
+                evictionLock.lock();
+                try {
+                    unlink(node);
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        recordRead(node);
+        return node.value;
+    }
+
+    /**
+     * Stores a value, evicting entries, or rejecting this one, until the weight bound is met.
+     *
+     * @param key   cache key
+     * @param value value to store; {@code null} values are ignored
+     */
+    @Override
+    public void put(String key, Object value) {
+        if (maximumWeight == 0 || value == null) {
+            return;
+        }
+        int weight = weigher.applyAsInt(value);
+        Node node = new Node(key, value, weight, System.nanoTime() + timeToLiveNanos);
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node previous = data.put(key, node);
+            if (previous != null) {
+                unlink(previous);
+            }
+            if (weight > maximumWeight) {
+                data.remove(key, node);
+                rejectionCount++;
+                return;
+            }
+            if (data.size() > sketch.capacity()) {
+                sketch.ensureCapacity(2 * data.size());
+            }
+            sketch.increment(key.hashCode());
+            node.queue = Queue.WINDOW;
+            window.addLast(node);
+            windowWeight += weight;
+            weightedSize += weight;
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        Node node = data.remove(key);
+        if (node != null) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            windowWeight = 0;
+            protectedWeight = 0;
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return the total weight of the entries currently held
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * @return the maximum total weight of the entries
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * @return number of entries evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return number of entries that were not admitted, because they were too heavy or read less
+     * often than the entry they would have replaced
+     */
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    private void recordRead(Node node) {
+        int stripe = (int) (Thread.currentThread().threadId() * 0x9e3779b97f4a7c15L >>> 32) & (readBuffers.length - 1);
+        if (!readBuffers[stripe].offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+    }
+
+    /**
+     * Replays a buffered read: refreshes the entry's recency and frequency, and promotes a
+     * probation entry read again to the protected segment.
+     */
+    private void onRead(Node node) {
+        if (node.queue == null) {
+            return;
+        }
+        sketch.increment(node.key.hashCode());
+        switch (node.queue) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.queue = Queue.PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaximum) {
+                    Node demoted = protectedQueue.pollFirst();
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = Queue.PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+            case PROTECTED -> protectedQueue.moveToBack(node);
+        }
+    }
+
+    /**
+     * Moves entries overflowing the window to the probation segment, then evicts until the weight
+     * bound is met, letting each moved candidate compete with the probation segment's LRU entry.
+     */
+    private void evict() {
+        Node candidate = null;
+        while (windowWeight > windowMaximum) {
+            Node moved = window.pollFirst();
+            windowWeight -= moved.weight;
+            moved.queue = Queue.PROBATION;
+            probation.addLast(moved);
+            if (candidate == null) {
+                candidate = moved;
+            }
+        }
+
+        while (weightedSize > maximumWeight) {
+            Node victim = probation.peekFirst();
+            if (victim == candidate) {
+                victim = null;
+            }
+            if (victim == null) {
+                victim = protectedQueue.peekFirst();
+            }
+            if (victim == null && candidate == null) {
+                victim = window.peekFirst();
+            }
+
+            if (candidate == null) {
+                evictEntry(victim);
+            } else if (victim == null || !admit(candidate, victim)) {
+                Node next = candidate.next;
+                evictEntry(candidate);
+                rejectionCount++;
+                candidate = next;
+            } else {
+                evictEntry(victim);
+            }
+        }
+    }
+
+    private boolean admit(Node candidate, Node victim) {
+        int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        int victimFrequency = sketch.frequency(victim.key.hashCode());
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        // Occasionally admit a warm candidate anyway, so an attacker cannot pin victims by
+        // inflating their frequency through hash collisions.
+        return candidateFrequency > 5 && ThreadLocalRandom.current().nextInt(128) == 0;
+    }
+
+    private void evictEntry(Node node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictionCount++;
+    }
+
+    private void unlink(Node node) {
+        if (node.queue == null) {
+            return;
+        }
+        switch (node.queue) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> {
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+            }
+        }
+        node.queue = null;
+        weightedSize -= node.weight;
+    }
+
+    private enum Queue {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final class Node {
+
+        final String key;
+        final Object value;
+        final int weight;
+        final long expiresAt;
+
+        // guarded by evictionLock; null once the node left the policy
+        Queue queue;
+        Node previous;
+        Node next;
+
+        Node(String key, Object value, int weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes in access order, least recently used first.
+     */
+    private static final class AccessQueue {
+
+        private Node first;
+        private Node last;
+
+        Node peekFirst() {
+            return first;
+        }
+
+        Node pollFirst() {
+            Node node = first;
+            remove(node);
+            return node;
+        }
+
+        void addLast(Node node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void moveToBack(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void clear() {
+            for (Node node = first; node != null; ) {
+                Node next = node.next;
+                node.queue = null;
+                node.previous = null;
+                node.next = null;
+                node = next;
+            }
+            first = null;
+            last = null;
+        }
+    }
+
+    /**
+     * Bounded ring buffer of reads, written by any thread and drained under the eviction lock.
+     * Offers fail instead of waiting when the buffer is full or another reader won the slot.
+     */
+    private static final class ReadBuffer {
+
+        private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        /**
+         * @return {@code false} if the buffer is full and should be drained
+         */
+        boolean offer(Node node) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                slots.lazySet((int) tail & (READ_BUFFER_SIZE - 1), node);
+            }
+            return true;
+        }
+
+        void drainTo(TinyLfuNearCache cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) head & (READ_BUFFER_SIZE - 1);
+                Node node = slots.get(index);
+                if (node == null) {
+                    // the writer claimed the slot but has not published its node yet
+                    break;
+                }
+                slots.lazySet(index, null);
+                cache.onRead(node);
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,858 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Cache} decorator that serves reads from an in-process {@link NearCache} (L1)
+ * before falling back to the shared Redis cache (L2).
+ * <p>
+ * Writes always go to Redis first and are then mirrored into L1. Every put, evict
+ * or clear is announced on the {@link CacheInvalidationBus} so that other instances
+ * drop their now outdated L1 copies.
+ * <p>
+ * L1 holds its own copies of the values: a value is copied when it is put into L1 and again when
+ * it is returned from there, so callers changing the objects they receive never change what other
+ * callers read. A value read from Redis is only kept in L1 if the key was not written or invalidated
+ * while it was being read ({@link KeyEpochs}), so a slow reader cannot put an outdated value back.
+ * <p>
+ * Hit and miss counts are tracked per tier to help size the near cache, along with puts and
+ * evictions. The time every load takes is recorded in {@code cache.load.time}. Cached {@code null}
+ * values (negative entries, if the Redis cache allows them) are held in L1 as well.
+ * <p>
+ * Misses resolved through {@link #get(Object, Callable)} are coalesced per key by a
+ * {@link SingleFlight}, and optionally across instances by a {@link LoadLease}, so that
+ * only one loader runs for a key no matter how many callers miss it at the same time.
+ * <p>
+ * Batch lookups and writes ({@link BatchCache}) check L1 first and resolve the rest with a
+ * single {@code MGET} or one pipelined round trip through {@link RedisBatchOperations}.
+ * <p>
+ * With a {@link RefreshAhead} policy, hits served through {@link #get(Object, Callable)} may
+ * trigger a background reload of an entry shortly before it expires, so that actively read
+ * keys are replaced before callers ever see them missing.
+ * <p>
+ * With a {@link StaleWhileRevalidate} policy, every write also keeps a stale copy of the entry
+ * beyond its TTL. Misses served through {@link #get(Object, Callable)} fall back to that copy
+ * while the entry is revalidated in the background, or when reloading it fails.
+ * <p>
+ * With an {@link AdaptiveTtl} policy, reads from either tier and changes are reported to it.
+ * Explicit puts and evictions on this instance count as changes; values written by a load,
+ * a refresh or {@link #putAll} do not. Remote invalidations are not counted, since other
+ * instances publish them for loads as well.
+ * <p>
+ * With a {@link HotKeyReplica}, reads from either tier are also reported to its detector, and
+ * keys it flags as hot are served from a short-lived local copy ahead of both tiers.
+ * <p>
+ * {@link #retrieve(Object)} and {@link #retrieve(Object, Supplier)} serve {@code @Cacheable} methods
+ * returning a {@link CompletableFuture}: L1 is checked in place, and L2 is read and populated
+ * through the asynchronous API of the Redis cache, so no thread waits for Redis or the loader.
+ * Concurrent misses for a key share one future. Such lookups do not serve stale or hot-key copies
+ * and do not trigger refresh-ahead, but loaded values are written like any other.
+ * <p>
+ * With {@link CacheTags}, every write also records the entry's key under the tag of its value,
+ * moving it out of the tag it had before, every eviction removes it from its tag, and
+ * {@link #evictByTag} evicts all entries of a tag from both tiers on every instance.
+ */
+public class TwoTierCache implements BatchCache, TaggedCache {
+
+    /**
+     * Runs the blocking bookkeeping after an asynchronous load (stale copy, tag, invalidation)
+     * on a virtual thread, since the load's future completes on a Redis client I/O thread.
+     */
+    private static final Executor ASYNC_WRITE_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-async-write-", 1).factory());
+
+    private final Cache delegate;
+    private final RedisBatchOperations batchOperations;
+    private final NearCache nearCache;
+    private final CacheInvalidationBus invalidationBus;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final LoadLease loadLease;
+    private final RefreshAhead refreshAhead;
+    private final StaleWhileRevalidate staleWhileRevalidate;
+    private final AdaptiveTtl adaptiveTtl;
+    private final HotKeyReplica hotKeyReplica;
+    private final CacheTags tags;
+    private final UnaryOperator<Object> valueCopier;
+    private final KeyEpochs epochs = new KeyEpochs(1024);
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Timer successfulLoads;
+    private final Timer failedLoads;
+
+    private TwoTierCache(Builder builder) {
+        this.delegate = builder.delegate;
+        this.batchOperations = Objects.requireNonNull(builder.batchOperations, "batchOperations");
+        this.nearCache = builder.nearCache != null ? builder.nearCache : new LruNearCache(0, Duration.ZERO);
+        this.invalidationBus = builder.invalidationBus;
+        this.loadLease = builder.loadLease;
+        this.refreshAhead = builder.refreshAhead;
+        this.staleWhileRevalidate = builder.staleWhileRevalidate;
+        this.adaptiveTtl = builder.adaptiveTtl;
+        this.hotKeyReplica = builder.hotKeyReplica;
+        this.tags = builder.tags;
+        this.valueCopier = builder.valueCopier;
+        this.successfulLoads = loadTimer(builder.meterRegistry, "success");
+        this.failedLoads = loadTimer(builder.meterRegistry, "failure");
+    }
+
+    /**
+     * Starts building a two-tier cache. Only the batch operations are required; every policy
+     * that is not set is left out.
+     *
+     * @param delegate        the Redis-backed L2 cache
+     * @param invalidationBus bus used to notify other instances about writes
+     * @param meterRegistry   registry the load times are recorded to
+     * @return a builder for the cache
+     */
+    public static Builder builder(Cache delegate, CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        return new Builder(delegate, invalidationBus, meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = toLocalKey(key);
+        Object replicated = hotKeyReplica != null ? hotKeyReplica.get(localKey, () -> delegate.get(key)) : null;
+        if (replicated != null) {
+            l1Hits.increment();
+            onRead(localKey);
+            return new SimpleValueWrapper(fromLocalValue(replicated));
+        }
+
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            l1Hits.increment();
+            onRead(localKey);
+            onHotKeyRead(localKey, local);
+            return new SimpleValueWrapper(fromLocalValue(local));
+        }
+        l1Misses.increment();
+
+        long epoch = epochs.current(localKey);
+        ValueWrapper remote = delegate.get(key);
+        if (remote == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        onRead(localKey);
+        Object copy = putLocalIfUnchanged(localKey, remote.get(), epoch);
+        if (copy != null) {
+            onHotKeyRead(localKey, copy);
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        String localKey = toLocalKey(key);
+        if (wrapper != null) {
+            if (refreshAhead != null) {
+                refreshAhead.onHit(
+                        localKey,
+                        () -> batchOperations.remainingTimeToLive(key),
+                        () -> refresh(key, localKey, valueLoader)
+                );
+            }
+            return (T) wrapper.get();
+        }
+
+        RedisBatchOperations.StaleCopy stale = staleWhileRevalidate != null ? batchOperations.getStaleCopy(key) : null;
+        if (stale != null && staleWhileRevalidate.canServeWhileRevalidating(stale.remaining())) {
+            staleWhileRevalidate.serveWhileRevalidating(localKey, () -> refresh(key, localKey, valueLoader));
+            return (T) stale.value();
+        }
+
+        try {
+            return (T) singleFlight.execute(localKey, () -> loadOnce(key, localKey, valueLoader));
+        } catch (Exception e) {
+            if (stale != null && staleWhileRevalidate.canServeOnError(stale.remaining())) {
+                staleWhileRevalidate.serveOnError();
+                return (T) stale.value();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        String localKey = toLocalKey(key);
+        Object local = nearCache.get(localKey);
+        if (local != null) {
+            l1Hits.increment();
+            onRead(localKey);
+            return CompletableFuture.completedFuture(new SimpleValueWrapper(fromLocalValue(local)));
+        }
+        l1Misses.increment();
+
+        long epoch = epochs.current(localKey);
+        return delegate.retrieve(key).thenApply(value -> {
+            ValueWrapper remote = (ValueWrapper) value;
+            if (remote == null) {
+                l2Misses.increment();
+                return null;
+            }
+            l2Hits.increment();
+            onRead(localKey);
+            putLocalIfUnchanged(localKey, remote.get(), epoch);
+            return remote;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        String localKey = toLocalKey(key);
+        return retrieve(key).thenCompose(wrapper -> wrapper != null
+                ? CompletableFuture.completedFuture((T) ((ValueWrapper) wrapper).get())
+                : singleFlight.executeAsync(localKey, () -> loadAsync(key, localKey, valueLoader)));
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        Map<Object, Long> remoteKeys = new LinkedHashMap<>();
+        for (Object key : keys) {
+            Object local = nearCache.get(toLocalKey(key));
+            if (local == NullValue.INSTANCE) {
+                l1Hits.increment();
+            } else if (local != null) {
+                l1Hits.increment();
+                onRead(toLocalKey(key));
+                found.put(key, fromLocalValue(local));
+            } else {
+                l1Misses.increment();
+                remoteKeys.put(key, epochs.current(toLocalKey(key)));
+            }
+        }
+
+        Map<Object, Object> remote = batchOperations.multiGet(remoteKeys.keySet());
+        l2Hits.add(remote.size());
+        l2Misses.add(remoteKeys.size() - remote.size());
+        remote.forEach((key, value) -> {
+            String localKey = toLocalKey(key);
+            onRead(localKey);
+            putLocalIfUnchanged(localKey, value, remoteKeys.get(key));
+        });
+
+        Map<Object, Object> ordered = new LinkedHashMap<>();
+        for (Object key : keys) {
+            Object value = found.containsKey(key) ? found.get(key) : remote.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        puts.add(entries.size());
+        batchOperations.multiPut(entries, staleGracePeriod(), tags);
+        List<String> localKeys = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> {
+            String localKey = toLocalKey(key);
+            localKeys.add(localKey);
+            evictHotKeyCopy(localKey);
+            putLocal(localKey, value);
+            onWrite(key, localKey, value);
+        });
+        invalidationBus.publishEvictAll(getName(), localKeys);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        onChange(key);
+        store(key, value);
+    }
+
+    /**
+     * Writes {@code value} to Redis. With stale copies or tags, the entry, its stale copy and its
+     * tag are written in one pipelined round trip instead of one round trip each.
+     */
+    private void store(Object key, Object value) {
+        if (value != null && (staleWhileRevalidate != null || tags != null)) {
+            batchOperations.multiPut(Collections.singletonMap(key, value), staleGracePeriod(), tags);
+        } else {
+            delegate.put(key, value);
+            addToTag(key, value);
+        }
+        onStored(key, value);
+    }
+
+    /**
+     * Completes a write of {@code value} that the Redis cache itself made: stale copy and tag,
+     * then everything {@link #onStored} does.
+     */
+    private void onStoredByDelegate(Object key, Object value) {
+        putStaleCopy(key, value);
+        addToTag(key, value);
+        onStored(key, value);
+    }
+
+    /**
+     * Completes a write of {@code value} to Redis: invalidation of other instances and L1.
+     */
+    private void onStored(Object key, Object value) {
+        puts.increment();
+        String localKey = toLocalKey(key);
+        invalidationBus.publishEvict(getName(), localKey);
+        evictHotKeyCopy(localKey);
+        putLocal(localKey, value);
+        onWrite(key, localKey, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            onStoredByDelegate(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.increment();
+        onChange(key);
+        delegate.evict(key);
+        deleteStaleCopy(key);
+        removeFromTag(key);
+        evictLocal(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictions.increment();
+        onChange(key);
+        boolean evicted = delegate.evictIfPresent(key);
+        deleteStaleCopy(key);
+        removeFromTag(key);
+        evictLocal(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        clearLocal();
+        invalidationBus.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        clearLocal();
+        invalidationBus.publishClear(getName());
+        return invalidated;
+    }
+
+    @Override
+    public boolean supportsTags() {
+        return tags != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each batch of keys popped from the tag's set is unlinked in Redis, dropped from the local
+     * tier and announced on the {@link CacheInvalidationBus} before the next batch is popped.
+     */
+    @Override
+    public long evictByTag(String tag) {
+        if (tags == null) {
+            return 0;
+        }
+        long evicted = batchOperations.evictTag(tag, tags.getEvictionBatchSize(), keys -> {
+            List<String> localKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                String localKey = toLocalKey(key);
+                localKeys.add(localKey);
+                onChange(key);
+                epochs.advance(localKey);
+                nearCache.evict(localKey);
+                evictHotKeyCopy(localKey);
+                if (refreshAhead != null) {
+                    refreshAhead.forget(localKey);
+                }
+            }
+            invalidationBus.publishEvictAll(getName(), localKeys);
+        });
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * Applies an invalidation received from another instance to the local tier only.
+     *
+     * @param localKey the invalidated key, or {@code null} to drop every local entry
+     */
+    void onRemoteInvalidation(String localKey) {
+        if (localKey == null) {
+            clearLocal();
+        } else {
+            epochs.advance(localKey);
+            nearCache.evict(localKey);
+            evictHotKeyCopy(localKey);
+            if (refreshAhead != null) {
+                refreshAhead.forget(localKey);
+            }
+        }
+    }
+
+    /**
+     * @return multi-key access to the Redis entries of this cache
+     */
+    public RedisBatchOperations getBatchOperations() {
+        return batchOperations;
+    }
+
+    /**
+     * @return the in-process tier of this cache
+     */
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public long getL1Hits() {
+        return l1Hits.sum();
+    }
+
+    public long getL1Misses() {
+        return l1Misses.sum();
+    }
+
+    public long getL2Hits() {
+        return l2Hits.sum();
+    }
+
+    public long getL2Misses() {
+        return l2Misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the per-key load coalescer of this cache
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * @return the cluster-wide load lease, or {@code null} if loads are only coalesced locally
+     */
+    public LoadLease getLoadLease() {
+        return loadLease;
+    }
+
+    /**
+     * @return the refresh-ahead policy, or {@code null} if entries are left to expire
+     */
+    public RefreshAhead getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    /**
+     * @return the stale-while-revalidate policy, or {@code null} if no stale copies are kept
+     */
+    public StaleWhileRevalidate getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    /**
+     * @return the local copies of hot keys, or {@code null} if hot keys are not detected
+     */
+    public HotKeyReplica getHotKeyReplica() {
+        return hotKeyReplica;
+    }
+
+    private void refresh(Object key, String localKey, Callable<?> valueLoader) {
+        try {
+            singleFlight.execute(localKey, () -> loadOnce(key, localKey, valueLoader));
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private Object loadOnce(Object key, String localKey, Callable<?> valueLoader) throws Exception {
+        if (loadLease == null) {
+            return loadAndPut(key, valueLoader);
+        }
+        long epoch = epochs.current(localKey);
+        Object value = loadLease.load(localKey, () -> delegate.get(key), () -> loadAndPut(key, valueLoader));
+        putLocalIfUnchanged(localKey, value, epoch);
+        return value;
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception | Error e) {
+            failedLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        long loadNanos = System.nanoTime() - start;
+        successfulLoads.record(loadNanos, TimeUnit.NANOSECONDS);
+
+        store(key, value);
+        if (refreshAhead != null) {
+            refreshAhead.onLoad(toLocalKey(key), loadNanos, batchOperations.timeToLive(key, value));
+        }
+        return value;
+    }
+
+    /**
+     * Looks the key up again and, if it is still missing, runs the loader and stores its value,
+     * both through {@link Cache#retrieve(Object, Supplier)} of the Redis cache.
+     */
+    private <T> CompletableFuture<T> loadAsync(Object key, String localKey, Supplier<CompletableFuture<T>> valueLoader) {
+        AtomicLong loadNanos = new AtomicLong(-1);
+        long epoch = epochs.current(localKey);
+        return delegate.retrieve(key, () -> {
+            long start = System.nanoTime();
+            return valueLoader.get().whenComplete((value, error) -> {
+                long elapsed = System.nanoTime() - start;
+                (error == null ? successfulLoads : failedLoads).record(elapsed, TimeUnit.NANOSECONDS);
+                loadNanos.set(elapsed);
+            });
+        }).thenCompose(value -> {
+            if (loadNanos.get() < 0) {
+                putLocalIfUnchanged(localKey, value, epoch);
+                return CompletableFuture.completedFuture(value);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                onStoredByDelegate(key, value);
+                if (refreshAhead != null) {
+                    refreshAhead.onLoad(localKey, loadNanos.get(), batchOperations.timeToLive(key, value));
+                }
+                return value;
+            }, ASYNC_WRITE_EXECUTOR);
+        });
+    }
+
+    private Timer loadTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("cache.load.time")
+                .description("Time taken by the loader to produce a missing value")
+                .tags("cache", getName(), "result", result)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void onWrite(Object key, String localKey, Object value) {
+        if (refreshAhead != null) {
+            refreshAhead.onWrite(localKey, batchOperations.timeToLive(key, value));
+        }
+    }
+
+    private Duration staleGracePeriod() {
+        return staleWhileRevalidate != null ? staleWhileRevalidate.getGracePeriod() : null;
+    }
+
+    private void putStaleCopy(Object key, Object value) {
+        if (staleWhileRevalidate != null && value != null) {
+            batchOperations.putStaleCopy(key, value, staleWhileRevalidate.getGracePeriod());
+        }
+    }
+
+    private void addToTag(Object key, Object value) {
+        if (tags != null) {
+            batchOperations.updateTags(Collections.singletonMap(key, value), tags);
+        }
+    }
+
+    private void removeFromTag(Object key) {
+        if (tags != null) {
+            batchOperations.removeFromTags(List.of(key));
+        }
+    }
+
+    private void deleteStaleCopy(Object key) {
+        if (staleWhileRevalidate != null) {
+            batchOperations.deleteStaleCopy(key);
+        }
+    }
+
+    private void forgetAll() {
+        if (hotKeyReplica != null) {
+            hotKeyReplica.clear();
+        }
+        if (refreshAhead != null) {
+            refreshAhead.forgetAll();
+        }
+        if (adaptiveTtl != null) {
+            adaptiveTtl.forgetAll();
+        }
+    }
+
+    private void onRead(String localKey) {
+        if (adaptiveTtl != null) {
+            adaptiveTtl.onRead(localKey);
+        }
+    }
+
+    private void onChange(Object key) {
+        if (adaptiveTtl != null) {
+            adaptiveTtl.onChange(toLocalKey(key));
+        }
+    }
+
+    private void onHotKeyRead(String localKey, Object localValue) {
+        if (hotKeyReplica != null) {
+            hotKeyReplica.onRead(localKey, localValue);
+        }
+    }
+
+    private void evictHotKeyCopy(String localKey) {
+        if (hotKeyReplica != null) {
+            hotKeyReplica.evict(localKey);
+        }
+    }
+
+    private void evictLocal(Object key) {
+        String localKey = toLocalKey(key);
+        epochs.advance(localKey);
+        nearCache.evict(localKey);
+        evictHotKeyCopy(localKey);
+        if (refreshAhead != null) {
+            refreshAhead.forget(localKey);
+        }
+        invalidationBus.publishEvict(getName(), localKey);
+    }
+
+    /**
+     * Puts a copy of a value this instance just wrote into L1, after making readers that started
+     * before the write drop what they read.
+     */
+    private void putLocal(String localKey, Object value) {
+        epochs.advance(localKey);
+        nearCache.put(localKey, copy(toLocalValue(value)));
+    }
+
+    /**
+     * Puts a copy of a value read from Redis into L1, unless the key was written or invalidated
+     * since {@code epoch} was taken.
+     *
+     * @return the copy kept in L1, or {@code null} if it was dropped
+     */
+    private Object putLocalIfUnchanged(String localKey, Object value, long epoch) {
+        if (epochs.current(localKey) != epoch) {
+            return null;
+        }
+        Object copy = copy(toLocalValue(value));
+        nearCache.put(localKey, copy);
+        if (epochs.current(localKey) != epoch) {
+            nearCache.evict(localKey);
+            return null;
+        }
+        return copy;
+    }
+
+    private void clearLocal() {
+        epochs.advanceAll();
+        nearCache.clear();
+        forgetAll();
+    }
+
+    private Object copy(Object localValue) {
+        return localValue == NullValue.INSTANCE ? localValue : valueCopier.apply(localValue);
+    }
+
+    /**
+     * Returns a copy of a value held in L1 or the hot-key replica, so that callers cannot change it.
+     */
+    private Object fromLocalValue(Object value) {
+        return value == NullValue.INSTANCE ? null : valueCopier.apply(value);
+    }
+
+    /**
+     * Cached {@code null}s (negative entries) are kept in L1 as {@link NullValue}, since
+     * {@link NearCache} treats a {@code null} value as absent.
+     */
+    static Object toLocalValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+
+    private static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Collects the tiers and policies of a {@link TwoTierCache}.
+     */
+    public static final class Builder {
+
+        private final Cache delegate;
+        private final CacheInvalidationBus invalidationBus;
+        private final MeterRegistry meterRegistry;
+        private RedisBatchOperations batchOperations;
+        private NearCache nearCache;
+        private UnaryOperator<Object> valueCopier = UnaryOperator.identity();
+        private LoadLease loadLease;
+        private RefreshAhead refreshAhead;
+        private StaleWhileRevalidate staleWhileRevalidate;
+        private AdaptiveTtl adaptiveTtl;
+        private HotKeyReplica hotKeyReplica;
+        private CacheTags tags;
+
+        private Builder(Cache delegate, CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+            this.delegate = delegate;
+            this.invalidationBus = invalidationBus;
+            this.meterRegistry = meterRegistry;
+        }
+
+        /**
+         * @param batchOperations multi-key access to the entries of the delegate
+         * @return this builder
+         */
+        public Builder batchOperations(RedisBatchOperations batchOperations) {
+            this.batchOperations = batchOperations;
+            return this;
+        }
+
+        /**
+         * @param nearCache the in-process L1 cache; without one, every read goes to Redis
+         * @return this builder
+         */
+        public Builder nearCache(NearCache nearCache) {
+            this.nearCache = nearCache;
+            return this;
+        }
+
+        /**
+         * @param valueCopier returns an independent copy of a cached value; values are shared
+         *                    as they are unless one is set
+         * @return this builder
+         */
+        public Builder valueCopier(UnaryOperator<Object> valueCopier) {
+            this.valueCopier = valueCopier;
+            return this;
+        }
+
+        /**
+         * @param loadLease cluster-wide lease for coalescing loads across instances; without one,
+         *                  loads are coalesced within this instance only
+         * @return this builder
+         */
+        public Builder loadLease(LoadLease loadLease) {
+            this.loadLease = loadLease;
+            return this;
+        }
+
+        /**
+         * @param refreshAhead policy for refreshing hot entries before they expire; without one,
+         *                     entries are left to expire
+         * @return this builder
+         */
+        public Builder refreshAhead(RefreshAhead refreshAhead) {
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * @param staleWhileRevalidate policy for serving stale copies of expired entries; without
+         *                             one, no stale copies are kept
+         * @return this builder
+         */
+        public Builder staleWhileRevalidate(StaleWhileRevalidate staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return this;
+        }
+
+        /**
+         * @param adaptiveTtl TTL policy fed with the reads and changes of the cache; it must also
+         *                    be the TTL function of the delegate
+         * @return this builder
+         */
+        public Builder adaptiveTtl(AdaptiveTtl adaptiveTtl) {
+            this.adaptiveTtl = adaptiveTtl;
+            return this;
+        }
+
+        /**
+         * @param hotKeyReplica local copies of the hot keys of the cache; without one, hot keys
+         *                      are not detected
+         * @return this builder
+         */
+        public Builder hotKeyReplica(HotKeyReplica hotKeyReplica) {
+            this.hotKeyReplica = hotKeyReplica;
+            return this;
+        }
+
+        /**
+         * @param tags tagging policy of the cache; without one, entries are not tagged
+         * @return this builder
+         */
+        public Builder tags(CacheTags tags) {
+            this.tags = tags;
+            return this;
+        }
+
+        /**
+         * @return the two-tier cache
+         */
+        public TwoTierCache build() {
+            return new TwoTierCache(this);
+        }
+    }
+}
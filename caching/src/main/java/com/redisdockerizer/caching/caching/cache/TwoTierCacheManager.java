@@ -0,0 +1,396 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CacheManager} that wraps every cache of a {@link RedisCacheManager} in a {@link TwoTierCache}.
+ * <p>
+ * What each cache does beyond reading and writing Redis (its {@link NearCache}, load leases,
+ * refresh-ahead, stale copies, hot-key replicas, tags, sharding, ...) is added by the
+ * {@link CacheFeature}s the manager is created with. Background reloads of all caches share one
+ * bounded {@link RefreshPool}. Invalidations received on the {@link CacheInvalidationBus} are
+ * routed to the matching cache, and per-tier hit/miss counters and hit ratios are registered with
+ * Micrometer under {@code cache.near.*}, and the standard {@code cache.gets}, {@code cache.puts}
+ * and {@code cache.evictions} meters through {@link TwoTierCacheMetrics}.
+ * Executed and coalesced loads are published under {@code cache.loads}, background refreshes
+ * under {@code cache.refreshes} and stale values served under {@code cache.stale.served}.
+ * Hot keys are published under {@code cache.hot.*}.
+ */
+public class TwoTierCacheManager implements CacheManager, DisposableBean {
+
+    private final RedisCacheManager redisCacheManager;
+    private final RedisConnectionFactory connectionFactory;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final RefreshPool refreshPool;
+    private final List<CacheFeature> features;
+
+    private ExecutorService refreshExecutor;
+    private Executor boundedRefreshExecutor;
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new two-tier cache manager.
+     *
+     * @param redisCacheManager manager providing the Redis-backed L2 caches
+     * @param connectionFactory factory used for batch operations and load leases
+     * @param invalidationBus   bus used to keep L1 caches consistent across instances
+     * @param meterRegistry     registry the per-tier statistics are published to
+     * @param refreshPool       sizing of the background reloads of all caches
+     * @param features          features added to every cache they apply to
+     */
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager,
+                               RedisConnectionFactory connectionFactory,
+                               CacheInvalidationBus invalidationBus,
+                               MeterRegistry meterRegistry,
+                               RefreshPool refreshPool,
+                               List<CacheFeature> features) {
+        this.redisCacheManager = redisCacheManager;
+        this.connectionFactory = connectionFactory;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.refreshPool = refreshPool;
+        this.features = List.copyOf(features);
+
+        invalidationBus.subscribe(this::onRemoteInvalidation);
+    }
+
+    /**
+     * Stops the background refresh threads, if they were started.
+     */
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        RedisCache redisCache = (RedisCache) redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> createCache(redisCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * Returns the Redis configuration of a cache, e.g. to read or write its entries without
+     * going through the cache: key prefix, value serializer and TTL function.
+     *
+     * @param name the cache name
+     * @return the configuration, or {@code null} if there is no such cache
+     */
+    public RedisCacheConfiguration getCacheConfiguration(String name) {
+        return redisCacheManager.getCacheConfigurations().get(name);
+    }
+
+    /**
+     * Returns the Redis nodes holding the entries of a cache, e.g. to read or write them without
+     * going through the cache.
+     *
+     * @param name the cache name
+     * @return the shards of a sharded cache, otherwise the single Redis of all other caches
+     */
+    public RedisShards getShards(String name) {
+        return getCache(name) instanceof TwoTierCache cache
+                ? cache.getBatchOperations().getShards()
+                : RedisShards.single(connectionFactory);
+    }
+
+    private TwoTierCache createCache(RedisCache redisCache) {
+        TwoTierCache.Builder builder = TwoTierCache.builder(redisCache, invalidationBus, meterRegistry)
+                .batchOperations(new RedisBatchOperations(connectionFactory, redisCache))
+                .valueCopier(serializationCopier(redisCache));
+        FeatureContext context = new FeatureContext(redisCache);
+        features.forEach(feature -> feature.configure(context, builder));
+
+        TwoTierCache cache = builder.build();
+        registerMetrics(cache, context.refreshScheduler);
+        return cache;
+    }
+
+    /**
+     * Copies values by serializing and deserializing them with the cache's value serializer,
+     * unless a feature registers a cheaper copier.
+     */
+    private static UnaryOperator<Object> serializationCopier(RedisCache redisCache) {
+        RedisSerializationContext.SerializationPair<Object> values =
+                redisCache.getCacheConfiguration().getValueSerializationPair();
+        return value -> values.read(values.write(value));
+    }
+
+    private synchronized Executor refreshExecutor() {
+        if (refreshExecutor == null && refreshPool.virtualThreads()) {
+            refreshExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-refresh-", 1).factory());
+            Semaphore permits = new Semaphore(refreshPool.threads() + refreshPool.queueCapacity());
+            boundedRefreshExecutor = task -> {
+                if (!permits.tryAcquire()) {
+                    throw new RejectedExecutionException("Too many background refreshes in flight");
+                }
+                try {
+                    refreshExecutor.execute(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            };
+        } else if (refreshExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            refreshExecutor = new ThreadPoolExecutor(
+                    refreshPool.threads(), refreshPool.threads(),
+                    0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(refreshPool.queueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+            boundedRefreshExecutor = refreshExecutor;
+        }
+        return boundedRefreshExecutor;
+    }
+
+    private void onRemoteInvalidation(String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.onRemoteInvalidation(key);
+        }
+    }
+
+    private void registerMetrics(TwoTierCache cache, RefreshScheduler refreshScheduler) {
+        String name = cache.getName();
+
+        new TwoTierCacheMetrics(cache, Tags.empty()).bindTo(meterRegistry);
+
+        registerCounter(name, "l1", "hit", cache, TwoTierCache::getL1Hits);
+        registerCounter(name, "l1", "miss", cache, TwoTierCache::getL1Misses);
+        registerCounter(name, "l2", "hit", cache, TwoTierCache::getL2Hits);
+        registerCounter(name, "l2", "miss", cache, TwoTierCache::getL2Misses);
+
+        registerHitRatio(name, "l1", cache, c -> ratio(c.getL1Hits(), c.getL1Misses()));
+        registerHitRatio(name, "l2", cache, c -> ratio(c.getL2Hits(), c.getL2Misses()));
+
+        FunctionCounter.builder("cache.loads", cache.getSingleFlight(), SingleFlight::getExecuted)
+                .description("Loads that ran the underlying loader")
+                .tags("cache", name, "result", "executed")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.loads", cache.getSingleFlight(), SingleFlight::getCoalesced)
+                .description("Loads that waited on an in-flight load of the same key on this instance")
+                .tags("cache", name, "result", "coalesced-local")
+                .register(meterRegistry);
+        if (cache.getLoadLease() != null) {
+            FunctionCounter.builder("cache.loads", cache.getLoadLease(), LoadLease::getCoalesced)
+                    .description("Loads that reused a value published by the lease holder on another instance")
+                    .tags("cache", name, "result", "coalesced-cluster")
+                    .register(meterRegistry);
+        }
+
+        RefreshAhead refreshAhead = cache.getRefreshAhead();
+        if (refreshAhead != null) {
+            FunctionCounter.builder("cache.refreshes", refreshAhead, RefreshAhead::getScheduled)
+                    .description("Background refreshes triggered before an entry expired")
+                    .tags("cache", name, "result", "scheduled")
+                    .register(meterRegistry);
+        }
+        if (refreshScheduler != null) {
+            FunctionCounter.builder("cache.refreshes", refreshScheduler, RefreshScheduler::getRejected)
+                    .description("Background refreshes dropped because the refresh executor was saturated")
+                    .tags("cache", name, "result", "rejected")
+                    .register(meterRegistry);
+            FunctionCounter.builder("cache.refreshes", refreshScheduler, RefreshScheduler::getFailed)
+                    .description("Background refreshes whose loader failed")
+                    .tags("cache", name, "result", "failed")
+                    .register(meterRegistry);
+        }
+        StaleWhileRevalidate stale = cache.getStaleWhileRevalidate();
+        if (stale != null) {
+            FunctionCounter.builder("cache.stale.served", stale, StaleWhileRevalidate::getServedWhileRevalidating)
+                    .description("Stale values served while the entry was revalidated in the background")
+                    .tags("cache", name, "reason", "revalidating")
+                    .register(meterRegistry);
+            FunctionCounter.builder("cache.stale.served", stale, StaleWhileRevalidate::getServedOnError)
+                    .description("Stale values served because reloading the entry failed")
+                    .tags("cache", name, "reason", "error")
+                    .register(meterRegistry);
+        }
+
+        HotKeyReplica hotKeyReplica = cache.getHotKeyReplica();
+        if (hotKeyReplica != null) {
+            registerHotKeyMetrics(name, hotKeyReplica);
+        }
+
+        Gauge.builder("cache.near.size", cache, c -> c.getNearCache().size())
+                .description("Number of entries held in the in-process L1 cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        if (cache.getNearCache() instanceof TinyLfuNearCache weighted) {
+            Gauge.builder("cache.near.weight", weighted, TinyLfuNearCache::getWeightedSize)
+                    .description("Total size of the entries held in the in-process L1 cache")
+                    .baseUnit("bytes")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("cache.near.evictions", weighted, TinyLfuNearCache::getEvictionCount)
+                    .description("L1 entries evicted to make room for others")
+                    .tags("cache", name, "cause", "size")
+                    .register(meterRegistry);
+            FunctionCounter.builder("cache.near.evictions", weighted, TinyLfuNearCache::getRejectionCount)
+                    .description("L1 entries dropped because they were read less often than the entry they would replace")
+                    .tags("cache", name, "cause", "rejected")
+                    .register(meterRegistry);
+        }
+    }
+
+    private void registerHotKeyMetrics(String cacheName, HotKeyReplica replica) {
+        HotKeyDetector detector = replica.getDetector();
+        FunctionCounter.builder("cache.hot.key.events", detector, HotKeyDetector::getPromotions)
+                .description("Keys that became hot and were copied to the local replica")
+                .tags("cache", cacheName, "event", "promoted")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.hot.key.events", detector, HotKeyDetector::getDemotions)
+                .description("Keys that stopped being hot and were dropped from the local replica")
+                .tags("cache", cacheName, "event", "demoted")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.hot.replica.hits", replica, HotKeyReplica::getHits)
+                .description("Reads served from the local copy of a hot key")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        Gauge.builder("cache.hot.keys", detector, HotKeyDetector::size)
+                .description("Number of keys currently hot")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+
+        // Hot keys are tagged by rank rather than by key, so that keys (product IDs, query
+        // parameters) never end up in metric labels and the number of series stays within topK.
+        MultiGauge hotKeyReads = MultiGauge.builder("cache.hot.key.reads")
+                .description("Estimated reads of each hot key in the current window, by rank (1 = hottest)")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        detector.onHotKeysChanged(() -> {
+            List<HotKeyDetector.HotKey> hotKeys = detector.getHotKeys();
+            List<MultiGauge.Row<?>> rows = new ArrayList<>(hotKeys.size());
+            for (int i = 0; i < hotKeys.size(); i++) {
+                String key = hotKeys.get(i).key();
+                rows.add(MultiGauge.Row.of(Tags.of("rank", String.valueOf(i + 1)), detector,
+                        d -> d.getEstimatedReads(key)));
+            }
+            hotKeyReads.register(rows, true);
+        });
+    }
+
+    private void registerCounter(String cacheName, String tier, String result, TwoTierCache cache,
+                                 ToDoubleFunction<TwoTierCache> count) {
+        FunctionCounter.builder("cache.near.requests", cache, count)
+                .description("Lookups per cache tier")
+                .tags("cache", cacheName, "tier", tier, "result", result)
+                .register(meterRegistry);
+    }
+
+    private void registerHitRatio(String cacheName, String tier, TwoTierCache cache,
+                                  ToDoubleFunction<TwoTierCache> ratio) {
+        Gauge.builder("cache.near.hit.ratio", cache, ratio)
+                .description("Hit ratio per cache tier since startup")
+                .tags("cache", cacheName, "tier", tier)
+                .register(meterRegistry);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Sizing of the pool running background refreshes and revalidations of all caches. Work that
+     * does not fit into its queue is dropped; the entry then simply expires.
+     * <p>
+     * With {@code virtualThreads}, every reload runs on its own virtual thread instead of the
+     * fixed pool. Reloads block on the repository, so this lets all of them wait in parallel; at
+     * most {@code threads + queueCapacity} of them are in flight, and further work is dropped as
+     * with the pool.
+     *
+     * @param threads        number of background threads
+     * @param queueCapacity  maximum number of tasks waiting for a thread
+     * @param virtualThreads whether to start a virtual thread per reload
+     */
+    public record RefreshPool(int threads, int queueCapacity, boolean virtualThreads) {
+    }
+
+    /**
+     * The {@link CacheFeature.Context} of one cache; its refresh scheduler is only created if a
+     * feature asks for it.
+     */
+    private final class FeatureContext implements CacheFeature.Context {
+
+        private final RedisCache redisCache;
+        private RefreshScheduler refreshScheduler;
+
+        private FeatureContext(RedisCache redisCache) {
+            this.redisCache = redisCache;
+        }
+
+        @Override
+        public RedisCache getRedisCache() {
+            return redisCache;
+        }
+
+        @Override
+        public RedisConnectionFactory getConnectionFactory() {
+            return connectionFactory;
+        }
+
+        @Override
+        public RefreshScheduler getRefreshScheduler() {
+            if (refreshScheduler == null) {
+                refreshScheduler = new RefreshScheduler(refreshExecutor());
+            }
+            return refreshScheduler;
+        }
+    }
+}
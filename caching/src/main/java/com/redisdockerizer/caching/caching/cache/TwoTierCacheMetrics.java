@@ -0,0 +1,59 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the standard Micrometer cache meters ({@code cache.gets}, {@code cache.puts},
+ * {@code cache.evictions}) for a {@link TwoTierCache}.
+ * <p>
+ * A lookup counts as a hit if either tier served it and as a miss only if Redis missed too;
+ * the per-tier breakdown stays available under {@code cache.near.requests}. The number of
+ * entries in Redis is not tracked, so no {@code cache.size} gauge is registered.
+ */
+public class TwoTierCacheMetrics extends CacheMeterBinder<TwoTierCache> {
+
+    /**
+     * Creates the binder for one cache.
+     *
+     * @param cache the cache to observe
+     * @param tags  additional tags; the cache name is added as {@code cache}
+     */
+    public TwoTierCacheMetrics(TwoTierCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TwoTierCache cache = getCache();
+        return cache == null ? 0 : cache.getL1Hits() + cache.getL2Hits();
+    }
+
+    @Override
+    protected Long missCount() {
+        TwoTierCache cache = getCache();
+        return cache == null ? 0 : cache.getL2Misses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TwoTierCache cache = getCache();
+        return cache == null ? 0 : cache.getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        TwoTierCache cache = getCache();
+        return cache == null ? 0 : cache.getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
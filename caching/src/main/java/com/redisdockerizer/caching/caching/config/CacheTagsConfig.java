@@ -0,0 +1,41 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.CacheTags;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.service.ProductService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * CacheTagsConfig tags {@code products} entries with their category, so a whole category can be
+ * evicted in batches of {@code caching.tags.eviction-batch-size} without scanning the cache.
+ * <p>
+ * Every write then also updates a tag set, so this is only on with {@code caching.tags.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "caching.tags", name = "enabled", havingValue = "true")
+public class CacheTagsConfig {
+
+    /**
+     * Gives the {@code products} cache {@link CacheTags} derived from the product category.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return the category tags {@link CacheFeature}
+     */
+    @Bean
+    public CacheFeature categoryTagsFeature(CachingProperties properties) {
+        CacheTags categoryTags = new CacheTags(
+                value -> value instanceof Product product && product.getCategory() != null
+                        ? ProductService.categoryTag(product.getCategory())
+                        : null,
+                properties.tags().evictionBatchSize(),
+                properties.tags().timeToLive()
+        );
+        CacheFeature feature = (context, cache) -> cache.tags(categoryTags);
+        return feature.onlyFor(List.of("products"));
+    }
+}
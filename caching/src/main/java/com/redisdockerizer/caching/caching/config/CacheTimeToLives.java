@@ -0,0 +1,101 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.AdaptiveTtl;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TTL policies of the caches.
+ * <p>
+ * A cache listed in {@code caching.ttl.adaptive.cache-names} gets an {@link AdaptiveTtl} while
+ * adaptive TTLs are enabled; any other cache gets its {@code caching.ttl.caches.<name>} entry,
+ * or else {@code spring.cache.redis.time-to-live}.
+ */
+public class CacheTimeToLives {
+
+    private final Duration defaultTimeToLive;
+    private final Map<String, Duration> timeToLives;
+    private final Map<String, AdaptiveTtl> adaptiveTtls;
+
+    /**
+     * Creates the TTL policies.
+     *
+     * @param defaultTimeToLive TTL of caches without a policy of their own
+     * @param timeToLives       fixed TTLs by cache name
+     * @param adaptiveTtls      adaptive TTL policies by cache name
+     */
+    public CacheTimeToLives(Duration defaultTimeToLive, Map<String, Duration> timeToLives,
+                            Map<String, AdaptiveTtl> adaptiveTtls) {
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.timeToLives = Map.copyOf(timeToLives);
+        this.adaptiveTtls = Map.copyOf(adaptiveTtls);
+    }
+
+    /**
+     * Creates the TTL policies from the settings.
+     *
+     * @param defaultTimeToLive TTL of caches without a policy of their own
+     * @param defaults          fixed TTLs used unless {@code caching.ttl.caches} overrides them
+     * @param ttl               the {@code caching.ttl} settings
+     * @return the TTL policies
+     */
+    public static CacheTimeToLives of(Duration defaultTimeToLive, Map<String, Duration> defaults,
+                                      CachingProperties.Ttl ttl) {
+        Map<String, Duration> timeToLives = new HashMap<>(defaults);
+        timeToLives.putAll(ttl.caches());
+
+        Map<String, AdaptiveTtl> adaptiveTtls = new HashMap<>();
+        CachingProperties.Adaptive adaptive = ttl.adaptive();
+        if (adaptive.enabled()) {
+            for (String cacheName : adaptive.cacheNames()) {
+                adaptiveTtls.put(cacheName, new AdaptiveTtl(adaptive.minimum(), adaptive.maximum(),
+                        adaptive.hotReadsPerMinute(), adaptive.stableAfter(), adaptive.maximumTrackedKeys()));
+            }
+        }
+        return new CacheTimeToLives(defaultTimeToLive, timeToLives, adaptiveTtls);
+    }
+
+    /**
+     * @return the caches with a TTL policy of their own
+     */
+    public Set<String> getCacheNames() {
+        Set<String> cacheNames = new HashSet<>(timeToLives.keySet());
+        cacheNames.addAll(adaptiveTtls.keySet());
+        return cacheNames;
+    }
+
+    /**
+     * @return the TTL of caches without a policy of their own
+     */
+    public Duration getDefaultTimeToLive() {
+        return defaultTimeToLive;
+    }
+
+    /**
+     * Resolves the TTL policy of a cache: its adaptive policy if it has one, otherwise its
+     * configured TTL, otherwise the default TTL.
+     *
+     * @param cacheName the cache name
+     * @return the TTL function of the cache
+     */
+    public RedisCacheWriter.TtlFunction forCache(String cacheName) {
+        AdaptiveTtl adaptiveTtl = adaptiveTtls.get(cacheName);
+        if (adaptiveTtl != null) {
+            return adaptiveTtl;
+        }
+        return RedisCacheWriter.TtlFunction.just(timeToLives.getOrDefault(cacheName, defaultTimeToLive));
+    }
+
+    /**
+     * @param cacheName the cache name
+     * @return the adaptive TTL policy of the cache, or {@code null} if it uses a fixed TTL
+     */
+    public AdaptiveTtl getAdaptiveTtl(String cacheName) {
+        return adaptiveTtls.get(cacheName);
+    }
+}
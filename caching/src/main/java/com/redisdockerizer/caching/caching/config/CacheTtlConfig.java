@@ -0,0 +1,56 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.AdaptiveTtl;
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * CacheTtlConfig decides how long the entries of each cache live in Redis.
+ * <p>
+ * {@code spring.cache.redis.time-to-live} applies to every cache without an entry under
+ * {@code caching.ttl.caches}. With {@code caching.ttl.adaptive.enabled=true}, the caches in
+ * {@code caching.ttl.adaptive.cache-names} get an {@link AdaptiveTtl} instead, fed with their
+ * reads and changes.
+ */
+@Configuration
+public class CacheTtlConfig {
+
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private static final Map<String, Duration> DEFAULT_TIME_TO_LIVES = Map.of(
+            "products", Duration.ofMinutes(5),
+            "product-queries", Duration.ofMinutes(1)
+    );
+
+    /**
+     * Creates the TTL policies of the caches.
+     *
+     * @param properties      the {@code caching.*} settings
+     * @param cacheProperties the {@code spring.cache.*} settings
+     * @return the {@link CacheTimeToLives} the Redis cache configurations are created from
+     */
+    @Bean
+    public CacheTimeToLives cacheTimeToLives(CachingProperties properties, CacheProperties cacheProperties) {
+        Duration defaultTimeToLive = cacheProperties.getRedis().getTimeToLive();
+        return CacheTimeToLives.of(defaultTimeToLive != null ? defaultTimeToLive : DEFAULT_TIME_TO_LIVE,
+                DEFAULT_TIME_TO_LIVES, properties.ttl());
+    }
+
+    /**
+     * Reports the reads and changes of the caches with an adaptive TTL to their policies.
+     *
+     * @param timeToLives the TTL policies of the caches
+     * @return the adaptive TTL {@link CacheFeature}
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "caching.ttl.adaptive", name = "enabled", havingValue = "true")
+    public CacheFeature adaptiveTtlFeature(CacheTimeToLives timeToLives) {
+        return (context, cache) -> cache.adaptiveTtl(timeToLives.getAdaptiveTtl(context.getRedisCache().getName()));
+    }
+}
@@ -0,0 +1,219 @@
+package com.redisdockerizer.caching.caching.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of the caches, bound from {@code caching.*} (see {@code application.yml} for what each
+ * of them does). The defaults below apply to settings missing from the configuration.
+ * <p>
+ * The product store, persistence, seed data, warm-up and async settings under {@code caching.*}
+ * belong to the components using them and are not bound here.
+ *
+ * @param nearCache    the in-process L1 cache in front of Redis
+ * @param serializer   value formats of individual caches
+ * @param compression  compression of large {@code products} values
+ * @param ttl          fixed and adaptive TTLs per cache
+ * @param negative     caching of missing products
+ * @param singleFlight coalescing of concurrent misses
+ * @param refreshAhead background refresh of entries about to expire
+ * @param stale        stale copies served beyond the TTL
+ * @param hotKeys      detection and local replication of the most read keys
+ * @param tags         category tags of {@code products} entries
+ * @param sharding     spreading of caches across several Redis nodes
+ * @param metrics      Redis command latency meters
+ */
+@ConfigurationProperties("caching")
+public record CachingProperties(
+        @DefaultValue NearCache nearCache,
+        @DefaultValue Serializer serializer,
+        @DefaultValue Compression compression,
+        @DefaultValue Ttl ttl,
+        @DefaultValue Negative negative,
+        @DefaultValue SingleFlight singleFlight,
+        @DefaultValue RefreshAhead refreshAhead,
+        @DefaultValue Stale stale,
+        @DefaultValue HotKeys hotKeys,
+        @DefaultValue Tags tags,
+        @DefaultValue Sharding sharding,
+        @DefaultValue Metrics metrics
+) {
+
+    /**
+     * @param enabled             whether caches have an L1 at all
+     * @param policy              {@code w-tinylfu} (bounded by weight) or {@code lru} (bounded by size)
+     * @param maximumWeight       maximum serialized size of the L1 entries per cache (w-tinylfu)
+     * @param maximumSize         maximum number of L1 entries per cache (lru)
+     * @param timeToLive          maximum age of an L1 entry
+     * @param invalidationChannel pub/sub channel evicting L1 entries on other instances
+     */
+    public record NearCache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("w-tinylfu") String policy,
+            @DefaultValue("32MB") DataSize maximumWeight,
+            @DefaultValue("10000") int maximumSize,
+            @DefaultValue("30s") Duration timeToLive,
+            @DefaultValue("caching:near-cache:invalidation") String invalidationChannel
+    ) {
+    }
+
+    /**
+     * @param products value format of the {@code products} cache: {@code binary} or {@code json}
+     */
+    public record Serializer(@DefaultValue("binary") String products) {
+    }
+
+    /**
+     * @param enabled   whether large {@code products} values are deflated
+     * @param threshold minimum serialized size of a compressed value
+     * @param level     deflater level, 1 (fastest) to 9 (smallest)
+     */
+    public record Compression(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1KB") DataSize threshold,
+            @DefaultValue("1") int level
+    ) {
+    }
+
+    /**
+     * @param caches   TTL per cache name, overriding {@code spring.cache.redis.time-to-live}
+     * @param adaptive TTLs derived from read frequency and change rate
+     */
+    public record Ttl(@DefaultValue Map<String, Duration> caches, @DefaultValue Adaptive adaptive) {
+    }
+
+    /**
+     * @param enabled            whether the caches in {@code cacheNames} get an adaptive TTL
+     * @param cacheNames         caches with an adaptive TTL
+     * @param minimum            TTL of cold or recently changed entries
+     * @param maximum            TTL approached by hot, long unchanged entries
+     * @param hotReadsPerMinute  read rate at which an entry counts as half hot
+     * @param stableAfter        time without changes after which an entry counts as half stable
+     * @param maximumTrackedKeys maximum number of keys per cache whose reads and changes are tracked
+     */
+    public record Adaptive(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("products") List<String> cacheNames,
+            @DefaultValue("1m") Duration minimum,
+            @DefaultValue("1h") Duration maximum,
+            @DefaultValue("10") double hotReadsPerMinute,
+            @DefaultValue("10m") Duration stableAfter,
+            @DefaultValue("10000") int maximumTrackedKeys
+    ) {
+    }
+
+    /**
+     * @param timeToLive how long a missing product ID is cached
+     */
+    public record Negative(@DefaultValue("30s") Duration timeToLive) {
+    }
+
+    /**
+     * @param cluster coalescing of misses across instances
+     */
+    public record SingleFlight(@DefaultValue Cluster cluster) {
+    }
+
+    /**
+     * @param enabled      whether misses are coalesced across instances with a Redis lease
+     * @param leaseTime    maximum time a lease is held
+     * @param pollInterval how often instances without the lease re-check Redis
+     */
+    public record Cluster(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("5s") Duration leaseTime,
+            @DefaultValue("50ms") Duration pollInterval
+    ) {
+    }
+
+    /**
+     * @param enabled            whether entries read shortly before they expire are reloaded
+     * @param beta               weight of the observed load time; larger values refresh earlier
+     * @param maximumTrackedKeys maximum number of keys per cache whose expiry is tracked
+     * @param threads            background reload threads shared by all caches
+     * @param queueCapacity      pending reloads beyond which further ones are dropped
+     */
+    public record RefreshAhead(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1.0") double beta,
+            @DefaultValue("10000") int maximumTrackedKeys,
+            @DefaultValue("2") int threads,
+            @DefaultValue("1000") int queueCapacity
+    ) {
+    }
+
+    /**
+     * @param enabled         whether the caches in {@code cacheNames} keep stale copies
+     * @param cacheNames      caches that keep stale copies
+     * @param whileRevalidate how long after expiry a stale copy is served while it is revalidated
+     * @param ifError         how long after expiry a stale copy is served when reloading fails
+     */
+    public record Stale(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("products") List<String> cacheNames,
+            @DefaultValue("30s") Duration whileRevalidate,
+            @DefaultValue("5m") Duration ifError
+    ) {
+    }
+
+    /**
+     * @param enabled           whether hot keys of the caches in {@code cacheNames} are replicated
+     * @param cacheNames        caches whose hot keys are detected
+     * @param sampleRate        count one in this many reads
+     * @param window            sliding window the read counts cover
+     * @param topK              maximum number of hot keys per cache
+     * @param minimumReads      estimated reads per window from which a top key counts as hot
+     * @param replicaTimeToLive maximum age of a local copy
+     */
+    public record HotKeys(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("products") List<String> cacheNames,
+            @DefaultValue("16") int sampleRate,
+            @DefaultValue("10s") Duration window,
+            @DefaultValue("16") int topK,
+            @DefaultValue("1000") long minimumReads,
+            @DefaultValue("1s") Duration replicaTimeToLive
+    ) {
+    }
+
+    /**
+     * @param enabled           whether {@code products} entries are tagged with their category
+     * @param evictionBatchSize keys popped from a tag set and unlinked per round trip
+     * @param timeToLive        how long a tag set outlives its last write
+     */
+    public record Tags(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("500") int evictionBatchSize,
+            @DefaultValue("2h") Duration timeToLive
+    ) {
+    }
+
+    /**
+     * @param enabled        whether the caches in {@code cacheNames} are spread across {@code nodes}
+     * @param cacheNames     caches whose entries are sharded
+     * @param nodes          {@code host:port} of every shard node
+     * @param virtualNodes   positions per node on the hash ring
+     * @param commandTimeout command timeout per shard
+     * @param retryAfter     how long a failed shard is skipped
+     */
+    public record Sharding(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("products") List<String> cacheNames,
+            @DefaultValue List<String> nodes,
+            @DefaultValue("160") int virtualNodes,
+            @DefaultValue("250ms") Duration commandTimeout,
+            @DefaultValue("5s") Duration retryAfter
+    ) {
+    }
+
+    /**
+     * @param redisLatencyHistogram whether {@code lettuce.command.*} latencies publish histogram buckets
+     */
+    public record Metrics(@DefaultValue("true") boolean redisLatencyHistogram) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.HotKeyDetector;
+import com.redisdockerizer.caching.caching.cache.HotKeyReplica;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HotKeyConfig detects the most read keys of {@code caching.hot-keys.cache-names} from sampled
+ * reads and serves them from a short-lived per-instance copy refreshed in the background.
+ * <p>
+ * On unless {@code caching.hot-keys.enabled} is {@code false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "caching.hot-keys", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class HotKeyConfig {
+
+    /**
+     * Gives the caches in {@code caching.hot-keys.cache-names} a {@link HotKeyReplica}.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return the hot-key replication {@link CacheFeature}
+     */
+    @Bean
+    public CacheFeature hotKeyReplicationFeature(CachingProperties properties) {
+        CachingProperties.HotKeys hotKeys = properties.hotKeys();
+        CacheFeature feature = (context, cache) -> cache.hotKeyReplica(new HotKeyReplica(
+                new HotKeyDetector(hotKeys.sampleRate(), hotKeys.window(), hotKeys.topK(), hotKeys.minimumReads()),
+                hotKeys.replicaTimeToLive(),
+                context.getRefreshScheduler()
+        ));
+        return feature.onlyFor(hotKeys.cacheNames());
+    }
+}
@@ -0,0 +1,37 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.LoadLease;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * LoadCoalescingConfig coalesces cache misses across instances.
+ * <p>
+ * Concurrent misses for a key are always coalesced within an instance. With
+ * {@code caching.single-flight.cluster.enabled=true}, the instance that misses first also takes a
+ * short {@link LoadLease} in Redis, and the others wait for the value it loads instead of loading
+ * it themselves.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "caching.single-flight.cluster", name = "enabled", havingValue = "true")
+public class LoadCoalescingConfig {
+
+    /**
+     * Gives every cache a load lease under {@code caching:load-lease:<cache>::}.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return the cluster load coalescing {@link CacheFeature}
+     */
+    @Bean
+    public CacheFeature clusterLoadCoalescingFeature(CachingProperties properties) {
+        CachingProperties.Cluster cluster = properties.singleFlight().cluster();
+        return (context, cache) -> cache.loadLease(new LoadLease(
+                context.getConnectionFactory(),
+                "caching:load-lease:" + context.getRedisCache().getName() + "::",
+                cluster.leaseTime(),
+                cluster.pollInterval()
+        ));
+    }
+}
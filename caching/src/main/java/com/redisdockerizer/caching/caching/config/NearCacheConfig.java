@@ -0,0 +1,98 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.CacheInvalidationBus;
+import com.redisdockerizer.caching.caching.cache.LruNearCache;
+import com.redisdockerizer.caching.caching.cache.TinyLfuNearCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * NearCacheConfig fronts every cache with a bounded in-process near cache (L1), kept consistent
+ * across instances through a Redis pub/sub channel.
+ * <p>
+ * With {@code caching.near-cache.policy=w-tinylfu} (the default), an L1 holds at most
+ * {@code caching.near-cache.maximum-weight} bytes of entries and W-TinyLFU admission decides which
+ * to keep; with {@code lru}, it holds at most {@code caching.near-cache.maximum-size} entries.
+ * {@code caching.near-cache.enabled=false} sends every read to Redis.
+ */
+@Configuration
+public class NearCacheConfig {
+
+    private static final int NULL_VALUE_WEIGHT = 16;
+
+    /**
+     * Creates the bus that propagates near-cache invalidations between application instances.
+     *
+     * @param properties        the {@code caching.*} settings
+     * @param connectionFactory RedisConnectionFactory used to publish invalidation messages.
+     * @return a {@link CacheInvalidationBus} publishing to the configured channel.
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(CachingProperties properties,
+                                                     RedisConnectionFactory connectionFactory) {
+        return new CacheInvalidationBus(connectionFactory, properties.nearCache().invalidationChannel());
+    }
+
+    /**
+     * Creates the listener container that subscribes the {@link CacheInvalidationBus}
+     * to its pub/sub channel so that writes on other instances evict local L1 entries.
+     *
+     * @param connectionFactory   RedisConnectionFactory used for the subscription.
+     * @param cacheInvalidationBus the bus receiving invalidation messages.
+     * @return a configured {@link RedisMessageListenerContainer}.
+     */
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            CacheInvalidationBus cacheInvalidationBus
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        return container;
+    }
+
+    /**
+     * Gives every cache a near cache bounded as {@code caching.near-cache.policy} says.
+     * <p>
+     * Weighted near caches weigh {@code products} values by their uncompressed binary (or JSON)
+     * size, as they are held in memory uncompressed and must not show up in the compression
+     * metrics. Values of other caches are weighed by their size serialized with the cache's value
+     * serializer, and cached {@code null}s by {@value #NULL_VALUE_WEIGHT} bytes.
+     *
+     * @param properties        the {@code caching.*} settings
+     * @param productSerializer the uncompressed value serializer of the {@code products} cache
+     * @return the near cache {@link CacheFeature}
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "caching.near-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CacheFeature nearCacheFeature(CachingProperties properties, RedisSerializer<Object> productSerializer) {
+        CachingProperties.NearCache nearCache = properties.nearCache();
+        if (!"w-tinylfu".equalsIgnoreCase(nearCache.policy())) {
+            return (context, cache) -> cache.nearCache(
+                    new LruNearCache(nearCache.maximumSize(), nearCache.timeToLive()));
+        }
+        return (context, cache) -> {
+            ToIntFunction<Object> weigher;
+            if ("products".equals(context.getRedisCache().getName())) {
+                weigher = value -> productSerializer.serialize(value).length;
+            } else {
+                RedisSerializationContext.SerializationPair<Object> values =
+                        context.getRedisCache().getCacheConfiguration().getValueSerializationPair();
+                weigher = value -> values.write(value).remaining();
+            }
+            cache.nearCache(new TinyLfuNearCache(nearCache.maximumWeight().toBytes(), nearCache.timeToLive(),
+                    value -> value == NullValue.INSTANCE ? NULL_VALUE_WEIGHT : weigher.applyAsInt(value)));
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.repository.ProductJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * PersistenceConfig makes the in-memory product repository durable.
+ * <p>
+ * With {@code caching.persistence.enabled=true} a {@link ProductJournal} is created in
+ * {@code caching.persistence.directory}; the repository restores itself from it on startup,
+ * so the JSON seed data is only loaded into an empty directory.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "caching.persistence", name = "enabled", havingValue = "true")
+public class PersistenceConfig {
+
+    @Value("${caching.persistence.directory:data/journal}")
+    private Path directory;
+
+    @Value("${caching.persistence.snapshot-interval:5m}")
+    private Duration snapshotInterval;
+
+    /**
+     * Creates the product journal. It is opened by {@code ProductRepository} and closed,
+     * after flushing all queued writes, when the context shuts down.
+     *
+     * @return the product journal
+     */
+    @Bean(destroyMethod = "close")
+    public ProductJournal productJournal() {
+        return new ProductJournal(directory, snapshotInterval);
+    }
+}
@@ -0,0 +1,102 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.CacheGeneration;
+import com.redisdockerizer.caching.caching.cache.CacheInvalidationBus;
+import com.redisdockerizer.caching.caching.cache.TwoTierCacheManager;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.serializer.ProductRedisSerializer;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * ProductCacheConfig holds what is specific to the {@code products} and {@code product-queries}
+ * caches: the product value format, how cached products are copied, the generation of query
+ * pages and the template the reactive endpoints read and write product entries with.
+ */
+@Configuration
+public class ProductCacheConfig {
+
+    /**
+     * Creates the uncompressed value serializer of the {@code products} cache.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return the binary product serializer, or the generic JSON serializer if
+     * {@code caching.serializer.products} is {@code json}.
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public RedisSerializer<Object> productSerializer(CachingProperties properties) {
+        return "json".equalsIgnoreCase(properties.serializer().products())
+                ? new GenericJackson2JsonRedisSerializer()
+                : (RedisSerializer<Object>) (RedisSerializer<?>) new ProductRedisSerializer();
+    }
+
+    /**
+     * Copies products with {@link Product#copy()} on their way into and out of the near cache,
+     * instead of serializing and deserializing them.
+     *
+     * @return the product copier {@link CacheFeature}
+     */
+    @Bean
+    public CacheFeature productValueCopierFeature() {
+        CacheFeature feature = (context, cache) ->
+                cache.valueCopier(value -> value instanceof Product product ? product.copy() : value);
+        return feature.onlyFor(List.of("products"));
+    }
+
+    /**
+     * Creates the generation that is part of every {@code product-queries} key, advanced on every
+     * product write instead of clearing the cache.
+     *
+     * @param connectionFactory    RedisConnectionFactory holding the generation counter.
+     * @param cacheInvalidationBus bus announcing new generations to the other instances.
+     * @return the {@link CacheGeneration} of the {@code product-queries} cache.
+     */
+    @Bean
+    public CacheGeneration productQueryGeneration(RedisConnectionFactory connectionFactory,
+                                                  CacheInvalidationBus cacheInvalidationBus) {
+        return new CacheGeneration("product-queries", connectionFactory, cacheInvalidationBus);
+    }
+
+    /**
+     * Creates a non-blocking template over the entries of the {@code products} cache, used by the
+     * reactive endpoints to read and write them without going through the cache abstraction.
+     * <p>
+     * Keys are plain strings (the cache's key prefix followed by the product ID). Values use the
+     * cache's serializer; negative entries are read and written as {@link NullValue}, encoded the
+     * way {@link org.springframework.data.redis.cache.RedisCache} encodes cached {@code null}s.
+     *
+     * @param connectionFactory ReactiveRedisConnectionFactory sharing the Lettuce connection.
+     * @param cacheManager      the cache manager holding the {@code products} configuration.
+     * @return a {@link ReactiveRedisTemplate} compatible with the {@code products} cache.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> productCacheReactiveTemplate(
+            ReactiveRedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager
+    ) {
+        RedisSerializationContext.SerializationPair<Object> products =
+                cacheManager.getCacheConfiguration("products").getValueSerializationPair();
+        ByteBuffer nullValue = ByteBuffer.wrap(RedisSerializer.java().serialize(NullValue.INSTANCE)).asReadOnlyBuffer();
+
+        RedisSerializationContext.SerializationPair<Object> values = RedisSerializationContext.SerializationPair.just(
+                buffer -> nullValue.equals(buffer) ? NullValue.INSTANCE : products.read(buffer),
+                value -> value instanceof NullValue ? nullValue.duplicate() : products.write(value)
+        );
+        return new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisSerializer.string())
+                .value(values)
+                .build());
+    }
+}
@@ -0,0 +1,41 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.repository.InMemoryProductStore;
+import com.redisdockerizer.caching.caching.repository.OffHeapProductStore;
+import com.redisdockerizer.caching.caching.repository.ProductStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * ProductStoreConfig selects where {@code ProductRepository} keeps its products.
+ * <p>
+ * {@code caching.store.type=heap} (the default) keeps {@code Product} objects in a concurrent map;
+ * {@code off-heap} keeps them serialized in direct memory slabs of {@code caching.store.slab-size},
+ * trading a deserialization per read for far less garbage-collected heap on large catalogs.
+ */
+@Configuration
+public class ProductStoreConfig {
+
+    @Value("${caching.store.type:heap}")
+    private String storeType;
+
+    @Value("${caching.store.slab-size:256KB}")
+    private DataSize slabSize;
+
+    /**
+     * Creates the product store selected by {@code caching.store.type}.
+     *
+     * @return the product store
+     */
+    @Bean
+    public ProductStore productStore() {
+        return switch (storeType) {
+            case "heap" -> new InMemoryProductStore();
+            case "off-heap" -> new OffHeapProductStore(Math.toIntExact(slabSize.toBytes()));
+            default -> throw new IllegalArgumentException(
+                    "Unknown caching.store.type '" + storeType + "', expected heap or off-heap");
+        };
+    }
+}
@@ -1,50 +1,97 @@
 package com.redisdockerizer.caching.caching.config;
 
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.CacheInvalidationBus;
+import com.redisdockerizer.caching.caching.cache.InstrumentedRedisCacheWriter;
+import com.redisdockerizer.caching.caching.cache.RedisShards;
+import com.redisdockerizer.caching.caching.cache.ShardedRedisCacheWriter;
+import com.redisdockerizer.caching.caching.cache.TwoTierCacheManager;
+import com.redisdockerizer.caching.caching.serializer.CompressingRedisSerializer;
+import com.redisdockerizer.caching.caching.serializer.ProductRedisSerializer;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * RedisCacheConfig class provides the configuration for setting up Redis as a cache manager in a Spring application.
  * It enables caching using the @EnableCaching annotation and configures Redis as the underlying caching mechanism.
  * <p>
  * This configuration utilizes a RedisConnectionFactory to create a CacheManager that manages caching operations
- * with Redis. It sets up Redis to store data in a serialized JSON format and defines a default Time-To-Live (TTL)
- * of 5 minutes for cache entries. Additionally, it ensures that null values are not cached.
+ * with Redis. It sets up Redis to store data in a serialized JSON format and applies the key prefix from
+ * {@code spring.cache.redis} and the TTLs of {@link CacheTimeToLives}.
+ * Additionally, it ensures that null values are not cached.
+ * <p>
+ * Redis acts as the shared second-level (L2) cache. Each cache is fronted by a bounded in-process
+ * near cache (L1) that is kept consistent across instances through a Redis pub/sub channel.
+ * Everything else a cache does is a {@link CacheFeature} wired by its own configuration
+ * ({@link NearCacheConfig}, {@link RefreshAheadConfig}, {@link StaleCacheConfig}, ...), bound from
+ * {@link CachingProperties}.
  *
  * @see org.springframework.cache.CacheManager
  * @see org.springframework.data.redis.cache.RedisCacheManager
  * @see org.springframework.data.redis.connection.RedisConnectionFactory
  */
 @Configuration
+@EnableConfigurationProperties({CachingProperties.class, CacheProperties.class})
 public class RedisCacheConfig {
 
-    @Value("${spring.data.redis.host}")
-    private String redisHost;
-
-    @Value("${spring.data.redis.port}")
-    private int redisPort;
-
     /**
      * Creates a {@link LettuceConnectionFactory} bean for establishing a connection to the Redis server.
-     * It is configured using the provided host and port values.
+     * It is configured using the host and port from {@code spring.data.redis}.
+     * <p>
+     * The client uses the auto-configured {@link ClientResources}, so every command's latency is
+     * recorded under {@code lettuce.command.completion} and {@code lettuce.command.firstresponse}.
      *
+     * @param redisProperties the {@code spring.data.redis} settings.
+     * @param clientResources shared Lettuce resources, including the Micrometer latency recorder.
      * @return a configured {@link LettuceConnectionFactory} instance used to interact with the Redis server.
      */
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory(redisHost, redisPort);
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties,
+                                                           ClientResources clientResources) {
+        return new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redisProperties.getHost(), redisProperties.getPort()),
+                LettuceClientConfiguration.builder().clientResources(clientResources).build()
+        );
+    }
+
+    /**
+     * Configures the Lettuce command latency meters: p50/p95/p99 per command, plus a histogram
+     * for server-side aggregation unless {@code caching.metrics.redis-latency-histogram} is {@code false}.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return options for the {@code MicrometerCommandLatencyRecorder} registered by Spring Boot.
+     */
+    @Bean
+    public MicrometerOptions micrometerOptions(CachingProperties properties) {
+        return MicrometerOptions.builder()
+                .histogram(properties.metrics().redisLatencyHistogram())
+                .targetPercentiles(new double[]{0.5, 0.95, 0.99})
+                .build();
     }
 
     /**
@@ -70,27 +117,123 @@ public class RedisCacheConfig {
     }
 
     /**
-     * Creates a CacheManager bean backed by Redis for managing caching operations.
+     * Creates a two-tier CacheManager bean backed by Redis for managing caching operations.
      * <p>
-     * - Data will be serialized in JSON format using the GenericJackson2JsonRedisSerializer.
-     * - The default TTL (Time-To-Live) for cache entries is set to 5 minutes.
-     * - Caching of null values is disabled.
+     * - Data will be serialized in JSON format using the GenericJackson2JsonRedisSerializer,
+     *   except for the {@code products} cache, which uses the compact {@link ProductRedisSerializer}
+     *   unless {@code caching.serializer.products} is set to {@code json}. Large product values
+     *   are deflated above {@code caching.compression.threshold}.
+     * - Entries live as long as {@link CacheTimeToLives} says.
+     * - Keys are prefixed with {@code spring.cache.redis.key-prefix}, followed by the cache name.
+     * - Caching of null values is disabled, except in the {@code products} cache, where a
+     *   missing product is cached for {@code caching.negative.time-to-live} (negative entry).
+     * - With {@code caching.sharding.enabled}, the entries of {@code caching.sharding.cache-names}
+     *   are spread across {@code caching.sharding.nodes} with consistent hashing.
+     * - Every {@link CacheFeature} bean is added to the caches it applies to.
+     * - Background reloads share a pool of {@code caching.refresh-ahead.threads}; with
+     *   {@code spring.threads.virtual.enabled}, they run on virtual threads, like the request
+     *   threads that perform foreground loads.
+     * - Every cache publishes hits, misses, puts, evictions, load times, serialized value sizes
+     *   and the latency of the Redis commands it issues.
      *
-     * @param connectionFactory RedisConnectionFactory used to connect to the Redis server.
-     * @return RedisCacheManager configured for Redis-based caching operations.
+     * @param properties            the {@code caching.*} settings
+     * @param cacheProperties       the {@code spring.cache.*} settings
+     * @param connectionFactory     RedisConnectionFactory used to connect to the Redis server.
+     * @param cacheInvalidationBus  bus used to invalidate near-cache entries on other instances.
+     * @param meterRegistry         registry the cache statistics are published to.
+     * @param redisShards           nodes the sharded caches are spread across.
+     * @param timeToLives           TTL policies of the caches.
+     * @param productSerializer     the uncompressed value serializer of the {@code products} cache.
+     * @param features              the features of the caches.
+     * @param virtualThreadsEnabled whether background reloads run on virtual threads.
+     * @return a {@link TwoTierCacheManager} layering near caches over a {@link RedisCacheManager}.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(CachingProperties properties,
+                                            CacheProperties cacheProperties,
+                                            RedisConnectionFactory connectionFactory,
+                                            CacheInvalidationBus cacheInvalidationBus,
+                                            MeterRegistry meterRegistry,
+                                            RedisShards redisShards,
+                                            CacheTimeToLives timeToLives,
+                                            RedisSerializer<Object> productSerializer,
+                                            ObjectProvider<CacheFeature> features,
+                                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        String keyPrefix = cacheProperties.getRedis().getKeyPrefix() != null ? cacheProperties.getRedis().getKeyPrefix() : "";
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
+                .entryTtl(timeToLives.getDefaultTimeToLive())
+                .prefixCacheNameWith(keyPrefix)
                 .disableCachingNullValues()
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair
                                 .fromSerializer(new GenericJackson2JsonRedisSerializer())
                 );
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheWriter.TtlFunction productTtl = timeToLives.forCache("products");
+        RedisCacheConfiguration productCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl((key, value) -> value != null
+                        ? productTtl.getTimeToLive(key, value)
+                        : properties.negative().timeToLive())
+                .prefixCacheNameWith(keyPrefix)
+                .serializeValuesWith(productSerializationPair(properties.compression(), productSerializer, meterRegistry));
+
+        Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
+        for (String cacheName : timeToLives.getCacheNames()) {
+            cacheConfigs.put(cacheName, cacheConfig.entryTtl(timeToLives.forCache(cacheName)));
+        }
+        cacheConfigs.put("products", productCacheConfig);
+
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(
+                connectionFactory, BatchStrategies.scan(1000));
+        if (redisShards.isSharded()) {
+            cacheWriter = new ShardedRedisCacheWriter(cacheWriter, Set.copyOf(properties.sharding().cacheNames()),
+                    redisShards, nodeConnectionFactory -> RedisCacheWriter.nonLockingRedisCacheWriter(
+                            nodeConnectionFactory, BatchStrategies.scan(1000)));
+        }
+        RedisCacheManager redisCacheManager = RedisCacheManager
+                .builder(new InstrumentedRedisCacheWriter(cacheWriter, meterRegistry))
                 .cacheDefaults(cacheConfig)
+                .withInitialCacheConfigurations(cacheConfigs)
                 .build();
+        redisCacheManager.initializeCaches();
+
+        return new TwoTierCacheManager(
+                redisCacheManager,
+                connectionFactory,
+                cacheInvalidationBus,
+                meterRegistry,
+                new TwoTierCacheManager.RefreshPool(properties.refreshAhead().threads(),
+                        properties.refreshAhead().queueCapacity(), virtualThreadsEnabled),
+                features.orderedStream().toList()
+        );
+    }
+
+    /**
+     * Wraps the value serializer of the {@code products} cache for Redis.
+     * <p>
+     * Values at or above {@code caching.compression.threshold} are compressed unless
+     * {@code caching.compression.enabled} is {@code false}.
+     *
+     * @param compression       the {@code caching.compression} settings.
+     * @param productSerializer the uncompressed value serializer.
+     * @param meterRegistry     registry the compression metrics are published to.
+     * @return the product serializer, optionally wrapped in a {@link CompressingRedisSerializer}.
+     */
+    private static RedisSerializationContext.SerializationPair<?> productSerializationPair(
+            CachingProperties.Compression compression,
+            RedisSerializer<Object> productSerializer,
+            MeterRegistry meterRegistry
+    ) {
+        RedisSerializer<Object> serializer = productSerializer;
+        if (compression.enabled()) {
+            serializer = new CompressingRedisSerializer<>(
+                    serializer,
+                    (int) compression.threshold().toBytes(),
+                    compression.level(),
+                    meterRegistry,
+                    "products"
+            );
+        }
+        return RedisSerializationContext.SerializationPair.fromSerializer(serializer);
     }
 }
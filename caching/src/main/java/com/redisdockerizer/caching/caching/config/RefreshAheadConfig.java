@@ -0,0 +1,31 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.RefreshAhead;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RefreshAheadConfig reloads entries in the background when they are read shortly before they
+ * expire (probabilistic early refresh), so hot keys do not all expire at once.
+ * <p>
+ * On unless {@code caching.refresh-ahead.enabled} is {@code false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "caching.refresh-ahead", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshAheadConfig {
+
+    /**
+     * Gives every cache a {@link RefreshAhead} policy.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return the refresh-ahead {@link CacheFeature}
+     */
+    @Bean
+    public CacheFeature refreshAheadFeature(CachingProperties properties) {
+        CachingProperties.RefreshAhead refreshAhead = properties.refreshAhead();
+        return (context, cache) -> cache.refreshAhead(new RefreshAhead(
+                refreshAhead.beta(), refreshAhead.maximumTrackedKeys(), context.getRefreshScheduler()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.RedisBatchOperations;
+import com.redisdockerizer.caching.caching.cache.RedisShards;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.resource.ClientResources;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ShardingConfig spreads the entries of {@code caching.sharding.cache-names} across the Redis nodes
+ * in {@code caching.sharding.nodes} with consistent hashing, once {@code caching.sharding.enabled}
+ * is {@code true}. Leases, invalidations and all other caches stay on {@code spring.data.redis}.
+ */
+@Configuration
+public class ShardingConfig {
+
+    /**
+     * Creates the Redis nodes the caches in {@code caching.sharding.cache-names} are spread across.
+     * <p>
+     * Unless {@code caching.sharding.enabled} is {@code true}, this is the single default Redis.
+     * Otherwise every {@code host:port} in {@code caching.sharding.nodes} gets its own connection
+     * factory. Their commands time out after {@code caching.sharding.command-timeout} and are
+     * rejected right away while the node is disconnected, so an unreachable node turns into cache
+     * misses instead of stalled requests.
+     *
+     * @param properties        the {@code caching.*} settings
+     * @param connectionFactory the default Redis connection factory.
+     * @param clientResources   shared Lettuce resources, including the Micrometer latency recorder.
+     * @return the {@link RedisShards}, which also publish per-node error and availability meters.
+     */
+    @Bean
+    public RedisShards redisShards(CachingProperties properties, RedisConnectionFactory connectionFactory,
+                                   ClientResources clientResources) {
+        CachingProperties.Sharding sharding = properties.sharding();
+        if (!sharding.enabled()) {
+            return RedisShards.single(connectionFactory);
+        }
+        if (sharding.nodes().isEmpty()) {
+            throw new IllegalStateException("caching.sharding.nodes must list at least one host:port");
+        }
+
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .clientResources(clientResources)
+                .commandTimeout(sharding.commandTimeout())
+                .clientOptions(ClientOptions.builder()
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .build())
+                .build();
+        Map<String, LettuceConnectionFactory> nodes = new LinkedHashMap<>();
+        for (String node : sharding.nodes()) {
+            String address = node.trim();
+            int separator = address.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid caching.sharding.nodes entry, expected host:port: " + address);
+            }
+            LettuceConnectionFactory nodeConnectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(address.substring(0, separator),
+                            Integer.parseInt(address.substring(separator + 1))),
+                    clientConfiguration
+            );
+            nodeConnectionFactory.afterPropertiesSet();
+            nodeConnectionFactory.start();
+            nodes.put(address, nodeConnectionFactory);
+        }
+        return new RedisShards(nodes, sharding.virtualNodes(), sharding.retryAfter());
+    }
+
+    /**
+     * Sends the batch reads and writes, stale copies and TTL lookups of the sharded caches to the
+     * node owning each key. Their single-key commands are routed by the
+     * {@link com.redisdockerizer.caching.caching.cache.ShardedRedisCacheWriter} of the Redis cache manager.
+     *
+     * @param properties  the {@code caching.*} settings
+     * @param redisShards the nodes the sharded caches are spread across
+     * @return the sharding {@link CacheFeature}
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "caching.sharding", name = "enabled", havingValue = "true")
+    public CacheFeature shardingFeature(CachingProperties properties, RedisShards redisShards) {
+        CacheFeature feature = (context, cache) ->
+                cache.batchOperations(new RedisBatchOperations(redisShards, context.getRedisCache()));
+        return feature.onlyFor(properties.sharding().cacheNames());
+    }
+}
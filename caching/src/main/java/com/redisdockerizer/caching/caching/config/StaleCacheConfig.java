@@ -0,0 +1,34 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.cache.CacheFeature;
+import com.redisdockerizer.caching.caching.cache.StaleWhileRevalidate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * StaleCacheConfig keeps a stale copy of the entries of {@code caching.stale.cache-names} beyond
+ * their TTL, served for {@code caching.stale.while-revalidate} while an expired entry is reloaded
+ * in the background, and for {@code caching.stale.if-error} when reloading it fails.
+ * <p>
+ * Every write then costs an extra Redis command, so this is only on with
+ * {@code caching.stale.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "caching.stale", name = "enabled", havingValue = "true")
+public class StaleCacheConfig {
+
+    /**
+     * Gives the caches in {@code caching.stale.cache-names} a {@link StaleWhileRevalidate} policy.
+     *
+     * @param properties the {@code caching.*} settings
+     * @return the stale copies {@link CacheFeature}
+     */
+    @Bean
+    public CacheFeature staleWhileRevalidateFeature(CachingProperties properties) {
+        CachingProperties.Stale stale = properties.stale();
+        CacheFeature feature = (context, cache) -> cache.staleWhileRevalidate(new StaleWhileRevalidate(
+                stale.whileRevalidate(), stale.ifError(), context.getRefreshScheduler()));
+        return feature.onlyFor(stale.cacheNames());
+    }
+}
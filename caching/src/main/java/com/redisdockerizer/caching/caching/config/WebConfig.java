@@ -0,0 +1,25 @@
+package com.redisdockerizer.caching.caching.config;
+
+import com.redisdockerizer.caching.caching.controller.StaleResponseAdvice;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * WebConfig registers the interceptors of the MVC endpoints.
+ * <p>
+ * {@link StaleResponseAdvice} records the stale cache reads of each request, so that it can mark
+ * responses containing a stale value.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final StaleResponseAdvice staleResponseAdvice;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(staleResponseAdvice);
+    }
+}
@@ -0,0 +1,74 @@
+package com.redisdockerizer.caching.caching.controller;
+
+import com.redisdockerizer.caching.caching.exception.ProductNotFoundException;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.service.AsyncProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous variant of the product lookup of {@link ProductController}, served through
+ * {@link AsyncProductService}.
+ * <p>
+ * Handlers return a {@link CompletableFuture}, so the request thread is released as soon as
+ * the handler returns; the response is written when the cached value arrives from Redis or the
+ * repository load on the dedicated load pool completes. A slow repository therefore no longer
+ * pins a request thread per miss.
+ *
+ * <h2>HTTP Base Path</h2>
+ * <pre>/api/async/products</pre>
+ *
+ * <h2>Notes</h2>
+ * <ul>
+ *   <li>Cache entries are shared with {@link ProductController}.</li>
+ *   <li>When the load pool is saturated, requests are answered with {@code 503}.</li>
+ *   <li>Expired entries are reloaded rather than served from their stale copy, so responses
+ *       never carry {@code X-Cache-Stale}.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/async/products")
+@RequiredArgsConstructor
+public class AsyncProductController {
+
+    private final AsyncProductService productService;
+
+    /**
+     * Retrieves a single product by its unique identifier.
+     *
+     * @param id the product UUID.
+     * @return a future completing with the product.
+     * @throws ProductNotFoundException if the product does not exist (mapped to HTTP 404).
+     * @see ProductController#getProductById
+     */
+    @GetMapping("/{id}")
+    public CompletableFuture<Product> getProductById(@PathVariable UUID id) {
+        return productService.getById(id).thenApply(product -> {
+            if (product == null) {
+                throw new ProductNotFoundException();
+            }
+            return product;
+        });
+    }
+
+    /**
+     * Answers loads rejected by the saturated load pool.
+     *
+     * @param e the rejection.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void loadPoolSaturated(RejectedExecutionException e) {
+        // the status is all the client needs; the pool size is published under executor.*
+    }
+}
@@ -1,14 +1,28 @@
 package com.redisdockerizer.caching.caching.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.dto.ProductPageResponse;
 import com.redisdockerizer.caching.caching.exception.ProductNotFoundException;
 import com.redisdockerizer.caching.caching.model.Product;
 import com.redisdockerizer.caching.caching.service.ProductService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
@@ -41,20 +55,82 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final char NDJSON_LINE_SEPARATOR = '\n';
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all products.
+     * Retrieves all products, optionally filtered by category and price range.
      * <p>
      * Intended to exercise read-through cache behavior when the service layer
      * is backed by Redis. Later identical requests should serve data from
      * cache (given a stable dataset and proper cache configuration).
+     * <p>
+     * A category filter is resolved through the repository's category index, so
+     * only that category's products are visited. Add {@code limit} to page through
+     * the results instead (see {@link #getProductPage}).
      *
+     * @param category category to match (case-insensitive); optional.
+     * @param minPrice inclusive lower price bound; optional.
+     * @param maxPrice inclusive upper price bound; optional.
      * @return list of products (possibly empty).
+     * @throws com.redisdockerizer.caching.caching.exception.InvalidPriceRangeException if minPrice is above maxPrice (HTTP 400).
      */
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public List<Product> getAllProducts(@RequestParam(required = false) String category,
+                                        @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+                                        @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice) {
+        return productService.findProducts(category, minPrice, maxPrice);
+    }
+
+    /**
+     * Retrieves one page of products using cursor-based pagination.
+     * <p>
+     * Products are ordered by ID, so pages stay stable while products are added or
+     * removed elsewhere in the catalog. Pass the returned {@code nextCursor} back as
+     * {@code cursor} (with the same filters) to fetch the following page; it is
+     * {@code null} on the last page. Result pages are cached until the next write.
+     *
+     * @param category category to match (case-insensitive); optional.
+     * @param minPrice inclusive lower price bound; optional.
+     * @param maxPrice inclusive upper price bound; optional.
+     * @param cursor opaque cursor from the previous page; omit for the first page.
+     * @param limit  page size (1 to {@value #MAX_PAGE_SIZE}).
+     * @return the requested page.
+     * @throws com.redisdockerizer.caching.caching.exception.InvalidCursorException if the cursor is malformed (HTTP 400).
+     * @throws com.redisdockerizer.caching.caching.exception.InvalidPriceRangeException if minPrice is above maxPrice (HTTP 400).
+     */
+    @GetMapping(params = "limit")
+    public ProductPageResponse getProductPage(@RequestParam(required = false) String category,
+                                              @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+                                              @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        return productService.getPage(category, minPrice, maxPrice, cursor, limit);
+    }
+
+    /**
+     * Streams all products as newline-delimited JSON ({@code application/x-ndjson}).
+     * <p>
+     * Products are written to the response one by one while the repository is
+     * iterated, so memory use stays flat regardless of catalog size.
+     *
+     * @return a streaming body writing one JSON product per line.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                productService.forEachProduct(product -> writeLine(generator, product));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -74,6 +150,22 @@ public class ProductController {
                 .orElseThrow(ProductNotFoundException::new);
     }
 
+    /**
+     * Retrieves several products by their unique identifiers in a single request.
+     * <p>
+     * Intended for pages that render many products at once. All IDs are resolved
+     * with one cache round trip, and the misses with one repository call, instead of
+     * one request (and one cache lookup) per product. Unknown IDs are omitted from
+     * the response.
+     *
+     * @param ids the product UUIDs (at most {@value #MAX_BATCH_SIZE}).
+     * @return the products found, in request order.
+     */
+    @PostMapping("/batch")
+    public List<Product> getProductsByIds(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<UUID> ids) {
+        return productService.getByIds(ids);
+    }
+
     /**
      * Creates a new product.
      * <p>
@@ -127,6 +219,21 @@ public class ProductController {
         }
     }
 
+    /**
+     * Evicts the cached entries of every product in a category (admin operation).
+     * <p>
+     * Use after repricing a whole category instead of evicting products one at a time or
+     * clearing the entire {@code products} cache. Only the category's entries are touched, so
+     * the response time grows with the size of the category, not of the cache.
+     *
+     * @param category the category (case-insensitive).
+     * @return number of cache entries evicted.
+     */
+    @DeleteMapping("/cache/categories/{category}")
+    public long evictCategory(@PathVariable String category) {
+        return productService.evictCategory(category);
+    }
+
     /**
      * Returns the total number of products.
      * <p>
@@ -140,4 +247,13 @@ public class ProductController {
     public long getProductCount() {
         return productService.count();
     }
-}
\ No newline at end of file
+
+    private void writeLine(JsonGenerator generator, Product product) {
+        try {
+            objectMapper.writeValue(generator, product);
+            generator.writeRaw(NDJSON_LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
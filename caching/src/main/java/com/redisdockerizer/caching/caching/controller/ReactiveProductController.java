@@ -0,0 +1,193 @@
+package com.redisdockerizer.caching.caching.controller;
+
+import com.redisdockerizer.caching.caching.dto.ProductPageResponse;
+import com.redisdockerizer.caching.caching.exception.ProductNotFoundException;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.service.ReactiveProductService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Non-blocking variant of {@link ProductController}, serving the same endpoints through
+ * {@link ReactiveProductService}.
+ * <p>
+ * Every handler returns a {@link Mono} or {@link Flux}, so the request thread is released as
+ * soon as the handler returns and the response is written when the Redis reply (or the
+ * offloaded repository call) arrives. Under high concurrency, slow Redis round trips and cache
+ * misses no longer hold a servlet thread each; compare both controllers with
+ * {@code ProductReactiveBenchmark}.
+ *
+ * <h2>HTTP Base Path</h2>
+ * <pre>/api/reactive/products</pre>
+ *
+ * <h2>Notes</h2>
+ * <ul>
+ *   <li>Cache entries are shared with {@link ProductController}; the near cache is not used.</li>
+ *   <li>Request bodies and parameters are validated as in {@link ProductController}.</li>
+ * </ul>
+ */
+@Validated
+@RestController
+@RequestMapping("/api/reactive/products")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveProductService productService;
+
+    /**
+     * Retrieves all products, optionally filtered by category and price range.
+     *
+     * @param category category to match (case-insensitive); optional.
+     * @param minPrice inclusive lower price bound; optional.
+     * @param maxPrice inclusive upper price bound; optional.
+     * @return products (possibly none).
+     * @see ProductController#getAllProducts
+     */
+    @GetMapping
+    public Flux<Product> getAllProducts(@RequestParam(required = false) String category,
+                                        @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+                                        @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice) {
+        return productService.findProducts(category, minPrice, maxPrice);
+    }
+
+    /**
+     * Retrieves one page of products using cursor-based pagination.
+     *
+     * @param category category to match (case-insensitive); optional.
+     * @param minPrice inclusive lower price bound; optional.
+     * @param maxPrice inclusive upper price bound; optional.
+     * @param cursor opaque cursor from the previous page; omit for the first page.
+     * @param limit  page size (1 to {@value #MAX_PAGE_SIZE}).
+     * @return the requested page.
+     * @see ProductController#getProductPage
+     */
+    @GetMapping(params = "limit")
+    public Mono<ProductPageResponse> getProductPage(@RequestParam(required = false) String category,
+                                                    @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+                                                    @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        return productService.getPage(category, minPrice, maxPrice, cursor, limit);
+    }
+
+    /**
+     * Streams all products as newline-delimited JSON ({@code application/x-ndjson}).
+     * <p>
+     * Each product is written and flushed as it is emitted; the repository is read page by
+     * page as the client keeps up.
+     *
+     * @return all products, one JSON product per line.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> streamProducts() {
+        return productService.streamProducts();
+    }
+
+    /**
+     * Retrieves a single product by its unique identifier.
+     *
+     * @param id the product UUID.
+     * @return the product if found.
+     * @throws ProductNotFoundException if the product does not exist (mapped to HTTP 404).
+     */
+    @GetMapping("/{id}")
+    public Mono<Product> getProductById(@PathVariable UUID id) {
+        return productService.getById(id)
+                .switchIfEmpty(Mono.error(ProductNotFoundException::new));
+    }
+
+    /**
+     * Retrieves several products by their unique identifiers in a single request.
+     * <p>
+     * The IDs are looked up with pipelined {@code MGET}s and the misses with one
+     * repository call. Unknown IDs are omitted from the response.
+     *
+     * @param ids the product UUIDs (at most {@value #MAX_BATCH_SIZE}).
+     * @return the products found, in request order.
+     */
+    @PostMapping("/batch")
+    public Mono<List<Product>> getProductsByIds(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<UUID> ids) {
+        return productService.getByIds(ids);
+    }
+
+    /**
+     * Creates a new product. Any provided {@code id} is ignored in favor of a newly generated one.
+     *
+     * @param product the product payload (without an ID).
+     * @return the persisted product.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Product> createProduct(@Valid @RequestBody Product product) {
+        product.setId(null);
+        return productService.create(product);
+    }
+
+    /**
+     * Updates an existing product.
+     *
+     * @param id      the product UUID to update.
+     * @param product the new product state (validated).
+     * @return the updated product if it exists.
+     * @throws ProductNotFoundException if the product does not exist (mapped to HTTP 404).
+     */
+    @PutMapping("/{id}")
+    public Mono<Product> updateProduct(@PathVariable UUID id,
+                                       @Valid @RequestBody Product product) {
+        return productService.update(id, product)
+                .switchIfEmpty(Mono.error(ProductNotFoundException::new));
+    }
+
+    /**
+     * Deletes a product by its unique identifier.
+     *
+     * @param id the product UUID to delete.
+     * @return completes once the product is deleted.
+     * @throws ProductNotFoundException if the product does not exist (mapped to HTTP 404).
+     */
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteProduct(@PathVariable UUID id) {
+        return productService.delete(id)
+                .flatMap(deleted -> deleted ? Mono.<Void>empty() : Mono.error(new ProductNotFoundException()));
+    }
+
+    /**
+     * Evicts the cached entries of every product in a category (admin operation).
+     *
+     * @param category the category (case-insensitive).
+     * @return number of cache entries evicted.
+     * @see ProductController#evictCategory
+     */
+    @DeleteMapping("/cache/categories/{category}")
+    public Mono<Long> evictCategory(@PathVariable String category) {
+        return productService.evictCategory(category);
+    }
+
+    /**
+     * Returns the total number of products.
+     *
+     * @return total product count.
+     */
+    @GetMapping("/count")
+    public Mono<Long> getProductCount() {
+        return productService.count();
+    }
+}
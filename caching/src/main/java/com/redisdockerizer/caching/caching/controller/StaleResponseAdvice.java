@@ -0,0 +1,65 @@
+package com.redisdockerizer.caching.caching.controller;
+
+import com.redisdockerizer.caching.caching.cache.StaleReads;
+import com.redisdockerizer.caching.caching.cache.StaleWhileRevalidate;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks responses that contain a stale cache value with the {@value #STALE_HEADER} header.
+ * <p>
+ * As an interceptor (registered by {@code WebConfig}), it has {@link StaleReads} record on the
+ * request thread while a handler runs; {@link StaleWhileRevalidate} records there whenever it
+ * serves a stale copy, and this advice turns that into a response header before the body is
+ * written.
+ * <p>
+ * Only blocking cache lookups serve stale copies, so {@code /api/async/products} and
+ * {@code /api/reactive/products} responses never carry the header: a missing entry is reloaded
+ * there instead.
+ */
+@RestControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object>, AsyncHandlerInterceptor {
+
+    static final String STALE_HEADER = "X-Cache-Stale";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StaleReads.begin();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        StaleReads.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StaleReads.end();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (StaleReads.isStale()) {
+            response.getHeaders().set(STALE_HEADER, "true");
+        }
+        return body;
+    }
+}
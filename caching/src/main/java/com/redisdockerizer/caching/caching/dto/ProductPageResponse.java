@@ -0,0 +1,21 @@
+package com.redisdockerizer.caching.caching.dto;
+
+import com.redisdockerizer.caching.caching.model.Product;
+
+import java.util.List;
+
+/**
+ * Represents one page of a cursor-paginated product listing.
+ * <p>
+ * Fields:
+ * - items: The products on this page, ordered by product ID.
+ * - nextCursor: Opaque cursor to pass as {@code cursor} to fetch the next page,
+ *   or {@code null} if this is the last page.
+ * <p>
+ * This response is returned by {@code GET /api/products?limit=...} in the {@code ProductController}.
+ */
+public record ProductPageResponse(
+        List<Product> items,
+        String nextCursor
+) {
+}
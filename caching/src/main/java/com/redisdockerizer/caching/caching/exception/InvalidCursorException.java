@@ -0,0 +1,23 @@
+package com.redisdockerizer.caching.caching.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a pagination cursor supplied by a client cannot be decoded.
+ * <p>
+ * Mapped to {@code HttpStatus.BAD_REQUEST (400)}; cursors are opaque and must be
+ * passed back exactly as returned by a previous page.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 4217693526384716205L;
+
+    public InvalidCursorException() {
+        super("Invalid pagination cursor.");
+    }
+}
@@ -0,0 +1,23 @@
+package com.redisdockerizer.caching.caching.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.math.BigDecimal;
+
+/**
+ * Thrown when a product query asks for a minimum price above its maximum price.
+ * <p>
+ * Mapped to {@code HttpStatus.BAD_REQUEST (400)}.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPriceRangeException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = -3021784419586230815L;
+
+    public InvalidPriceRangeException(BigDecimal minPrice, BigDecimal maxPrice) {
+        super("minPrice " + minPrice + " is greater than maxPrice " + maxPrice + ".");
+    }
+}
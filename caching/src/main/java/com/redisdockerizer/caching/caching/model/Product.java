@@ -36,4 +36,11 @@ public class Product implements Serializable {
     private BigDecimal price;
     private String description;
 
+    /**
+     * @return a new product with the same field values
+     */
+    public Product copy() {
+        return new Product(id, name, category, price, description);
+    }
+
 }
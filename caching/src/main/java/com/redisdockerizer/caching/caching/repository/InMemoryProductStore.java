@@ -0,0 +1,44 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * {@link ProductStore} that keeps {@link Product} objects in a {@link ConcurrentHashMap}.
+ * <p>
+ * Reads return the stored instances without copying, which makes this the fastest store, but
+ * every product and its fields stay on the heap and are traced by the garbage collector.
+ */
+public class InMemoryProductStore implements ProductStore {
+
+    private final ConcurrentHashMap<UUID, Product> products = new ConcurrentHashMap<>();
+
+    @Override
+    public Product get(UUID id) {
+        return products.get(id);
+    }
+
+    @Override
+    public boolean containsKey(UUID id) {
+        return products.containsKey(id);
+    }
+
+    @Override
+    public Product compute(UUID id, BiFunction<UUID, Product, Product> remappingFunction) {
+        return products.compute(id, remappingFunction);
+    }
+
+    @Override
+    public void forEach(Consumer<Product> action) {
+        products.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+}
@@ -0,0 +1,314 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.serializer.ProductRedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * {@link ProductStore} that keeps products serialized outside the Java heap.
+ * <p>
+ * Products are encoded with {@link ProductRedisSerializer} and appended to direct
+ * {@link ByteBuffer} slabs as {@code [length][bytes]} records. An open-addressing table of
+ * {@code long}s maps the two halves of each UUID to the slab and offset of its record, so the
+ * heap only holds a few primitive arrays and slab handles, however many products are stored.
+ * {@link Product} objects are materialized on every read and are garbage immediately after use.
+ * <p>
+ * The store is split into segments by key hash, each with its own table, slabs and read/write
+ * lock. Overwritten and deleted records are left in place; once a segment's dead bytes exceed
+ * both its live bytes and one slab, its live records are copied into fresh slabs and the old
+ * slabs are released.
+ */
+public class OffHeapProductStore implements ProductStore {
+
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int INITIAL_SLOTS = 256;
+
+    private static final long EMPTY = 0;
+    private static final long DELETED = -1;
+
+    private final ProductRedisSerializer serializer = new ProductRedisSerializer();
+    private final int slabSize;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * Creates an empty store.
+     *
+     * @param slabSize size in bytes of each direct buffer; larger records get a slab of their own
+     */
+    public OffHeapProductStore(int slabSize) {
+        this.slabSize = slabSize;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public Product get(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+
+        byte[] bytes;
+        segment.lock.readLock().lock();
+        try {
+            int slot = segment.find(hash, msb, lsb);
+            bytes = slot < 0 ? null : segment.read(segment.location(slot));
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+        return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    @Override
+    public boolean containsKey(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.readLock().lock();
+        try {
+            return segment.find(hash, msb, lsb) >= 0;
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Product compute(UUID id, BiFunction<UUID, Product, Product> remappingFunction) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.find(hash, msb, lsb);
+            Product current = slot < 0 ? null : serializer.deserialize(segment.read(segment.location(slot)));
+            Product updated = remappingFunction.apply(id, current);
+            if (updated != null) {
+                segment.put(hash, msb, lsb, slot, serializer.serialize(updated));
+            } else if (slot >= 0) {
+                segment.remove(slot);
+            }
+            segment.compactIfNeeded();
+            return updated;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each segment's records are copied out under its read lock and materialized afterwards,
+     * so at most one segment's worth of products is on the heap at a time.
+     */
+    @Override
+    public void forEach(Consumer<Product> action) {
+        for (Segment segment : segments) {
+            List<byte[]> records;
+            segment.lock.readLock().lock();
+            try {
+                records = segment.readAll();
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+            records.forEach(bytes -> action.accept(serializer.deserialize(bytes)));
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * @return bytes of direct memory currently allocated for slabs
+     */
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                for (ByteBuffer slab : segment.slabs) {
+                    allocated += slab.capacity();
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return allocated;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> SEGMENT_SHIFT)];
+    }
+
+    private static long hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 32;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * One lock's worth of the store. The table holds three {@code long}s per slot: the UUID's
+     * most and least significant bits and the record location, encoded as
+     * {@code (slab index + 1) << 32 | offset} so that {@code 0} can mark an empty slot.
+     */
+    private final class Segment {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private ByteBuffer current;
+
+        private long[] table = new long[INITIAL_SLOTS * 3];
+        private int mask = INITIAL_SLOTS - 1;
+        private volatile int size;
+        private int deleted;
+
+        private long liveBytes;
+        private long deadBytes;
+
+        int find(long hash, long msb, long lsb) {
+            int slot = (int) hash & mask;
+            while (true) {
+                long location = table[slot * 3 + 2];
+                if (location == EMPTY) {
+                    return -1;
+                }
+                if (location != DELETED && table[slot * 3] == msb && table[slot * 3 + 1] == lsb) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        long location(int slot) {
+            return table[slot * 3 + 2];
+        }
+
+        void put(long hash, long msb, long lsb, int slot, byte[] bytes) {
+            long location = append(ByteBuffer.wrap(bytes));
+            if (slot >= 0) {
+                release(table[slot * 3 + 2]);
+                table[slot * 3 + 2] = location;
+                return;
+            }
+
+            int capacity = mask + 1;
+            if ((size + deleted + 1) * 4L > capacity * 3L) {
+                rehash((size + 1) * 2L > capacity ? capacity * 2 : capacity);
+            }
+            slot = (int) hash & mask;
+            while (table[slot * 3 + 2] != EMPTY && table[slot * 3 + 2] != DELETED) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot * 3 + 2] == DELETED) {
+                deleted--;
+            }
+            table[slot * 3] = msb;
+            table[slot * 3 + 1] = lsb;
+            table[slot * 3 + 2] = location;
+            size++;
+        }
+
+        void remove(int slot) {
+            release(table[slot * 3 + 2]);
+            table[slot * 3 + 2] = DELETED;
+            size--;
+            deleted++;
+        }
+
+        byte[] read(long location) {
+            ByteBuffer slab = slabs.get((int) (location >>> 32) - 1);
+            int offset = (int) location;
+            byte[] bytes = new byte[slab.getInt(offset)];
+            slab.get(offset + Integer.BYTES, bytes);
+            return bytes;
+        }
+
+        List<byte[]> readAll() {
+            List<byte[]> records = new ArrayList<>(size);
+            for (int slot = 0; slot <= mask; slot++) {
+                long location = table[slot * 3 + 2];
+                if (location != EMPTY && location != DELETED) {
+                    records.add(read(location));
+                }
+            }
+            return records;
+        }
+
+        void compactIfNeeded() {
+            if (deadBytes <= slabSize || deadBytes <= liveBytes) {
+                return;
+            }
+            List<ByteBuffer> old = new ArrayList<>(slabs);
+            slabs.clear();
+            current = null;
+            liveBytes = 0;
+            deadBytes = 0;
+            for (int slot = 0; slot <= mask; slot++) {
+                long location = table[slot * 3 + 2];
+                if (location != EMPTY && location != DELETED) {
+                    ByteBuffer slab = old.get((int) (location >>> 32) - 1);
+                    int offset = (int) location;
+                    table[slot * 3 + 2] = append(slab.slice(offset + Integer.BYTES, slab.getInt(offset)));
+                }
+            }
+        }
+
+        private long append(ByteBuffer record) {
+            int length = Integer.BYTES + record.remaining();
+            if (current == null || current.remaining() < length) {
+                current = ByteBuffer.allocateDirect(Math.max(slabSize, length));
+                slabs.add(current);
+            }
+            int offset = current.position();
+            current.putInt(record.remaining()).put(record);
+            liveBytes += length;
+            return (long) slabs.size() << 32 | offset;
+        }
+
+        private void release(long location) {
+            ByteBuffer slab = slabs.get((int) (location >>> 32) - 1);
+            int length = Integer.BYTES + slab.getInt((int) location);
+            liveBytes -= length;
+            deadBytes += length;
+        }
+
+        private void rehash(int capacity) {
+            long[] old = table;
+            table = new long[capacity * 3];
+            mask = capacity - 1;
+            deleted = 0;
+            for (int i = 0; i < old.length; i += 3) {
+                long location = old[i + 2];
+                if (location == EMPTY || location == DELETED) {
+                    continue;
+                }
+                int slot = (int) hash(old[i], old[i + 1]) & mask;
+                while (table[slot * 3 + 2] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot * 3] = old[i];
+                table[slot * 3 + 1] = old[i + 1];
+                table[slot * 3 + 2] = location;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter over the IDs of the products held by {@link ProductRepository}.
+ * <p>
+ * {@link #mightContain(UUID)} never returns {@code false} for an ID that was added and not
+ * removed, so a negative answer proves that a product does not exist. A positive answer is
+ * wrong with roughly the configured false-positive probability while the filter holds no more
+ * than the expected number of IDs.
+ * <p>
+ * Each slot is a 4-bit counter (16 per {@code long}), which allows IDs to be removed again.
+ * A counter that reaches its maximum stays there, trading a slightly higher false-positive
+ * rate for never producing a false negative. Slots are hashed from the UUID's two halves
+ * with double hashing.
+ */
+class ProductIdFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+    private final AtomicLongArray words;
+    private final int slots;
+    private final int hashFunctions;
+
+    /**
+     * Creates a filter sized for the given number of IDs.
+     *
+     * @param expectedInsertions       number of IDs the filter is sized for
+     * @param falsePositiveProbability target false-positive probability at that size
+     */
+    ProductIdFilter(int expectedInsertions, double falsePositiveProbability) {
+        double ln2 = Math.log(2);
+        long optimalSlots = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+        this.slots = (int) Math.max(COUNTERS_PER_WORD, Math.min(optimalSlots, Integer.MAX_VALUE - COUNTERS_PER_WORD));
+        this.hashFunctions = Math.max(1, (int) Math.round((double) slots / expectedInsertions * ln2));
+        this.words = new AtomicLongArray((slots + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    /**
+     * Adds an ID. Must be called once per ID that becomes present.
+     *
+     * @param id the product ID
+     */
+    void add(UUID id) {
+        long h1 = mix(id.getLeastSignificantBits());
+        long h2 = mix(id.getMostSignificantBits()) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            update(slot(h1, h2, i), 1);
+        }
+    }
+
+    /**
+     * Removes an ID that was previously added.
+     *
+     * @param id the product ID
+     */
+    void remove(UUID id) {
+        long h1 = mix(id.getLeastSignificantBits());
+        long h2 = mix(id.getMostSignificantBits()) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            update(slot(h1, h2, i), -1);
+        }
+    }
+
+    /**
+     * @param id the product ID
+     * @return {@code false} if the ID is definitely absent, {@code true} if it may be present
+     */
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getLeastSignificantBits());
+        long h2 = mix(id.getMostSignificantBits()) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            int slot = slot(h1, h2, i);
+            if (counter(words.get(slot / COUNTERS_PER_WORD), slot) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slot(long h1, long h2, int i) {
+        return (int) Math.floorMod(h1 + i * h2, (long) slots);
+    }
+
+    private void update(int slot, int delta) {
+        int word = slot / COUNTERS_PER_WORD;
+        int shift = (slot % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            long current = words.get(word);
+            long counter = (current >>> shift) & COUNTER_MAX;
+            if (counter == COUNTER_MAX || (delta < 0 && counter == 0)) {
+                return;
+            }
+            long updated = current + ((long) delta << shift);
+            if (words.compareAndSet(word, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static long counter(long word, int slot) {
+        return (word >>> ((slot % COUNTERS_PER_WORD) * COUNTER_BITS)) & COUNTER_MAX;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,246 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary indexes over the products held by {@link ProductRepository}.
+ * <p>
+ * Two indexes are maintained incrementally:
+ * <ul>
+ *   <li>category → product IDs, each set sorted by ID so category listings can be paged</li>
+ *   <li>price → product IDs, sorted by price so price ranges resolve with a sub-map view, and
+ *   each price's IDs sorted by ID so the IDs of a range can be merged into ID order</li>
+ * </ul>
+ * Categories are matched case-insensitively. Prices are compared with
+ * {@link BigDecimal#compareTo(BigDecimal)}, so {@code 10.0} and {@code 10.00} share an entry.
+ * <p>
+ * The index is not synchronized with the product map by itself; callers must apply
+ * {@link #replace(Product, Product)} for a given product ID one at a time.
+ */
+class ProductIndex {
+
+    private final ConcurrentMap<String, NavigableSet<UUID>> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> categorySizes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<BigDecimal, NavigableSet<UUID>> byPrice = new ConcurrentSkipListMap<>();
+
+    /**
+     * Moves a product's index entries from its previous state to its current state.
+     *
+     * @param previous the product as it was indexed before, or {@code null} if it is new
+     * @param current  the product as it is stored now, or {@code null} if it was removed
+     */
+    void replace(Product previous, Product current) {
+        if (previous != null) {
+            removeFromCategory(previous);
+            removeFromPrice(previous);
+        }
+        if (current != null) {
+            addToCategory(current);
+            addToPrice(current);
+        }
+    }
+
+    /**
+     * Returns the IDs of all products in a category, sorted by ID.
+     *
+     * @param category the category (case-insensitive)
+     * @return a live, sorted view of the matching IDs
+     */
+    NavigableSet<UUID> idsInCategory(String category) {
+        NavigableSet<UUID> ids = byCategory.get(normalize(category));
+        return ids != null ? ids : Collections.emptyNavigableSet();
+    }
+
+    /**
+     * Returns the number of products in a category, without counting them.
+     *
+     * @param category the category (case-insensitive)
+     * @return the size of {@link #idsInCategory(String)}
+     */
+    int categorySize(String category) {
+        AtomicInteger size = categorySizes.get(normalize(category));
+        return size != null ? size.get() : 0;
+    }
+
+    /**
+     * Counts the distinct prices within the given bounds, stopping at {@code limit}. Merging a
+     * range costs about one step per distinct price, so this is what a range query has to visit
+     * before it can return its first ID.
+     *
+     * @param minPrice inclusive lower bound, or {@code null} for no lower bound
+     * @param maxPrice inclusive upper bound, or {@code null} for no upper bound
+     * @param limit    count at which to stop
+     * @return the number of distinct prices in the range, at most {@code limit}
+     */
+    int distinctPricesInRange(BigDecimal minPrice, BigDecimal maxPrice, int limit) {
+        int count = 0;
+        for (Iterator<BigDecimal> prices = priceRange(minPrice, maxPrice).keySet().iterator();
+             count < limit && prices.hasNext(); prices.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the IDs of all products priced within the given bounds, in ascending ID order.
+     * <p>
+     * The ID-sorted sets of the prices in the range are merged from the cursor onwards, so
+     * reading a page costs one step per distinct price in the range plus a logarithmic step
+     * per returned ID, independent of the size of the catalog. Iteration is weakly consistent;
+     * an ID moved between prices concurrently may be returned twice in a row.
+     *
+     * @param minPrice inclusive lower bound, or {@code null} for no lower bound
+     * @param maxPrice inclusive upper bound, or {@code null} for no upper bound
+     * @param afterId  only IDs greater than this one are returned, or {@code null} for all
+     * @return the matching IDs in ascending order
+     */
+    Iterator<UUID> idsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice, UUID afterId) {
+        PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(Comparator.comparing(PeekingIterator::peek));
+        for (NavigableSet<UUID> ids : priceRange(minPrice, maxPrice).values()) {
+            Iterator<UUID> iterator = (afterId == null ? ids : ids.tailSet(afterId, false)).iterator();
+            if (iterator.hasNext()) {
+                heads.add(new PeekingIterator(iterator));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public UUID next() {
+                PeekingIterator head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                UUID id = head.next();
+                if (head.hasNext()) {
+                    heads.add(head);
+                }
+                return id;
+            }
+        };
+    }
+
+    /**
+     * Checks whether a product belongs to the given category using the index's matching rules.
+     *
+     * @param product  the product to check
+     * @param category the category (case-insensitive)
+     * @return {@code true} if the product is in the category
+     */
+    static boolean inCategory(Product product, String category) {
+        return product.getCategory() != null && normalize(product.getCategory()).equals(normalize(category));
+    }
+
+    private void addToCategory(Product product) {
+        if (product.getCategory() == null) {
+            return;
+        }
+        byCategory.compute(normalize(product.getCategory()), (category, ids) -> {
+            NavigableSet<UUID> updated = ids != null ? ids : new ConcurrentSkipListSet<>();
+            if (updated.add(product.getId())) {
+                categorySizes.computeIfAbsent(category, c -> new AtomicInteger()).incrementAndGet();
+            }
+            return updated;
+        });
+    }
+
+    private void removeFromCategory(Product product) {
+        if (product.getCategory() == null) {
+            return;
+        }
+        byCategory.computeIfPresent(normalize(product.getCategory()), (category, ids) -> {
+            if (ids.remove(product.getId()) && categorySizes.get(category).decrementAndGet() == 0) {
+                categorySizes.remove(category);
+            }
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private NavigableMap<BigDecimal, NavigableSet<UUID>> priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return Collections.emptyNavigableMap();
+        }
+        NavigableMap<BigDecimal, NavigableSet<UUID>> range = byPrice;
+        if (minPrice != null) {
+            range = range.tailMap(minPrice, true);
+        }
+        if (maxPrice != null) {
+            range = range.headMap(maxPrice, true);
+        }
+        return range;
+    }
+
+    private void addToPrice(Product product) {
+        if (product.getPrice() == null) {
+            return;
+        }
+        byPrice.compute(product.getPrice(), (price, ids) -> {
+            NavigableSet<UUID> updated = ids != null ? ids : new ConcurrentSkipListSet<>();
+            updated.add(product.getId());
+            return updated;
+        });
+    }
+
+    private void removeFromPrice(Product product) {
+        if (product.getPrice() == null) {
+            return;
+        }
+        byPrice.computeIfPresent(product.getPrice(), (price, ids) -> {
+            ids.remove(product.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static String normalize(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An iterator whose next ID can be looked at without taking it, to order the merge.
+     */
+    private static final class PeekingIterator implements Iterator<UUID> {
+
+        private final Iterator<UUID> delegate;
+        private UUID next;
+
+        private PeekingIterator(Iterator<UUID> delegate) {
+            this.delegate = delegate;
+            this.next = delegate.next();
+        }
+
+        private UUID peek() {
+            return next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public UUID next() {
+            UUID current = next;
+            next = delegate.hasNext() ? delegate.next() : null;
+            return current;
+        }
+    }
+}
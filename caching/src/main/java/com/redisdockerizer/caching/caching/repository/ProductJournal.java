@@ -0,0 +1,547 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.serializer.ProductRedisSerializer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable write-ahead log and snapshot store for {@link ProductRepository}.
+ * <p>
+ * Every mutation is appended to {@code products-<generation>.log} as a checksummed record:
+ * <pre>
+ * length  : 4 bytes (length of type + payload)
+ * type    : 1 byte (PUT or DELETE)
+ * payload : product in {@link ProductRedisSerializer} format, or a 16-byte ID for DELETE
+ * crc32   : 4 bytes over type + payload
+ * </pre>
+ * A single writer thread drains all queued records, writes them and calls {@code fsync} once
+ * for the whole batch (group commit); callers block in {@link Mutation#awaitDurable()} until
+ * the batch containing their record is on disk.
+ * <p>
+ * A snapshot switches appends to a new log generation and then writes the whole map to
+ * {@code products.snapshot} (magic, version, generation, length-prefixed products, zero
+ * terminator), replacing the previous snapshot atomically. The directory is synced after the
+ * snapshot is moved into place and after a log is created, so neither rename nor new file is lost
+ * in a crash. Logs older than the snapshot's
+ * generation are deleted afterwards. Mutations hold a shared lock while they update the map
+ * and queue their record, and the switch takes it exclusively, so each mutation is either
+ * visible to the snapshot or recorded in the new log.
+ * <p>
+ * On startup the snapshot is memory-mapped and loaded, and the logs from its generation on
+ * are replayed. A torn record at the end of the last log (a crash mid-write) is cut off.
+ */
+@Slf4j
+public class ProductJournal implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x50534E50;
+    private static final byte SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_FILE = "products.snapshot";
+    private static final String LOG_PREFIX = "products-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int RECORD_OVERHEAD = Integer.BYTES + 1 + Integer.BYTES;
+    private static final int MAX_BATCH = 4096;
+    private static final long STOP = -1;
+
+    private static final Mutation NO_MUTATION = new Mutation(null);
+
+    private final Path directory;
+    private final Duration snapshotInterval;
+    private final ProductRedisSerializer serializer = new ProductRedisSerializer();
+
+    private final ReentrantReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object snapshotLock = new Object();
+
+    private FileChannel logChannel;
+    private Thread writer;
+    private ScheduledExecutorService snapshotScheduler;
+    private volatile boolean closed;
+
+    /**
+     * Creates a journal stored in the given directory. Call {@link #recover} before use.
+     *
+     * @param directory        directory holding the snapshot and log files; created if missing
+     * @param snapshotInterval how often {@link #startSnapshots} writes a snapshot
+     */
+    public ProductJournal(Path directory, Duration snapshotInterval) {
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * @return a mutation that records nothing, for use when persistence is disabled
+     */
+    static Mutation noMutation() {
+        return NO_MUTATION;
+    }
+
+    /**
+     * Loads the latest snapshot and replays the logs written after it, then opens the
+     * journal for appends.
+     *
+     * @param put    applies a stored or re-logged product
+     * @param delete applies a logged deletion
+     */
+    public void recover(Consumer<Product> put, Consumer<UUID> delete) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+
+            long snapshotGeneration = -1;
+            long snapshotProducts = 0;
+            Path snapshot = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    snapshotGeneration = readSnapshotHeader(buffer);
+                    snapshotProducts = readSnapshotProducts(buffer, put);
+                }
+            }
+
+            long records = 0;
+            List<Path> logs = listLogs();
+            long lastGeneration = Math.max(snapshotGeneration, 0);
+            for (int i = 0; i < logs.size(); i++) {
+                Path path = logs.get(i);
+                long logGeneration = generationOf(path);
+                if (logGeneration < snapshotGeneration) {
+                    Files.delete(path);
+                    continue;
+                }
+                records += replay(path, i == logs.size() - 1, put, delete);
+                lastGeneration = Math.max(lastGeneration, logGeneration);
+            }
+
+            generation.set(lastGeneration);
+            logChannel = openLog(lastGeneration);
+            log.info("ProductJournal: recovered {} products from snapshot and {} log records in {} ms.",
+                    snapshotProducts, records, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover product journal from " + directory, e);
+        }
+
+        writer = new Thread(this::writeLoop, "product-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Starts writing a snapshot every {@code snapshotInterval}.
+     *
+     * @param source visits every product currently stored
+     */
+    public void startSnapshots(Consumer<Consumer<Product>> source) {
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(source);
+            } catch (Exception e) {
+                log.warn("ProductJournal: snapshot failed: {}", e.getMessage(), e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a mutation. The caller must update its map and record the change through the
+     * returned {@link Mutation} before closing it, and only then wait for durability.
+     *
+     * @return the mutation; must be closed
+     */
+    public Mutation beginMutation() {
+        rotationLock.readLock().lock();
+        return new Mutation(this);
+    }
+
+    /**
+     * Writes a snapshot of all products and drops the logs it makes redundant.
+     *
+     * @param source visits every product currently stored
+     * @throws IOException if the snapshot could not be written
+     */
+    public void snapshot(Consumer<Consumer<Product>> source) throws IOException {
+        synchronized (snapshotLock) {
+            long snapshotGeneration;
+            CompletableFuture<Void> rotated;
+            rotationLock.writeLock().lock();
+            try {
+                snapshotGeneration = generation.incrementAndGet();
+                rotated = enqueue(new Entry(null, snapshotGeneration));
+            } finally {
+                rotationLock.writeLock().unlock();
+            }
+            await(rotated);
+
+            long start = System.nanoTime();
+            Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            long count = writeSnapshot(tmp, snapshotGeneration, source);
+            Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+
+            for (Path path : listLogs()) {
+                if (generationOf(path) < snapshotGeneration) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            log.info("ProductJournal: wrote snapshot of {} products (generation {}) in {} ms.",
+                    count, snapshotGeneration, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Stops snapshots, flushes all queued records and closes the log.
+     */
+    @Override
+    public void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        rotationLock.writeLock().lock();
+        try {
+            if (!closed && writer != null) {
+                enqueue(new Entry(null, STOP));
+            }
+            closed = true;
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (logChannel != null) {
+                logChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("ProductJournal: could not close log: {}", e.getMessage());
+        }
+    }
+
+    private CompletableFuture<Void> append(byte type, byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("Product journal is closed");
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+        record.putInt(1 + payload.length);
+        record.put(type);
+        record.put(payload);
+        record.putInt(checksum(record.array(), Integer.BYTES, 1 + payload.length));
+        record.flip();
+        return enqueue(new Entry(record, 0));
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        queue.add(entry);
+        return entry.done;
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        List<Entry> unsynced = new ArrayList<>();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                for (Entry entry : batch) {
+                    if (entry.record != null) {
+                        while (entry.record.hasRemaining()) {
+                            logChannel.write(entry.record);
+                        }
+                        unsynced.add(entry);
+                    } else if (entry.rotateTo == STOP) {
+                        stopped = true;
+                    } else {
+                        sync(unsynced);
+                        logChannel.close();
+                        logChannel = openLog(entry.rotateTo);
+                        entry.done.complete(null);
+                    }
+                }
+                sync(unsynced);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("ProductJournal: failed to write batch of {} records: {}", batch.size(), e.getMessage(), e);
+                batch.forEach(entry -> entry.done.completeExceptionally(e));
+                unsynced.clear();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sync(List<Entry> unsynced) throws IOException {
+        if (unsynced.isEmpty()) {
+            return;
+        }
+        logChannel.force(false);
+        unsynced.forEach(entry -> entry.done.complete(null));
+        unsynced.clear();
+    }
+
+    private long replay(Path path, boolean last, Consumer<Product> put, Consumer<UUID> delete) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (buffer.remaining() >= RECORD_OVERHEAD) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < 1 || length + Integer.BYTES > buffer.remaining()) {
+                    buffer.position(start);
+                    break;
+                }
+                byte[] body = new byte[length];
+                buffer.get(body);
+                if (buffer.getInt() != checksum(body, 0, length)) {
+                    buffer.position(start);
+                    break;
+                }
+                apply(body, put, delete);
+                records++;
+            }
+
+            if (buffer.position() < size) {
+                if (!last) {
+                    throw new IOException("Corrupt record in " + path + " at offset " + buffer.position());
+                }
+                log.warn("ProductJournal: truncating torn tail of {} at offset {}", path, buffer.position());
+                channel.truncate(buffer.position());
+            }
+        }
+        return records;
+    }
+
+    private void apply(byte[] body, Consumer<Product> put, Consumer<UUID> delete) {
+        ByteBuffer payload = ByteBuffer.wrap(body, 1, body.length - 1);
+        switch (body[0]) {
+            case PUT -> put.accept(serializer.deserialize(Arrays.copyOfRange(body, 1, body.length)));
+            case DELETE -> delete.accept(new UUID(payload.getLong(), payload.getLong()));
+            default -> throw new IllegalStateException("Unknown journal record type " + body[0]);
+        }
+    }
+
+    private long writeSnapshot(Path path, long snapshotGeneration, Consumer<Consumer<Product>> source)
+            throws IOException {
+        long[] count = {0};
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            out.writeLong(snapshotGeneration);
+            source.accept(product -> {
+                byte[] bytes = serializer.serialize(product);
+                try {
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+            out.writeInt(0);
+            out.flush();
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    private static long readSnapshotHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < Integer.BYTES + 1 + Long.BYTES || buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a product snapshot");
+        }
+        byte version = buffer.get();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported product snapshot version: " + version);
+        }
+        return buffer.getLong();
+    }
+
+    private long readSnapshotProducts(ByteBuffer buffer, Consumer<Product> put) throws IOException {
+        long count = 0;
+        while (true) {
+            if (buffer.remaining() < Integer.BYTES) {
+                throw new IOException("Product snapshot is truncated");
+            }
+            int length = buffer.getInt();
+            if (length == 0) {
+                return count;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            put.accept(serializer.deserialize(bytes));
+            count++;
+        }
+    }
+
+    private List<Path> listLogs() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(ProductJournal::generationOf))
+                    .toList();
+        }
+    }
+
+    private FileChannel openLog(long logGeneration) throws IOException {
+        Path path = directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+        boolean created = !Files.exists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        if (created) {
+            syncDirectory();
+        }
+        return channel;
+    }
+
+    /**
+     * Makes renames and newly created files in the journal directory durable. Platforms that
+     * cannot open a directory (Windows) skip this; there the file system orders these updates.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("ProductJournal: could not sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static long generationOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A change to the product map that is recorded in the journal.
+     * <p>
+     * Record changes with {@link #put} / {@link #delete} while updating the map (e.g. inside
+     * {@code compute}), close the mutation, then call {@link #awaitDurable()}.
+     */
+    public static final class Mutation implements AutoCloseable {
+
+        private final ProductJournal journal;
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        private Mutation(ProductJournal journal) {
+            this.journal = journal;
+        }
+
+        void put(Product product) {
+            if (journal != null) {
+                pending.add(journal.append(PUT, journal.serializer.serialize(product)));
+            }
+        }
+
+        void delete(UUID id) {
+            if (journal != null) {
+                byte[] payload = ByteBuffer.allocate(2 * Long.BYTES)
+                        .putLong(id.getMostSignificantBits())
+                        .putLong(id.getLeastSignificantBits())
+                        .array();
+                pending.add(journal.append(DELETE, payload));
+            }
+        }
+
+        /**
+         * Blocks until every change recorded by this mutation is on disk. The records of one
+         * mutation may span several write batches, and a failed batch does not stop later ones,
+         * so every record is checked rather than only the last.
+         *
+         * @throws UncheckedIOException if the journal could not write any of the changes
+         */
+        void awaitDurable() {
+            try {
+                for (CompletableFuture<Void> durable : pending) {
+                    await(durable);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not persist product change", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (journal != null) {
+                journal.rotationLock.readLock().unlock();
+            }
+        }
+    }
+
+    private record Entry(ByteBuffer record, long rotateTo, CompletableFuture<Void> done) {
+        Entry(ByteBuffer record, long rotateTo) {
+            this(record, rotateTo, new CompletableFuture<>());
+        }
+    }
+}
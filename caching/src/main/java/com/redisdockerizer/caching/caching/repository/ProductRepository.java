@@ -1,27 +1,98 @@
 package com.redisdockerizer.caching.caching.repository;
 
 import com.redisdockerizer.caching.caching.model.Product;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * In-memory implementation of a {@link Product} repository.
  * <p>
- * This repository stores products in a {@link ConcurrentHashMap} instead of
- * a real database. It is primarily used for demonstration and testing.
+ * This repository stores products in a {@link ProductStore} instead of
+ * a real database. It is primarily used for demonstration and testing. By default
+ * products are kept on the heap ({@link InMemoryProductStore}); large catalogs can be
+ * kept serialized in direct memory ({@link OffHeapProductStore}) instead.
  * <p>
  * To simulate the effect of caching, the {@link #findById(UUID)} method
  * includes an artificial delay of 1 second before returning results.
+ * <p>
+ * A sorted index of product IDs is maintained alongside the map so that
+ * products can be paged through in a stable order without copying the map.
+ * A category index ({@link ProductIndex}) of ID-sorted sets is kept up to date on every
+ * write, so category queries only visit the products of their category. Both indexes
+ * are updated inside the store's per-key {@code compute}, so concurrent writes to
+ * the same product cannot leave them out of step with the map.
+ * <p>
+ * A counting Bloom filter ({@link ProductIdFilter}) over all stored IDs lets callers
+ * rule out unknown IDs with {@link #mightContain(UUID)} before paying for a lookup.
+ * <p>
+ * When a {@link ProductJournal} bean is present ({@code caching.persistence.enabled=true}),
+ * the repository is restored from it on startup, every write is logged to it and only
+ * returns once the change is on disk, and the map is snapshotted periodically.
  */
 @Repository
 public class ProductRepository {
 
-    private final ConcurrentHashMap<UUID, Product> products = new ConcurrentHashMap<>();
+    private static final int DEFAULT_EXPECTED_PRODUCTS = 100_000;
+    private static final double DEFAULT_ID_FILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final ProductStore products;
+    private final ConcurrentSkipListSet<UUID> sortedIds = new ConcurrentSkipListSet<>();
+    private final ProductIndex index = new ProductIndex();
+    private final ProductIdFilter idFilter;
+    private final ProductJournal journal;
+
+    /**
+     * Creates the repository with an ID filter sized for 100,000 products, restoring its contents
+     * from the journal if one is configured.
+     *
+     * @param products storage for the products themselves
+     * @param journal  optional durable log of all writes
+     */
+    public ProductRepository(ProductStore products, ObjectProvider<ProductJournal> journal) {
+        this(products, journal, DEFAULT_EXPECTED_PRODUCTS, DEFAULT_ID_FILTER_FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /**
+     * Creates the repository, restoring its contents from the journal if one is configured.
+     * <p>
+     * The ID filter is sized for {@code caching.id-filter.expected-products}; beyond that many
+     * products, its false-positive rate climbs above {@code caching.id-filter.false-positive-probability}.
+     *
+     * @param products                 storage for the products themselves
+     * @param journal                  optional durable log of all writes
+     * @param expectedProducts         number of products the ID filter is sized for
+     * @param falsePositiveProbability false-positive probability of the ID filter at that size
+     */
+    @Autowired
+    public ProductRepository(ProductStore products,
+                             ObjectProvider<ProductJournal> journal,
+                             @Value("${caching.id-filter.expected-products:100000}") int expectedProducts,
+                             @Value("${caching.id-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.products = products;
+        this.idFilter = new ProductIdFilter(expectedProducts, falsePositiveProbability);
+        this.journal = journal.getIfAvailable();
+        if (this.journal != null) {
+            this.journal.recover(
+                    product -> store(product, ProductJournal.noMutation()),
+                    id -> remove(id, ProductJournal.noMutation()));
+            this.journal.startSnapshots(this::forEach);
+        }
+    }
 
     /**
      * Retrieve all products from the repository.
@@ -29,7 +100,143 @@ public class ProductRepository {
      * @return list of all products
      */
     public List<Product> findAll() {
-        return new ArrayList<>(products.values());
+        List<Product> all = new ArrayList<>(products.size());
+        products.forEach(all::add);
+        return all;
+    }
+
+    /**
+     * Retrieve one page of products ordered by ID.
+     * <p>
+     * Only the products on the requested page are looked up; the rest of the
+     * repository is neither copied nor visited.
+     *
+     * @param afterId ID of the last product of the previous page, or {@code null} for the first page
+     * @param limit   maximum number of products to return
+     * @return up to {@code limit} products whose IDs follow {@code afterId}
+     */
+    public List<Product> findPage(UUID afterId, int limit) {
+        NavigableSet<UUID> ids = afterId == null ? sortedIds : sortedIds.tailSet(afterId, false);
+        List<Product> page = new ArrayList<>(Math.min(limit, ids.size()));
+        for (UUID id : ids) {
+            if (page.size() == limit) {
+                break;
+            }
+            Product product = products.get(id);
+            if (product != null) {
+                page.add(product);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Retrieve one page of products matching the given filters, ordered by ID.
+     * <p>
+     * Queries walk IDs in ascending order from the cursor onwards and stop after
+     * {@code limit} matches. A price range is resolved with the price index, whose
+     * buckets are merged into ID order, unless a category is given and holds fewer
+     * products than the range has distinct prices; the category's set is walked
+     * then, checking each product's price on the way. Either way the cost of a page
+     * does not grow with the catalog. An empty price range matches nothing.
+     *
+     * @param category category to match (case-insensitive), or {@code null} for any
+     * @param minPrice inclusive lower price bound, or {@code null}
+     * @param maxPrice inclusive upper price bound, or {@code null}
+     * @param afterId  ID of the last product of the previous page, or {@code null} for the first page
+     * @param limit    maximum number of products to return
+     * @return up to {@code limit} matching products whose IDs follow {@code afterId}
+     */
+    public List<Product> findByCriteria(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                        UUID afterId, int limit) {
+        if (category == null && minPrice == null && maxPrice == null) {
+            return findPage(afterId, limit);
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return List.of();
+        }
+
+        if (category != null && walksCategory(category, minPrice, maxPrice)) {
+            NavigableSet<UUID> ids = index.idsInCategory(category);
+            return collectPage((afterId == null ? ids : ids.tailSet(afterId, false)).iterator(),
+                    category, minPrice, maxPrice, limit);
+        }
+        return collectPage(index.idsInPriceRange(minPrice, maxPrice, afterId), category, minPrice, maxPrice, limit);
+    }
+
+    /**
+     * Visit every product without building an intermediate collection.
+     * <p>
+     * Iteration is weakly consistent: products saved or deleted concurrently
+     * may or may not be visited.
+     *
+     * @param action the action to apply to each product
+     */
+    public void forEach(Consumer<Product> action) {
+        products.forEach(action);
+    }
+
+    /**
+     * Materializes up to {@code limit} products from ascending candidate IDs.
+     * Each product is re-checked against the filters, since a concurrent write may
+     * have changed it after its ID was read from an index, and an ID repeated by a
+     * concurrent price change is skipped.
+     */
+    private List<Product> collectPage(Iterator<UUID> ids, String category, BigDecimal minPrice,
+                                      BigDecimal maxPrice, int limit) {
+        List<Product> page = new ArrayList<>();
+        UUID previous = null;
+        while (page.size() < limit && ids.hasNext()) {
+            UUID id = ids.next();
+            if (id.equals(previous)) {
+                continue;
+            }
+            previous = id;
+            Product product = products.get(id);
+            if (product != null && matches(product, category, minPrice, maxPrice)) {
+                page.add(product);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Whether the category's set is cheaper to walk than merging the price range, counting
+     * the range's distinct prices only up to the size of the category.
+     */
+    private boolean walksCategory(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        int categorySize = index.categorySize(category);
+        return categorySize < index.distinctPricesInRange(minPrice, maxPrice, categorySize + 1);
+    }
+
+    private static boolean matches(Product product, String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (category != null && !ProductIndex.inCategory(product, category)) {
+            return false;
+        }
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        BigDecimal price = product.getPrice();
+        return price != null
+                && (minPrice == null || price.compareTo(minPrice) >= 0)
+                && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+
+    /**
+     * Check whether a product with the given ID may exist, without any delay.
+     * <p>
+     * A {@code false} result is definite; a {@code true} result may be a false
+     * positive (about {@code caching.id-filter.false-positive-probability} while the
+     * repository holds up to {@code caching.id-filter.expected-products} products).
+     *
+     * @param id product identifier
+     * @return {@code false} if no product with this ID exists
+     */
+    public boolean mightContain(UUID id) {
+        return id != null && idFilter.mightContain(id);
     }
 
     /**
@@ -52,6 +259,29 @@ public class ProductRepository {
         return Optional.ofNullable(products.get(id));
     }
 
+    /**
+     * Retrieve several products by their identifiers in a single call.
+     * <p>
+     * The artificial delay of 1 second is paid once for the whole batch,
+     * mirroring a single multi-row query against a real database.
+     *
+     * @param ids product identifiers
+     * @return the products that exist, in the iteration order of {@code ids}
+     */
+    public List<Product> findAllById(Collection<UUID> ids) {
+
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     /**
      * Save a product to the repository.
      * <p>
@@ -61,25 +291,45 @@ public class ProductRepository {
      * @return the saved product instance
      */
     public Product save(Product product) {
+        ProductJournal.Mutation mutation = beginMutation();
+        try (mutation) {
+            store(product, mutation);
+        }
+        mutation.awaitDurable();
+        return product;
+    }
+
+    private void store(Product product, ProductJournal.Mutation mutation) {
         if (product.getId() == null) {
             product.setId(UUID.randomUUID());
         }
-        products.put(product.getId(), product);
-        return product;
+        products.compute(product.getId(), (id, previous) -> {
+            if (previous == null) {
+                idFilter.add(id);
+                sortedIds.add(id);
+            }
+            index.replace(previous, product);
+            mutation.put(product);
+            return product;
+        });
     }
 
     /**
      * Save multiple products to the repository in a batch operation.
      * <p>
      * For each product, if it does not already have an ID, a new UUID will be generated.
+     * With a journal, the whole batch shares one wait for durability.
      *
      * @param productList list of products to be saved
      * @return list of saved products
      */
     public List<Product> saveAll(List<Product> productList) {
-        return productList.stream()
-                .map(this::save)
-                .toList();
+        ProductJournal.Mutation mutation = beginMutation();
+        try (mutation) {
+            productList.forEach(product -> store(product, mutation));
+        }
+        mutation.awaitDurable();
+        return productList;
     }
 
     /**
@@ -95,26 +345,38 @@ public class ProductRepository {
         if (productId == null || updatedProduct == null) {
             return Optional.empty();
         }
-        if (!products.containsKey(productId)) {
-            return Optional.empty();
-        }
 
-        return Optional.of(updateExistingProduct(productId, updatedProduct));
+        return updateExistingProduct(productId, updatedProduct);
     }
 
     /**
      * Updates an existing product in the repository with new data.
      * This method replaces the product with the specified ID using 
      * the details provided in the {@code updatedProduct} parameter.
+     * <p>
+     * The existence check and the replacement happen in the same {@code compute},
+     * so a product deleted concurrently is not brought back by the update.
      *
      * @param productId      the unique identifier of the product to be updated
      * @param updatedProduct the product object containing updated information
-     * @return the updated product instance
+     * @return an {@link Optional} containing the updated product, or empty if no product has this ID
      */
-    private Product updateExistingProduct(UUID productId, Product updatedProduct) {
+    private Optional<Product> updateExistingProduct(UUID productId, Product updatedProduct) {
         updatedProduct.setId(productId);
-        products.put(productId, updatedProduct);
-        return updatedProduct;
+        ProductJournal.Mutation mutation = beginMutation();
+        Product updated;
+        try (mutation) {
+            updated = products.compute(productId, (id, previous) -> {
+                if (previous == null) {
+                    return null;
+                }
+                index.replace(previous, updatedProduct);
+                mutation.put(updatedProduct);
+                return updatedProduct;
+            });
+        }
+        mutation.awaitDurable();
+        return Optional.ofNullable(updated);
     }
 
     /**
@@ -124,8 +386,33 @@ public class ProductRepository {
      * @return {@code true} if a product was removed, {@code false} otherwise
      */
     public boolean deleteById(UUID id) {
-        Product removed = products.remove(id);
-        return removed != null;
+        ProductJournal.Mutation mutation = beginMutation();
+        boolean removed;
+        try (mutation) {
+            removed = remove(id, mutation);
+        }
+        mutation.awaitDurable();
+        return removed;
+    }
+
+    private boolean remove(UUID id, ProductJournal.Mutation mutation) {
+        AtomicBoolean removed = new AtomicBoolean();
+        products.compute(id, (key, previous) -> {
+            if (previous == null) {
+                return null;
+            }
+            index.replace(previous, null);
+            idFilter.remove(key);
+            sortedIds.remove(key);
+            mutation.delete(key);
+            removed.set(true);
+            return null;
+        });
+        return removed.get();
+    }
+
+    private ProductJournal.Mutation beginMutation() {
+        return journal != null ? journal.beginMutation() : ProductJournal.noMutation();
     }
 
     /**
@@ -0,0 +1,55 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Primary storage of {@link ProductRepository}: a concurrent map from product ID to product.
+ * <p>
+ * Implementations decide how products are held in memory. The repository keeps its indexes
+ * consistent by doing all writes through {@link #compute}, which must run the remapping
+ * function atomically for its key, exactly as {@link java.util.concurrent.ConcurrentHashMap#compute}.
+ *
+ * @see InMemoryProductStore
+ * @see OffHeapProductStore
+ */
+public interface ProductStore {
+
+    /**
+     * @param id product identifier
+     * @return the stored product, or {@code null} if there is none
+     */
+    Product get(UUID id);
+
+    /**
+     * @param id product identifier
+     * @return {@code true} if a product with this ID is stored
+     */
+    boolean containsKey(UUID id);
+
+    /**
+     * Atomically replaces the product stored under {@code id}.
+     *
+     * @param id                product identifier
+     * @param remappingFunction receives the ID and the current product (or {@code null}) and
+     *                          returns the new product, or {@code null} to remove it
+     * @return the new product, or {@code null} if none is stored any more
+     */
+    Product compute(UUID id, BiFunction<UUID, Product, Product> remappingFunction);
+
+    /**
+     * Visits every stored product. Iteration is weakly consistent: products written
+     * concurrently may or may not be visited.
+     *
+     * @param action the action to apply to each product
+     */
+    void forEach(Consumer<Product> action);
+
+    /**
+     * @return number of stored products
+     */
+    int size();
+}
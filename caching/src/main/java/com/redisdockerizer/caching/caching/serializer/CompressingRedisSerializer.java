@@ -0,0 +1,235 @@
+package com.redisdockerizer.caching.caching.serializer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link RedisSerializer} decorator that deflates large values before they are written to Redis.
+ * <p>
+ * Values whose serialized form is at least {@code threshold} bytes are compressed with
+ * {@link Deflater} and stored as:
+ * <pre>
+ * header          : 1 byte ({@value #COMPRESSED_HEADER})
+ * original length : 4 bytes
+ * deflated data   : remaining bytes
+ * </pre>
+ * Smaller values, and values that do not shrink, are passed through untouched, so reads of
+ * entries written before compression was enabled keep working. The delegate's output must
+ * therefore never start with the header byte; this holds for {@link ProductRedisSerializer}
+ * (version byte) and for JSON (<code>'{'</code>).
+ * <p>
+ * Deflaters and inflaters hold native memory until they are ended, so they are kept in small
+ * bounded pools rather than per thread: with a virtual thread per request, per-thread instances
+ * would be created for nearly every call and only be released by the garbage collector. One
+ * borrowed from an empty pool is created on the spot, and one returned to a full pool is ended.
+ * <p>
+ * Compression ratio, the share of compressed values and the time spent compressing and
+ * decompressing are published to Micrometer under {@code cache.serializer.*}, tagged by cache.
+ *
+ * @param <T> the value type handled by the delegate
+ */
+public class CompressingRedisSerializer<T> implements RedisSerializer<T> {
+
+    static final byte COMPRESSED_HEADER = (byte) 0xDF;
+
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final RedisSerializer<T> delegate;
+    private final int threshold;
+    private final Pool<Deflater> deflaters;
+    private final Pool<Inflater> inflaters = new Pool<>(Inflater::new, Inflater::reset, Inflater::end);
+
+    private final DistributionSummary compressionRatio;
+    private final Counter compressedValues;
+    private final Counter uncompressedValues;
+    private final Timer compressTimer;
+    private final Timer decompressTimer;
+
+    /**
+     * Creates a compressing serializer.
+     *
+     * @param delegate      serializer producing the uncompressed form
+     * @param threshold     minimum serialized size, in bytes, for a value to be compressed
+     * @param level         {@link Deflater} compression level (1 = fastest, 9 = smallest)
+     * @param meterRegistry registry the compression metrics are published to
+     * @param cacheName     cache name used to tag the metrics
+     */
+    public CompressingRedisSerializer(RedisSerializer<T> delegate, int threshold, int level,
+                                      MeterRegistry meterRegistry, String cacheName) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.deflaters = new Pool<>(() -> new Deflater(level), Deflater::reset, Deflater::end);
+
+        this.compressionRatio = DistributionSummary.builder("cache.serializer.compression.ratio")
+                .description("Uncompressed size divided by compressed size of compressed values")
+                .tag("cache", cacheName)
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        this.compressedValues = Counter.builder("cache.serializer.values")
+                .description("Values written by the serializer, by whether they were compressed")
+                .tags("cache", cacheName, "encoding", "deflate")
+                .register(meterRegistry);
+        this.uncompressedValues = Counter.builder("cache.serializer.values")
+                .description("Values written by the serializer, by whether they were compressed")
+                .tags("cache", cacheName, "encoding", "identity")
+                .register(meterRegistry);
+        this.compressTimer = Timer.builder("cache.serializer.compression.time")
+                .description("CPU time spent compressing a value")
+                .tags("cache", cacheName, "operation", "compress")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.decompressTimer = Timer.builder("cache.serializer.compression.time")
+                .description("CPU time spent decompressing a value")
+                .tags("cache", cacheName, "operation", "decompress")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (raw == null || raw.length < threshold) {
+            uncompressedValues.increment();
+            return raw;
+        }
+
+        long start = System.nanoTime();
+        byte[] compressed = compress(raw);
+        compressTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (compressed.length >= raw.length) {
+            uncompressedValues.increment();
+            return raw;
+        }
+        compressedValues.increment();
+        compressionRatio.record((double) raw.length / compressed.length);
+        return compressed;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != COMPRESSED_HEADER) {
+            return delegate.deserialize(bytes);
+        }
+
+        long start = System.nanoTime();
+        byte[] raw = decompress(bytes);
+        decompressTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return delegate.deserialize(raw);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return delegate.getTargetType();
+    }
+
+    private byte[] compress(byte[] raw) {
+        Deflater deflater = deflaters.borrow();
+        try {
+            return compress(deflater, raw);
+        } finally {
+            deflaters.release(deflater);
+        }
+    }
+
+    private static byte[] compress(Deflater deflater, byte[] raw) {
+        deflater.setInput(raw);
+        deflater.finish();
+
+        byte[] out = new byte[HEADER_LENGTH + raw.length];
+        out[0] = COMPRESSED_HEADER;
+        ByteBuffer.wrap(out, 1, Integer.BYTES).putInt(raw.length);
+
+        int length = HEADER_LENGTH;
+        while (!deflater.finished() && length < out.length) {
+            length += deflater.deflate(out, length, out.length - length);
+        }
+        if (!deflater.finished()) {
+            // Does not fit into the original size: not worth compressing.
+            return raw;
+        }
+        return Arrays.copyOf(out, length);
+    }
+
+    private byte[] decompress(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Truncated compressed value");
+        }
+        int originalLength = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+
+        Inflater inflater = inflaters.borrow();
+        try {
+            return decompress(inflater, bytes, originalLength);
+        } finally {
+            inflaters.release(inflater);
+        }
+    }
+
+    private static byte[] decompress(Inflater inflater, byte[] bytes, int originalLength) {
+        inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+
+        byte[] raw = new byte[originalLength];
+        try {
+            int length = 0;
+            while (length < originalLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, originalLength - length);
+                if (read == 0 && inflater.needsInput()) {
+                    throw new SerializationException("Truncated compressed value");
+                }
+                length += read;
+            }
+            if (length != originalLength) {
+                throw new SerializationException("Compressed value has unexpected length " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new SerializationException("Could not decompress value", e);
+        }
+        return raw;
+    }
+
+    /**
+     * Bounded pool of (de)compressors that are reset before they are pooled again and ended
+     * when the pool is full.
+     */
+    private static final class Pool<C> {
+
+        private final BlockingQueue<C> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+        private final Supplier<C> factory;
+        private final Consumer<C> reset;
+        private final Consumer<C> end;
+
+        Pool(Supplier<C> factory, Consumer<C> reset, Consumer<C> end) {
+            this.factory = factory;
+            this.reset = reset;
+            this.end = end;
+        }
+
+        C borrow() {
+            C pooled = idle.poll();
+            return pooled != null ? pooled : factory.get();
+        }
+
+        void release(C instance) {
+            reset.accept(instance);
+            if (!idle.offer(instance)) {
+                end.accept(instance);
+            }
+        }
+    }
+}
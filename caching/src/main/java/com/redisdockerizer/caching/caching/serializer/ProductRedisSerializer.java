@@ -0,0 +1,209 @@
+package com.redisdockerizer.caching.caching.serializer;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Compact, schema-aware binary {@link RedisSerializer} for {@link Product} cache values.
+ * <p>
+ * Layout of format version {@value #VERSION_1}:
+ * <pre>
+ * version : 1 byte
+ * fields  : 1 byte, bit set = field present (id, name, category, price, description)
+ * id      : 2 x 8 bytes (most / least significant bits)
+ * name    : varint length + UTF-8 bytes
+ * category: varint length + UTF-8 bytes
+ * price   : varint scale + either 8-byte unscaled long, or (if {@link #BIG_PRICE} is set)
+ *           varint length + two's-complement unscaled bytes
+ * description: varint length + UTF-8 bytes
+ * </pre>
+ * The leading version byte lets future layouts coexist with entries written by this one.
+ * Entries written by the previous JSON serializer start with <code>'{'</code> and are still
+ * read through {@link GenericJackson2JsonRedisSerializer}, so switching serializers does not
+ * require flushing the cache.
+ */
+public class ProductRedisSerializer implements RedisSerializer<Product> {
+
+    static final byte VERSION_1 = 1;
+
+    private static final byte JSON_START = '{';
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 1 << 1;
+    private static final int HAS_CATEGORY = 1 << 2;
+    private static final int HAS_PRICE = 1 << 3;
+    private static final int HAS_DESCRIPTION = 1 << 4;
+    private static final int BIG_PRICE = 1 << 5;
+
+    private final GenericJackson2JsonRedisSerializer legacySerializer = new GenericJackson2JsonRedisSerializer();
+
+    @Override
+    public byte[] serialize(Product product) throws SerializationException {
+        if (product == null) {
+            return new byte[0];
+        }
+
+        byte[] name = utf8(product.getName());
+        byte[] category = utf8(product.getCategory());
+        byte[] description = utf8(product.getDescription());
+        BigDecimal price = product.getPrice();
+        BigInteger unscaled = price != null ? price.unscaledValue() : null;
+        boolean bigPrice = unscaled != null && unscaled.bitLength() > 63;
+        byte[] unscaledBytes = bigPrice ? unscaled.toByteArray() : null;
+
+        int fields = (product.getId() != null ? HAS_ID : 0)
+                | (name != null ? HAS_NAME : 0)
+                | (category != null ? HAS_CATEGORY : 0)
+                | (price != null ? HAS_PRICE : 0)
+                | (description != null ? HAS_DESCRIPTION : 0)
+                | (bigPrice ? BIG_PRICE : 0);
+
+        int size = 2
+                + (product.getId() != null ? 16 : 0)
+                + sizeOf(name) + sizeOf(category) + sizeOf(description)
+                + (price != null ? varIntSize(zigZag(price.scale())) + (bigPrice ? sizeOf(unscaledBytes) : 8) : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION_1);
+        buffer.put((byte) fields);
+        if (product.getId() != null) {
+            buffer.putLong(product.getId().getMostSignificantBits());
+            buffer.putLong(product.getId().getLeastSignificantBits());
+        }
+        putBytes(buffer, name);
+        putBytes(buffer, category);
+        if (price != null) {
+            putVarInt(buffer, zigZag(price.scale()));
+            if (bigPrice) {
+                putBytes(buffer, unscaledBytes);
+            } else {
+                buffer.putLong(unscaled.longValue());
+            }
+        }
+        putBytes(buffer, description);
+        return buffer.array();
+    }
+
+    @Override
+    public Product deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JSON_START) {
+            return (Product) legacySerializer.deserialize(bytes);
+        }
+        if (bytes[0] != VERSION_1) {
+            throw new SerializationException("Unsupported product format version: " + bytes[0]);
+        }
+
+        try {
+            return readVersion1(ByteBuffer.wrap(bytes, 1, bytes.length - 1));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not read product", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return Product.class;
+    }
+
+    private static Product readVersion1(ByteBuffer buffer) {
+        int fields = buffer.get();
+        Product product = new Product();
+        if ((fields & HAS_ID) != 0) {
+            product.setId(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        if ((fields & HAS_NAME) != 0) {
+            product.setName(getString(buffer));
+        }
+        if ((fields & HAS_CATEGORY) != 0) {
+            product.setCategory(getString(buffer));
+        }
+        if ((fields & HAS_PRICE) != 0) {
+            int scale = unZigZag(getVarInt(buffer));
+            BigInteger unscaled = (fields & BIG_PRICE) != 0
+                    ? new BigInteger(getBytes(buffer))
+                    : BigInteger.valueOf(buffer.getLong());
+            product.setPrice(new BigDecimal(unscaled, scale));
+        }
+        if ((fields & HAS_DESCRIPTION) != 0) {
+            product.setDescription(getString(buffer));
+        }
+        return product;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return bytes != null ? varIntSize(bytes.length) + bytes.length : 0;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes != null) {
+            putVarInt(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[getVarInt(buffer)];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarInt(buffer);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
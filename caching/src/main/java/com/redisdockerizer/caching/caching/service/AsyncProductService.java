@@ -0,0 +1,97 @@
+package com.redisdockerizer.caching.caching.service;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous counterpart of {@link ProductService#getById} for the async endpoints.
+ * <p>
+ * Methods return a {@link CompletableFuture}, so {@code @Cacheable} resolves them through the
+ * cache's asynchronous retrieval: the {@code products} entry is read and written without
+ * blocking, and concurrent misses for the same ID share one future. Misses are loaded from the
+ * repository on a dedicated pool of {@code caching.async.threads} threads with a queue of
+ * {@code caching.async.queue-capacity}; loads beyond that fail with a
+ * {@link RejectedExecutionException} instead of queueing without bound. The pool is published
+ * under {@code executor.*} with {@code name=product-load}.
+ * <p>
+ * Entries are shared with {@link ProductService}, so writes go through it as usual.
+ */
+@Service
+public class AsyncProductService implements DisposableBean {
+
+    private final ProductRepository productRepository;
+    private final ThreadPoolExecutor loadExecutor;
+
+    /**
+     * Creates the service.
+     *
+     * @param productRepository repository misses are loaded from
+     * @param meterRegistry     registry the load pool is published to
+     * @param threads           number of load threads
+     * @param queueCapacity     maximum number of loads waiting for a thread
+     */
+    public AsyncProductService(ProductRepository productRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${caching.async.threads:16}") int threads,
+                               @Value("${caching.async.queue-capacity:1000}") int queueCapacity) {
+        this.productRepository = productRepository;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.loadExecutor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-load-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        new ExecutorServiceMetrics(loadExecutor, "product-load", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Retrieve a product by its ID (cached, asynchronously).
+     * <p>
+     * Like {@link ProductService#getById}, IDs the repository's Bloom filter rules out complete
+     * right away without touching the cache, and missing products are cached as negative entries.
+     *
+     * @param id product identifier
+     * @return a future completing with the product, or with {@code null} if it does not exist
+     */
+    @Cacheable(value = ProductService.PRODUCTS_CACHE, key = "#id", sync = true,
+            condition = "@productRepository.mightContain(#id)")
+    public CompletableFuture<Product> getById(UUID id) {
+        if (!productRepository.mightContain(id)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> productRepository.findById(id).orElse(null), loadExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stops the load threads.
+     */
+    @Override
+    public void destroy() {
+        loadExecutor.shutdownNow();
+    }
+}
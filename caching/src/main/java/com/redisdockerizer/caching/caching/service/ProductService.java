@@ -1,16 +1,33 @@
 package com.redisdockerizer.caching.caching.service;
 
+import com.redisdockerizer.caching.caching.cache.BatchCache;
+import com.redisdockerizer.caching.caching.cache.CacheGeneration;
+import com.redisdockerizer.caching.caching.cache.TaggedCache;
+import com.redisdockerizer.caching.caching.dto.ProductPageResponse;
+import com.redisdockerizer.caching.caching.exception.InvalidPriceRangeException;
 import com.redisdockerizer.caching.caching.model.Product;
 import com.redisdockerizer.caching.caching.repository.ProductRepository;
+import com.redisdockerizer.caching.caching.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service layer for {@link Product} operations.
@@ -22,7 +39,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ProductService {
 
+    static final String PRODUCTS_CACHE = "products";
+    static final String PRODUCT_QUERIES_CACHE = "product-queries";
+
     private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final CacheGeneration productQueryGeneration;
 
     /**
      * Retrieve all products (non-cached).
@@ -33,53 +55,251 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * Retrieve products matching the given filters (non-cached).
+     * <p>
+     * Without any filter this returns every product, like {@link #getAllProducts()}.
+     *
+     * @param category category to match (case-insensitive), or {@code null} for any
+     * @param minPrice inclusive lower price bound, or {@code null}
+     * @param maxPrice inclusive upper price bound, or {@code null}
+     * @return all matching products, ordered by ID when a filter is given
+     * @throws InvalidPriceRangeException if {@code minPrice} is greater than {@code maxPrice}
+     */
+    public List<Product> findProducts(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        requireValidPriceRange(minPrice, maxPrice);
+        if (category == null && minPrice == null && maxPrice == null) {
+            return getAllProducts();
+        }
+        return productRepository.findByCriteria(category, minPrice, maxPrice, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieve one page of products matching the given filters, ordered by ID (cached).
+     * <p>
+     * Result pages are cached per filter/cursor/limit combination in the
+     * {@code product-queries} cache. Their keys start with the query generation, which every
+     * product write advances, so pages cached before the write are no longer served.
+     *
+     * @param category category to match (case-insensitive), or {@code null} for any
+     * @param minPrice inclusive lower price bound, or {@code null}
+     * @param maxPrice inclusive upper price bound, or {@code null}
+     * @param cursor   opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param limit    maximum number of products on the page
+     * @return the page, with a cursor for the next page if more products may follow
+     * @throws com.redisdockerizer.caching.caching.exception.InvalidCursorException if the cursor is malformed
+     * @throws InvalidPriceRangeException if {@code minPrice} is greater than {@code maxPrice}
+     */
+    @Cacheable(value = PRODUCT_QUERIES_CACHE,
+            key = "{@productQueryGeneration.current(), #category, #minPrice, #maxPrice, #cursor, #limit}")
+    public ProductPageResponse getPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                       String cursor, int limit) {
+        requireValidPriceRange(minPrice, maxPrice);
+        List<Product> items = productRepository.findByCriteria(
+                category, minPrice, maxPrice, CursorCodec.decode(cursor), limit);
+        String nextCursor = items.size() < limit ? null : CursorCodec.encode(items.getLast().getId());
+        return new ProductPageResponse(items, nextCursor);
+    }
+
+    /**
+     * Visit every product without materializing the full list (non-cached).
+     *
+     * @param action the action to apply to each product
+     */
+    public void forEachProduct(Consumer<Product> action) {
+        productRepository.forEach(action);
+    }
+
     /**
      * Retrieve a product by its ID (cached).
      * <p>
      * On the first invocation for a given ID, the repository is hit (slower, includes artificial delay).
      * Later invocations return the cached result (faster).
+     * <p>
+     * The lookup is synchronized ({@code sync = true}): concurrent misses for the same ID
+     * share a single repository load instead of each hitting the repository.
+     * <p>
+     * IDs the repository's Bloom filter rules out are answered immediately, without touching
+     * the cache or the repository. Misses the filter lets through (false positives) are cached
+     * as short-lived negative entries.
      *
      * @param id product identifier
      * @return an {@link Optional} containing the product if found, otherwise empty
      */
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = PRODUCTS_CACHE, key = "#id", sync = true, condition = "@productRepository.mightContain(#id)")
     public Optional<Product> getById(UUID id) {
+        if (!productRepository.mightContain(id)) {
+            return Optional.empty();
+        }
         return productRepository.findById(id);
     }
 
+    /**
+     * Retrieve several products by their IDs in one pass (cached).
+     * <p>
+     * All IDs are resolved from the {@code products} cache with a single multi-get. The
+     * misses are then loaded with one repository call, paying the artificial delay once,
+     * and written back to the cache in one pipelined batch. Unknown IDs are skipped, and IDs
+     * ruled out by the repository's Bloom filter are not loaded at all.
+     *
+     * @param ids product identifiers; duplicates are ignored
+     * @return the products found, in the order their IDs were requested
+     */
+    public List<Product> getByIds(Collection<UUID> ids) {
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+
+        Map<Object, Object> cached = new LinkedHashMap<>();
+        if (cache instanceof BatchCache batchCache) {
+            cached.putAll(batchCache.getAll(requested));
+        } else if (cache != null) {
+            requested.forEach(id -> {
+                Product product = cache.get(id, Product.class);
+                if (product != null) {
+                    cached.put(id, product);
+                }
+            });
+        }
+
+        List<UUID> misses = requested.stream()
+                .filter(id -> !cached.containsKey(id))
+                .filter(productRepository::mightContain)
+                .toList();
+        Map<UUID, Product> loaded = new LinkedHashMap<>();
+        if (!misses.isEmpty()) {
+            productRepository.findAllById(misses).forEach(product -> loaded.put(product.getId(), product));
+        }
+
+        if (cache instanceof BatchCache batchCache) {
+            batchCache.putAll(loaded);
+        } else if (cache != null) {
+            loaded.forEach(cache::put);
+        }
+
+        List<Product> result = new ArrayList<>(requested.size());
+        for (UUID id : requested) {
+            Product product = cached.containsKey(id) ? (Product) cached.get(id) : loaded.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the given products into the {@code products} cache ahead of any request.
+     * <p>
+     * Products are written in batches of {@code batchSize}; each batch is a single pipelined
+     * round trip of {@code SET ... PX} commands, so warming thousands of entries costs a handful
+     * of round trips instead of one per product.
+     *
+     * @param products  products to cache, in priority order
+     * @param batchSize maximum number of entries written per round trip
+     * @return number of products written to the cache
+     */
+    public int warmUp(List<Product> products, int batchSize) {
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+        if (cache == null) {
+            return 0;
+        }
+
+        for (int from = 0; from < products.size(); from += batchSize) {
+            List<Product> batch = products.subList(from, Math.min(from + batchSize, products.size()));
+            if (cache instanceof BatchCache batchCache) {
+                Map<UUID, Product> entries = new LinkedHashMap<>();
+                batch.forEach(product -> entries.put(product.getId(), product));
+                batchCache.putAll(entries);
+            } else {
+                batch.forEach(product -> cache.put(product.getId(), product));
+            }
+        }
+        return products.size();
+    }
+
     /**
      * Create a new product and populate the cache for its ID.
+     * Cached query pages are invalidated, as the product may belong to any of them.
      *
      * @param product the product to create
      * @return the created product
      */
-    @CachePut(value = "products", key = "#result.id")
+    @CachePut(value = PRODUCTS_CACHE, key = "#result.id")
     public Product create(Product product) {
-        return productRepository.save(product);
+        Product created = productRepository.save(product);
+        productQueryGeneration.advance();
+        return created;
     }
 
     /**
      * Update an existing product and refresh its cache entry.
+     * Cached query pages are invalidated, as the product's category or price may have changed.
      *
      * @param id      product identifier
      * @param product updated product data
      * @return an {@link Optional} containing the updated product if it existed, otherwise empty
      */
-    @CachePut(value = "products", key = "#id")
+    @CachePut(value = PRODUCTS_CACHE, key = "#id")
     public Optional<Product> update(UUID id, Product product) {
-        return productRepository.update(id, product);
+        Optional<Product> updated = productRepository.update(id, product);
+        if (updated.isPresent()) {
+            productQueryGeneration.advance();
+        }
+        return updated;
     }
 
     /**
      * Deletes a product by its identifier and removes its cache entry if present.
+     * Cached query pages are invalidated as well.
      *
      * @param id the unique identifier of the product to delete
      * @return {@code true} if the product was successfully deleted,
      * {@code false} if no product was found with the given identifier
      */
-    @CacheEvict(value = "products", key = "#id")
+    @CacheEvict(value = PRODUCTS_CACHE, key = "#id")
     public boolean delete(UUID id) {
-        return productRepository.deleteById(id);
+        boolean deleted = productRepository.deleteById(id);
+        if (deleted) {
+            productQueryGeneration.advance();
+        }
+        return deleted;
+    }
+
+    /**
+     * Evict the cached entries of every product in a category, e.g. after the category was repriced.
+     * <p>
+     * {@code products} entries are tagged with their category when they are written, so the
+     * evicted keys come from the category's tag set in Redis and are unlinked in pipelined
+     * batches; the cost depends on the size of the category, not of the cache. If the cache does
+     * not tag its entries, the products currently in the category are evicted one by one.
+     * Cached query pages are invalidated as well.
+     *
+     * @param category the category (case-insensitive)
+     * @return number of cache entries evicted
+     */
+    public long evictCategory(String category) {
+        productQueryGeneration.advance();
+        Cache cache = cacheManager.getCache(PRODUCTS_CACHE);
+        if (cache == null) {
+            return 0;
+        }
+        if (cache instanceof TaggedCache taggedCache && taggedCache.supportsTags()) {
+            return taggedCache.evictByTag(categoryTag(category));
+        }
+
+        List<Product> products = productRepository.findByCriteria(category, null, null, null, Integer.MAX_VALUE);
+        products.forEach(product -> cache.evict(product.getId()));
+        return products.size();
+    }
+
+    /**
+     * Normalizes a category into the tag its products are cached under, matching categories
+     * case-insensitively like the repository does.
+     *
+     * @param category the category
+     * @return the tag of the category
+     */
+    public static String categoryTag(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -90,4 +310,10 @@ public class ProductService {
     public long count() {
         return productRepository.count();
     }
+
+    private static void requireValidPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new InvalidPriceRangeException(minPrice, maxPrice);
+        }
+    }
 }
\ No newline at end of file
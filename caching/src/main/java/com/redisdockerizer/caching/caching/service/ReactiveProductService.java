@@ -0,0 +1,323 @@
+package com.redisdockerizer.caching.caching.service;
+
+import com.redisdockerizer.caching.caching.cache.BatchCache;
+import com.redisdockerizer.caching.caching.cache.RedisShards;
+import com.redisdockerizer.caching.caching.cache.TwoTierCacheManager;
+import com.redisdockerizer.caching.caching.dto.ProductPageResponse;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Non-blocking counterpart of {@link ProductService} for the reactive endpoints.
+ * <p>
+ * Reads go straight to the Redis entries of the {@code products} cache through a
+ * {@link ReactiveRedisTemplate}, using the cache's key prefix, value format and TTLs, so both
+ * services share their entries. If the {@code products} cache is sharded, every command goes to
+ * the node owning its key, with one {@code MGET} per node for batches, and a node that is out of
+ * service or fails counts as a miss, exactly as for the cache itself. Misses are loaded from the
+ * repository on the bounded elastic scheduler, never on the calling (event loop or servlet)
+ * thread, and concurrent misses for the same ID share one load. The near cache is not consulted.
+ * <p>
+ * Loaded products are written through the {@code products} cache on that scheduler as well, so
+ * that they are tagged with their category, get their stale copies and invalidate other
+ * instances' near caches exactly like products loaded by the blocking endpoints.
+ * <p>
+ * Writes are delegated to {@link ProductService} on the same scheduler, so that near caches on
+ * every instance, the {@code product-queries} cache and the durability of the repository are
+ * handled exactly as for the blocking endpoints.
+ */
+@Service
+public class ReactiveProductService {
+
+    private static final int MGET_BATCH_SIZE = 500;
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final BatchCache productsCache;
+    private final RedisShards shards;
+    private final Map<RedisShards.Shard, ReactiveRedisTemplate<String, Object>> redisTemplates = new HashMap<>();
+    private final RedisSerializationContext.SerializationPair<String> keySerialization;
+    private final RedisCacheConfiguration cacheConfiguration;
+    private final Scheduler blockingScheduler = Schedulers.boundedElastic();
+    private final ConcurrentMap<UUID, Mono<Optional<Product>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the service.
+     *
+     * @param productRepository repository misses are loaded from
+     * @param productService    service writes are delegated to
+     * @param redisTemplate     template encoding values like the {@code products} cache; its
+     *                          serialization is used for every node of the cache
+     * @param cacheManager      manager providing the {@code products} cache configuration and nodes
+     */
+    public ReactiveProductService(ProductRepository productRepository,
+                                  ProductService productService,
+                                  @Qualifier("productCacheReactiveTemplate") ReactiveRedisTemplate<String, Object> redisTemplate,
+                                  TwoTierCacheManager cacheManager) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.productsCache = (BatchCache) cacheManager.getCache(ProductService.PRODUCTS_CACHE);
+        this.cacheConfiguration = cacheManager.getCacheConfiguration(ProductService.PRODUCTS_CACHE);
+        this.shards = cacheManager.getShards(ProductService.PRODUCTS_CACHE);
+        this.keySerialization = redisTemplate.getSerializationContext().getKeySerializationPair();
+        for (RedisShards.Shard shard : shards.getShards()) {
+            redisTemplates.put(shard, new ReactiveRedisTemplate<>(
+                    (ReactiveRedisConnectionFactory) shard.getConnectionFactory(),
+                    redisTemplate.getSerializationContext()));
+        }
+    }
+
+    /**
+     * Retrieve a product by its ID (cached).
+     * <p>
+     * IDs the repository's Bloom filter rules out complete empty right away; cached negative
+     * entries complete empty without touching the repository.
+     *
+     * @param id product identifier
+     * @return the product, or an empty {@link Mono} if it does not exist
+     */
+    public Mono<Product> getById(UUID id) {
+        if (!productRepository.mightContain(id)) {
+            return Mono.empty();
+        }
+        RedisShards.Shard shard = shardFor(id);
+        return onShard(shard, redisTemplates.get(shard).opsForValue().get(key(id)))
+                .map(ReactiveProductService::toProduct)
+                .switchIfEmpty(Mono.defer(() -> load(id)))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Retrieve several products by their IDs (cached).
+     * <p>
+     * IDs are looked up with one {@code MGET} per {@value #MGET_BATCH_SIZE} IDs and node, all
+     * issued at once so that Lettuce pipelines them. The misses are loaded with one repository call
+     * and written back with one {@link BatchCache#putAll}. Unknown IDs are skipped.
+     *
+     * @param ids product identifiers; duplicates are ignored
+     * @return the products found, in the order their IDs were requested
+     */
+    public Mono<List<Product>> getByIds(Collection<UUID> ids) {
+        List<UUID> requested = new LinkedHashSet<>(ids).stream()
+                .filter(productRepository::mightContain)
+                .toList();
+        List<Map.Entry<RedisShards.Shard, List<UUID>>> batches = new ArrayList<>();
+        shards.partition(requested, this::redisKey).forEach((shard, shardIds) -> {
+            for (int i = 0; i < shardIds.size(); i += MGET_BATCH_SIZE) {
+                batches.add(Map.entry(shard, shardIds.subList(i, Math.min(i + MGET_BATCH_SIZE, shardIds.size()))));
+            }
+        });
+
+        return Flux.fromIterable(batches)
+                .flatMapSequential(batch -> onShard(batch.getKey(), redisTemplates.get(batch.getKey()).opsForValue()
+                        .multiGet(batch.getValue().stream().map(this::key).toList())
+                        .map(values -> zip(batch.getValue(), values))))
+                .collect(LinkedHashMap<UUID, Object>::new, Map::putAll)
+                .flatMap(cached -> {
+                    List<UUID> misses = requested.stream().filter(id -> cached.get(id) == null).toList();
+                    return loadAll(misses).map(loaded -> {
+                        List<Product> result = new ArrayList<>(requested.size());
+                        for (UUID id : requested) {
+                            Product product = cached.get(id) != null ? toProduct(cached.get(id)).orElse(null) : loaded.get(id);
+                            if (product != null) {
+                                result.add(product);
+                            }
+                        }
+                        return result;
+                    });
+                });
+    }
+
+    /**
+     * Retrieve products matching the given filters (non-cached), off the calling thread.
+     *
+     * @see ProductService#findProducts(String, BigDecimal, BigDecimal)
+     */
+    public Flux<Product> findProducts(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        return offload(() -> productService.findProducts(category, minPrice, maxPrice))
+                .flatMapIterable(products -> products);
+    }
+
+    /**
+     * Emit every product ordered by ID (non-cached).
+     * <p>
+     * The repository is read one page of {@value #STREAM_PAGE_SIZE} products at a time, and the
+     * next page only once the subscriber has requested it, so a slow client does not make the
+     * whole catalog pile up in memory.
+     *
+     * @return all products
+     */
+    public Flux<Product> streamProducts() {
+        return offload(() -> productRepository.findPage(null, STREAM_PAGE_SIZE))
+                .expand(page -> page.size() < STREAM_PAGE_SIZE
+                        ? Mono.empty()
+                        : offload(() -> productRepository.findPage(page.getLast().getId(), STREAM_PAGE_SIZE)))
+                .concatMapIterable(page -> page, 1);
+    }
+
+    /**
+     * Retrieve one page of products (cached), off the calling thread.
+     *
+     * @see ProductService#getPage(String, BigDecimal, BigDecimal, String, int)
+     */
+    public Mono<ProductPageResponse> getPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                             String cursor, int limit) {
+        return offload(() -> productService.getPage(category, minPrice, maxPrice, cursor, limit));
+    }
+
+    /**
+     * Create a product, off the calling thread.
+     *
+     * @see ProductService#create(Product)
+     */
+    public Mono<Product> create(Product product) {
+        return offload(() -> productService.create(product));
+    }
+
+    /**
+     * Update a product, off the calling thread.
+     *
+     * @see ProductService#update(UUID, Product)
+     */
+    public Mono<Product> update(UUID id, Product product) {
+        return offload(() -> productService.update(id, product)).flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Delete a product, off the calling thread.
+     *
+     * @see ProductService#delete(UUID)
+     */
+    public Mono<Boolean> delete(UUID id) {
+        return offload(() -> productService.delete(id));
+    }
+
+    /**
+     * Evict the cached entries of a category, off the calling thread.
+     *
+     * @see ProductService#evictCategory(String)
+     */
+    public Mono<Long> evictCategory(String category) {
+        return offload(() -> productService.evictCategory(category));
+    }
+
+    /**
+     * Count the products, off the calling thread.
+     *
+     * @see ProductService#count()
+     */
+    public Mono<Long> count() {
+        return offload(productService::count);
+    }
+
+    /**
+     * Loads a missing product and writes it, or a negative entry if it does not exist, through
+     * the {@code products} cache. Products are written with {@link BatchCache#putAll}, which, as
+     * a load rather than a change, does not shorten their adaptive TTL.
+     */
+    private Mono<Optional<Product>> load(UUID id) {
+        return inFlight.computeIfAbsent(id, key -> offload(() -> loadAndStore(key))
+                .doFinally(signal -> inFlight.remove(key))
+                .cache());
+    }
+
+    private Optional<Product> loadAndStore(UUID id) {
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isPresent()) {
+            productsCache.putAll(Map.of(id, product.get()));
+        } else {
+            productsCache.put(id, null);
+        }
+        return product;
+    }
+
+    /**
+     * Loads missing products and writes them through the {@code products} cache in one batch.
+     */
+    private Mono<Map<UUID, Product>> loadAll(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return offload(() -> {
+            Map<UUID, Product> loaded = new LinkedHashMap<>();
+            productRepository.findAllById(ids).forEach(product -> loaded.put(product.getId(), product));
+            productsCache.putAll(loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Applies the failure handling of {@link RedisShards.Shard#execute} to a reactive command: on
+     * a sharded cache, a node that is out of service or fails completes the command empty.
+     */
+    private <T> Mono<T> onShard(RedisShards.Shard shard, Mono<T> command) {
+        if (!shards.isSharded()) {
+            return command;
+        }
+        if (!shard.isAvailable()) {
+            return Mono.empty();
+        }
+        return command.onErrorResume(DataAccessException.class, e -> {
+            shard.markFailed(e);
+            return Mono.empty();
+        });
+    }
+
+    private RedisShards.Shard shardFor(UUID id) {
+        return shards.shardFor(redisKey(id));
+    }
+
+    private byte[] redisKey(UUID id) {
+        ByteBuffer buffer = keySerialization.write(key(id));
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private <T> Mono<T> offload(Callable<T> task) {
+        return Mono.fromCallable(task).subscribeOn(blockingScheduler);
+    }
+
+    private String key(UUID id) {
+        return cacheConfiguration.getKeyPrefixFor(ProductService.PRODUCTS_CACHE) + id;
+    }
+
+    private static Optional<Product> toProduct(Object value) {
+        return value instanceof Product product ? Optional.of(product) : Optional.empty();
+    }
+
+    private static Map<UUID, Object> zip(List<UUID> ids, List<Object> values) {
+        Map<UUID, Object> zipped = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            zipped.put(ids.get(i), values.get(i));
+        }
+        return zipped;
+    }
+}
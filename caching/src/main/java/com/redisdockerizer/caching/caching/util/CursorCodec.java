@@ -0,0 +1,58 @@
+package com.redisdockerizer.caching.caching.util;
+
+import com.redisdockerizer.caching.caching.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes the opaque cursors used for product pagination.
+ * <p>
+ * A cursor is the ID of the last product on the previous page, written as its
+ * 16 raw bytes and encoded with URL-safe Base64 (without padding). Clients must
+ * treat it as opaque so that the encoding can change without breaking the API.
+ */
+public final class CursorCodec {
+
+    private static final int UUID_BYTES = 16;
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Encodes the ID of the last product of a page as a cursor.
+     *
+     * @param lastId ID of the last product returned
+     * @return the opaque cursor
+     */
+    public static String encode(UUID lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(UUID_BYTES)
+                .putLong(lastId.getMostSignificantBits())
+                .putLong(lastId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(UUID)}.
+     *
+     * @param cursor the opaque cursor, or {@code null} for the first page
+     * @return the ID after which the next page starts, or {@code null} for the first page
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    public static UUID decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != UUID_BYTES) {
+                throw new InvalidCursorException();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
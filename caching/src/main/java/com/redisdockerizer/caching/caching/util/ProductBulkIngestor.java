@@ -0,0 +1,122 @@
+package com.redisdockerizer.caching.caching.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.model.Product;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streams a JSON array of products and hands them to a pool of workers in fixed-size chunks.
+ * <p>
+ * The input is read with Jackson's token API, one product object at a time, so the whole
+ * document is never materialized. Parsed products are collected into chunks of
+ * {@code chunkSize}; each full chunk is passed to the sink on one of {@code workers} threads.
+ * The pool's queue holds at most {@code workers} chunks, and when it is full the parsing
+ * thread processes the chunk itself, which throttles parsing to the speed of the sink.
+ * At most {@code 2 * workers + 1} chunks are therefore held in memory, independent of
+ * the input size.
+ */
+public class ProductBulkIngestor {
+
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int workers;
+
+    /**
+     * Creates a new ingestor.
+     *
+     * @param objectMapper mapper used to bind each product object
+     * @param chunkSize    number of products passed to the sink at once
+     * @param workers      number of threads running the sink
+     */
+    public ProductBulkIngestor(ObjectMapper objectMapper, int chunkSize, int workers) {
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Parses all products from the stream and passes them to the sink in chunks.
+     * Returns once every chunk has been processed.
+     *
+     * @param inputStream a JSON array of product objects; not closed by this method
+     * @param sink        receives the parsed products, possibly from several threads at once
+     * @return number of products parsed
+     * @throws IOException if the input is not a JSON array of products, or the sink failed
+     */
+    public long ingest(InputStream inputStream, Consumer<List<Product>> sink) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers),
+                runnable -> new Thread(runnable, "product-ingest-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of products");
+            }
+
+            List<Product> chunk = new ArrayList<>(chunkSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT && failure.get() == null) {
+                chunk.add(objectMapper.readValue(parser, Product.class));
+                count++;
+                if (chunk.size() == chunkSize) {
+                    submit(executor, chunk, sink, failure);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (token != JsonToken.END_ARRAY && failure.get() == null) {
+                throw new IOException("Expected a product object but found " + token);
+            }
+            if (!chunk.isEmpty()) {
+                submit(executor, chunk, sink, failure);
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+
+        if (failure.get() != null) {
+            throw new IOException("Product ingestion failed: " + failure.get().getMessage(), failure.get());
+        }
+        return count;
+    }
+
+    private static void submit(ThreadPoolExecutor executor, List<Product> chunk, Consumer<List<Product>> sink,
+                               AtomicReference<RuntimeException> failure) {
+        executor.execute(() -> {
+            try {
+                sink.accept(chunk);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor) throws IOException {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new IOException("Interrupted while waiting for product ingestion", e);
+        }
+    }
+}
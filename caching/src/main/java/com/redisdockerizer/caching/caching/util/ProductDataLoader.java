@@ -1,26 +1,47 @@
 package com.redisdockerizer.caching.caching.util;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redisdockerizer.caching.caching.model.Product;
 import com.redisdockerizer.caching.caching.repository.ProductRepository;
+import com.redisdockerizer.caching.caching.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * {@code ProductDataLoader} is executed on application startup and is responsible
  * for initializing product data if the database is empty. The data is loaded from
- * a JSON file located at {@code resources/data/products.json}.
+ * the JSON file at {@code caching.data.location}, by default {@code classpath:data/products.json};
+ * any Spring resource location such as {@code file:/data/catalog.json} works as well.
+ *
+ * <p>The file is streamed with {@link ProductBulkIngestor}: products are parsed one at a time
+ * and saved in chunks by a small worker pool, so memory use does not grow with the file size.</p>
  *
  * <p>This component ensures that the application always has initial data available
  * for products when running for the first time.</p>
+ *
+ * <p>Once the products are saved, the {@code products} cache is optionally warmed up so the
+ * first requests after a deploy do not pay the repository delay. Either every product
+ * is cached, or the first {@code caching.warm-up.limit} IDs of a hot-key list
+ * ({@code caching.warm-up.hot-keys}, one UUID per line, hottest first). Warm-up runs before
+ * the application reports itself ready to accept traffic.</p>
  */
 @Slf4j
 @Component
@@ -28,11 +49,35 @@ import java.util.List;
 public class ProductDataLoader implements CommandLineRunner {
 
     private final ProductRepository productRepository;
+    private final ProductService productService;
     private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+
+    @Value("${caching.data.location:classpath:data/products.json}")
+    private String dataLocation;
+
+    @Value("${caching.data.chunk-size:1000}")
+    private int ingestChunkSize;
+
+    @Value("${caching.data.workers:4}")
+    private int ingestWorkers;
+
+    @Value("${caching.warm-up.enabled:true}")
+    private boolean warmUpEnabled;
+
+    @Value("${caching.warm-up.batch-size:500}")
+    private int warmUpBatchSize;
+
+    @Value("${caching.warm-up.hot-keys:}")
+    private String warmUpHotKeys;
+
+    @Value("${caching.warm-up.limit:0}")
+    private int warmUpLimit;
 
     /**
      * Invoked at application startup. Checks whether product data exists in the database.
-     * If the repository is empty, products are loaded from a JSON file.
+     * If the repository is empty, products are loaded from a JSON file. The cache is then
+     * warmed up if enabled.
      *
      * @param args command-line arguments passed to the application
      */
@@ -43,38 +88,121 @@ public class ProductDataLoader implements CommandLineRunner {
         } else {
             log.info("ProductDataLoader: Products already exist in the database (Total: {})", productRepository.count());
         }
+
+        if (warmUpEnabled) {
+            warmUpCache();
+        }
     }
 
     /**
-     * Loads product data from {@code products.json} located in the classpath and saves
-     * it into the database. If the file cannot be found or an error occurs while reading,
+     * Streams product data from {@code caching.data.location} and saves it into the database
+     * chunk by chunk. If the file cannot be found or an error occurs while reading,
      * appropriate error logs will be generated.
      */
     private void loadProductsFromJson() {
         try {
-            ClassPathResource resource = new ClassPathResource("data/products.json");
+            Resource resource = resourceLoader.getResource(dataLocation);
 
             if (!resource.exists()) {
-                log.error("ProductDataLoader: products.json file not found in resources.");
+                log.error("ProductDataLoader: {} not found.", dataLocation);
                 return;
             }
 
+            long start = System.nanoTime();
             try (InputStream inputStream = resource.getInputStream()) {
-                List<Product> products = objectMapper.readValue(
-                        inputStream,
-                        new TypeReference<>() {
-                        }
-                );
+                long count = new ProductBulkIngestor(objectMapper, ingestChunkSize, ingestWorkers)
+                        .ingest(inputStream, productRepository::saveAll);
 
-                productRepository.saveAll(products);
-
-                log.info("ProductDataLoader: {} products successfully loaded into the database.", products.size());
+                long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                log.info("ProductDataLoader: {} products successfully loaded into the database in {} ms ({} products/s).",
+                        count, elapsedMillis, count * 1000L / elapsedMillis);
             }
 
         } catch (IOException e) {
-            log.error("ProductDataLoader: Error while reading products.json: {}", e.getMessage(), e);
+            log.error("ProductDataLoader: Error while reading {}: {}", dataLocation, e.getMessage(), e);
         } catch (Exception e) {
             log.error("ProductDataLoader: Unexpected error occurred: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the selected products into the cache in pipelined batches and logs the throughput.
+     * A failed warm-up is logged and otherwise ignored; the cache then fills on demand.
+     */
+    private void warmUpCache() {
+        try {
+            long start = System.nanoTime();
+
+            int warmed = warmUpHotKeys.isBlank() ? warmUpAll() : warmUpHotKeys();
+
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("ProductDataLoader: Cache warm-up wrote {} products in {} ms ({} entries/s, batch size {}).",
+                    warmed, elapsedMillis, warmed * 1000L / elapsedMillis, warmUpBatchSize);
+        } catch (Exception e) {
+            log.warn("ProductDataLoader: Cache warm-up failed, the cache will fill on demand: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Warms every product (up to {@code caching.warm-up.limit}), one batch at a time,
+     * without copying the whole repository.
+     */
+    private int warmUpAll() {
+        int limit = warmUpLimit > 0 ? warmUpLimit : Integer.MAX_VALUE;
+        List<Product> batch = new ArrayList<>(warmUpBatchSize);
+        int[] warmed = {0};
+        productRepository.forEach(product -> {
+            if (warmed[0] + batch.size() >= limit) {
+                return;
+            }
+            batch.add(product);
+            if (batch.size() == warmUpBatchSize) {
+                warmed[0] += productService.warmUp(batch, warmUpBatchSize);
+                batch.clear();
+            }
+        });
+        return warmed[0] + productService.warmUp(batch, warmUpBatchSize);
+    }
+
+    /**
+     * Warms the products of the hot-key list, hottest first, up to {@code caching.warm-up.limit}.
+     */
+    private int warmUpHotKeys() throws IOException {
+        List<UUID> hotKeys = readHotKeys(resourceLoader.getResource(warmUpHotKeys));
+        if (warmUpLimit > 0 && hotKeys.size() > warmUpLimit) {
+            hotKeys = hotKeys.subList(0, warmUpLimit);
+        }
+
+        Set<UUID> wanted = new HashSet<>(hotKeys);
+        Map<UUID, Product> byId = new HashMap<>();
+        productRepository.forEach(product -> {
+            if (wanted.contains(product.getId())) {
+                byId.put(product.getId(), product);
+            }
+        });
+
+        List<Product> selected = new ArrayList<>(hotKeys.size());
+        for (UUID id : hotKeys) {
+            Product product = byId.get(id);
+            if (product != null) {
+                selected.add(product);
+            }
+        }
+        return productService.warmUp(selected, warmUpBatchSize);
+    }
+
+    private static List<UUID> readHotKeys(Resource resource) throws IOException {
+        List<UUID> ids = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    ids.add(UUID.fromString(line));
+                }
+            }
+        }
+        return ids;
+    }
+}
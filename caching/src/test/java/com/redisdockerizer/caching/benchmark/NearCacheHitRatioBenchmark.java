@@ -0,0 +1,216 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.redisdockerizer.caching.caching.cache.LruNearCache;
+import com.redisdockerizer.caching.caching.cache.NearCache;
+import com.redisdockerizer.caching.caching.cache.TinyLfuNearCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hit ratio of the W-TinyLFU {@link TinyLfuNearCache} with the LRU {@link LruNearCache}
+ * on access traces.
+ * <p>
+ * Each trial replays the whole trace once against an empty cache of {@code capacity}, loading
+ * every miss, and prints the hit ratio. The LRU cache is bounded by entries, so it gets as many
+ * entries as fit in {@code capacity} at the trace's average value size. The measured score is the
+ * throughput of replaying the trace from 4 threads against the warmed cache.
+ * <p>
+ * {@code trace} is one of the generated traces below, all over 100,000 products of 256 B to 4 KB
+ * with reproducible seeds, or the path of a recorded trace file:
+ * <ul>
+ *     <li>{@code zipf}: 2,000,000 lookups with Zipf-distributed popularity (s = 0.9).</li>
+ *     <li>{@code zipf-scan}: the same, interleaved every 50,000 lookups with a scan of 20,000
+ *     products that are read once and never again.</li>
+ *     <li>{@code shifting}: the same, with the popular products changing every 500,000 lookups.</li>
+ * </ul>
+ * A trace file holds one lookup per line: the key, optionally followed by the value size in bytes
+ * (1 KB if omitted). Keys read from Redis can be recorded with, for example,
+ * {@code redis-cli monitor | awk '$4 == "\"GET\"" {print $5}' > products.trace}.
+ * <pre>
+ * ./mvnw -Pbenchmark test -Djmh.includes=NearCacheHitRatioBenchmark
+ * ./mvnw -Pbenchmark test -Djmh.includes=NearCacheHitRatioBenchmark -Djmh.args="-p trace=/tmp/products.trace"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NearCacheHitRatioBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int LOOKUPS = 2_000_000;
+    private static final int DEFAULT_VALUE_SIZE = 1024;
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+    @Param({"lru", "w-tinylfu"})
+    private String policy;
+
+    @Param({"zipf", "zipf-scan", "shifting"})
+    private String trace;
+
+    @Param({"8MB", "32MB"})
+    private String capacity;
+
+    private String[] keys;
+    private int[] sizes;
+    private NearCache cache;
+
+    @Setup
+    public void setUp() throws IOException {
+        loadTrace();
+        cache = createCache();
+
+        long hits = 0;
+        for (int i = 0; i < keys.length; i++) {
+            hits += lookup(i) ? 1 : 0;
+        }
+        System.out.printf("%n%s, %s trace (%d lookups), %s: hit ratio %.2f%%%n",
+                policy, trace, keys.length, capacity, 100.0 * hits / keys.length);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position;
+
+        @Setup
+        public void setUp(NearCacheHitRatioBenchmark benchmark) {
+            position = ThreadLocalRandom.current().nextInt(benchmark.keys.length);
+        }
+    }
+
+    @Benchmark
+    public boolean replay(Cursor cursor) {
+        int i = cursor.position;
+        cursor.position = i + 1 == keys.length ? 0 : i + 1;
+        return lookup(i);
+    }
+
+    /**
+     * Reads the {@code i}-th key of the trace, storing a value of its size on a miss.
+     *
+     * @return whether the lookup was a hit
+     */
+    private boolean lookup(int i) {
+        if (cache.get(keys[i]) != null) {
+            return true;
+        }
+        cache.put(keys[i], sizes[i]);
+        return false;
+    }
+
+    private NearCache createCache() {
+        long maximumWeight = DataSize.parse(capacity).toBytes();
+        if ("w-tinylfu".equals(policy)) {
+            return new TinyLfuNearCache(maximumWeight, TIME_TO_LIVE, value -> (Integer) value);
+        }
+        Map<String, Integer> distinct = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            distinct.put(keys[i], sizes[i]);
+        }
+        double averageSize = distinct.values().stream().mapToInt(Integer::intValue).average().orElse(1);
+        return new LruNearCache((int) (maximumWeight / averageSize), TIME_TO_LIVE);
+    }
+
+    private void loadTrace() throws IOException {
+        switch (trace) {
+            case "zipf" -> generate(0, 0, 0);
+            case "zipf-scan" -> generate(50_000, 20_000, 0);
+            case "shifting" -> generate(0, 0, 500_000);
+            default -> read(Path.of(trace));
+        }
+    }
+
+    /**
+     * Generates a Zipf-distributed trace.
+     *
+     * @param scanEvery  lookups between two scans, or {@code 0} for none
+     * @param scanLength distinct products read by each scan
+     * @param shiftEvery lookups after which the popularity ranking is rotated, or {@code 0} for never
+     */
+    private void generate(int scanEvery, int scanLength, int shiftEvery) {
+        double[] cumulative = new double[PRODUCTS];
+        double sum = 0;
+        for (int rank = 0; rank < PRODUCTS; rank++) {
+            sum += 1 / Math.pow(rank + 1, 0.9);
+            cumulative[rank] = sum;
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> traceKeys = new ArrayList<>(LOOKUPS);
+        List<Integer> traceSizes = new ArrayList<>(LOOKUPS);
+        int scanned = 0;
+        int shift = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (shiftEvery > 0 && i > 0 && i % shiftEvery == 0) {
+                shift += PRODUCTS / 7;
+            }
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            int product = ((rank < 0 ? -rank - 1 : rank) + shift) % PRODUCTS;
+            traceKeys.add("product:" + product);
+            traceSizes.add(size(product));
+
+            if (scanEvery > 0 && (i + 1) % scanEvery == 0) {
+                for (int j = 0; j < scanLength; j++, scanned++) {
+                    traceKeys.add("scanned:" + scanned);
+                    traceSizes.add(size(PRODUCTS + scanned));
+                }
+            }
+        }
+        keys = traceKeys.toArray(String[]::new);
+        sizes = traceSizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void read(Path file) throws IOException {
+        List<String> traceKeys = new ArrayList<>();
+        List<Integer> traceSizes = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields[0].isEmpty()) {
+                    continue;
+                }
+                traceKeys.add(fields[0]);
+                traceSizes.add(fields.length > 1 ? Integer.parseInt(fields[1]) : DEFAULT_VALUE_SIZE);
+            }
+        }
+        keys = traceKeys.toArray(String[]::new);
+        sizes = traceSizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Value size of a product, between 256 B and 4 KB, skewed towards small values.
+     */
+    private static int size(int product) {
+        double uniform = new SplittableRandom(product).nextDouble();
+        return 256 + (int) (3840 * uniform * uniform);
+    }
+}
@@ -0,0 +1,219 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.CachingApplication;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.service.ProductService;
+import com.redisdockerizer.testsupport.redis.InProcessRedisServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Measures the request hot path through the full Spring context.
+ * <ul>
+ *     <li>{@code getByIdCacheHit}: {@code ProductService.getById} through the caching proxy for warmed
+ *     products, answered by the near cache or, with {@code nearCache=false}, by Redis.</li>
+ *     <li>{@code findAll}: copying the whole catalog out of the repository.</li>
+ *     <li>{@code render*}: {@code ProductController} responses rendered to JSON through {@link MockMvc},
+ *     for a single cached product and for the full catalog.</li>
+ * </ul>
+ * Each trial boots the application with a generated catalog, which is warmed into the {@code products}
+ * cache at startup so that lookups by ID never reach the (deliberately slow) repository. Redis is an
+ * {@link InProcessRedisServer} replying after {@code redisLatencyMicros}, or with {@code redis=local}
+ * the Redis at {@code spring.data.redis.host}/{@code port} (default {@code localhost:6379}).
+ * <pre>
+ * ./mvnw -Pbenchmark test -Djmh.includes=ProductHotPathBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductHotPathBenchmark {
+
+    private static final int CACHED_CATALOG_SIZE = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Backend {
+
+        @Param({"in-process"})
+        private String redis;
+
+        @Param({"0"})
+        private int redisLatencyMicros;
+
+        private InProcessRedisServer server;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if ("in-process".equals(redis)) {
+                server = new InProcessRedisServer().start();
+                server.setLatency(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(redisLatencyMicros)));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (server != null) {
+                server.close();
+            }
+        }
+
+        private List<String> arguments() {
+            return server == null ? List.of() : List.of(
+                    "--spring.data.redis.host=" + server.getHost(),
+                    "--spring.data.redis.port=" + server.getPort());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CachedProducts {
+
+        @Param({"true", "false"})
+        private boolean nearCache;
+
+        private Application application;
+        private ProductService productService;
+
+        @Setup(Level.Trial)
+        public void setUp(Backend backend) throws IOException {
+            application = new Application(backend, CACHED_CATALOG_SIZE, "--caching.near-cache.enabled=" + nearCache);
+            productService = application.context.getBean(ProductService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            application.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({"1000", "10000", "100000"})
+        private int catalogSize;
+
+        private Application application;
+        private ProductService productService;
+        private MockMvc mockMvc;
+
+        @Setup(Level.Trial)
+        public void setUp(Backend backend) throws IOException {
+            application = new Application(backend, catalogSize);
+            productService = application.context.getBean(ProductService.class);
+            mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.context).build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            application.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<Product> getByIdCacheHit(CachedProducts state) {
+        return state.productService.getById(state.application.randomId());
+    }
+
+    @Benchmark
+    public List<Product> findAll(Catalog state) {
+        return state.productService.getAllProducts();
+    }
+
+    @Benchmark
+    public String renderProduct(Catalog state) throws Exception {
+        return render(state.mockMvc, "/api/products/" + state.application.randomId());
+    }
+
+    @Benchmark
+    public String renderCatalog(Catalog state) throws Exception {
+        return render(state.mockMvc, "/api/products");
+    }
+
+    private static String render(MockMvc mockMvc, String uri) throws Exception {
+        MvcResult result = mockMvc.perform(get(uri)).andReturn();
+        return result.getResponse().getContentAsString();
+    }
+
+    /**
+     * The application booted with a generated catalog of the given size.
+     */
+    private static final class Application {
+
+        private final Path directory;
+        private final UUID[] ids;
+        private final ConfigurableApplicationContext context;
+
+        private Application(Backend backend, int catalogSize, String... args) throws IOException {
+            directory = Files.createTempDirectory("product-hot-path-bench");
+            List<Product> products = new ArrayList<>(catalogSize);
+            for (int i = 0; i < catalogSize; i++) {
+                products.add(product(i));
+            }
+            Path json = directory.resolve("products.json");
+            new ObjectMapper().writeValue(json.toFile(), products);
+            ids = products.stream().map(Product::getId).toArray(UUID[]::new);
+
+            List<String> arguments = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.devtools.restart.enabled=false",
+                    "--caching.data.location=" + json.toUri(),
+                    "--caching.warm-up.enabled=true",
+                    "--logging.level.root=WARN"
+            ));
+            arguments.addAll(backend.arguments());
+            arguments.addAll(List.of(args));
+            context = new SpringApplicationBuilder(CachingApplication.class)
+                    .web(WebApplicationType.SERVLET)
+                    .run(arguments.toArray(String[]::new));
+        }
+
+        private UUID randomId() {
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+
+        private void close() throws IOException {
+            context.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    private static Product product(int i) {
+        return new Product(UUID.randomUUID(), "Product " + i, "electronics",
+                new BigDecimal("19.99").add(BigDecimal.valueOf(i % 100)), "Benchmark product number " + i);
+    }
+}
@@ -0,0 +1,145 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.CachingApplication;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.testsupport.redis.InProcessRedisServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the HTTP layer under a mixed hit/miss workload, with requests served by platform
+ * or virtual threads ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * 56 clients request cached products ({@code mixed:hit}) while 8 clients request products
+ * that were just evicted ({@code mixed:miss}), each of which blocks its request thread in
+ * {@code ProductRepository.findById} for a second. Tomcat's platform pool is shrunk to
+ * {@code tomcatThreads} so that the misses occupy half of it with this many clients; in
+ * production the same happens with the default 200 threads and a larger burst. With platform
+ * threads, hits queue behind the blocked threads; with virtual threads, they do not.
+ * <p>
+ * Reported per request type: throughput and the latency distribution (p50 ... p99.99).
+ * <pre>
+ * ./mvnw -Pbenchmark test -Djmh.includes=ProductLoadBenchmark
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductLoadBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int COLD_PRODUCTS = 1_000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"16"})
+    private int tomcatThreads;
+
+    private InProcessRedisServer redis;
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUri;
+    private Cache productsCache;
+    private UUID[] hotIds;
+    private UUID[] coldIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        redis = new InProcessRedisServer().start();
+        directory = Files.createTempDirectory("product-load-bench");
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products.add(new Product(UUID.randomUUID(), "Product " + i, "electronics",
+                    new BigDecimal("19.99").add(BigDecimal.valueOf(i % 100)), "Benchmark product number " + i));
+        }
+        Path json = directory.resolve("products.json");
+        new ObjectMapper().writeValue(json.toFile(), products);
+        coldIds = products.subList(0, COLD_PRODUCTS).stream().map(Product::getId).toArray(UUID[]::new);
+        hotIds = products.subList(COLD_PRODUCTS, CATALOG_SIZE).stream().map(Product::getId).toArray(UUID[]::new);
+
+        context = new SpringApplicationBuilder(CachingApplication.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                "--spring.devtools.restart.enabled=false",
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getPort(),
+                "--caching.data.location=" + json.toUri(),
+                "--caching.warm-up.enabled=true",
+                "--logging.level.root=WARN"
+        );
+        baseUri = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                + "/api/products/";
+        productsCache = context.getBean(CacheManager.class).getCache("products");
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        context.close();
+        redis.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(56)
+    public int hit() throws Exception {
+        return get(hotIds[ThreadLocalRandom.current().nextInt(hotIds.length)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public int miss() throws Exception {
+        UUID id = coldIds[ThreadLocalRandom.current().nextInt(coldIds.length)];
+        productsCache.evict(id);
+        return get(id);
+    }
+
+    private int get(UUID id) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,166 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.repository.InMemoryProductStore;
+import com.redisdockerizer.caching.caching.repository.ProductJournal;
+import com.redisdockerizer.caching.caching.repository.ProductRepository;
+import com.redisdockerizer.caching.caching.util.ProductBulkIngestor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the durable {@link ProductJournal} with the JSON reload path used without it.
+ * <ul>
+ *     <li>{@code startup*}: time to fill an empty repository, either by streaming {@code products.json}
+ *     through {@link ProductBulkIngestor} or by recovering a snapshot plus a 10% log tail.</li>
+ *     <li>{@code write}: saves per second from 8 threads, in memory only or journaled with
+ *     group commit (each save returns after its batch is fsynced).</li>
+ * </ul>
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductPersistenceBenchmark"
+ * </pre>
+ */
+@Fork(1)
+public class ProductPersistenceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoredProducts {
+
+        @Param({"10000", "100000"})
+        private int products;
+
+        private Path directory;
+        private Path json;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("product-journal-bench");
+            json = directory.resolve("products.json");
+            List<Product> all = new ArrayList<>(products);
+            for (int i = 0; i < products; i++) {
+                all.add(product(i));
+            }
+            new ObjectMapper().writeValue(json.toFile(), all);
+
+            Path journalDirectory = directory.resolve("journal");
+            ProductJournal journal = new ProductJournal(journalDirectory, Duration.ofHours(1));
+            ProductRepository repository = new ProductRepository(new InMemoryProductStore(), provider(journal));
+            int snapshotted = products - products / 10;
+            repository.saveAll(all.subList(0, snapshotted));
+            journal.snapshot(repository::forEach);
+            repository.saveAll(all.subList(snapshotted, products));
+            journal.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Repositories {
+
+        @Param({"memory", "journal"})
+        private String mode;
+
+        private Path directory;
+        private ProductJournal journal;
+        private ProductRepository repository;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("product-journal-bench");
+            if ("journal".equals(mode)) {
+                journal = new ProductJournal(directory, Duration.ofHours(1));
+            }
+            repository = new ProductRepository(new InMemoryProductStore(), provider(journal));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (journal != null) {
+                journal.close();
+            }
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public long startupFromJson(StoredProducts state) throws IOException {
+        ProductRepository repository = new ProductRepository(new InMemoryProductStore(), provider(null));
+        try (InputStream inputStream = Files.newInputStream(state.json)) {
+            new ProductBulkIngestor(new ObjectMapper(), 1000, 4).ingest(inputStream, repository::saveAll);
+        }
+        return repository.count();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public long startupFromJournal(StoredProducts state) {
+        ProductJournal journal = new ProductJournal(state.directory.resolve("journal"), Duration.ofHours(1));
+        try {
+            return new ProductRepository(new InMemoryProductStore(), provider(journal)).count();
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(8)
+    public Product write(Repositories state) {
+        return state.repository.save(product(0));
+    }
+
+    private static ObjectProvider<ProductJournal> provider(ProductJournal journal) {
+        StaticListableBeanFactory beanFactory = journal != null
+                ? new StaticListableBeanFactory(Map.of("productJournal", journal))
+                : new StaticListableBeanFactory();
+        return beanFactory.getBeanProvider(ProductJournal.class);
+    }
+
+    private static Product product(int i) {
+        return new Product(UUID.randomUUID(), "Product " + i, "electronics",
+                new BigDecimal("19.99").add(BigDecimal.valueOf(i % 100)), "Benchmark product number " + i);
+    }
+}
@@ -0,0 +1,163 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.CachingApplication;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.testsupport.redis.InProcessRedisServer;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares {@code ProductController} with {@code ReactiveProductController} under high
+ * concurrency, with every read answered by a Redis that is {@code redisLatencyMillis} away.
+ * <p>
+ * 256 clients request single cached products ({@code getById}) or batches of
+ * {@value #BATCH_SIZE} ({@code getBatch}) from {@code /api/products} ({@code api=blocking}) or
+ * {@code /api/reactive/products} ({@code api=reactive}). The near cache is disabled so that
+ * every request waits for Redis. The blocking controller holds a Tomcat thread for the whole
+ * round trip; the reactive one releases it until the reply arrives.
+ * <p>
+ * Reported: the latency distribution (p50 ... p99.99) and, printed after each iteration, the
+ * peak number of busy Tomcat request threads ("threads held").
+ * <pre>
+ * ./mvnw -Pbenchmark test -Djmh.includes=ProductReactiveBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+@State(Scope.Benchmark)
+public class ProductReactiveBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"blocking", "reactive"})
+    private String api;
+
+    @Param({"2"})
+    private int redisLatencyMillis;
+
+    private InProcessRedisServer redis;
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUri;
+    private UUID[] ids;
+    private ThreadPoolExecutor requestThreads;
+    private ScheduledExecutorService sampler;
+    private final AtomicInteger busyThreadsPeak = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        redis = new InProcessRedisServer().start();
+        directory = Files.createTempDirectory("product-reactive-bench");
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products.add(new Product(UUID.randomUUID(), "Product " + i, "electronics",
+                    new BigDecimal("19.99").add(BigDecimal.valueOf(i % 100)), "Benchmark product number " + i));
+        }
+        Path json = directory.resolve("products.json");
+        new ObjectMapper().writeValue(json.toFile(), products);
+        ids = products.stream().map(Product::getId).toArray(UUID[]::new);
+
+        context = new SpringApplicationBuilder(CachingApplication.class).run(
+                "--server.port=0",
+                "--spring.devtools.restart.enabled=false",
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getPort(),
+                "--caching.data.location=" + json.toUri(),
+                "--caching.warm-up.enabled=true",
+                "--caching.near-cache.enabled=false",
+                "--caching.refresh-ahead.enabled=false",
+                "--logging.level.root=WARN"
+        );
+        redis.setLatency(Duration.ofMillis(redisLatencyMillis));
+
+        TomcatWebServer webServer = (TomcatWebServer) ((WebServerApplicationContext) context).getWebServer();
+        baseUri = "http://localhost:" + webServer.getPort()
+                + ("reactive".equals(api) ? "/api/reactive/products" : "/api/products");
+        requestThreads = (ThreadPoolExecutor) webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+        sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> busyThreadsPeak.accumulateAndGet(requestThreads.getActiveCount(), Math::max),
+                0, 1, TimeUnit.MILLISECONDS);
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportThreadsHeld() {
+        System.out.printf("%n%s: peak busy Tomcat threads %d of %d%n",
+                api, busyThreadsPeak.getAndSet(0), requestThreads.getMaximumPoolSize());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sampler.shutdownNow();
+        client.close();
+        context.close();
+        redis.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int getById() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/" + randomId())).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int getBatch() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            body.append(i == 0 ? "\"" : ",\"").append(randomId()).append('"');
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
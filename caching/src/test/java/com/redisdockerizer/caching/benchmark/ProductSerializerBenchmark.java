@@ -0,0 +1,79 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.serializer.ProductRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generic JSON serializer with {@link ProductRedisSerializer} for {@code products} cache values.
+ * <p>
+ * Reports encode/decode time per operation; the encoded size (bytes per entry) of each
+ * format is printed once per trial.
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductSerializerBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    private String format;
+
+    @Param({"32", "4096"})
+    private int descriptionLength;
+
+    private RedisSerializer<Object> serializer;
+    private Product product;
+    private byte[] encoded;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        serializer = "json".equals(format)
+                ? new GenericJackson2JsonRedisSerializer()
+                : (RedisSerializer<Object>) (RedisSerializer<?>) new ProductRedisSerializer();
+        product = new Product(
+                UUID.randomUUID(),
+                "iPhone 15 Pro",
+                "electronics",
+                new BigDecimal("999.99"),
+                "x".repeat(descriptionLength)
+        );
+        encoded = serializer.serialize(product);
+
+        System.out.printf("%n[size] format=%s descriptionLength=%d bytesPerEntry=%d%n",
+                format, descriptionLength, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(product);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
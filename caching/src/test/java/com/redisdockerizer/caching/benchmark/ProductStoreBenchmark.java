@@ -0,0 +1,98 @@
+package com.redisdockerizer.caching.benchmark;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.repository.InMemoryProductStore;
+import com.redisdockerizer.caching.caching.repository.OffHeapProductStore;
+import com.redisdockerizer.caching.caching.repository.ProductStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link InMemoryProductStore} with {@link OffHeapProductStore}.
+ * <p>
+ * Reports reads and writes per second from 4 threads; the heap retained by the filled store
+ * (after a full GC) and the direct memory it allocated are printed once per trial. Add
+ * {@code -prof gc} to see allocation rates and GC time during the run.
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args="ProductStoreBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+public class ProductStoreBenchmark {
+
+    @Param({"heap", "off-heap"})
+    private String store;
+
+    @Param({"100000", "1000000"})
+    private int products;
+
+    private ProductStore productStore;
+    private UUID[] ids;
+
+    @Setup
+    public void setUp() {
+        ids = new UUID[products];
+        for (int i = 0; i < products; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+
+        long heapBefore = usedHeap();
+        productStore = "heap".equals(store) ? new InMemoryProductStore() : new OffHeapProductStore(256 << 10);
+        for (int i = 0; i < products; i++) {
+            Product product = product(ids[i], i);
+            productStore.compute(product.getId(), (id, previous) -> product);
+        }
+        long heap = usedHeap() - heapBefore;
+        long direct = productStore instanceof OffHeapProductStore offHeap ? offHeap.getAllocatedBytes() : 0;
+        System.out.printf("%n%s store, %d products: %.1f MB heap (UUIDs excluded), %.1f MB direct memory%n",
+                store, products, heap / 1048576.0, direct / 1048576.0);
+    }
+
+    @Benchmark
+    public Product get() {
+        return productStore.get(ids[ThreadLocalRandom.current().nextInt(products)]);
+    }
+
+    @Benchmark
+    public Product save() {
+        int i = ThreadLocalRandom.current().nextInt(products);
+        Product product = product(ids[i], i);
+        return productStore.compute(product.getId(), (id, previous) -> product);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static Product product(UUID id, int i) {
+        return new Product(id, "Product " + i, i % 2 == 0 ? "electronics" : "books",
+                new BigDecimal("19.99").add(BigDecimal.valueOf(i % 100)),
+                "Benchmark product number " + i + " with a description of typical length");
+    }
+}
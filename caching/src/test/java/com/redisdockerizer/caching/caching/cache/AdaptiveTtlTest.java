@@ -0,0 +1,62 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class AdaptiveTtlTest {
+
+    private static final Duration MINIMUM = Duration.ofMinutes(1);
+    private static final Duration MAXIMUM = Duration.ofHours(1);
+
+    @Test
+    void givenUnknownKey_whenWritten_thenGetsMinimumTtl() {
+        AdaptiveTtl adaptiveTtl = new AdaptiveTtl(MINIMUM, MAXIMUM, 10, Duration.ofMinutes(10), 100);
+
+        Assertions.assertEquals(MINIMUM, adaptiveTtl.getTimeToLive("key", "value"));
+        Assertions.assertEquals(1, adaptiveTtl.getTrackedKeys());
+    }
+
+    @Test
+    void givenHotUnchangedKey_whenRewritten_thenTtlApproachesMaximum() throws InterruptedException {
+        AdaptiveTtl adaptiveTtl = new AdaptiveTtl(MINIMUM, MAXIMUM, 10, Duration.ofNanos(1), 100);
+        adaptiveTtl.getTimeToLive("key", "value");
+        for (int i = 0; i < 1_000; i++) {
+            adaptiveTtl.onRead("key");
+        }
+        Thread.sleep(5);
+
+        Duration ttl = adaptiveTtl.getTimeToLive("key", "value");
+
+        Assertions.assertTrue(ttl.compareTo(Duration.ofMinutes(50)) > 0, ttl::toString);
+        Assertions.assertTrue(ttl.compareTo(MAXIMUM) <= 0, ttl::toString);
+    }
+
+    @Test
+    void givenHotKey_whenChanged_thenFallsBackToMinimumTtl() throws InterruptedException {
+        AdaptiveTtl adaptiveTtl = new AdaptiveTtl(MINIMUM, MAXIMUM, 10, Duration.ofNanos(1), 100);
+        adaptiveTtl.getTimeToLive("key", "value");
+        for (int i = 0; i < 1_000; i++) {
+            adaptiveTtl.onRead("key");
+        }
+        Thread.sleep(5);
+
+        adaptiveTtl.onChange("key");
+
+        Assertions.assertEquals(MINIMUM, adaptiveTtl.getTimeToLive("key", "value"));
+    }
+
+    @Test
+    void givenTrackingLimitReached_whenNewKeyRead_thenIsNotTracked() {
+        AdaptiveTtl adaptiveTtl = new AdaptiveTtl(MINIMUM, MAXIMUM, 10, Duration.ofNanos(1), 2);
+        adaptiveTtl.onChange("a");
+        adaptiveTtl.onChange("b");
+
+        adaptiveTtl.onChange("c");
+        adaptiveTtl.onRead("c");
+
+        Assertions.assertEquals(2, adaptiveTtl.getTrackedKeys());
+        Assertions.assertEquals(MINIMUM, adaptiveTtl.getTimeToLive("c", "value"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void givenVirtualNodes_whenKeysAreMapped_thenEveryNodeOwnsASimilarShare() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a:6379", "b:6379", "c:6379", "d:6379"),
+                Function.identity(), 160);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.nodeFor(key(i)), 1, Integer::sum);
+        }
+
+        Assertions.assertEquals(4, owned.size());
+        owned.values().forEach(count ->
+                Assertions.assertTrue(Math.abs(count - KEYS / 4) < KEYS / 4 * 0.2, owned::toString));
+    }
+
+    @Test
+    void givenAddedNode_whenKeysAreMapped_thenOnlyItsShareMovesAndOnlyToIt() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(List.of("a:6379", "b:6379", "c:6379"),
+                Function.identity(), 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(List.of("a:6379", "b:6379", "c:6379", "d:6379"),
+                Function.identity(), 160);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String oldNode = before.nodeFor(key(i));
+            String newNode = after.nodeFor(key(i));
+            if (!oldNode.equals(newNode)) {
+                Assertions.assertEquals("d:6379", newNode);
+                moved++;
+            }
+        }
+
+        double movedShare = (double) moved / KEYS;
+        Assertions.assertTrue(movedShare > 0.18 && movedShare < 0.32, () -> "moved " + movedShare);
+    }
+
+    private static byte[] key(int i) {
+        return ("demo:products::" + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
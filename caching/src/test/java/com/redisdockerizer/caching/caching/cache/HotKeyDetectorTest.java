@@ -0,0 +1,90 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class HotKeyDetectorTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void givenSkewedReads_whenRecorded_thenOnlyFrequentKeysAreHot() {
+        HotKeyDetector detector = new HotKeyDetector(1, WINDOW, 4, 100, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            detector.record("cold-" + i);
+            if (i % 10 == 0) {
+                detector.record("hot-1");
+            }
+            if (i % 20 == 0) {
+                detector.record("hot-2");
+            }
+        }
+
+        Assertions.assertTrue(detector.isHot("hot-1"));
+        Assertions.assertTrue(detector.isHot("hot-2"));
+        Assertions.assertFalse(detector.isHot("cold-1"));
+        List<HotKeyDetector.HotKey> hotKeys = detector.getHotKeys();
+        Assertions.assertEquals(List.of("hot-1", "hot-2"), hotKeys.stream().map(HotKeyDetector.HotKey::key).toList());
+        Assertions.assertTrue(hotKeys.get(0).estimatedReads() >= 1_000);
+        Assertions.assertEquals(2, detector.getPromotions());
+    }
+
+    @Test
+    void givenKeysWithEqualHashCodes_whenOneIsRead_thenTheOtherIsNotCounted() {
+        HotKeyDetector detector = new HotKeyDetector(1, WINDOW, 4, 100, clock::get);
+        Assertions.assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        for (int i = 0; i < 200; i++) {
+            detector.record("Aa");
+        }
+
+        Assertions.assertTrue(detector.isHot("Aa"));
+        Assertions.assertEquals(0, detector.getEstimatedReads("BB"));
+        Assertions.assertFalse(detector.isHot("BB"));
+    }
+
+    @Test
+    void givenHotKey_whenNoLongerReadForAWindow_thenIsDemoted() {
+        HotKeyDetector detector = new HotKeyDetector(1, WINDOW, 4, 100, clock::get);
+        List<Boolean> changes = new ArrayList<>();
+        detector.onHotKeysChanged(() -> changes.add(true));
+        for (int i = 0; i < 200; i++) {
+            detector.record("hot");
+        }
+        Assertions.assertTrue(detector.isHot("hot"));
+
+        clock.addAndGet(WINDOW.toNanos() / 2);
+        Assertions.assertTrue(detector.isHot("hot"));
+        clock.addAndGet(WINDOW.toNanos() / 2);
+
+        Assertions.assertFalse(detector.isHot("hot"));
+        Assertions.assertEquals(1, detector.getDemotions());
+        Assertions.assertEquals(2, changes.size());
+        Assertions.assertTrue(detector.getHotKeys().isEmpty());
+    }
+
+    @Test
+    void givenMoreFrequentKeysThanTopK_whenRecorded_thenAtMostTopKAreHot() {
+        HotKeyDetector detector = new HotKeyDetector(1, WINDOW, 2, 10, clock::get);
+
+        for (int round = 0; round < 100; round++) {
+            for (int key = 0; key < 5; key++) {
+                for (int reads = 0; reads <= key; reads++) {
+                    detector.record("key-" + key);
+                }
+            }
+        }
+
+        Assertions.assertEquals(List.of("key-4", "key-3"),
+                detector.getHotKeys().stream().map(HotKeyDetector.HotKey::key).toList());
+        Assertions.assertTrue(detector.size() <= 2);
+    }
+}
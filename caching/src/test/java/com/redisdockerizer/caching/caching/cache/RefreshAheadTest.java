@@ -0,0 +1,61 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RefreshAheadTest {
+
+    @Test
+    void givenEntryFarFromExpiry_whenHit_thenDoesNotRefresh() {
+        RefreshAhead refreshAhead = new RefreshAhead(1.0, 100, new RefreshScheduler(Runnable::run));
+        AtomicInteger refreshes = new AtomicInteger();
+        refreshAhead.onLoad("key", Duration.ofMillis(1).toNanos(), Duration.ofMinutes(5));
+
+        for (int i = 0; i < 1_000; i++) {
+            refreshAhead.onHit("key", () -> null, refreshes::incrementAndGet);
+        }
+
+        Assertions.assertEquals(0, refreshes.get());
+    }
+
+    @Test
+    void givenLoadTimeExceedingRemainingTtl_whenHit_thenRefreshesInBackground() {
+        RefreshAhead refreshAhead = new RefreshAhead(1.0, 100, new RefreshScheduler(Runnable::run));
+        AtomicInteger refreshes = new AtomicInteger();
+        refreshAhead.onLoad("key", Duration.ofHours(1).toNanos(), Duration.ofSeconds(1));
+
+        for (int i = 0; i < 100; i++) {
+            refreshAhead.onHit("key", () -> null, refreshes::incrementAndGet);
+        }
+
+        Assertions.assertTrue(refreshes.get() > 0);
+        Assertions.assertEquals(refreshes.get(), refreshAhead.getScheduled());
+    }
+
+    @Test
+    void givenUntrackedKey_whenHit_thenLooksUpRemainingTtl() {
+        RefreshAhead refreshAhead = new RefreshAhead(1.0, 100, new RefreshScheduler(Runnable::run));
+
+        refreshAhead.onHit("key", () -> Duration.ofMinutes(1), () -> Assertions.fail("refreshed untracked key"));
+
+        Assertions.assertEquals(1, refreshAhead.getTrackedKeys());
+    }
+
+    @Test
+    void givenSaturatedExecutor_whenRefreshDue_thenDropsRefresh() {
+        RefreshScheduler scheduler = new RefreshScheduler(task -> {
+            throw new RejectedExecutionException();
+        });
+        RefreshAhead refreshAhead = new RefreshAhead(1.0, 100, scheduler);
+        refreshAhead.onLoad("key", Duration.ofHours(1).toNanos(), Duration.ofSeconds(1));
+
+        refreshAhead.onHit("key", () -> null, () -> Assertions.fail("ran rejected refresh"));
+
+        Assertions.assertEquals(1, scheduler.getRejected());
+        Assertions.assertEquals(0, refreshAhead.getScheduled());
+    }
+}
@@ -0,0 +1,123 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import com.redisdockerizer.testsupport.redis.InProcessRedisServer;
+import io.lettuce.core.ClientOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class ShardedRedisCacheWriterTest {
+
+    private static final String CACHE = "products";
+    private static final int KEYS = 300;
+
+    private final List<InProcessRedisServer> servers = new ArrayList<>();
+    private final Map<String, LettuceConnectionFactory> nodes = new LinkedHashMap<>();
+    private RedisShards shards;
+    private RedisCacheWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(250))
+                .clientOptions(ClientOptions.builder()
+                        .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                        .build())
+                .build();
+        for (int i = 0; i < 3; i++) {
+            InProcessRedisServer server = new InProcessRedisServer().start();
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(server.getHost(), server.getPort()), clientConfiguration);
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            servers.add(server);
+            nodes.put(server.getHost() + ":" + server.getPort(), connectionFactory);
+        }
+        shards = new RedisShards(nodes, 160, Duration.ofSeconds(5));
+        writer = new ShardedRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(nodes.values().iterator().next()),
+                Set.of(CACHE),
+                shards,
+                connectionFactory -> RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(100))
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        shards.destroy();
+        servers.forEach(InProcessRedisServer::close);
+    }
+
+    @Test
+    void givenEntries_whenPut_thenTheyAreSpreadAcrossNodesAndReadBack() {
+        for (int i = 0; i < KEYS; i++) {
+            writer.put(CACHE, key(i), value(i), Duration.ofMinutes(5));
+        }
+
+        long total = 0;
+        for (LettuceConnectionFactory connectionFactory : nodes.values()) {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                long size = connection.serverCommands().dbSize();
+                Assertions.assertTrue(size > KEYS / 6, () -> "node holds only " + size + " keys");
+                total += size;
+            }
+        }
+        Assertions.assertEquals(KEYS, total);
+        for (int i = 0; i < KEYS; i++) {
+            Assertions.assertArrayEquals(value(i), writer.get(CACHE, key(i)));
+        }
+
+        writer.clean(CACHE, "products::*".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(writer.get(CACHE, key(0)));
+    }
+
+    @Test
+    void givenNodeDown_whenAccessed_thenItsKeysMissAndOtherNodesKeepServing() {
+        for (int i = 0; i < KEYS; i++) {
+            writer.put(CACHE, key(i), value(i), Duration.ofMinutes(5));
+        }
+        RedisShards.Shard down = shards.getShards().getFirst();
+        servers.getFirst().close();
+
+        long start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < KEYS; i++) {
+            byte[] value = writer.get(CACHE, key(i));
+            if (shards.shardFor(key(i)) == down) {
+                Assertions.assertNull(value);
+                writer.put(CACHE, key(i), value(i), Duration.ofMinutes(5));
+            } else {
+                Assertions.assertArrayEquals(value(i), value);
+                hits++;
+            }
+        }
+
+        Assertions.assertTrue(hits > KEYS / 3);
+        Assertions.assertFalse(down.isAvailable());
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    private static byte[] key(int i) {
+        return ("products::" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] value(int i) {
+        return ("product " + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTest {
+
+    @Test
+    void givenConcurrentCallersForSameKey_whenExecute_thenLoaderRunsOnce() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+
+            while (singleFlight.getCoalesced() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                Assertions.assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, singleFlight.getExecuted());
+        Assertions.assertEquals(callers - 1, singleFlight.getCoalesced());
+    }
+
+    @Test
+    void givenFailingLoader_whenExecute_thenFailureIsNotCachedForNextCall() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        Assertions.assertEquals("value", singleFlight.execute("key", () -> "value"));
+        Assertions.assertEquals(2, singleFlight.getExecuted());
+    }
+
+    @Test
+    void givenLoaderThrowingError_whenExecute_thenWaitersFailAndKeyIsReleased() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                throw new AssertionError("boom");
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            Future<String> waiter = executor.submit(() -> singleFlight.execute("key", () -> "unused"));
+            while (singleFlight.getCoalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            ExecutionException leaderFailure = Assertions.assertThrows(ExecutionException.class,
+                    () -> leader.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(AssertionError.class, leaderFailure.getCause());
+            ExecutionException waiterFailure = Assertions.assertThrows(ExecutionException.class,
+                    () -> waiter.get(5, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(AssertionError.class, waiterFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals("value", singleFlight.execute("key", () -> "value"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+class TinyLfuNearCacheTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    @Test
+    void givenEntriesHeavierThanTheBound_whenPut_thenWeightStaysWithinMaximum() {
+        TinyLfuNearCache cache = new TinyLfuNearCache(10_000, TIME_TO_LIVE, value -> ((String) value).length());
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("key-" + i, "x".repeat(100 + i % 400));
+            Assertions.assertTrue(cache.getWeightedSize() <= 10_000, () -> "weight " + cache.getWeightedSize());
+        }
+
+        Assertions.assertTrue(cache.getEvictionCount() + cache.getRejectionCount() > 0);
+        Assertions.assertTrue(cache.getWeightedSize() > 5_000, () -> "weight " + cache.getWeightedSize());
+    }
+
+    @Test
+    void givenValueHeavierThanMaximum_whenPut_thenItIsNotStored() {
+        TinyLfuNearCache cache = new TinyLfuNearCache(1_000, TIME_TO_LIVE, value -> ((String) value).length());
+        cache.put("small", "x".repeat(10));
+
+        cache.put("large", "x".repeat(2_000));
+
+        Assertions.assertNull(cache.get("large"));
+        Assertions.assertEquals("x".repeat(10), cache.get("small"));
+        Assertions.assertEquals(10, cache.getWeightedSize());
+    }
+
+    @Test
+    void givenFrequentlyReadEntries_whenManyKeysAreReadOnce_thenFrequentEntriesStay() {
+        TinyLfuNearCache cache = new TinyLfuNearCache(100 * 100, TIME_TO_LIVE, value -> 100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, "hot");
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                Assertions.assertEquals("hot", cache.get("hot-" + i));
+            }
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan-" + i, "cold");
+        }
+
+        long hot = IntStream.range(0, 50).filter(i -> cache.get("hot-" + i) != null).count();
+        Assertions.assertTrue(hot >= 45, () -> "hot entries left " + hot);
+        Assertions.assertTrue(cache.getWeightedSize() <= 100 * 100);
+    }
+
+    @Test
+    void givenEvictedOrClearedEntries_whenGet_thenTheyAreMissesAndWeightIsReleased() {
+        TinyLfuNearCache cache = new TinyLfuNearCache(1_000, TIME_TO_LIVE, value -> 10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("a", "3");
+
+        Assertions.assertEquals("3", cache.get("a"));
+        Assertions.assertEquals(20, cache.getWeightedSize());
+
+        cache.evict("a");
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals(10, cache.getWeightedSize());
+
+        cache.clear();
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals(0, cache.getWeightedSize());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void givenConcurrentReadersAndWriters_whenDone_thenWeightMatchesTheEntriesHeld() throws Exception {
+        TinyLfuNearCache cache = new TinyLfuNearCache(50_000, TIME_TO_LIVE, value -> (Integer) value);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50_000; i++) {
+                        String key = "key-" + random.nextInt(2_000);
+                        switch (random.nextInt(10)) {
+                            case 0 -> cache.evict(key);
+                            case 1, 2, 3 -> cache.put(key, 10 + random.nextInt(90));
+                            default -> cache.get(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long held = 0;
+        for (int i = 0; i < 2_000; i++) {
+            Object value = cache.get("key-" + i);
+            if (value != null) {
+                held += (Integer) value;
+            }
+        }
+        Assertions.assertTrue(cache.getWeightedSize() <= 50_000);
+        Assertions.assertEquals(held, cache.getWeightedSize());
+    }
+}
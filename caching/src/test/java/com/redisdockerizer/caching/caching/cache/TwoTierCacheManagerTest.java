@@ -0,0 +1,181 @@
+package com.redisdockerizer.caching.caching.cache;
+
+import com.redisdockerizer.testsupport.redis.InProcessRedisExtension;
+import com.redisdockerizer.testsupport.redis.InProcessRedisServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs two cache managers against one Redis and one invalidation channel, as two application
+ * instances would, and checks that a write or eviction on one drops the L1 copy of the other.
+ */
+@ExtendWith(InProcessRedisExtension.class)
+class TwoTierCacheManagerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final String cacheName = "greetings-" + UUID.randomUUID();
+    private final String channel = "test:near-cache:invalidation:" + UUID.randomUUID();
+    private Instance first;
+    private Instance second;
+
+    @BeforeEach
+    void setUp(InProcessRedisServer server) {
+        first = new Instance(server, channel);
+        second = new Instance(server, channel);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void givenEntryCachedOnBothInstances_whenPutOnOne_thenTheOtherDropsItsL1CopyAndReadsTheNewValue() {
+        Cache writer = first.cache(cacheName);
+        TwoTierCache reader = (TwoTierCache) second.cache(cacheName);
+        writer.put("greeting", "hello");
+        second.awaitInvalidation("greeting");
+        Assertions.assertEquals("hello", reader.get("greeting", String.class));
+        Assertions.assertEquals("hello", reader.getNearCache().get("greeting"));
+
+        writer.put("greeting", "bonjour");
+
+        second.awaitInvalidation("greeting");
+        Assertions.assertNull(reader.getNearCache().get("greeting"));
+        Assertions.assertEquals("bonjour", reader.get("greeting", String.class));
+        Assertions.assertEquals("bonjour", ((TwoTierCache) writer).getNearCache().get("greeting"));
+    }
+
+    @Test
+    void givenEntryCachedOnBothInstances_whenEvictedOnOne_thenTheOtherDropsItsL1CopyAndMisses() {
+        Cache writer = first.cache(cacheName);
+        TwoTierCache reader = (TwoTierCache) second.cache(cacheName);
+        writer.put("greeting", "hello");
+        second.awaitInvalidation("greeting");
+        Assertions.assertEquals("hello", reader.get("greeting", String.class));
+        Assertions.assertEquals("hello", reader.getNearCache().get("greeting"));
+
+        writer.evict("greeting");
+
+        second.awaitInvalidation("greeting");
+        Assertions.assertNull(reader.getNearCache().get("greeting"));
+        Assertions.assertNull(reader.get("greeting"));
+    }
+
+    @Test
+    void givenReadsAcrossBothTiers_whenCounted_thenNearCacheMetersCountHitsAndMissesPerTier() {
+        Cache writer = first.cache(cacheName);
+        TwoTierCache reader = (TwoTierCache) second.cache(cacheName);
+        writer.put("greeting", "hello");
+        second.awaitInvalidation("greeting");
+
+        reader.get("greeting");
+        reader.get("greeting");
+        writer.evict("greeting");
+        second.awaitInvalidation("greeting");
+        reader.get("greeting");
+
+        Assertions.assertEquals(1, requests(second.meterRegistry, "l1", "hit"));
+        Assertions.assertEquals(2, requests(second.meterRegistry, "l1", "miss"));
+        Assertions.assertEquals(1, requests(second.meterRegistry, "l2", "hit"));
+        Assertions.assertEquals(1, requests(second.meterRegistry, "l2", "miss"));
+        Assertions.assertEquals(1.0 / 3, hitRatio(second.meterRegistry, "l1"), 1e-9);
+        Assertions.assertEquals(0.5, hitRatio(second.meterRegistry, "l2"), 1e-9);
+        Assertions.assertEquals(0, requests(first.meterRegistry, "l1", "hit") + requests(first.meterRegistry, "l1", "miss"));
+    }
+
+    private double requests(MeterRegistry registry, String tier, String result) {
+        return registry.get("cache.near.requests")
+                .tags("cache", cacheName, "tier", tier, "result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private double hitRatio(MeterRegistry registry, String tier) {
+        return registry.get("cache.near.hit.ratio")
+                .tags("cache", cacheName, "tier", tier)
+                .gauge()
+                .value();
+    }
+
+    /**
+     * One application instance: its own connections, invalidation bus, subscription, L1 caches
+     * and meters, sharing only Redis and the channel with the other instance.
+     */
+    private static final class Instance implements AutoCloseable {
+
+        private final LettuceConnectionFactory connectionFactory;
+        private final RedisMessageListenerContainer listenerContainer;
+        private final TwoTierCacheManager cacheManager;
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final BlockingQueue<String> invalidatedKeys = new LinkedBlockingQueue<>();
+
+        private Instance(InProcessRedisServer server, String channel) {
+            connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(server.getHost(), server.getPort()));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+
+            CacheInvalidationBus invalidationBus = new CacheInvalidationBus(connectionFactory, channel);
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            listenerContainer.addMessageListener(invalidationBus, new ChannelTopic(channel));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+
+            RedisCacheManager redisCacheManager = RedisCacheManager
+                    .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory))
+                    .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().prefixCacheNameWith("two-tier-test:"))
+                    .build();
+            redisCacheManager.afterPropertiesSet();
+            CacheFeature nearCache = (context, cache) -> cache.nearCache(new LruNearCache(100, Duration.ofMinutes(1)));
+            cacheManager = new TwoTierCacheManager(redisCacheManager, connectionFactory, invalidationBus, meterRegistry,
+                    new TwoTierCacheManager.RefreshPool(1, 10, false), List.of(nearCache));
+            // Subscribed after the manager, so a key is taken from the queue only once its L1 copy is gone.
+            invalidationBus.subscribe((cache, key) -> invalidatedKeys.add(String.valueOf(key)));
+        }
+
+        private void awaitInvalidation(String key) {
+            try {
+                Assertions.assertEquals(key, invalidatedKeys.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS),
+                        "no invalidation received within " + TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Assertions.fail(e);
+            }
+        }
+
+        private Cache cache(String name) {
+            return cacheManager.getCache(name);
+        }
+
+        @Override
+        public void close() throws Exception {
+            cacheManager.destroy();
+            listenerContainer.destroy();
+            connectionFactory.destroy();
+        }
+    }
+}
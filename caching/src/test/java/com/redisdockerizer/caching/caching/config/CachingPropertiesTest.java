@@ -0,0 +1,63 @@
+package com.redisdockerizer.caching.caching.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+class CachingPropertiesTest {
+
+    @Test
+    void givenNoSettings_whenBound_thenDefaultsApply() {
+        CachingProperties properties = bind(Map.of());
+
+        Assertions.assertTrue(properties.nearCache().enabled());
+        Assertions.assertEquals(DataSize.ofMegabytes(32), properties.nearCache().maximumWeight());
+        Assertions.assertEquals(Duration.ofSeconds(30), properties.negative().timeToLive());
+        Assertions.assertFalse(properties.stale().enabled());
+        Assertions.assertEquals(List.of("products"), properties.stale().cacheNames());
+        Assertions.assertFalse(properties.tags().enabled());
+        Assertions.assertEquals(Duration.ofMillis(50), properties.singleFlight().cluster().pollInterval());
+        Assertions.assertTrue(properties.ttl().caches().isEmpty());
+        Assertions.assertTrue(properties.sharding().nodes().isEmpty());
+    }
+
+    @Test
+    void givenSettings_whenBound_thenTheyOverrideDefaults() {
+        CachingProperties properties = bind(Map.of(
+                "caching.ttl.caches.product-queries", "2m",
+                "caching.sharding.nodes", "redis-1:6379,redis-2:6379",
+                "caching.hot-keys.top-k", "4"
+        ));
+
+        Assertions.assertEquals(Map.of("product-queries", Duration.ofMinutes(2)), properties.ttl().caches());
+        Assertions.assertEquals(List.of("redis-1:6379", "redis-2:6379"), properties.sharding().nodes());
+        Assertions.assertEquals(4, properties.hotKeys().topK());
+    }
+
+    @Test
+    void givenAdaptiveTtlForProducts_whenResolvingTtls_thenOnlyProductsAreAdaptive() {
+        CachingProperties properties = bind(Map.of(
+                "caching.ttl.adaptive.enabled", "true",
+                "caching.ttl.caches.product-queries", "2m"
+        ));
+
+        CacheTimeToLives timeToLives = CacheTimeToLives.of(Duration.ofMinutes(10),
+                Map.of("products", Duration.ofMinutes(5)), properties.ttl());
+
+        Assertions.assertNotNull(timeToLives.getAdaptiveTtl("products"));
+        Assertions.assertSame(timeToLives.getAdaptiveTtl("products"), timeToLives.forCache("products"));
+        Assertions.assertEquals(Duration.ofMinutes(2), timeToLives.forCache("product-queries").getTimeToLive("key", "value"));
+        Assertions.assertEquals(Duration.ofMinutes(10), timeToLives.forCache("other").getTimeToLive("key", "value"));
+    }
+
+    private static CachingProperties bind(Map<String, String> settings) {
+        return new Binder(new MapConfigurationPropertySource(settings))
+                .bindOrCreate("caching", CachingProperties.class);
+    }
+}
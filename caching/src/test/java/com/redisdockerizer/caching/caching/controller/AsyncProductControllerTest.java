@@ -0,0 +1,111 @@
+package com.redisdockerizer.caching.caching.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.cache.TwoTierCache;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.caching.caching.service.AsyncProductService;
+import com.redisdockerizer.testsupport.redis.InProcessRedisExtension;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(InProcessRedisExtension.class)
+class AsyncProductControllerTest {
+
+    private static final String BASE_ENDPOINT = "/api/async/products";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    @Autowired
+    private AsyncProductService asyncProductService;
+
+    @Test
+    void givenEvictedProduct_whenGetById_thenLoadsAndCachesIt() throws Exception {
+        Product created = create("Monitor");
+        String key = "demo:products::" + created.getId();
+        cacheManager.getCache("products").evict(created.getId());
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey(key));
+
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Monitor"));
+
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey(key));
+        Assertions.assertTrue(redisTemplate.getExpire(key) > 0);
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("products");
+        Assertions.assertEquals("Monitor", ((Product) cache.getNearCache().get(created.getId().toString())).getName());
+    }
+
+    @Test
+    void givenUnknownId_whenGetById_thenReturnsNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + UUID.randomUUID()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void givenConcurrentMisses_whenGetById_thenCallersShareOneLoad() throws Exception {
+        Product created = create("Headset");
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("products");
+        cache.evict(created.getId());
+        long executed = cache.getSingleFlight().getExecuted();
+        long coalesced = cache.getSingleFlight().getCoalesced();
+
+        List<CompletableFuture<Product>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(asyncProductService.getById(created.getId()));
+        }
+
+        for (CompletableFuture<Product> future : futures) {
+            Assertions.assertEquals("Headset", future.get(5, TimeUnit.SECONDS).getName());
+        }
+        Assertions.assertEquals(1, cache.getSingleFlight().getExecuted() - executed);
+        Assertions.assertEquals(9, cache.getSingleFlight().getCoalesced() - coalesced);
+    }
+
+    private Product create(String name) throws Exception {
+        Product request = new Product(null, name, "electronics", BigDecimal.valueOf(19.99), name + " description");
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/api/products")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, Product.class);
+    }
+
+    /**
+     * Performs a request whose handler returns a {@code CompletableFuture}, and dispatches the
+     * asynchronous result.
+     */
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+    }
+}
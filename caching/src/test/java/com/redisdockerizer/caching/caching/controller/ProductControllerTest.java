@@ -1,26 +1,39 @@
 package com.redisdockerizer.caching.caching.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.cache.TwoTierCache;
+import com.redisdockerizer.caching.caching.dto.ProductPageResponse;
 import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.testsupport.redis.InProcessRedisExtension;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-@SpringBootTest
+@SpringBootTest(properties = {"caching.stale.enabled=true", "caching.tags.enabled=true"})
 @AutoConfigureMockMvc
-@ExtendWith(MockitoExtension.class)
+@ExtendWith({MockitoExtension.class, InProcessRedisExtension.class})
 class ProductControllerTest {
 
     private static final String BASE_ENDPOINT = "/api/products";
@@ -28,6 +41,12 @@ class ProductControllerTest {
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Test
     void givenValidProduct_whenCreateProduct_thenReturnsCreatedProduct() throws Exception {
@@ -183,6 +202,339 @@ class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
+    @Test
+    void givenCreatedProducts_whenGetBatch_thenReturnsKnownProductsInRequestOrder() throws Exception {
+        Product first = createProduct(new Product(
+                null,
+                "Monitor",
+                "electronics",
+                BigDecimal.valueOf(249.00),
+                "27 inch monitor"
+        ));
+        Product second = createProduct(new Product(
+                null,
+                "Desk Lamp",
+                "home",
+                BigDecimal.valueOf(29.99),
+                "LED desk lamp"
+        ));
+
+        MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders
+                .post(BASE_ENDPOINT + "/batch")
+                .content(objectMapper.writeValueAsString(List.of(second.getId(), UUID.randomUUID(), first.getId())))
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mockMvc.perform(mockRequest)
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(second.getId().toString()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(first.getId().toString()));
+    }
+
+    @Test
+    void givenPageSize_whenGetProductPages_thenFollowingPageStartsAfterCursor() throws Exception {
+        createProduct(new Product(null, "Cable", "electronics", BigDecimal.valueOf(9.99), "USB-C cable"));
+        createProduct(new Product(null, "Charger", "electronics", BigDecimal.valueOf(24.99), "65W charger"));
+
+        String firstPage = mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT).param("limit", "1"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        ProductPageResponse page = objectMapper.readValue(firstPage, ProductPageResponse.class);
+        UUID firstId = page.items().getFirst().getId();
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("limit", "1")
+                        .param("cursor", page.nextCursor()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(Matchers.not(firstId.toString())));
+    }
+
+    @Test
+    void givenMalformedCursor_whenGetProductPage_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("limit", "10")
+                        .param("cursor", "not-a-cursor"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void givenMinPriceAboveMaxPrice_whenGetProducts_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("minPrice", "100")
+                        .param("maxPrice", "10"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("minPrice", "100")
+                        .param("maxPrice", "10")
+                        .param("limit", "10"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void givenCategoryAndPriceFilters_whenGetAllProducts_thenReturnsOnlyMatchingProducts() throws Exception {
+        String category = "filter-" + UUID.randomUUID();
+        Product cheap = createProduct(new Product(null, "Pen", category, BigDecimal.valueOf(2.50), "Ballpoint pen"));
+        Product expensive = createProduct(new Product(null, "Fountain Pen", category, BigDecimal.valueOf(120.00), "Gold nib"));
+        createProduct(new Product(null, "Notebook", "stationery", BigDecimal.valueOf(5.00), "A5 notebook"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT).param("category", category.toUpperCase()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("category", category)
+                        .param("minPrice", "100")
+                        .param("limit", "10"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(expensive.getId().toString()));
+
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_ENDPOINT + "/" + cheap.getId())
+                        .content(objectMapper.writeValueAsString(
+                                new Product(null, "Pen", category, BigDecimal.valueOf(150.00), "Limited edition")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("category", category)
+                        .param("minPrice", "100")
+                        .param("limit", "10"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void givenCachedPage_whenProductCreated_thenGenerationAdvancesAndPageIncludesIt() throws Exception {
+        String category = "generation-" + UUID.randomUUID();
+        createProduct(new Product(null, "Lamp", category, BigDecimal.valueOf(30.00), "Desk lamp"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("category", category)
+                        .param("limit", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1));
+        String before = redisTemplate.opsForValue().get("caching:generation:product-queries");
+
+        createProduct(new Product(null, "Floor Lamp", category, BigDecimal.valueOf(80.00), "Standing lamp"));
+
+        String after = redisTemplate.opsForValue().get("caching:generation:product-queries");
+        Assertions.assertNotNull(after);
+        Assertions.assertTrue(Long.parseLong(after) > (before != null ? Long.parseLong(before) : 0));
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT)
+                        .param("category", category)
+                        .param("limit", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void givenTaggedProduct_whenMovedToAnotherCategoryOrDeleted_thenItLeavesTheOldTagSet() throws Exception {
+        String oldCategory = "tag-old-" + UUID.randomUUID();
+        String newCategory = "tag-new-" + UUID.randomUUID();
+        Product moved = createProduct(new Product(null, "Chair", oldCategory, BigDecimal.valueOf(60.00), "Oak chair"));
+        Product deleted = createProduct(new Product(null, "Stool", oldCategory, BigDecimal.valueOf(20.00), "Bar stool"));
+        String oldTag = "demo:products::tag::" + oldCategory;
+        Assertions.assertEquals(2L, redisTemplate.opsForSet().size(oldTag));
+        Assertions.assertTrue(redisTemplate.getExpire(oldTag, TimeUnit.SECONDS) > 0);
+
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_ENDPOINT + "/" + moved.getId())
+                        .content(objectMapper.writeValueAsString(
+                                new Product(null, "Chair", newCategory, BigDecimal.valueOf(60.00), "Oak chair")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Assertions.assertEquals(Set.of(deleted.getId().toString()), redisTemplate.opsForSet().members(oldTag));
+        Assertions.assertEquals(Set.of(moved.getId().toString()),
+                redisTemplate.opsForSet().members("demo:products::tag::" + newCategory));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BASE_ENDPOINT + "/" + deleted.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey(oldTag));
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::tag-of::" + deleted.getId()));
+    }
+
+    @Test
+    void whenStreamProducts_thenReturnsOneJsonObjectPerLine() throws Exception {
+        Product created = createProduct(new Product(
+                null,
+                "Tripod",
+                "photography",
+                BigDecimal.valueOf(59.00),
+                "Aluminium tripod"
+        ));
+
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        Assertions.assertFalse(lines.isEmpty());
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.contains(created.getId().toString())));
+        for (String line : lines) {
+            Assertions.assertNotNull(objectMapper.readValue(line, Product.class).getId());
+        }
+    }
+
+    @Test
+    void givenExpiredEntryWithStaleCopy_whenGetById_thenServesStaleValueWithHeader() throws Exception {
+        Product created = createProduct(new Product(
+                null, "Monitor", "electronics", BigDecimal.valueOf(249.90), "27 inch"));
+
+        // Simulate expiry of the Redis entry and the local copy; the stale copy remains.
+        redisTemplate.delete("demo:products::" + created.getId());
+        ((TwoTierCache) cacheManager.getCache("products")).getNearCache().evict(created.getId().toString());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Cache-Stale", "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Monitor"));
+    }
+
+    @Test
+    void givenExpiredEntryWithStaleCopy_whenGetByIdAsync_thenReloadsWithoutStaleHeader() throws Exception {
+        Product served = createProduct(new Product(
+                null, "Keyboard", "electronics", BigDecimal.valueOf(59.90), "Mechanical"));
+        Product reloaded = createProduct(new Product(
+                null, "Mouse", "electronics", BigDecimal.valueOf(19.90), "Wireless"));
+        for (Product product : List.of(served, reloaded)) {
+            redisTemplate.delete("demo:products::" + product.getId());
+            ((TwoTierCache) cacheManager.getCache("products")).getNearCache().evict(product.getId().toString());
+        }
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + served.getId()))
+                .andExpect(MockMvcResultMatchers.header().string("X-Cache-Stale", "true"));
+
+        // Asynchronous lookups reload a missing entry instead of serving its stale copy.
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/async/products/" + reloaded.getId()))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Cache-Stale"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Mouse"));
+    }
+
+    @Test
+    void givenProductInNearCache_whenCallerChangesReturnedInstance_thenCachedProductIsUnchanged() throws Exception {
+        Product created = createProduct(new Product(
+                null, "Stylus", "tablets", BigDecimal.valueOf(29.90), "Pressure sensitive"));
+        Cache products = cacheManager.getCache("products");
+
+        products.get(created.getId(), Product.class).setName("Changed");
+        products.put(created.getId(), created);
+        created.setName("Changed as well");
+
+        Assertions.assertEquals("Stylus", products.get(created.getId(), Product.class).getName());
+        Assertions.assertNotSame(products.get(created.getId(), Product.class),
+                products.get(created.getId(), Product.class));
+    }
+
+    @Test
+    void givenUnknownId_whenGetById_thenReturnsNotFoundWithoutRepositoryDelay() throws Exception {
+        long start = System.nanoTime();
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + UUID.randomUUID()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    void givenMissingProduct_whenCachedAsNull_thenStoredWithNegativeTtl() {
+        UUID id = UUID.randomUUID();
+        Cache cache = cacheManager.getCache("products");
+
+        cache.put(id, null);
+
+        Assertions.assertNotNull(cache.get(id));
+        Assertions.assertNull(cache.get(id).get());
+        Long ttl = redisTemplate.getExpire("demo:products::" + id, TimeUnit.SECONDS);
+        Assertions.assertTrue(ttl != null && ttl > 0 && ttl <= 30, "ttl: " + ttl);
+    }
+
+    @Test
+    void givenStartupWarmUp_whenApplicationStarted_thenSeedProductsAreInRedis() throws Exception {
+        String seedId = "550e8400-e29b-41d4-a716-446655440000";
+
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("demo:products::" + seedId));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + seedId))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(seedId));
+    }
+
+    @Test
+    void givenLoadHitAndEviction_whenReadingMetrics_thenPerCacheMetersAreRecorded() {
+        Cache cache = cacheManager.getCache("products");
+        UUID id = UUID.randomUUID();
+        Product product = new Product(id, "Desk Lamp", "home", BigDecimal.valueOf(24.5), "LED desk lamp");
+
+        cache.get(id, () -> product);
+        cache.get(id, () -> product);
+        cache.evict(id);
+
+        Assertions.assertTrue(meterRegistry.get("cache.gets").tags("cache", "products", "result", "hit")
+                .functionCounter().count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("cache.gets").tags("cache", "products", "result", "miss")
+                .functionCounter().count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("cache.puts").tag("cache", "products").functionCounter().count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("cache.evictions").tag("cache", "products")
+                .functionCounter().count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("cache.load.time").tags("cache", "products", "result", "success")
+                .timer().count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("cache.value.size").tags("cache", "products", "operation", "write")
+                .summary().count() >= 1);
+        Assertions.assertTrue(meterRegistry.get("cache.redis.latency").tags("cache", "products", "command", "get")
+                .timer().count() >= 1);
+        Assertions.assertNotNull(meterRegistry.find("lettuce.command.completion").timer());
+    }
+
+    @Test
+    void givenCachedProductsOfCategory_whenEvictCategory_thenOnlyThatCategoryIsEvicted() throws Exception {
+        String category = "Flash-Sale-" + UUID.randomUUID();
+        Product first = createProduct(new Product(null, "Tent", category, BigDecimal.valueOf(199.00), "Two-person tent"));
+        Product second = createProduct(new Product(null, "Stove", category, BigDecimal.valueOf(49.90), "Camping stove"));
+        Product other = createProduct(new Product(
+                null, "Kettle", "kitchen-" + UUID.randomUUID(), BigDecimal.valueOf(35.00), "Electric kettle"));
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("demo:products::" + first.getId()));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BASE_ENDPOINT + "/cache/categories/" + category.toUpperCase()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("2"));
+
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::" + first.getId()));
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::" + second.getId()));
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::tag::" + category.toLowerCase()));
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("demo:products::" + other.getId()));
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("products");
+        Assertions.assertNull(cache.getNearCache().get(first.getId().toString()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + first.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.category").value(category));
+    }
+
     @Test
     void whenGetProductCount_thenReturnsNumber() throws Exception {
         MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders
@@ -193,4 +545,16 @@ class ProductControllerTest {
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
-}
\ No newline at end of file
+
+    private Product createProduct(Product request) throws Exception {
+        String body = mockMvc.perform(MockMvcRequestBuilders.post(BASE_ENDPOINT)
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readValue(body, Product.class);
+    }
+}
@@ -0,0 +1,154 @@
+package com.redisdockerizer.caching.caching.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.testsupport.redis.InProcessRedisExtension;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@SpringBootTest(properties = "caching.tags.enabled=true")
+@AutoConfigureMockMvc
+@ExtendWith(InProcessRedisExtension.class)
+class ReactiveProductControllerTest {
+
+    private static final String BASE_ENDPOINT = "/api/reactive/products";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void givenCreatedProduct_whenGetById_thenReturnsProduct() throws Exception {
+        Product created = create("Mouse");
+
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(created.getId().toString()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Mouse"));
+    }
+
+    @Test
+    void givenUnknownId_whenGetById_thenReturnsNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + UUID.randomUUID()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void givenEvictedProduct_whenGetById_thenLoadsAndCachesIt() throws Exception {
+        Product created = create("Monitor");
+        String key = "demo:products::" + created.getId();
+        cacheManager.getCache("products").evict(created.getId());
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey(key));
+
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Monitor"));
+
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey(key));
+        Assertions.assertTrue(redisTemplate.getExpire(key) > 0);
+        Assertions.assertEquals("Monitor", cacheManager.getCache("products").get(created.getId(), Product.class).getName());
+    }
+
+    @Test
+    void givenCachedAndEvictedProducts_whenGetBatch_thenReturnsFoundProductsInRequestOrder() throws Exception {
+        Product cached = create("Keyboard");
+        Product evicted = create("Headset");
+        cacheManager.getCache("products").evict(evicted.getId());
+
+        List<UUID> ids = List.of(evicted.getId(), UUID.randomUUID(), cached.getId());
+        perform(MockMvcRequestBuilders.post(BASE_ENDPOINT + "/batch")
+                .content(objectMapper.writeValueAsString(ids))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Headset"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].name").value("Keyboard"));
+
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("demo:products::" + evicted.getId()));
+    }
+
+    @Test
+    void givenProductsLoadedReactively_whenEvictCategory_thenTheirEntriesAreEvicted() throws Exception {
+        String category = "reactive-" + UUID.randomUUID();
+        Product single = create("Lantern", category);
+        Product batched = create("Torch", category);
+        redisTemplate.delete("demo:products::tag::" + category);
+        cacheManager.getCache("products").evict(single.getId());
+        cacheManager.getCache("products").evict(batched.getId());
+
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + single.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        perform(MockMvcRequestBuilders.post(BASE_ENDPOINT + "/batch")
+                .content(objectMapper.writeValueAsString(List.of(batched.getId())))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("demo:products::" + single.getId()));
+        Assertions.assertEquals(Boolean.TRUE, redisTemplate.hasKey("demo:products::" + batched.getId()));
+
+        perform(MockMvcRequestBuilders.delete(BASE_ENDPOINT + "/cache/categories/" + category))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("2"));
+
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::" + single.getId()));
+        Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::" + batched.getId()));
+    }
+
+    @Test
+    void givenDeletedProduct_whenGetById_thenReturnsNotFound() throws Exception {
+        Product created = create("Webcam");
+
+        perform(MockMvcRequestBuilders.delete(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        perform(MockMvcRequestBuilders.delete(BASE_ENDPOINT + "/" + created.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    private Product create(String name) throws Exception {
+        return create(name, "electronics");
+    }
+
+    private Product create(String name, String category) throws Exception {
+        Product request = new Product(null, name, category, BigDecimal.valueOf(19.99), name + " description");
+        String response = perform(MockMvcRequestBuilders.post(BASE_ENDPOINT)
+                .content(objectMapper.writeValueAsString(request))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, Product.class);
+    }
+
+    /**
+     * Performs a request whose handler returns a {@code Mono} or {@code Flux}, and dispatches
+     * the asynchronous result.
+     */
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+    }
+}
@@ -0,0 +1,141 @@
+package com.redisdockerizer.caching.caching.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.model.Product;
+import com.redisdockerizer.testsupport.redis.InProcessRedisExtension;
+import com.redisdockerizer.testsupport.redis.InProcessRedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the reactive endpoints against a {@code products} cache sharded across two nodes, with
+ * the default Redis of the {@link InProcessRedisExtension} holding everything else.
+ */
+@SpringBootTest(properties = {"caching.sharding.enabled=true", "caching.tags.enabled=true"})
+@AutoConfigureMockMvc
+@ExtendWith(InProcessRedisExtension.class)
+class ShardedReactiveProductControllerTest {
+
+    private static final String BASE_ENDPOINT = "/api/reactive/products";
+    private static final List<InProcessRedisServer> SHARDS = new ArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @DynamicPropertySource
+    static void shardNodes(DynamicPropertyRegistry registry) throws IOException {
+        for (int i = 0; i < 2; i++) {
+            SHARDS.add(new InProcessRedisServer().start());
+        }
+        registry.add("caching.sharding.nodes", () -> SHARDS.stream()
+                .map(server -> server.getHost() + ":" + server.getPort())
+                .collect(Collectors.joining(",")));
+    }
+
+    @AfterAll
+    static void stopShards() {
+        SHARDS.forEach(InProcessRedisServer::close);
+    }
+
+    @Test
+    void givenProductsReadReactively_whenUpdatedOrDeleted_thenReactiveReadsSeeTheChange() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Product created = create("Lamp " + i);
+            cacheManager.getCache("products").evict(created.getId());
+            perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + created.getId()))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+            Assertions.assertEquals(Boolean.FALSE, redisTemplate.hasKey("demo:products::" + created.getId()));
+            products.add(created);
+        }
+
+        Product updated = products.get(0);
+        perform(MockMvcRequestBuilders.put(BASE_ENDPOINT + "/" + updated.getId())
+                .content(objectMapper.writeValueAsString(
+                        new Product(null, "Desk Lamp", "lighting", BigDecimal.valueOf(25.00), "Updated")))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Product deleted = products.get(1);
+        perform(MockMvcRequestBuilders.delete(BASE_ENDPOINT + "/" + deleted.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + updated.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Desk Lamp"));
+        perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + deleted.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        perform(MockMvcRequestBuilders.post(BASE_ENDPOINT + "/batch")
+                .content(objectMapper.writeValueAsString(List.of(updated.getId(), deleted.getId(), UUID.randomUUID())))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Desk Lamp"));
+    }
+
+    @Test
+    void givenProductsWrittenAcrossShards_whenEvictCategory_thenEveryEntryIsEvicted() throws Exception {
+        String category = "sharded-" + UUID.randomUUID();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            products.add(create("Bulb " + i, category));
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/products/cache/categories/" + category))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("8"));
+        for (Product product : products) {
+            perform(MockMvcRequestBuilders.get(BASE_ENDPOINT + "/" + product.getId()))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+    }
+
+    private Product create(String name) throws Exception {
+        return create(name, "lighting");
+    }
+
+    private Product create(String name, String category) throws Exception {
+        Product request = new Product(null, name, category, BigDecimal.valueOf(19.99), name + " description");
+        String response = perform(MockMvcRequestBuilders.post(BASE_ENDPOINT)
+                .content(objectMapper.writeValueAsString(request))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, Product.class);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result));
+    }
+}
@@ -0,0 +1,100 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class OffHeapProductStoreTest {
+
+    @Test
+    void givenStoredProduct_whenGet_thenEqualCopyIsReturned() {
+        OffHeapProductStore store = new OffHeapProductStore(1024);
+        Product product = product(UUID.randomUUID(), "Keyboard");
+
+        store.compute(product.getId(), (id, previous) -> product);
+        Product stored = store.get(product.getId());
+
+        Assertions.assertNotSame(product, stored);
+        Assertions.assertEquals(product.getName(), stored.getName());
+        Assertions.assertEquals(product.getPrice(), stored.getPrice());
+        Assertions.assertTrue(store.containsKey(product.getId()));
+        Assertions.assertNull(store.get(UUID.randomUUID()));
+    }
+
+    @Test
+    void givenManyUpdatesAndDeletes_whenRead_thenStoreMatchesHashMap() {
+        OffHeapProductStore store = new OffHeapProductStore(256);
+        Map<UUID, Product> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            Product product = product(id, "Product " + i);
+            store.compute(id, (key, previous) -> product);
+            expected.put(id, product);
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            UUID id = ids.get(i);
+            Product product = product(id, "Updated " + i);
+            store.compute(id, (key, previous) -> product);
+            expected.put(id, product);
+        }
+        for (int i = 0; i < ids.size(); i += 3) {
+            store.compute(ids.get(i), (key, previous) -> null);
+            expected.remove(ids.get(i));
+        }
+
+        Assertions.assertEquals(expected.size(), store.size());
+        for (UUID id : ids) {
+            Product stored = store.get(id);
+            Assertions.assertEquals(expected.containsKey(id) ? expected.get(id).getName() : null,
+                    stored != null ? stored.getName() : null);
+        }
+        List<Product> visited = new ArrayList<>();
+        store.forEach(visited::add);
+        Assertions.assertEquals(expected.size(), visited.size());
+    }
+
+    @Test
+    void givenConcurrentComputesOnSameKeys_whenFinished_thenNoUpdateIsLost() throws Exception {
+        OffHeapProductStore store = new OffHeapProductStore(4096);
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        ids.forEach(id -> store.compute(id, (key, previous) -> product(key, "0")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        for (UUID id : ids) {
+                            store.compute(id, (key, previous) ->
+                                    product(key, String.valueOf(Integer.parseInt(previous.getName()) + 1)));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ids.forEach(id -> Assertions.assertEquals("8000", store.get(id).getName()));
+    }
+
+    private static Product product(UUID id, String name) {
+        return new Product(id, name, "electronics", new BigDecimal("49.99"), "description of " + name);
+    }
+}
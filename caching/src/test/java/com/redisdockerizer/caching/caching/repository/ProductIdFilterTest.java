@@ -0,0 +1,56 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+class ProductIdFilterTest {
+
+    @Test
+    void givenAddedIds_whenMightContain_thenNeverReturnsFalse() {
+        ProductIdFilter filter = new ProductIdFilter(10_000, 0.01);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            filter.add(id);
+        }
+
+        ids.forEach(id -> Assertions.assertTrue(filter.mightContain(id)));
+    }
+
+    @Test
+    void givenFilterAtCapacity_whenMightContainUnknownIds_thenFalsePositiveRateIsNearTarget() {
+        ProductIdFilter filter = new ProductIdFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID());
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void givenRemovedId_whenMightContain_thenReturnsFalse() {
+        ProductIdFilter filter = new ProductIdFilter(1_000, 0.01);
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        filter.add(kept);
+        filter.add(removed);
+
+        filter.remove(removed);
+
+        Assertions.assertTrue(filter.mightContain(kept));
+        Assertions.assertFalse(filter.mightContain(removed));
+    }
+}
@@ -0,0 +1,111 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+class ProductJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private ProductJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void givenLoggedWrites_whenReopened_thenRepositoryIsRestored() {
+        ProductRepository repository = open();
+        Product kept = repository.save(product("Keyboard"));
+        Product updated = repository.save(product("Mouse"));
+        Product deleted = repository.save(product("Monitor"));
+        repository.update(updated.getId(), product("Mouse Pro"));
+        repository.deleteById(deleted.getId());
+
+        ProductRepository restored = reopen();
+
+        Assertions.assertEquals(2, restored.count());
+        Assertions.assertEquals("Keyboard", find(restored, kept.getId()).getName());
+        Assertions.assertEquals("Mouse Pro", find(restored, updated.getId()).getName());
+        Assertions.assertNull(find(restored, deleted.getId()));
+    }
+
+    @Test
+    void givenSnapshotFollowedByWrites_whenReopened_thenSnapshotAndLogTailAreApplied() throws IOException {
+        ProductRepository repository = open();
+        Product first = repository.save(product("Keyboard"));
+        Product second = repository.save(product("Mouse"));
+        journal.snapshot(repository::forEach);
+        repository.deleteById(first.getId());
+        Product third = repository.save(product("Monitor"));
+
+        Assertions.assertEquals(1, logFiles().count());
+
+        ProductRepository restored = reopen();
+
+        Assertions.assertEquals(2, restored.count());
+        Assertions.assertNotNull(find(restored, second.getId()));
+        Assertions.assertNotNull(find(restored, third.getId()));
+        Assertions.assertNull(find(restored, first.getId()));
+    }
+
+    @Test
+    void givenTornRecordAtEndOfLog_whenReopened_thenTailIsDiscardedAndLoggingContinues() throws IOException {
+        ProductRepository repository = open();
+        repository.save(product("Keyboard"));
+        journal.close();
+        Path log = logFiles().findFirst().orElseThrow();
+        Files.write(log, new byte[]{0, 0, 0, 42, 1, 7, 7}, StandardOpenOption.APPEND);
+
+        ProductRepository restored = reopen();
+        restored.save(product("Mouse"));
+
+        Assertions.assertEquals(2, reopen().count());
+    }
+
+    private ProductRepository open() {
+        journal = new ProductJournal(directory, Duration.ofHours(1));
+        return new ProductRepository(new InMemoryProductStore(),
+                new StaticListableBeanFactory(Map.of("productJournal", journal)).getBeanProvider(ProductJournal.class));
+    }
+
+    private ProductRepository reopen() {
+        journal.close();
+        return open();
+    }
+
+    private static Product find(ProductRepository repository, UUID id) {
+        return repository.findAll().stream()
+                .filter(product -> product.getId().equals(id))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Stream<Path> logFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).toList().stream();
+        }
+    }
+
+    private static Product product(String name) {
+        return new Product(null, name, "electronics", new BigDecimal("49.99"), "description of " + name);
+    }
+}
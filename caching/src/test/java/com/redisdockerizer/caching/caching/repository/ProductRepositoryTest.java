@@ -0,0 +1,174 @@
+package com.redisdockerizer.caching.caching.repository;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+class ProductRepositoryTest {
+
+    @Test
+    void givenConcurrentSavesAndDeletesOfTheSameIds_whenDone_thenPagesListExactlyTheStoredProducts() throws Exception {
+        ProductRepository repository = new ProductRepository(new InMemoryProductStore(),
+                new StaticListableBeanFactory().getBeanProvider(ProductJournal.class));
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        UUID id = ids.get(random.nextInt(ids.size()));
+                        if (random.nextBoolean()) {
+                            repository.deleteById(id);
+                        } else {
+                            repository.save(new Product(id, "Pen", "stationery", BigDecimal.ONE, "Ballpoint pen"));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<UUID> stored = repository.findAll().stream().map(Product::getId).collect(Collectors.toSet());
+        Set<UUID> paged = repository.findPage(null, ids.size()).stream().map(Product::getId).collect(Collectors.toSet());
+        Assertions.assertEquals(stored, paged);
+        stored.forEach(id -> Assertions.assertTrue(repository.mightContain(id)));
+    }
+
+    @Test
+    void givenUpdatesRacingWithDeletes_whenDone_thenNoUpdateBringsADeletedProductBack() throws Exception {
+        ProductRepository repository = new ProductRepository(new InMemoryProductStore(),
+                new StaticListableBeanFactory().getBeanProvider(ProductJournal.class));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                UUID id = repository.save(new Product(null, "Pen", "stationery", BigDecimal.ONE, "Ballpoint pen")).getId();
+                Future<?> update = executor.submit(() ->
+                        repository.update(id, new Product(null, "Pen", "stationery", BigDecimal.TEN, "Fountain pen")));
+                Future<?> delete = executor.submit(() -> repository.deleteById(id));
+                update.get();
+                delete.get();
+
+                Assertions.assertTrue(repository.findAll().stream().noneMatch(product -> product.getId().equals(id)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(0, repository.count());
+        Assertions.assertTrue(repository.update(UUID.randomUUID(), new Product()).isEmpty());
+    }
+
+    @Test
+    void givenPriceFilter_whenPagingThroughResults_thenPagesFollowIdOrderWithoutGapsOrDuplicates() {
+        ProductRepository repository = new ProductRepository(new InMemoryProductStore(),
+                new StaticListableBeanFactory().getBeanProvider(ProductJournal.class));
+        for (int i = 0; i < 200; i++) {
+            repository.save(new Product(null, "Pen " + i, i % 2 == 0 ? "stationery" : "office",
+                    BigDecimal.valueOf(i), "Pen"));
+        }
+        List<UUID> expected = repository.findAll().stream()
+                .filter(product -> product.getCategory().equals("stationery"))
+                .filter(product -> product.getPrice().compareTo(BigDecimal.valueOf(50)) >= 0
+                        && product.getPrice().compareTo(BigDecimal.valueOf(150)) <= 0)
+                .map(Product::getId)
+                .sorted()
+                .toList();
+
+        List<UUID> paged = new ArrayList<>();
+        UUID afterId = null;
+        List<Product> page;
+        do {
+            page = repository.findByCriteria("Stationery", BigDecimal.valueOf(50), BigDecimal.valueOf(150), afterId, 7);
+            page.forEach(product -> paged.add(product.getId()));
+            afterId = page.isEmpty() ? null : page.getLast().getId();
+        } while (page.size() == 7);
+
+        Assertions.assertEquals(expected, paged);
+        Assertions.assertEquals(51, repository.findByCriteria(null, BigDecimal.valueOf(50), BigDecimal.valueOf(100),
+                null, Integer.MAX_VALUE).size());
+        Assertions.assertTrue(repository.findByCriteria(null, BigDecimal.TEN, BigDecimal.ONE, null, 10).isEmpty());
+    }
+
+    @Test
+    void givenRepricedAndDeletedProducts_whenPagingThroughAPriceRange_thenPagesFollowTheCurrentPricesInIdOrder() {
+        ProductRepository repository = new ProductRepository(new InMemoryProductStore(),
+                new StaticListableBeanFactory().getBeanProvider(ProductJournal.class));
+        List<Product> saved = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            saved.add(repository.save(new Product(null, "Pen " + i, "stationery",
+                    new BigDecimal(i % 30 + ".00"), "Pen")));
+        }
+        for (int i = 0; i < 300; i += 3) {
+            Product product = saved.get(i);
+            repository.update(product.getId(), new Product(null, product.getName(), product.getCategory(),
+                    product.getPrice().add(BigDecimal.valueOf(100)), product.getDescription()));
+        }
+        for (int i = 1; i < 300; i += 7) {
+            repository.deleteById(saved.get(i).getId());
+        }
+        List<UUID> expected = repository.findAll().stream()
+                .filter(product -> product.getPrice().compareTo(BigDecimal.TEN) >= 0
+                        && product.getPrice().compareTo(BigDecimal.valueOf(20)) <= 0)
+                .map(Product::getId)
+                .sorted()
+                .toList();
+
+        List<UUID> paged = new ArrayList<>();
+        UUID afterId = null;
+        List<Product> page;
+        do {
+            page = repository.findByCriteria(null, new BigDecimal("10.0"), BigDecimal.valueOf(20), afterId, 9);
+            page.forEach(product -> paged.add(product.getId()));
+            afterId = page.isEmpty() ? null : page.getLast().getId();
+        } while (page.size() == 9);
+
+        Assertions.assertEquals(expected, paged);
+        Assertions.assertEquals(expected, repository.findByCriteria("STATIONERY", BigDecimal.TEN, BigDecimal.valueOf(20),
+                null, Integer.MAX_VALUE).stream().map(Product::getId).toList());
+        Assertions.assertEquals(86, repository.findByCriteria(null, BigDecimal.valueOf(100), null,
+                null, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void givenRepositoryFilledToTheConfiguredIdFilterCapacity_whenMightContainUnknownIds_thenFalsePositiveRateIsNearTarget() {
+        ProductRepository repository = new ProductRepository(new InMemoryProductStore(),
+                new StaticListableBeanFactory().getBeanProvider(ProductJournal.class), 20_000, 0.01);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            products.add(new Product(null, "Pen " + i, "stationery", BigDecimal.ONE, "Pen"));
+        }
+        repository.saveAll(products);
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (repository.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+        products.forEach(product -> Assertions.assertTrue(repository.mightContain(product.getId())));
+    }
+}
@@ -0,0 +1,65 @@
+package com.redisdockerizer.caching.caching.serializer;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class CompressingRedisSerializerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductRedisSerializer delegate = new ProductRedisSerializer();
+    private final CompressingRedisSerializer<Product> serializer =
+            new CompressingRedisSerializer<>(delegate, 256, 1, meterRegistry, "products");
+
+    @Test
+    void givenLargeValue_whenSerialize_thenCompressesAndRoundTrips() {
+        Product product = new Product(UUID.randomUUID(), "Laptop", "electronics", BigDecimal.valueOf(1999.99),
+                "Lightweight aluminium body. ".repeat(100));
+
+        byte[] bytes = serializer.serialize(product);
+        Product copy = serializer.deserialize(bytes);
+
+        Assertions.assertEquals(CompressingRedisSerializer.COMPRESSED_HEADER, bytes[0]);
+        Assertions.assertTrue(bytes.length < delegate.serialize(product).length);
+        Assertions.assertEquals(product.getDescription(), copy.getDescription());
+        Assertions.assertEquals(product.getPrice(), copy.getPrice());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.serializer.values").tag("encoding", "deflate").counter().count());
+    }
+
+    @Test
+    void givenSmallValue_whenSerialize_thenStoresDelegateBytesUntouched() {
+        Product product = new Product(UUID.randomUUID(), "Mouse", "electronics", BigDecimal.valueOf(19.99), "Silent");
+
+        byte[] bytes = serializer.serialize(product);
+
+        Assertions.assertArrayEquals(delegate.serialize(product), bytes);
+        Assertions.assertEquals(product.getId(), serializer.deserialize(bytes).getId());
+        Assertions.assertEquals(1.0, meterRegistry.get("cache.serializer.values").tag("encoding", "identity").counter().count());
+    }
+
+    @Test
+    void givenManyVirtualThreads_whenRoundTripConcurrently_thenPooledCompressorsKeepValuesApart() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                String description = ("Item " + i + " description. ").repeat(50);
+                futures.add(executor.submit(() -> {
+                    Product product = new Product(UUID.randomUUID(), "Lamp", "lighting", BigDecimal.ONE, description);
+                    Assertions.assertEquals(description, serializer.deserialize(serializer.serialize(product)).getDescription());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.redisdockerizer.caching.caching.serializer;
+
+import com.redisdockerizer.caching.caching.model.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+class ProductRedisSerializerTest {
+
+    private final ProductRedisSerializer serializer = new ProductRedisSerializer();
+
+    @Test
+    void givenProduct_whenSerializeAndDeserialize_thenAllFieldsRoundTrip() {
+        Product product = new Product(
+                UUID.randomUUID(),
+                "Kulaklık",
+                "electronics",
+                new BigDecimal("-1999.990"),
+                "Noise cancelling ✓"
+        );
+
+        Product copy = serializer.deserialize(serializer.serialize(product));
+
+        Assertions.assertEquals(product.getId(), copy.getId());
+        Assertions.assertEquals(product.getName(), copy.getName());
+        Assertions.assertEquals(product.getCategory(), copy.getCategory());
+        Assertions.assertEquals(product.getPrice(), copy.getPrice());
+        Assertions.assertEquals(product.getDescription(), copy.getDescription());
+    }
+
+    @Test
+    void givenNullFieldsAndHugePrice_whenRoundTrip_thenPreservesThem() {
+        Product product = new Product(null, null, "misc", new BigDecimal("123456789012345678901234567890.5"), null);
+
+        Product copy = serializer.deserialize(serializer.serialize(product));
+
+        Assertions.assertNull(copy.getId());
+        Assertions.assertNull(copy.getName());
+        Assertions.assertNull(copy.getDescription());
+        Assertions.assertEquals("misc", copy.getCategory());
+        Assertions.assertEquals(product.getPrice(), copy.getPrice());
+    }
+
+    @Test
+    void givenEntryWrittenByJsonSerializer_whenDeserialize_thenReadsLegacyFormat() {
+        Product product = new Product(UUID.randomUUID(), "Mouse", "electronics", BigDecimal.valueOf(19.99), "Silent");
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(product);
+
+        Product copy = serializer.deserialize(legacy);
+
+        Assertions.assertEquals(product.getId(), copy.getId());
+        Assertions.assertEquals(product.getPrice(), copy.getPrice());
+    }
+
+    @Test
+    void givenUnknownVersion_whenDeserialize_thenThrows() {
+        Assertions.assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[]{42, 0}));
+    }
+}
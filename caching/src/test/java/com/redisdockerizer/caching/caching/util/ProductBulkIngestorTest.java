@@ -0,0 +1,67 @@
+package com.redisdockerizer.caching.caching.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redisdockerizer.caching.caching.model.Product;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ProductBulkIngestorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void givenJsonArray_whenIngest_thenEveryProductReachesSinkInBoundedChunks() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 2_500; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"").append(UUID.randomUUID())
+                    .append("\",\"name\":\"Product ").append(i)
+                    .append("\",\"category\":\"misc\",\"price\":").append(i).append(".5}");
+        }
+        json.append("]");
+
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        AtomicInteger largestChunk = new AtomicInteger();
+        ProductBulkIngestor ingestor = new ProductBulkIngestor(objectMapper, 100, 3);
+
+        long count = ingestor.ingest(
+                new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)),
+                chunk -> {
+                    largestChunk.accumulateAndGet(chunk.size(), Math::max);
+                    chunk.forEach(product -> ids.add(product.getId()));
+                });
+
+        Assertions.assertEquals(2_500, count);
+        Assertions.assertEquals(2_500, ids.size());
+        Assertions.assertEquals(100, largestChunk.get());
+    }
+
+    @Test
+    void givenFailingSink_whenIngest_thenThrows() {
+        ProductBulkIngestor ingestor = new ProductBulkIngestor(objectMapper, 1, 2);
+        byte[] json = "[{\"name\":\"a\"},{\"name\":\"b\"}]".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertThrows(IOException.class, () -> ingestor.ingest(new ByteArrayInputStream(json),
+                (List<Product> chunk) -> {
+                    throw new IllegalStateException("store unavailable");
+                }));
+    }
+
+    @Test
+    void givenNonArrayDocument_whenIngest_thenThrows() {
+        ProductBulkIngestor ingestor = new ProductBulkIngestor(objectMapper, 10, 1);
+        byte[] json = "{\"name\":\"a\"}".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertThrows(IOException.class, () -> ingestor.ingest(new ByteArrayInputStream(json), chunk -> {
+        }));
+    }
+}
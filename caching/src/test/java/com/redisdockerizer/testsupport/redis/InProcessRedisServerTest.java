@@ -0,0 +1,151 @@
+package com.redisdockerizer.testsupport.redis;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanIterator;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class InProcessRedisServerTest {
+
+    private InProcessRedisServer server;
+    private RedisClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new InProcessRedisServer().start();
+        client = RedisClient.create(RedisURI.create(server.getHost(), server.getPort()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.close();
+    }
+
+    @Test
+    void givenKeyWithExpiry_whenTimeToLiveElapses_thenKeyIsGone() throws InterruptedException {
+        RedisCommands<String, String> redis = client.connect().sync();
+
+        redis.set("key", "value", SetArgs.Builder.px(100));
+
+        Assertions.assertEquals("value", redis.get("key"));
+        Assertions.assertTrue(redis.pttl("key") > 0);
+        Thread.sleep(150);
+        Assertions.assertNull(redis.get("key"));
+        Assertions.assertEquals(-2, redis.ttl("key"));
+        Assertions.assertEquals(0, redis.exists("key"));
+    }
+
+    @Test
+    void givenPipelinedCommands_whenFlushed_thenRepliesArriveInOrder() {
+        StatefulRedisConnection<String, String> connection = client.connect();
+        RedisAsyncCommands<String, String> redis = connection.async();
+        connection.setAutoFlushCommands(false);
+
+        List<RedisFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            futures.add(redis.set("key:" + i, Integer.toString(i)));
+            futures.add(redis.get("key:" + i));
+        }
+        connection.flushCommands();
+
+        Assertions.assertTrue(LettuceFutures.awaitAll(Duration.ofSeconds(5), futures.toArray(RedisFuture[]::new)));
+        for (int i = 0; i < 1_000; i++) {
+            Assertions.assertEquals(Integer.toString(i), futures.get(2 * i + 1).toCompletableFuture().join());
+        }
+    }
+
+    @Test
+    void givenManyKeys_whenScanningWithPattern_thenEveryMatchIsReturnedOnce() {
+        RedisCommands<String, String> redis = client.connect().sync();
+        for (int i = 0; i < 250; i++) {
+            redis.set("products::" + i, "p");
+            redis.set("sessions::" + i, "s");
+        }
+
+        List<String> keys = ScanIterator.scan(redis, ScanArgs.Builder.matches("products::*").limit(10)).stream().toList();
+
+        Assertions.assertEquals(250, keys.size());
+        Assertions.assertEquals(250, new HashSet<>(keys).size());
+        Assertions.assertEquals(250, redis.keys("products::*").size());
+    }
+
+    @Test
+    void givenSetAndHash_whenModified_thenReturnsMembersAndFields() {
+        RedisCommands<String, String> redis = client.connect().sync();
+
+        redis.sadd("tags", "a", "b", "b");
+        redis.srem("tags", "a");
+        redis.hset("product", Map.of("name", "Mouse", "price", "19.99"));
+        redis.hdel("product", "price");
+
+        Assertions.assertEquals(Set.of("b"), redis.smembers("tags"));
+        Assertions.assertEquals(Map.of("name", "Mouse"), redis.hgetall("product"));
+        Assertions.assertThrows(Exception.class, () -> redis.get("tags"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ProtocolVersion.class, names = {"RESP2", "RESP3"})
+    void givenSubscriber_whenPublished_thenReceivesMessage(ProtocolVersion protocol) throws InterruptedException {
+        client.setOptions(ClientOptions.builder().protocolVersion(protocol).build());
+        StatefulRedisPubSubConnection<String, String> subscriber = client.connectPubSub();
+        BlockingQueue<String> messages = new ArrayBlockingQueue<>(10);
+        subscriber.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String channel, String message) {
+                messages.add(channel + ":" + message);
+            }
+
+            @Override
+            public void message(String pattern, String channel, String message) {
+                messages.add(pattern + ":" + message);
+            }
+        });
+        subscriber.sync().subscribe("invalidation");
+        subscriber.sync().psubscribe("invalid*");
+
+        long receivers = client.connect().sync().publish("invalidation", "products::1");
+
+        Assertions.assertEquals(2, receivers);
+        Assertions.assertEquals(Set.of("invalidation:products::1", "invalid*:products::1"),
+                Set.of(messages.poll(5, TimeUnit.SECONDS), messages.poll(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    void givenLatency_whenCommandIssued_thenReplyIsDelayed() {
+        RedisCommands<String, String> redis = client.connect().sync();
+        server.setLatency(Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        redis.ping();
+
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
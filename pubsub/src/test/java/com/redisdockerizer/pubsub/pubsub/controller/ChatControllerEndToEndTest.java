@@ -3,15 +3,15 @@ package com.redisdockerizer.pubsub.pubsub.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redisdockerizer.pubsub.pubsub.model.PublishMessageRequest;
 import com.redisdockerizer.pubsub.pubsub.subscriber.MetricsSubscriber;
+import com.redisdockerizer.testsupport.redis.InProcessRedisExtension;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
-import org.testcontainers.shaded.org.awaitility.Awaitility;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicLong;
@@ -24,7 +24,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
-@ExtendWith(MockitoExtension.class)
+@ExtendWith(InProcessRedisExtension.class)
 class ChatControllerEndToEndTest {
 
     private static final String BASE_URL = "/api/pubsub";
@@ -0,0 +1,71 @@
+package com.redisdockerizer.testsupport.redis;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Runs the tests of a class against an {@link InProcessRedisServer} instead of an external Redis.
+ * <p>
+ * One server is started per test run and shared by every class using the extension, so that
+ * Spring's cached application contexts keep a live connection. Before the first class runs,
+ * {@code spring.data.redis.host} and {@code spring.data.redis.port} are set as system properties,
+ * which take precedence over {@code application.yml}. Test methods and lifecycle methods can take
+ * the server as a parameter, e.g. to flush it or inject latency.
+ * <pre>
+ * &#64;SpringBootTest
+ * &#64;ExtendWith(InProcessRedisExtension.class)
+ * class ProductControllerTest { ... }
+ * </pre>
+ */
+public class InProcessRedisExtension implements BeforeAllCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(InProcessRedisExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        server(context);
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == InProcessRedisServer.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return server(extensionContext);
+    }
+
+    private static InProcessRedisServer server(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(RunningServer.class, type -> RunningServer.start(), RunningServer.class)
+                .server();
+    }
+
+    /**
+     * Stops the server when the test run ends.
+     */
+    private record RunningServer(InProcessRedisServer server) implements ExtensionContext.Store.CloseableResource {
+
+        private static RunningServer start() {
+            try {
+                InProcessRedisServer server = new InProcessRedisServer().start();
+                System.setProperty("spring.data.redis.host", server.getHost());
+                System.setProperty("spring.data.redis.port", Integer.toString(server.getPort()));
+                return new RunningServer(server);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start the in-process Redis server", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.redisdockerizer.testsupport.redis;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Redis stand-in that runs inside the test JVM, for tests and benchmarks on machines without
+ * Docker or a Redis installation.
+ * <p>
+ * It speaks RESP2 and RESP3 (negotiated with {@code HELLO}) over a loopback socket and supports
+ * the commands the application and its tests use: strings with expiry ({@code GET}, {@code SET},
+ * {@code MGET}, ...), keys ({@code DEL}, {@code EXISTS}, {@code KEYS}, {@code SCAN}, {@code TTL},
+ * ...), sets, hashes and pub/sub. Pipelined commands are answered in one write.
+ * <p>
+ * A single selector thread accepts connections, parses requests and executes them, so commands
+ * are atomic and ordered just like in Redis. {@link #setLatency(Duration)} delays every reply
+ * (and pub/sub message) to emulate a network round trip; pipelined commands share one delay.
+ * Delays have millisecond granularity.
+ * <pre>
+ * try (InProcessRedisServer redis = new InProcessRedisServer().start()) {
+ *     RedisClient.create("redis://" + redis.getHost() + ":" + redis.getPort());
+ * }
+ * </pre>
+ */
+@Slf4j
+public class InProcessRedisServer implements AutoCloseable {
+
+    private static final long EXPIRY_SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final int requestedPort;
+    private final RedisCommands commands = new RedisCommands(System::currentTimeMillis);
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<DelayedReply> delayedReplies = new ArrayDeque<>();
+    private final Set<Connection> connections = new HashSet<>();
+
+    private volatile long latencyNanos;
+    private volatile boolean running;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private long nextConnectionId = 1;
+    private long lastSweep = System.currentTimeMillis();
+
+    /**
+     * Creates a server on an ephemeral port.
+     */
+    public InProcessRedisServer() {
+        this(0);
+    }
+
+    /**
+     * Creates a server on the given port.
+     *
+     * @param port the loopback port to listen on, or 0 for an ephemeral port
+     */
+    public InProcessRedisServer(int port) {
+        this.requestedPort = port;
+    }
+
+    /**
+     * Binds the port and starts serving.
+     *
+     * @return this server
+     * @throws IOException if the port cannot be bound
+     */
+    public InProcessRedisServer start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::run, "in-process-redis");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * @return the address the server listens on
+     */
+    public String getHost() {
+        return InetAddress.getLoopbackAddress().getHostAddress();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Delays every reply by the given time, e.g. to compare the near cache with a remote Redis.
+     *
+     * @param latency the delay, or {@link Duration#ZERO} to reply immediately
+     */
+    public void setLatency(Duration latency) {
+        this.latencyNanos = latency.toNanos();
+        selector.wakeup();
+    }
+
+    /**
+     * Removes every key, like {@code FLUSHALL}.
+     */
+    public void flushAll() {
+        call(commands::flushAll);
+    }
+
+    /**
+     * Stops serving and closes every connection.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            serverChannel.close();
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void call(Runnable task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        tasks.add(() -> {
+            task.run();
+            done.complete(null);
+        });
+        selector.wakeup();
+        done.join();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(this::handle, sendDueReplies());
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastSweep >= EXPIRY_SWEEP_INTERVAL_MILLIS) {
+                    commands.evictExpired();
+                    lastSweep = now;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.warn("In-process Redis stopped unexpectedly", e);
+        } finally {
+            List.copyOf(connections).forEach(this::disconnect);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.attachment() instanceof Connection connection) {
+                if (key.isReadable()) {
+                    read(connection);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush(connection);
+                }
+            }
+        } catch (IOException e) {
+            if (key.attachment() instanceof Connection connection) {
+                disconnect(connection);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(nextConnectionId++, channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (!connection.in.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(connection.in.capacity() * 2);
+            connection.in.flip();
+            connection.in = larger.put(connection.in);
+        }
+        if (connection.channel.read(connection.in) < 0) {
+            disconnect(connection);
+            return;
+        }
+
+        connection.in.flip();
+        Resp.Writer out = new Resp.Writer(connection.resp3);
+        try {
+            List<byte[]> command;
+            while (!connection.closing && (command = Resp.parseCommand(connection.in)) != null) {
+                if (!command.isEmpty()) {
+                    commands.execute(connection, command, out);
+                }
+            }
+        } catch (Resp.ProtocolException e) {
+            out.error("ERR Protocol error: " + e.getMessage());
+            connection.closeAfterReplies();
+        }
+        connection.in.compact();
+        if (!out.isEmpty()) {
+            connection.send(out);
+        }
+    }
+
+    /**
+     * Moves replies whose delay has elapsed to their connections.
+     *
+     * @return how long the selector may block, in milliseconds
+     */
+    private long sendDueReplies() {
+        long now = System.nanoTime();
+        DelayedReply reply;
+        while ((reply = delayedReplies.peek()) != null && reply.dueAt - now <= 0) {
+            delayedReplies.poll();
+            reply.connection.enqueue(reply.bytes);
+        }
+        if (reply == null) {
+            return EXPIRY_SWEEP_INTERVAL_MILLIS;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(reply.dueAt - now));
+    }
+
+    private void flush(Connection connection) {
+        try {
+            ByteBuffer head;
+            while ((head = connection.out.peek()) != null) {
+                connection.channel.write(head);
+                if (head.hasRemaining()) {
+                    connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                connection.out.poll();
+            }
+            if (connection.closing) {
+                disconnect(connection);
+            } else {
+                connection.key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (connections.remove(connection)) {
+            commands.disconnect(connection);
+            connection.key.cancel();
+            try {
+                connection.channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close in-process Redis connection {}", connection.id, e);
+            }
+        }
+    }
+
+    private record DelayedReply(Connection connection, ByteBuffer bytes, long dueAt) {
+    }
+
+    /**
+     * One client connection and its protocol state. Only used on the selector thread.
+     */
+    final class Connection {
+
+        private final long id;
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        private final Set<RedisCommands.Key> channels = new HashSet<>();
+        private final Set<RedisCommands.Key> patterns = new HashSet<>();
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+        private boolean resp3;
+        private boolean closing;
+        private String name;
+
+        private Connection(long id, SocketChannel channel) {
+            this.id = id;
+            this.channel = channel;
+        }
+
+        long id() {
+            return id;
+        }
+
+        int localPort() {
+            return getPort();
+        }
+
+        boolean isResp3() {
+            return resp3;
+        }
+
+        void setResp3(boolean resp3) {
+            this.resp3 = resp3;
+        }
+
+        String name() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+
+        Set<RedisCommands.Key> channels() {
+            return channels;
+        }
+
+        Set<RedisCommands.Key> patterns() {
+            return patterns;
+        }
+
+        boolean isSubscribed() {
+            return !channels.isEmpty() || !patterns.isEmpty();
+        }
+
+        int subscriptions() {
+            return channels.size() + patterns.size();
+        }
+
+        void closeAfterReplies() {
+            closing = true;
+        }
+
+        /**
+         * Sends replies or a pub/sub message, after the configured latency.
+         */
+        void send(Resp.Writer replies) {
+            ByteBuffer bytes = replies.toByteBuffer();
+            long latency = latencyNanos;
+            if (latency == 0 && delayedReplies.isEmpty()) {
+                enqueue(bytes);
+            } else {
+                delayedReplies.add(new DelayedReply(this, bytes, System.nanoTime() + latency));
+            }
+        }
+
+        private void enqueue(ByteBuffer bytes) {
+            if (connections.contains(this)) {
+                out.add(bytes);
+                flush(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,899 @@
+package com.redisdockerizer.testsupport.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The keyspace and command implementations of {@link InProcessRedisServer}.
+ * <p>
+ * Strings, sets and hashes are supported, with per-key expiry, SCAN cursors and pub/sub.
+ * Like Redis itself, every command runs on a single thread (the server's selector thread),
+ * so nothing here is synchronized. Expired keys are removed when they are accessed and by
+ * {@link #evictExpired()}, which the server calls periodically.
+ */
+final class RedisCommands {
+
+    private static final String VERSION = "7.2.0";
+    private static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+    private static final String NOT_AN_INTEGER = "ERR value is not an integer or out of range";
+    private static final int MAXIMUM_SCAN_CURSORS = 1024;
+
+    private final NavigableMap<Key, Object> data = new TreeMap<>();
+    private final Map<Key, Long> expiries = new HashMap<>();
+    private final Map<Key, Set<InProcessRedisServer.Connection>> channels = new HashMap<>();
+    private final Map<Key, Set<InProcessRedisServer.Connection>> patterns = new HashMap<>();
+    private final Map<Long, Key> scanCursors = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Key> eldest) {
+            return size() > MAXIMUM_SCAN_CURSORS;
+        }
+    };
+    private final LongSupplier clock;
+    private long nextScanCursor = 1;
+
+    /**
+     * @param clock current time in epoch milliseconds, used for expiry
+     */
+    RedisCommands(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Executes one command and appends its reply, or an error reply, to {@code out}.
+     *
+     * @param connection the connection that sent the command
+     * @param command    the command name followed by its arguments
+     * @param out        the connection's pending replies
+     */
+    void execute(InProcessRedisServer.Connection connection, List<byte[]> command, Resp.Writer out) {
+        String name = new String(command.getFirst(), StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+        byte[][] args = command.subList(1, command.size()).toArray(byte[][]::new);
+        if (connection.isSubscribed() && !connection.isResp3() && !allowedWhileSubscribed(name)) {
+            out.error("ERR Can't execute '" + name.toLowerCase(Locale.ROOT) + "': only (P)SUBSCRIBE / "
+                    + "(P)UNSUBSCRIBE / PING / QUIT / RESET are allowed in this context");
+            return;
+        }
+        try {
+            dispatch(connection, name, args, out);
+        } catch (CommandException e) {
+            out.error(e.getMessage());
+        } catch (NumberFormatException e) {
+            out.error(NOT_AN_INTEGER);
+        }
+    }
+
+    /**
+     * Removes every expired key.
+     */
+    void evictExpired() {
+        long now = clock.getAsLong();
+        expiries.entrySet().removeIf(expiry -> {
+            if (expiry.getValue() <= now) {
+                data.remove(expiry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Removes every key, as {@code FLUSHALL} does.
+     */
+    void flushAll() {
+        data.clear();
+        expiries.clear();
+        scanCursors.clear();
+    }
+
+    /**
+     * Drops the subscriptions of a closed connection.
+     */
+    void disconnect(InProcessRedisServer.Connection connection) {
+        connection.channels().forEach(channel -> unsubscribe(channels, channel, connection));
+        connection.patterns().forEach(pattern -> unsubscribe(patterns, pattern, connection));
+    }
+
+    private static boolean allowedWhileSubscribed(String name) {
+        return switch (name) {
+            case "SUBSCRIBE", "UNSUBSCRIBE", "PSUBSCRIBE", "PUNSUBSCRIBE", "PING", "QUIT", "RESET" -> true;
+            default -> false;
+        };
+    }
+
+    private void dispatch(InProcessRedisServer.Connection connection, String name, byte[][] args, Resp.Writer out) {
+        switch (name) {
+            // connection
+            case "PING" -> ping(connection, args, out);
+            case "ECHO" -> out.bulk(arg(name, args, 0));
+            case "HELLO" -> hello(connection, args, out);
+            case "AUTH", "SELECT" -> out.simple("OK");
+            case "CLIENT" -> client(connection, args, out);
+            case "QUIT" -> {
+                out.simple("OK");
+                connection.closeAfterReplies();
+            }
+            case "RESET" -> {
+                disconnect(connection);
+                connection.channels().clear();
+                connection.patterns().clear();
+                connection.setResp3(false);
+                out.resp3(false);
+                out.simple("RESET");
+            }
+            case "COMMAND" -> out.array(0);
+            // server
+            case "INFO" -> out.bulk(info(connection));
+            case "DBSIZE" -> {
+                evictExpired();
+                out.integer(data.size());
+            }
+            case "FLUSHALL", "FLUSHDB" -> {
+                flushAll();
+                out.simple("OK");
+            }
+            // keys
+            case "DEL", "UNLINK" -> del(name, args, out);
+            case "EXISTS" -> exists(name, args, out);
+            case "TYPE" -> type(name, args, out);
+            case "KEYS" -> keys(name, args, out);
+            case "SCAN" -> scan(name, args, out);
+            case "EXPIRE" -> expire(name, args, 1000, out);
+            case "PEXPIRE" -> expire(name, args, 1, out);
+            case "PERSIST" -> out.integer(lookup(key(name, args, 0)) != null
+                    && expiries.remove(key(name, args, 0)) != null ? 1 : 0);
+            case "TTL" -> ttl(name, args, true, out);
+            case "PTTL" -> ttl(name, args, false, out);
+            // strings
+            case "GET" -> out.bulk(string(key(name, args, 0)));
+            case "GETDEL" -> {
+                Key key = key(name, args, 0);
+                byte[] value = string(key);
+                remove(key);
+                out.bulk(value);
+            }
+            case "SET" -> set(name, args, out);
+            case "SETEX" -> {
+                store(key(name, args, 0), arg(name, args, 2), seconds(arg(name, args, 1)));
+                out.simple("OK");
+            }
+            case "PSETEX" -> {
+                store(key(name, args, 0), arg(name, args, 2), milliseconds(arg(name, args, 1)));
+                out.simple("OK");
+            }
+            case "SETNX" -> {
+                Key key = key(name, args, 0);
+                boolean absent = lookup(key) == null;
+                if (absent) {
+                    store(key, arg(name, args, 1), null);
+                }
+                out.integer(absent ? 1 : 0);
+            }
+            case "MGET" -> mget(name, args, out);
+            case "MSET" -> mset(name, args, out);
+            case "INCR" -> out.integer(increment(key(name, args, 0), 1));
+            case "DECR" -> out.integer(increment(key(name, args, 0), -1));
+            case "INCRBY" -> out.integer(increment(key(name, args, 0), parseLong(arg(name, args, 1))));
+            case "DECRBY" -> out.integer(increment(key(name, args, 0), -parseLong(arg(name, args, 1))));
+            // sets
+            case "SADD" -> sadd(name, args, out);
+            case "SREM" -> srem(name, args, out);
+            case "SPOP" -> spop(name, args, out);
+            case "SMEMBERS", "SSCAN" -> smembers(name, args, out);
+            case "SISMEMBER" -> out.integer(set(key(name, args, 0)).contains(key(name, args, 1)) ? 1 : 0);
+            case "SCARD" -> out.integer(set(key(name, args, 0)).size());
+            // hashes
+            case "HSET", "HMSET" -> hset(name, args, out);
+            case "HGET" -> out.bulk(hash(key(name, args, 0)).get(key(name, args, 1)));
+            case "HMGET" -> hmget(name, args, out);
+            case "HGETALL" -> hgetall(name, args, out);
+            case "HDEL" -> hdel(name, args, out);
+            case "HEXISTS" -> out.integer(hash(key(name, args, 0)).containsKey(key(name, args, 1)) ? 1 : 0);
+            case "HLEN" -> out.integer(hash(key(name, args, 0)).size());
+            case "HINCRBY" -> hincrby(name, args, out);
+            // pub/sub
+            case "PUBLISH" -> publish(name, args, out);
+            case "SUBSCRIBE" -> subscribe(connection, name, args, false, out);
+            case "PSUBSCRIBE" -> subscribe(connection, name, args, true, out);
+            case "UNSUBSCRIBE" -> unsubscribeAll(connection, args, false, out);
+            case "PUNSUBSCRIBE" -> unsubscribeAll(connection, args, true, out);
+            default -> out.error("ERR unknown command '" + name.toLowerCase(Locale.ROOT) + "'");
+        }
+    }
+
+    // ---------------------------------------------------------------- connection
+
+    private void ping(InProcessRedisServer.Connection connection, byte[][] args, Resp.Writer out) {
+        if (connection.isSubscribed() && !connection.isResp3()) {
+            out.array(2).bulk("pong").bulk(args.length > 0 ? args[0] : new byte[0]);
+        } else if (args.length > 0) {
+            out.bulk(args[0]);
+        } else {
+            out.simple("PONG");
+        }
+    }
+
+    private void hello(InProcessRedisServer.Connection connection, byte[][] args, Resp.Writer out) {
+        if (args.length > 0) {
+            long protocol = parseLong(args[0]);
+            if (protocol != 2 && protocol != 3) {
+                out.error("NOPROTO unsupported protocol version");
+                return;
+            }
+            connection.setResp3(protocol == 3);
+            out.resp3(protocol == 3);
+        }
+        for (int i = 1; i < args.length; i++) {
+            if ("SETNAME".equalsIgnoreCase(new String(args[i], StandardCharsets.UTF_8)) && i + 1 < args.length) {
+                connection.setName(new String(args[++i], StandardCharsets.UTF_8));
+            } else if ("AUTH".equalsIgnoreCase(new String(args[i], StandardCharsets.UTF_8))) {
+                i += 2;
+            }
+        }
+        out.map(7)
+                .bulk("server").bulk("redis")
+                .bulk("version").bulk(VERSION)
+                .bulk("proto").integer(connection.isResp3() ? 3 : 2)
+                .bulk("id").integer(connection.id())
+                .bulk("mode").bulk("standalone")
+                .bulk("role").bulk("master")
+                .bulk("modules").array(0);
+    }
+
+    private void client(InProcessRedisServer.Connection connection, byte[][] args, Resp.Writer out) {
+        String subcommand = new String(arg("CLIENT", args, 0), StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+        switch (subcommand) {
+            case "ID" -> out.integer(connection.id());
+            case "GETNAME" -> out.bulk(connection.name());
+            case "SETNAME" -> {
+                connection.setName(new String(arg("CLIENT", args, 1), StandardCharsets.UTF_8));
+                out.simple("OK");
+            }
+            default -> out.simple("OK");
+        }
+    }
+
+    private String info(InProcessRedisServer.Connection connection) {
+        evictExpired();
+        return "# Server\r\n"
+                + "redis_version:" + VERSION + "\r\n"
+                + "redis_mode:standalone\r\n"
+                + "tcp_port:" + connection.localPort() + "\r\n"
+                + "\r\n# Keyspace\r\n"
+                + (data.isEmpty() ? "" : "db0:keys=" + data.size() + ",expires=" + expiries.size() + ",avg_ttl=0\r\n");
+    }
+
+    // ---------------------------------------------------------------- keys
+
+    private void del(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 1);
+        int removed = 0;
+        for (byte[] arg : args) {
+            Key key = new Key(arg);
+            if (lookup(key) != null) {
+                remove(key);
+                removed++;
+            }
+        }
+        out.integer(removed);
+    }
+
+    private void exists(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 1);
+        int existing = 0;
+        for (byte[] arg : args) {
+            if (lookup(new Key(arg)) != null) {
+                existing++;
+            }
+        }
+        out.integer(existing);
+    }
+
+    private void type(String name, byte[][] args, Resp.Writer out) {
+        Object value = lookup(key(name, args, 0));
+        out.simple(switch (value) {
+            case null -> "none";
+            case byte[] ignored -> "string";
+            case Set<?> ignored -> "set";
+            default -> "hash";
+        });
+    }
+
+    private void keys(String name, byte[][] args, Resp.Writer out) {
+        byte[] pattern = arg(name, args, 0);
+        long now = clock.getAsLong();
+        List<byte[]> keys = new ArrayList<>();
+        for (Key key : data.keySet()) {
+            if (!isExpired(key, now) && matches(pattern, key.bytes())) {
+                keys.add(key.bytes());
+            }
+        }
+        out.bulks(keys);
+    }
+
+    /**
+     * Keys are visited in sorted order and a cursor remembers the last key it returned, so every
+     * key that exists for the whole scan is returned exactly once, as Redis guarantees.
+     */
+    private void scan(String name, byte[][] args, Resp.Writer out) {
+        long cursor = parseLong(arg(name, args, 0));
+        byte[] pattern = null;
+        String type = null;
+        int count = 10;
+        for (int i = 1; i < args.length; i += 2) {
+            String option = new String(args[i], StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+            byte[] value = arg(name, args, i + 1);
+            switch (option) {
+                case "MATCH" -> pattern = value;
+                case "COUNT" -> count = Math.max(1, (int) parseLong(value));
+                case "TYPE" -> type = new String(value, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT);
+                default -> throw new CommandException("ERR syntax error");
+            }
+        }
+
+        Key after = cursor == 0 ? null : scanCursors.remove(cursor);
+        if (cursor != 0 && after == null) {
+            out.array(2).bulk("0").array(0);
+            return;
+        }
+        Iterator<Map.Entry<Key, Object>> entries = (after == null ? data : data.tailMap(after, false))
+                .entrySet().iterator();
+        long now = clock.getAsLong();
+        List<byte[]> keys = new ArrayList<>();
+        Key last = null;
+        for (int visited = 0; visited < count && entries.hasNext(); visited++) {
+            Map.Entry<Key, Object> entry = entries.next();
+            last = entry.getKey();
+            if (!isExpired(last, now)
+                    && (pattern == null || matches(pattern, last.bytes()))
+                    && (type == null || type.equals(typeOf(entry.getValue())))) {
+                keys.add(last.bytes());
+            }
+        }
+
+        long next = 0;
+        if (entries.hasNext()) {
+            next = nextScanCursor++;
+            scanCursors.put(next, last);
+        }
+        out.array(2).bulk(Long.toString(next)).bulks(keys);
+    }
+
+    private void expire(String name, byte[][] args, long unitMillis, Resp.Writer out) {
+        Key key = key(name, args, 0);
+        long timeout = parseLong(arg(name, args, 1));
+        if (lookup(key) == null) {
+            out.integer(0);
+            return;
+        }
+        if (timeout <= 0) {
+            remove(key);
+        } else {
+            expiries.put(key, clock.getAsLong() + timeout * unitMillis);
+        }
+        out.integer(1);
+    }
+
+    private void ttl(String name, byte[][] args, boolean seconds, Resp.Writer out) {
+        Key key = key(name, args, 0);
+        if (lookup(key) == null) {
+            out.integer(-2);
+            return;
+        }
+        Long expiresAt = expiries.get(key);
+        if (expiresAt == null) {
+            out.integer(-1);
+            return;
+        }
+        long remaining = expiresAt - clock.getAsLong();
+        out.integer(seconds ? (remaining + 500) / 1000 : remaining);
+    }
+
+    // ---------------------------------------------------------------- strings
+
+    private void set(String name, byte[][] args, Resp.Writer out) {
+        Key key = key(name, args, 0);
+        byte[] value = arg(name, args, 1);
+        Long expiresAt = null;
+        boolean ifAbsent = false;
+        boolean ifPresent = false;
+        boolean returnOld = false;
+        boolean keepTtl = false;
+        for (int i = 2; i < args.length; i++) {
+            String option = new String(args[i], StandardCharsets.UTF_8).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "EX" -> expiresAt = seconds(arg(name, args, ++i));
+                case "PX" -> expiresAt = milliseconds(arg(name, args, ++i));
+                case "EXAT" -> expiresAt = parseLong(arg(name, args, ++i)) * 1000;
+                case "PXAT" -> expiresAt = parseLong(arg(name, args, ++i));
+                case "NX" -> ifAbsent = true;
+                case "XX" -> ifPresent = true;
+                case "GET" -> returnOld = true;
+                case "KEEPTTL" -> keepTtl = true;
+                default -> throw new CommandException("ERR syntax error");
+            }
+        }
+
+        Object existing = lookup(key);
+        byte[] old = returnOld ? string(key) : null;
+        if ((ifAbsent && existing != null) || (ifPresent && existing == null)) {
+            if (returnOld) {
+                out.bulk(old);
+            } else {
+                out.nil();
+            }
+            return;
+        }
+        if (keepTtl && expiresAt == null) {
+            expiresAt = expiries.get(key);
+        }
+        store(key, value, expiresAt);
+        if (returnOld) {
+            out.bulk(old);
+        } else {
+            out.simple("OK");
+        }
+    }
+
+    private void mget(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 1);
+        out.array(args.length);
+        for (byte[] arg : args) {
+            Object value = lookup(new Key(arg));
+            out.bulk(value instanceof byte[] bytes ? bytes : null);
+        }
+    }
+
+    private void mset(String name, byte[][] args, Resp.Writer out) {
+        if (args.length == 0 || args.length % 2 != 0) {
+            throw wrongArguments(name);
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            store(new Key(args[i]), args[i + 1], null);
+        }
+        out.simple("OK");
+    }
+
+    private long increment(Key key, long delta) {
+        byte[] current = string(key);
+        long value = (current == null ? 0 : parseLong(current)) + delta;
+        Long expiresAt = expiries.get(key);
+        store(key, Long.toString(value).getBytes(StandardCharsets.UTF_8), expiresAt);
+        return value;
+    }
+
+    // ---------------------------------------------------------------- sets
+
+    private void sadd(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 2);
+        Key key = new Key(args[0]);
+        Set<Key> members = set(key);
+        if (members.isEmpty()) {
+            members = new HashSet<>();
+            data.put(key, members);
+        }
+        int added = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (members.add(new Key(args[i]))) {
+                added++;
+            }
+        }
+        out.integer(added);
+    }
+
+    private void srem(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 2);
+        Key key = new Key(args[0]);
+        Set<Key> members = set(key);
+        int removed = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (members.remove(new Key(args[i]))) {
+                removed++;
+            }
+        }
+        if (members.isEmpty()) {
+            remove(key);
+        }
+        out.integer(removed);
+    }
+
+    private void spop(String name, byte[][] args, Resp.Writer out) {
+        Key key = key(name, args, 0);
+        Set<Key> members = set(key);
+        long count = args.length > 1 ? parseLong(args[1]) : 1;
+        List<byte[]> popped = new ArrayList<>();
+        Iterator<Key> iterator = members.iterator();
+        while (popped.size() < count && iterator.hasNext()) {
+            popped.add(iterator.next().bytes());
+            iterator.remove();
+        }
+        if (members.isEmpty()) {
+            remove(key);
+        }
+        if (args.length > 1) {
+            out.bulks(popped);
+        } else {
+            out.bulk(popped.isEmpty() ? null : popped.getFirst());
+        }
+    }
+
+    /**
+     * {@code SSCAN} returns every member in one page.
+     */
+    private void smembers(String name, byte[][] args, Resp.Writer out) {
+        Set<Key> members = set(key(name, args, 0));
+        List<byte[]> values = members.stream().map(Key::bytes).toList();
+        if ("SSCAN".equals(name)) {
+            out.array(2).bulk("0").bulks(values);
+        } else {
+            out.set(values.size());
+            values.forEach(out::bulk);
+        }
+    }
+
+    // ---------------------------------------------------------------- hashes
+
+    private void hset(String name, byte[][] args, Resp.Writer out) {
+        if (args.length < 3 || args.length % 2 == 0) {
+            throw wrongArguments(name);
+        }
+        Key key = new Key(args[0]);
+        Map<Key, byte[]> hash = hash(key);
+        if (hash.isEmpty()) {
+            hash = new LinkedHashMap<>();
+            data.put(key, hash);
+        }
+        int added = 0;
+        for (int i = 1; i < args.length; i += 2) {
+            if (hash.put(new Key(args[i]), args[i + 1]) == null) {
+                added++;
+            }
+        }
+        if ("HMSET".equals(name)) {
+            out.simple("OK");
+        } else {
+            out.integer(added);
+        }
+    }
+
+    private void hmget(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 2);
+        Map<Key, byte[]> hash = hash(new Key(args[0]));
+        out.array(args.length - 1);
+        for (int i = 1; i < args.length; i++) {
+            out.bulk(hash.get(new Key(args[i])));
+        }
+    }
+
+    private void hgetall(String name, byte[][] args, Resp.Writer out) {
+        Map<Key, byte[]> hash = hash(key(name, args, 0));
+        out.map(hash.size());
+        hash.forEach((field, value) -> out.bulk(field.bytes()).bulk(value));
+    }
+
+    private void hdel(String name, byte[][] args, Resp.Writer out) {
+        minimumArguments(name, args, 2);
+        Key key = new Key(args[0]);
+        Map<Key, byte[]> hash = hash(key);
+        int removed = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (hash.remove(new Key(args[i])) != null) {
+                removed++;
+            }
+        }
+        if (hash.isEmpty()) {
+            remove(key);
+        }
+        out.integer(removed);
+    }
+
+    private void hincrby(String name, byte[][] args, Resp.Writer out) {
+        Key key = key(name, args, 0);
+        Key field = key(name, args, 1);
+        long delta = parseLong(arg(name, args, 2));
+        Map<Key, byte[]> hash = hash(key);
+        if (hash.isEmpty()) {
+            hash = new LinkedHashMap<>();
+            data.put(key, hash);
+        }
+        byte[] current = hash.get(field);
+        long value = (current == null ? 0 : parseLong(current)) + delta;
+        hash.put(field, Long.toString(value).getBytes(StandardCharsets.UTF_8));
+        out.integer(value);
+    }
+
+    // ---------------------------------------------------------------- pub/sub
+
+    private void publish(String name, byte[][] args, Resp.Writer out) {
+        byte[] channel = arg(name, args, 0);
+        byte[] message = arg(name, args, 1);
+        int receivers = 0;
+        for (InProcessRedisServer.Connection subscriber : channels.getOrDefault(new Key(channel), Set.of())) {
+            Resp.Writer push = new Resp.Writer(subscriber.isResp3());
+            subscriber.send(push.push(3).bulk("message").bulk(channel).bulk(message));
+            receivers++;
+        }
+        for (Map.Entry<Key, Set<InProcessRedisServer.Connection>> pattern : patterns.entrySet()) {
+            if (matches(pattern.getKey().bytes(), channel)) {
+                for (InProcessRedisServer.Connection subscriber : pattern.getValue()) {
+                    Resp.Writer push = new Resp.Writer(subscriber.isResp3());
+                    subscriber.send(push.push(4).bulk("pmessage").bulk(pattern.getKey().bytes())
+                            .bulk(channel).bulk(message));
+                    receivers++;
+                }
+            }
+        }
+        out.integer(receivers);
+    }
+
+    private void subscribe(InProcessRedisServer.Connection connection, String name, byte[][] args,
+                           boolean pattern, Resp.Writer out) {
+        minimumArguments(name, args, 1);
+        Set<Key> subscribed = pattern ? connection.patterns() : connection.channels();
+        for (byte[] arg : args) {
+            Key key = new Key(arg);
+            if (subscribed.add(key)) {
+                (pattern ? patterns : channels).computeIfAbsent(key, k -> new LinkedHashSet<>()).add(connection);
+            }
+            out.push(3).bulk(pattern ? "psubscribe" : "subscribe").bulk(arg).integer(connection.subscriptions());
+        }
+    }
+
+    private void unsubscribeAll(InProcessRedisServer.Connection connection, byte[][] args, boolean pattern,
+                                Resp.Writer out) {
+        Set<Key> subscribed = pattern ? connection.patterns() : connection.channels();
+        String kind = pattern ? "punsubscribe" : "unsubscribe";
+        List<Key> keys = args.length == 0
+                ? new ArrayList<>(subscribed)
+                : Arrays.stream(args).map(Key::new).toList();
+        if (keys.isEmpty()) {
+            out.push(3).bulk(kind).nil().integer(connection.subscriptions());
+            return;
+        }
+        for (Key key : keys) {
+            if (subscribed.remove(key)) {
+                unsubscribe(pattern ? patterns : channels, key, connection);
+            }
+            out.push(3).bulk(kind).bulk(key.bytes()).integer(connection.subscriptions());
+        }
+    }
+
+    private static void unsubscribe(Map<Key, Set<InProcessRedisServer.Connection>> subscriptions, Key key,
+                                    InProcessRedisServer.Connection connection) {
+        Set<InProcessRedisServer.Connection> subscribers = subscriptions.get(key);
+        if (subscribers != null && subscribers.remove(connection) && subscribers.isEmpty()) {
+            subscriptions.remove(key);
+        }
+    }
+
+    // ---------------------------------------------------------------- storage
+
+    private Object lookup(Key key) {
+        if (isExpired(key, clock.getAsLong())) {
+            remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    private boolean isExpired(Key key, long now) {
+        Long expiresAt = expiries.get(key);
+        return expiresAt != null && expiresAt <= now;
+    }
+
+    private void store(Key key, byte[] value, Long expiresAt) {
+        data.put(key, value);
+        if (expiresAt == null) {
+            expiries.remove(key);
+        } else {
+            expiries.put(key, expiresAt);
+        }
+    }
+
+    private void remove(Key key) {
+        data.remove(key);
+        expiries.remove(key);
+    }
+
+    private byte[] string(Key key) {
+        Object value = lookup(key);
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        throw new CommandException(WRONG_TYPE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Key> set(Key key) {
+        Object value = lookup(key);
+        if (value == null) {
+            return new HashSet<>();
+        }
+        if (value instanceof Set<?> members) {
+            return (Set<Key>) members;
+        }
+        throw new CommandException(WRONG_TYPE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, byte[]> hash(Key key) {
+        Object value = lookup(key);
+        if (value == null) {
+            return new LinkedHashMap<>();
+        }
+        if (value instanceof Map<?, ?> fields) {
+            return (Map<Key, byte[]>) fields;
+        }
+        throw new CommandException(WRONG_TYPE);
+    }
+
+    private static String typeOf(Object value) {
+        return value instanceof byte[] ? "string" : value instanceof Set<?> ? "set" : "hash";
+    }
+
+    private long seconds(byte[] timeout) {
+        return expiresAt(parseLong(timeout) * 1000);
+    }
+
+    private long milliseconds(byte[] timeout) {
+        return expiresAt(parseLong(timeout));
+    }
+
+    private long expiresAt(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new CommandException("ERR invalid expire time in 'set' command");
+        }
+        return clock.getAsLong() + timeoutMillis;
+    }
+
+    // ---------------------------------------------------------------- arguments
+
+    private static Key key(String name, byte[][] args, int index) {
+        return new Key(arg(name, args, index));
+    }
+
+    private static byte[] arg(String name, byte[][] args, int index) {
+        if (index >= args.length) {
+            throw wrongArguments(name);
+        }
+        return args[index];
+    }
+
+    private static void minimumArguments(String name, byte[][] args, int minimum) {
+        if (args.length < minimum) {
+            throw wrongArguments(name);
+        }
+    }
+
+    private static CommandException wrongArguments(String name) {
+        return new CommandException("ERR wrong number of arguments for '" + name.toLowerCase(Locale.ROOT) + "' command");
+    }
+
+    private static long parseLong(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Glob-style matching as in Redis {@code KEYS}: {@code *}, {@code ?}, {@code [abc]},
+     * {@code [^a-z]} and {@code \} escapes.
+     */
+    static boolean matches(byte[] pattern, byte[] value) {
+        return matches(pattern, 0, value, 0);
+    }
+
+    private static boolean matches(byte[] pattern, int p, byte[] value, int v) {
+        while (p < pattern.length) {
+            switch (pattern[p]) {
+                case '*' -> {
+                    while (p + 1 < pattern.length && pattern[p + 1] == '*') {
+                        p++;
+                    }
+                    if (p + 1 == pattern.length) {
+                        return true;
+                    }
+                    for (int i = v; i <= value.length; i++) {
+                        if (matches(pattern, p + 1, value, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                case '?' -> {
+                    if (v >= value.length) {
+                        return false;
+                    }
+                    v++;
+                }
+                case '[' -> {
+                    if (v >= value.length) {
+                        return false;
+                    }
+                    p++;
+                    boolean negate = p < pattern.length && pattern[p] == '^';
+                    if (negate) {
+                        p++;
+                    }
+                    boolean match = false;
+                    int c = value[v] & 0xff;
+                    while (p < pattern.length && pattern[p] != ']') {
+                        if (pattern[p] == '\\' && p + 1 < pattern.length) {
+                            p++;
+                            match |= (pattern[p] & 0xff) == c;
+                        } else if (p + 2 < pattern.length && pattern[p + 1] == '-' && pattern[p + 2] != ']') {
+                            int low = Math.min(pattern[p] & 0xff, pattern[p + 2] & 0xff);
+                            int high = Math.max(pattern[p] & 0xff, pattern[p + 2] & 0xff);
+                            match |= c >= low && c <= high;
+                            p += 2;
+                        } else {
+                            match |= (pattern[p] & 0xff) == c;
+                        }
+                        p++;
+                    }
+                    if (match == negate) {
+                        return false;
+                    }
+                    v++;
+                }
+                default -> {
+                    if (pattern[p] == '\\' && p + 1 < pattern.length) {
+                        p++;
+                    }
+                    if (v >= value.length || pattern[p] != value[v]) {
+                        return false;
+                    }
+                    v++;
+                }
+            }
+            p++;
+        }
+        return v == value.length;
+    }
+
+    /**
+     * A binary-safe key, field, member or channel name, ordered bytewise for SCAN.
+     */
+    record Key(byte[] bytes) implements Comparable<Key> {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(bytes, key.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return Arrays.compareUnsigned(bytes, other.bytes);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A command failure reported to the client as an error reply.
+     */
+    private static final class CommandException extends RuntimeException {
+
+        private CommandException(String message) {
+            super(message);
+        }
+    }
+}
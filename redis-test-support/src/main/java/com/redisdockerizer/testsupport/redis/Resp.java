@@ -0,0 +1,222 @@
+package com.redisdockerizer.testsupport.redis;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * RESP request parsing and reply encoding.
+ * <p>
+ * Requests are either multi-bulk arrays ({@code *2\r\n$3\r\nGET\r\n$1\r\nk\r\n}) or inline
+ * commands ({@code PING\r\n}). Replies are encoded as RESP2 or RESP3 depending on the protocol
+ * the connection negotiated with {@code HELLO}; RESP3-only types degrade to arrays in RESP2.
+ */
+final class Resp {
+
+    private Resp() {
+    }
+
+    /**
+     * Parses the next command from a buffer in read mode.
+     *
+     * @param buffer received bytes
+     * @return the command and its arguments, empty for a blank inline line, or {@code null} if the
+     * buffer does not hold a complete command yet (the position is then left unchanged)
+     * @throws ProtocolException if the bytes are not a valid request
+     */
+    static List<byte[]> parseCommand(ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            List<byte[]> command = tryParse(buffer);
+            if (command == null) {
+                buffer.position(start);
+            }
+            return command;
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("invalid length: " + e.getMessage());
+        }
+    }
+
+    private static List<byte[]> tryParse(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        if (buffer.get(buffer.position()) != '*') {
+            String line = readLine(buffer);
+            if (line == null) {
+                return null;
+            }
+            List<byte[]> arguments = new ArrayList<>();
+            for (String argument : line.trim().split("\\s+")) {
+                if (!argument.isEmpty()) {
+                    arguments.add(argument.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return arguments;
+        }
+
+        buffer.get();
+        String count = readLine(buffer);
+        if (count == null) {
+            return null;
+        }
+        int arguments = Integer.parseInt(count);
+        List<byte[]> command = new ArrayList<>(Math.max(arguments, 0));
+        for (int i = 0; i < arguments; i++) {
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+            byte type = buffer.get();
+            if (type != '$') {
+                throw new ProtocolException("expected '$', got '" + (char) type + "'");
+            }
+            String length = readLine(buffer);
+            if (length == null) {
+                return null;
+            }
+            int size = Integer.parseInt(length);
+            if (buffer.remaining() < size + 2) {
+                return null;
+            }
+            byte[] argument = new byte[size];
+            buffer.get(argument);
+            buffer.position(buffer.position() + 2);
+            command.add(argument);
+        }
+        return command;
+    }
+
+    private static String readLine(ByteBuffer buffer) {
+        for (int i = buffer.position(); i < buffer.limit() - 1; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                byte[] line = new byte[i - buffer.position()];
+                buffer.get(line);
+                buffer.position(buffer.position() + 2);
+                return new String(line, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Thrown when a client sends bytes that are not a RESP request.
+     */
+    static final class ProtocolException extends RuntimeException {
+
+        ProtocolException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Accumulates encoded replies for one connection.
+     */
+    static final class Writer {
+
+        private boolean resp3;
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        Writer(boolean resp3) {
+            this.resp3 = resp3;
+        }
+
+        /**
+         * Switches the encoding of subsequent replies, e.g. after {@code HELLO 3}.
+         */
+        void resp3(boolean resp3) {
+            this.resp3 = resp3;
+        }
+
+        Writer simple(String value) {
+            return put('+').ascii(value).crlf();
+        }
+
+        Writer error(String message) {
+            return put('-').ascii(message.replace('\r', ' ').replace('\n', ' ')).crlf();
+        }
+
+        Writer integer(long value) {
+            return put(':').ascii(Long.toString(value)).crlf();
+        }
+
+        Writer bulk(String value) {
+            return bulk(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Writer bulk(byte[] value) {
+            if (value == null) {
+                return nil();
+            }
+            return put('$').ascii(Integer.toString(value.length)).crlf().put(value).crlf();
+        }
+
+        Writer bulks(Collection<byte[]> values) {
+            array(values.size());
+            values.forEach(this::bulk);
+            return this;
+        }
+
+        Writer nil() {
+            return resp3 ? put('_').crlf() : ascii("$-1").crlf();
+        }
+
+        Writer array(int size) {
+            return header('*', size);
+        }
+
+        Writer map(int entries) {
+            return resp3 ? header('%', entries) : header('*', entries * 2);
+        }
+
+        Writer set(int size) {
+            return header(resp3 ? '~' : '*', size);
+        }
+
+        Writer push(int size) {
+            return header(resp3 ? '>' : '*', size);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private Writer header(char type, int size) {
+            return put(type).ascii(Integer.toString(size)).crlf();
+        }
+
+        private Writer crlf() {
+            return put('\r').put('\n');
+        }
+
+        private Writer ascii(String value) {
+            return put(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private Writer put(char value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+            return this;
+        }
+
+        private Writer put(byte[] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+            return this;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+}